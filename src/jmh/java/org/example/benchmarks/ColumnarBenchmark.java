@@ -0,0 +1,93 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.rules.ColumnarBatch;
+import org.example.rules.CompiledRule;
+import org.example.rules.RuleCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same rule over the same rows, record at a time over {@code Map}s vs. column at a time over a
+ * {@link ColumnarBatch}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColumnarBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    private CompiledRule rule;
+    private List<Map<String, Object>> records;
+    private ColumnarBatch batch;
+
+    @Setup
+    public void setUp() throws Exception {
+        rule = new RuleCompiler().compile(new ObjectMapper().readTree(("{'all': ["
+                + "{'field': 'age', 'op': 'gte', 'value': 21},"
+                + "{'field': 'total', 'op': 'between', 'value': [10, 500]},"
+                + "{'any': [{'field': 'country', 'op': 'in', 'value': ['US', 'CA']}, {'field': 'vip', 'op': 'eq', 'value': true}]}]}")
+                .replace('\'', '"')));
+        Random random = new Random(1);
+        String[] countryPool = {"US", "CA", "FR", "DE", "BR", "JP"};
+        long[] ages = new long[rows];
+        double[] totals = new double[rows];
+        String[] countries = new String[rows];
+        BitSet vips = new BitSet(rows);
+        records = new ArrayList<>(rows);
+        for (int r = 0; r < rows; r++) {
+            ages[r] = random.nextInt(90);
+            totals[r] = random.nextInt(100_000) / 100.0;
+            countries[r] = countryPool[random.nextInt(countryPool.length)];
+            vips.set(r, random.nextInt(10) == 0);
+            Map<String, Object> record = new HashMap<>();
+            record.put("age", ages[r]);
+            record.put("total", totals[r]);
+            record.put("country", countries[r]);
+            record.put("vip", vips.get(r));
+            records.add(record);
+        }
+        batch = ColumnarBatch.builder(rows)
+                .longColumn("age", ages)
+                .doubleColumn("total", totals)
+                .stringColumn("country", countries)
+                .booleanColumn("vip", vips, null, null)
+                .build();
+    }
+
+    @Benchmark
+    public boolean[] recordAtATime() {
+        boolean[] results = new boolean[records.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = rule.evaluate(records.get(i));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public BitSet columnar() {
+        return rule.evaluate(batch);
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.api.dto.EvaluateRequest;
+import org.example.rules.CompiledRule;
+import org.example.rules.RuleEngineService;
+import org.example.rules.StreamingEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request bytes to result, without HTTP: the ad-hoc {@code /evaluate} path (bind the DTO, compile, evaluate) and
+ * the registered-rule path (stream the body against an already compiled rule).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EndToEndBenchmark {
+
+    private static final String RULE = "{'all': [{'field': 'age', 'op': 'gte', 'value': 21},"
+            + " {'field': 'country', 'op': 'in', 'value': ['US', 'CA']}]}";
+    private static final String DATA = "{'age': 33, 'country': 'US', 'name': 'Jane', 'tags': ['a', 'b']}";
+
+    private ObjectMapper mapper;
+    private RuleEngineService service;
+    private StreamingEvaluator streaming;
+    private CompiledRule registered;
+    private byte[] adHocBody;
+    private byte[] registeredBody;
+
+    @Setup
+    public void setUp() throws Exception {
+        mapper = new ObjectMapper();
+        service = new RuleEngineService();
+        streaming = new StreamingEvaluator(mapper);
+        registered = service.compile(mapper.readTree(RULE.replace('\'', '"')));
+        adHocBody = ("{'data': " + DATA + ", 'rule': " + RULE + "}").replace('\'', '"').getBytes(StandardCharsets.UTF_8);
+        registeredBody = ("{'data': " + DATA + "}").replace('\'', '"').getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public boolean adHocRule() throws Exception {
+        EvaluateRequest request = mapper.readValue(adHocBody, EvaluateRequest.class);
+        return service.evaluate(request.getData(), request.getRule());
+    }
+
+    @Benchmark
+    public boolean registeredRule() throws Exception {
+        return streaming.evaluateRequest(registered, new ByteArrayInputStream(registeredBody));
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.benchmarks;
+
+import org.example.RuleEngineApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load test against an in-process server: {@code connections} clients each keep one request in
+ * flight against a registered rule for {@code duration} seconds, then throughput and latency percentiles are printed.
+ * Run with
+ * <pre>
+ * mvn -P benchmarks test-compile exec:exec@load-test -Dload.args="connections=1000,10000 endpoint=async threads=virtual"
+ * </pre>
+ * Options (defaults in brackets): {@code connections} [1000], comma-separated to run several levels;
+ * {@code endpoint} sync | async [sync]; {@code threads} platform | virtual [platform], virtual needs Java 21;
+ * {@code duration} [10] and {@code warmup} [3] seconds; {@code bodyKb} [64].
+ * Thousands of connections need a matching open-file limit ({@code ulimit -n}).
+ */
+public final class LoadTest {
+
+    private static final String RULE = "{\"all\": [{\"field\": \"customer.age\", \"op\": \"gte\", \"value\": 21},"
+            + " {\"field\": \"order.total\", \"op\": \"gt\", \"value\": 100}]}";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of("connections", "1000", "endpoint", "sync",
+                "threads", "platform", "duration", "10", "warmup", "3", "bodyKb", "64"));
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0 || !options.containsKey(arg.substring(0, eq))) {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        boolean virtual = options.get("threads").equals("virtual");
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("threads=virtual needs Java 21, running " + Runtime.version());
+        }
+        String path = switch (options.get("endpoint")) {
+            case "sync" -> "/evaluate";
+            case "async" -> "/evaluate/async";
+            default -> throw new IllegalArgumentException("endpoint must be sync or async");
+        };
+
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(RuleEngineApplication.class)
+                .properties("server.port=0", "spring.threads.virtual.enabled=" + virtual,
+                        "server.tomcat.max-connections=20000", "server.tomcat.accept-count=10000",
+                        "logging.level.root=WARN")
+                .run()) {
+            String base = "http://localhost:" + app.getEnvironment().getProperty("local.server.port")
+                    + "/api/v1/rule-engine/rules/load-test";
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+            client.send(HttpRequest.newBuilder(URI.create(base)).header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(RULE)).build(), HttpResponse.BodyHandlers.discarding());
+            byte[] body = Payloads.largeRequest(Integer.parseInt(options.get("bodyKb")) * 1024).getBytes();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body)).build();
+
+            System.out.printf("endpoint=%s threads=%s body=%d B, java %s%n",
+                    options.get("endpoint"), options.get("threads"), body.length, Runtime.version());
+            for (String level : options.get("connections").split(",")) {
+                int connections = Integer.parseInt(level.trim());
+                run(client, request, connections, Integer.parseInt(options.get("warmup")));
+                Result result = run(client, request, connections, Integer.parseInt(options.get("duration")));
+                System.out.println(result.report(connections));
+            }
+        }
+    }
+
+    private static Result run(HttpClient client, HttpRequest request, int connections, int seconds)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(connections);
+        AtomicLong errors = new AtomicLong();
+        List<Client> clients = new ArrayList<>(connections);
+        long start = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            Client c = new Client(client, request, deadline, done, errors);
+            clients.add(c);
+            c.next();
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        return new Result(clients, errors.get(), elapsed);
+    }
+
+    /** One virtual user: sends the next request when the previous one completes, until the deadline. */
+    private static final class Client {
+        private final HttpClient client;
+        private final HttpRequest request;
+        private final long deadline;
+        private final CountDownLatch done;
+        private final AtomicLong errors;
+        private long[] latencies = new long[256];
+        private int count;
+
+        Client(HttpClient client, HttpRequest request, long deadline, CountDownLatch done, AtomicLong errors) {
+            this.client = client;
+            this.request = request;
+            this.deadline = deadline;
+            this.done = done;
+            this.errors = errors;
+        }
+
+        void next() {
+            long sent = System.nanoTime();
+            if (sent >= deadline) {
+                done.countDown();
+                return;
+            }
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                if (error != null || response.statusCode() != 200) {
+                    errors.incrementAndGet();
+                } else {
+                    if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+                    latencies[count++] = System.nanoTime() - sent;
+                }
+                next();
+            });
+        }
+    }
+
+    private record Result(List<Client> clients, long errors, long elapsedNanos) {
+        String report(int connections) {
+            int total = 0;
+            for (Client c : clients) total += c.count;
+            long[] all = new long[total];
+            int at = 0;
+            for (Client c : clients) {
+                System.arraycopy(c.latencies, 0, all, at, c.count);
+                at += c.count;
+            }
+            Arrays.sort(all);
+            return String.format("connections=%d requests=%d errors=%d throughput=%.0f req/s p50=%.2f ms p99=%.2f ms p99.9=%.2f ms max=%.2f ms",
+                    connections, total, errors, total / (elapsedNanos / 1e9),
+                    percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999), total == 0 ? 0 : all[total - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+        }
+    }
+}
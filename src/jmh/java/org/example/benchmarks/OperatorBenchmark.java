@@ -0,0 +1,65 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.rules.CompiledRule;
+import org.example.rules.RuleCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One condition per operator class against a small record. With the GC profiler, {@code gc.alloc.rate.norm}
+ * should only show the 24 B/op of the per-call {@code EvaluationContext} for comparisons, {@code in} and dates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OperatorBenchmark {
+
+    @Param({"eq-string", "eq-int", "gte-double", "exists", "in-small", "in-large", "contains", "regex", "between-dates"})
+    public String operator;
+
+    private CompiledRule rule;
+    private Map<String, Object> data;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        String json = switch (operator) {
+            case "eq-string" -> "{'field': 'country', 'op': 'eq', 'value': 'US'}";
+            case "eq-int" -> "{'field': 'age', 'op': 'eq', 'value': 33}";
+            case "gte-double" -> "{'field': 'score', 'op': 'gte', 'value': 0.75}";
+            case "exists" -> "{'field': 'customer.address.city', 'op': 'exists'}";
+            case "in-small" -> "{'field': 'country', 'op': 'in', 'value': ['CA', 'MX', 'GB', 'FR', 'US']}";
+            case "in-large" -> "{'field': 'merchantId', 'op': 'in', 'value': " + Payloads.longList(100_000, 7) + "}";
+            case "contains" -> "{'field': 'tags', 'op': 'contains', 'value': 'vip'}";
+            case "regex" -> "{'field': 'email', 'op': 'regex', 'value': '^[^@]+@example\\\\.com$'}";
+            case "between-dates" -> "{'field': 'createdAt', 'op': 'between', 'value': ['2024-01-01T00:00:00Z', '2024-12-31T23:59:59Z']}";
+            default -> throw new IllegalArgumentException(operator);
+        };
+        rule = new RuleCompiler().compile(mapper.readTree(json.replace('\'', '"')));
+        data = mapper.readValue(("{'country': 'US', 'age': 33, 'score': 0.8, 'merchantId': 699993,"
+                + " 'customer': {'address': {'city': 'Paris'}}, 'tags': ['new', 'gold', 'vip'],"
+                + " 'email': 'jane.doe@example.com', 'createdAt': '2024-06-15T08:30:00Z'}").replace('\'', '"'), Map.class);
+    }
+
+    @Benchmark
+    public boolean evaluate() {
+        return rule.evaluate(data);
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.rules.CompiledRule;
+import org.example.rules.RuleCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Path resolution cost by nesting depth ({@code depth = 1} is a flat top-level field).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PathBenchmark {
+
+    @Param({"1", "4", "8"})
+    public int depth;
+
+    private CompiledRule rule;
+    private Map<String, Object> data;
+
+    @Setup
+    public void setUp() throws Exception {
+        StringBuilder path = new StringBuilder();
+        Map<String, Object> leaf = new HashMap<>();
+        leaf.put("value", 42);
+        leaf.put("other", "x");
+        Map<String, Object> current = leaf;
+        for (int i = depth - 1; i >= 1; i--) {
+            Map<String, Object> parent = new HashMap<>();
+            parent.put("level" + i, current);
+            parent.put("sibling" + i, "x");
+            current = parent;
+        }
+        for (int i = 1; i < depth; i++) {
+            path.append("level").append(i).append('.');
+        }
+        path.append("value");
+        data = current;
+        rule = new RuleCompiler().compile(new ObjectMapper().createObjectNode()
+                .put("field", path.toString()).put("op", "eq").put("value", 42));
+    }
+
+    @Benchmark
+    public boolean evaluate() {
+        return rule.evaluate(data);
+    }
+}
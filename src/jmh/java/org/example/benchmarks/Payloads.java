@@ -0,0 +1,41 @@
+package org.example.benchmarks;
+
+/**
+ * Synthetic request bodies shared by the benchmarks.
+ */
+final class Payloads {
+
+    private Payloads() {}
+
+    /**
+     * A {@code {"data": {...}}} body of roughly {@code targetBytes}: a small customer/order header the rules look at,
+     * followed by a large activity history they never reference.
+     */
+    static String largeRequest(int targetBytes) {
+        StringBuilder sb = new StringBuilder(targetBytes + 1024);
+        sb.append("{\"data\": {\"customer\": {\"id\": \"C-1\", \"age\": 34, \"country\": \"US\", \"tier\": \"gold\"},")
+                .append("\"order\": {\"total\": 250.5, \"currency\": \"USD\", \"lines\": [")
+                .append("{\"sku\": \"A-1\", \"qty\": 2}, {\"sku\": \"B-2\", \"qty\": 1}]},")
+                .append("\"history\": [");
+        int i = 0;
+        while (sb.length() < targetBytes) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"event\": \"view\", \"ts\": \"2024-06-15T08:30:").append(String.format("%02d", i % 60))
+                    .append("Z\", \"page\": \"/product/").append(i).append("\", \"durationMs\": ").append(i * 7 % 5000)
+                    .append(", \"tags\": [\"a\", \"b\", \"c\"], \"meta\": {\"ref\": null, \"score\": ").append(i % 100 / 10.0)
+                    .append("}}");
+            i++;
+        }
+        return sb.append("]}}").toString();
+    }
+
+    /** A JSON array of {@code count} longs: 0, step, 2 * step, ... */
+    static String longList(int count, long step) {
+        StringBuilder sb = new StringBuilder(count * 8).append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(i * step);
+        }
+        return sb.append(']').toString();
+    }
+}
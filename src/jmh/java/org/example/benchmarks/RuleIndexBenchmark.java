@@ -0,0 +1,104 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.rules.CompiledRule;
+import org.example.rules.RuleCompiler;
+import org.example.rules.RuleIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Which of many rules match this record": every rule evaluated vs. only the {@link RuleIndex} candidates. Most
+ * rules are guarded by an event type, a country list or a score band; one in a hundred has no guard.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RuleIndexBenchmark {
+
+    private static final String[] COUNTRIES = {"US", "CA", "FR", "DE", "BR", "JP", "IN", "MX"};
+
+    @Param({"1000", "10000"})
+    public int rules;
+
+    private Map<String, CompiledRule> compiled;
+    private RuleIndex index;
+    private List<Map<String, Object>> records;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        RuleCompiler compiler = new RuleCompiler();
+        Random random = new Random(3);
+        compiled = new LinkedHashMap<>();
+        index = new RuleIndex();
+        for (int i = 0; i < rules; i++) {
+            String amount = "{'field': 'amount', 'op': 'gt', 'value': " + random.nextInt(1000) + "}";
+            String guard = switch (i % 100 == 0 ? 3 : i % 3) {
+                case 0 -> "{'field': 'eventType', 'op': 'eq', 'value': 'type" + random.nextInt(rules / 10) + "'}";
+                case 1 -> "{'field': 'country', 'op': 'in', 'value': ['" + COUNTRIES[random.nextInt(COUNTRIES.length)]
+                        + "', '" + COUNTRIES[random.nextInt(COUNTRIES.length)] + "']}";
+                case 2 -> "{'field': 'score', 'op': 'between', 'value': [" + (i % 1000) + ", " + (i % 1000 + 5) + "]}";
+                default -> "{'field': 'channel', 'op': 'ne', 'value': 'web'}";
+            };
+            CompiledRule rule = compiler.compile(mapper.readTree(("{'all': [" + guard + ", " + amount + "]}").replace('\'', '"')));
+            compiled.put("r" + i, rule);
+            index.add("r" + i, rule);
+        }
+        records = new ArrayList<>();
+        for (int r = 0; r < 1024; r++) {
+            Map<String, Object> record = new HashMap<>();
+            record.put("eventType", "type" + random.nextInt(rules / 10));
+            record.put("country", COUNTRIES[random.nextInt(COUNTRIES.length)]);
+            record.put("score", random.nextInt(1000));
+            record.put("amount", random.nextInt(1000));
+            record.put("channel", random.nextBoolean() ? "web" : "app");
+            records.add(record);
+        }
+    }
+
+    private Map<String, Object> nextRecord() {
+        return records.get(next++ & (records.size() - 1));
+    }
+
+    @Benchmark
+    public int evaluateAll() {
+        Map<String, Object> record = nextRecord();
+        int matches = 0;
+        for (CompiledRule rule : compiled.values()) {
+            if (rule.evaluate(record)) matches++;
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int indexCandidates() {
+        Map<String, Object> record = nextRecord();
+        int matches = 0;
+        for (String id : index.candidates(record)) {
+            if (compiled.get(id).evaluate(record)) matches++;
+        }
+        return matches;
+    }
+}
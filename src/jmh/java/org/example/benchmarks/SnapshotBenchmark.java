@@ -0,0 +1,96 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.rules.CompiledRule;
+import org.example.rules.RuleEngineService;
+import org.example.rules.RuleSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading every rule of a node at startup: parsing and compiling the JSON sources vs. opening a {@link RuleSnapshot}
+ * and decoding the compiled trees. Rules carry a 200-value {@code in} list, a regex and a few comparisons.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+
+    @Param({"1000", "10000"})
+    public int rules;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final RuleEngineService service = new RuleEngineService();
+    private Map<String, byte[]> sources;
+    private Path file;
+
+    @Setup
+    public void setUp() throws Exception {
+        Random random = new Random(25);
+        sources = new LinkedHashMap<>();
+        List<RuleSnapshot.Rule> compiled = new ArrayList<>();
+        for (int i = 0; i < rules; i++) {
+            StringBuilder skus = new StringBuilder();
+            for (int s = 0; s < 200; s++) {
+                if (s > 0) skus.append(", ");
+                skus.append("'sku-").append(random.nextInt(100_000)).append("'");
+            }
+            String json = ("{'all': [{'field': 'sku', 'op': 'in', 'value': [" + skus + "]},"
+                    + " {'field': 'amount', 'op': 'between', 'value': [" + i + ", " + (i + 100) + ".5]},"
+                    + " {'any': [{'field': 'email', 'op': 'regex', 'value': '^[a-z]+@example" + i % 50 + "\\\\.com$'},"
+                    + "          {'not': {'field': 'customer.tier', 'op': 'eq', 'value': 'gold'}}]}]}").replace('\'', '"');
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            sources.put("r" + i, bytes);
+            compiled.add(new RuleSnapshot.Rule("r" + i, 1, false, service.compile(mapper.readTree(bytes))));
+        }
+        file = Files.createTempFile("rules", ".snapshot");
+        RuleSnapshot.write(file, compiled);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Map<String, CompiledRule> compileSources() throws Exception {
+        Map<String, CompiledRule> loaded = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> e : sources.entrySet()) {
+            loaded.put(e.getKey(), service.compile(mapper.readTree(e.getValue())));
+        }
+        return loaded;
+    }
+
+    @Benchmark
+    public Map<String, CompiledRule> decodeSnapshot() throws Exception {
+        RuleSnapshot snapshot = RuleSnapshot.open(file);
+        Map<String, CompiledRule> loaded = new LinkedHashMap<>();
+        for (RuleSnapshot.Entry entry : snapshot.entries()) {
+            loaded.put(entry.id(), service.decode(snapshot, entry.id()));
+        }
+        return loaded;
+    }
+}
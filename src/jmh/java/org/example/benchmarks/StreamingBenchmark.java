@@ -0,0 +1,63 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.rules.CompiledRule;
+import org.example.rules.RuleCompiler;
+import org.example.rules.StreamingEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluating a registered rule against a ~200 KB request body: binding {@code data} to a {@code Map} first versus
+ * streaming only the referenced fields out of the bytes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StreamingBenchmark {
+
+    private ObjectMapper mapper;
+    private CompiledRule rule;
+    private StreamingEvaluator streaming;
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws Exception {
+        mapper = new ObjectMapper();
+        rule = new RuleCompiler().compile(mapper.readTree(("{'all': ["
+                + "{'field': 'customer.age', 'op': 'gte', 'value': 21},"
+                + "{'field': 'customer.country', 'op': 'in', 'value': ['US', 'CA']},"
+                + "{'field': 'order.total', 'op': 'gt', 'value': 100},"
+                + "{'field': 'order.lines.0.sku', 'op': 'exists'}]}").replace('\'', '"')));
+        streaming = new StreamingEvaluator(mapper);
+        body = Payloads.largeRequest(200 * 1024).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public boolean bindMapThenEvaluate() throws Exception {
+        Map<String, Object> request = mapper.readValue(body, Map.class);
+        return rule.evaluate((Map<String, Object>) request.get("data"));
+    }
+
+    @Benchmark
+    public boolean streamingEvaluate() throws Exception {
+        return streaming.evaluateRequest(rule, new ByteArrayInputStream(body));
+    }
+}
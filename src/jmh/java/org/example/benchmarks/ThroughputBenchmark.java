@@ -0,0 +1,58 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.rules.CompiledRule;
+import org.example.rules.RuleCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One shared compiled rule evaluated from a single thread and from all cores, to check that evaluation scales
+ * without contention.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThroughputBenchmark {
+
+    private CompiledRule rule;
+    private Map<String, Object> data;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        rule = new RuleCompiler().compile(mapper.readTree(("{'all': ["
+                + "{'field': 'user.age', 'op': 'gte', 'value': 21},"
+                + "{'any': [{'field': 'country', 'op': 'in', 'value': ['US', 'CA']}, {'field': 'vip', 'op': 'eq', 'value': true}]},"
+                + "{'not': {'field': 'email', 'op': 'regex', 'value': '@blocked\\\\.example$'}}]}").replace('\'', '"')));
+        data = mapper.readValue("{\"user\": {\"age\": 33}, \"country\": \"US\", \"email\": \"a@b.com\"}", Map.class);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean singleThread() {
+        return rule.evaluate(data);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean allThreads() {
+        return rule.evaluate(data);
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.config.RuleEngineProperties;
+import org.example.rules.CompiledRule;
+import org.example.rules.RuleCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wide {@code all}/{@code any} groups evaluated to the end: every child of the {@code all} passes and every child
+ * of the {@code any} fails, so nothing short-circuits. {@code backend} compares walking the node tree with the
+ * generated bytecode of {@code rule-engine.bytecode} and with the explicit-stack walk used for deep or budgeted
+ * rules ({@code rule-engine.limits}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TreeBenchmark {
+
+    @Param({"all", "any"})
+    public String group;
+
+    @Param({"4", "32", "256"})
+    public int width;
+
+    @Param({"tree", "bytecode", "stack"})
+    public String backend;
+
+    private CompiledRule rule;
+    private Map<String, Object> data;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        data = new HashMap<>();
+        ArrayNode children = mapper.createArrayNode();
+        for (int i = 0; i < width; i++) {
+            data.put("f" + i, i);
+            children.add(mapper.createObjectNode().put("field", "f" + i).put("op", "eq")
+                    .put("value", group.equals("all") ? i : -i - 1));
+        }
+        ObjectNode root = mapper.createObjectNode();
+        root.set(group, children);
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.getBytecode().setEnabled(backend.equals("bytecode"));
+        properties.getBytecode().setThreshold(1);
+        if (backend.equals("stack")) {
+            properties.getLimits().setStackDepth(0);
+        }
+        rule = new RuleCompiler(properties).compile(root);
+        rule.evaluate(data);
+        if (rule.isGenerated() != backend.equals("bytecode")) {
+            throw new IllegalStateException("Rule was not promoted");
+        }
+    }
+
+    @Benchmark
+    public boolean evaluate() {
+        return rule.evaluate(data);
+    }
+}
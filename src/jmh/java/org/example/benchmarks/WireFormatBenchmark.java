@@ -0,0 +1,85 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.api.dto.EvaluateRequest;
+import org.example.client.WireFormat;
+import org.example.rules.CompiledRule;
+import org.example.rules.RuleEngineService;
+import org.example.rules.StreamingEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same requests encoded as JSON, CBOR and Smile: binding an ad-hoc {@code /evaluate} body into the DTO, and
+ * streaming a registered-rule body. Setup prints the encoded body sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    private static final String RULE = "{'all': [{'field': 'customer.age', 'op': 'gte', 'value': 21},"
+            + " {'field': 'customer.country', 'op': 'in', 'value': ['US', 'CA']}, {'field': 'order.total', 'op': 'gt', 'value': 100}]}";
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    /** Target JSON size of the registered-rule body; the ad-hoc body is always small. */
+    @Param({"1024", "65536"})
+    public int size;
+
+    private ObjectMapper mapper;
+    private String contentType;
+    private RuleEngineService service;
+    private StreamingEvaluator streaming;
+    private CompiledRule registered;
+    private byte[] adHocBody;
+    private byte[] registeredBody;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper json = new ObjectMapper();
+        WireFormat wire = WireFormat.valueOf(format.toUpperCase());
+        mapper = wire.newMapper();
+        contentType = wire.getMediaType();
+        service = new RuleEngineService();
+        streaming = new StreamingEvaluator(json);
+        JsonNode rule = json.readTree(RULE.replace('\'', '"'));
+        registered = service.compile(rule);
+
+        ObjectNode adHoc = json.createObjectNode();
+        adHoc.set("data", json.readTree("{\"customer\": {\"age\": 33, \"country\": \"US\"}, \"order\": {\"total\": 250.5}}"));
+        adHoc.set("rule", rule);
+        adHocBody = mapper.writeValueAsBytes(adHoc);
+        registeredBody = mapper.writeValueAsBytes(json.readTree(Payloads.largeRequest(size)));
+        System.out.printf("%n%s: ad-hoc body %d bytes, registered-rule body %d bytes%n", format, adHocBody.length, registeredBody.length);
+    }
+
+    @Benchmark
+    public boolean adHocRule() throws Exception {
+        EvaluateRequest request = mapper.readValue(adHocBody, EvaluateRequest.class);
+        return service.evaluate(request.getData(), request.getRule());
+    }
+
+    @Benchmark
+    public boolean registeredRule() throws Exception {
+        return streaming.evaluateRequest(registered, new ByteArrayInputStream(registeredBody), contentType);
+    }
+}
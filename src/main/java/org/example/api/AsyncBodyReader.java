@@ -0,0 +1,107 @@
+package org.example.api;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads a request body with servlet non-blocking I/O and completes a {@link DeferredResult} from it, so no
+ * container thread is parked on a slow upload. The read listener can only be installed once async processing has
+ * started, which Spring does after the handler returns the {@code DeferredResult}; the reader therefore hooks in as
+ * a {@link DeferredResultProcessingInterceptor}.
+ * <p>
+ * The buffer starts small and grows as bytes arrive, whatever {@code Content-Length} claims. A body declared or
+ * found to be larger than {@code maxBodySize} is rejected with a {@link PayloadTooLargeException}.
+ */
+final class AsyncBodyReader<T> implements ReadListener, DeferredResultProcessingInterceptor {
+
+    interface BodyHandler<T> {
+        T handle(byte[] body, int length) throws Exception;
+    }
+
+    private static final int INITIAL_SIZE = 8192;
+    // Leaves room for the array header, as the JDK's own growable buffers do
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final HttpServletRequest request;
+    private final DeferredResult<T> result;
+    private final BodyHandler<T> handler;
+    private final int maxBodySize;
+    private ServletInputStream input;
+    private byte[] buffer;
+    private int length;
+    private boolean rejected;
+
+    private AsyncBodyReader(HttpServletRequest request, int maxBodySize, DeferredResult<T> result,
+                            BodyHandler<T> handler) {
+        this.request = request;
+        this.result = result;
+        this.handler = handler;
+        this.maxBodySize = maxBodySize;
+        long contentLength = request.getContentLengthLong();
+        this.buffer = new byte[contentLength > 0 && contentLength < INITIAL_SIZE ? (int) contentLength : INITIAL_SIZE];
+    }
+
+    /**
+     * Call from the handler method that returns {@code result}. Throws {@link PayloadTooLargeException} right away
+     * when the declared length is over {@code maxBodySize}.
+     */
+    static <T> void read(HttpServletRequest request, int maxBodySize, DeferredResult<T> result,
+                         BodyHandler<T> handler) {
+        int max = Math.min(maxBodySize, MAX_ARRAY_SIZE - 1);
+        if (request.getContentLengthLong() > max) {
+            throw tooLarge(max);
+        }
+        WebAsyncUtils.getAsyncManager(request).registerDeferredResultInterceptor(
+                AsyncBodyReader.class.getName(), new AsyncBodyReader<>(request, max, result, handler));
+    }
+
+    private static PayloadTooLargeException tooLarge(int max) {
+        return new PayloadTooLargeException("Request body is larger than " + max + " bytes");
+    }
+
+    @Override
+    public <S> void preProcess(NativeWebRequest webRequest, DeferredResult<S> deferredResult) throws IOException {
+        input = request.getInputStream();
+        input.setReadListener(this);
+    }
+
+    @Override
+    public void onDataAvailable() throws IOException {
+        int n;
+        while (!rejected && input.isReady() && (n = input.read(buffer, length, buffer.length - length)) != -1) {
+            length += n;
+            if (length > maxBodySize) {
+                // Stop buffering; the rest of the body is discarded with the request
+                rejected = true;
+                buffer = null;
+                result.setErrorResult(tooLarge(maxBodySize));
+            } else if (length == buffer.length) {
+                // Up to one byte past the limit, so an oversized body is detected rather than read forever
+                buffer = Arrays.copyOf(buffer, (int) Math.min(buffer.length * 2L, maxBodySize + 1L));
+            }
+        }
+    }
+
+    @Override
+    public void onAllDataRead() {
+        if (rejected) return;
+        try {
+            result.setResult(handler.handle(buffer, length));
+        } catch (Exception e) {
+            result.setErrorResult(e);
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        result.setErrorResult(t);
+    }
+}
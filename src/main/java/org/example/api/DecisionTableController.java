@@ -0,0 +1,71 @@
+package org.example.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.Valid;
+import org.example.api.dto.DecisionEvaluateRequest;
+import org.example.api.dto.DecisionTableResponse;
+import org.example.api.dto.RuleMatchRequest;
+import org.example.rules.DecisionResult;
+import org.example.rules.RuleEngineService;
+import org.example.rules.StreamingEvaluator;
+import org.example.rules.registry.DecisionTableRegistry;
+import org.example.rules.registry.RuleNotFoundException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(path = "/api/v1/rule-engine",
+        produces = {MediaType.APPLICATION_JSON_VALUE, StreamingEvaluator.CBOR, StreamingEvaluator.SMILE})
+public class DecisionTableController {
+
+    private final RuleEngineService ruleEngineService;
+    private final DecisionTableRegistry decisionTables;
+
+    public DecisionTableController(RuleEngineService ruleEngineService, DecisionTableRegistry decisionTables) {
+        this.ruleEngineService = ruleEngineService;
+        this.decisionTables = decisionTables;
+    }
+
+    /**
+     * Evaluates an ad-hoc decision table ({@code {"table": {...}, "data": {...}}}); the table is compiled per request.
+     */
+    @PostMapping(path = "/evaluate/decision",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, StreamingEvaluator.CBOR, StreamingEvaluator.SMILE})
+    public DecisionResult evaluate(@Valid @RequestBody DecisionEvaluateRequest request) {
+        return ruleEngineService.compileDecisionTable(request.getTable()).evaluate(request.getData());
+    }
+
+    @PutMapping(path = "/decision-tables/{id}",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, StreamingEvaluator.CBOR, StreamingEvaluator.SMILE})
+    public DecisionTableResponse register(@PathVariable String id, @RequestBody JsonNode table) {
+        return new DecisionTableResponse(id, decisionTables.register(id, table), table);
+    }
+
+    @GetMapping(path = "/decision-tables/{id}")
+    public DecisionTableResponse get(@PathVariable String id) {
+        DecisionTableRegistry.Registered registered = decisionTables.describe(id);
+        return new DecisionTableResponse(id, registered.version(), registered.table().getSource());
+    }
+
+    @DeleteMapping(path = "/decision-tables/{id}")
+    public ResponseEntity<Void> delete(@PathVariable String id) {
+        if (!decisionTables.remove(id)) {
+            throw new RuleNotFoundException("Decision table", id);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping(path = "/decision-tables/{id}/evaluate",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, StreamingEvaluator.CBOR, StreamingEvaluator.SMILE})
+    public DecisionResult evaluate(@PathVariable String id, @Valid @RequestBody RuleMatchRequest request) {
+        return decisionTables.get(id).evaluate(request.getData());
+    }
+}
@@ -1,5 +1,7 @@
 package org.example.api;
 
+import org.example.rules.EvaluationBudgetExceededException;
+import org.example.rules.registry.RuleNotFoundException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -20,6 +22,30 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
     }
 
+    @ExceptionHandler(RuleNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleRuleNotFound(RuleNotFoundException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", "NOT_FOUND");
+        body.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
+    }
+
+    @ExceptionHandler(EvaluationBudgetExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleBudgetExceeded(EvaluationBudgetExceededException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", "BUDGET_EXCEEDED");
+        body.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(body);
+    }
+
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public ResponseEntity<Map<String, Object>> handlePayloadTooLarge(PayloadTooLargeException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", "PAYLOAD_TOO_LARGE");
+        body.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(body);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidation(MethodArgumentNotValidException ex) {
         Map<String, Object> body = new HashMap<>();
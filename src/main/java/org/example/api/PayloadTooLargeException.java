@@ -0,0 +1,11 @@
+package org.example.api;
+
+/**
+ * Thrown when a request body is larger than the configured maximum; answered with 413.
+ */
+public class PayloadTooLargeException extends RuntimeException {
+
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
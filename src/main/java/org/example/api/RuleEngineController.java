@@ -1,28 +1,115 @@
 package org.example.api;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.example.api.dto.BatchEvaluateRequest;
+import org.example.api.dto.BatchEvaluateResponse;
 import org.example.api.dto.EvaluateRequest;
 import org.example.api.dto.EvaluateResponse;
+import org.example.api.dto.RuleSetEvaluateRequest;
+import org.example.api.dto.RuleSetEvaluateResponse;
+import org.example.rules.BatchEvaluator;
+import org.example.rules.CompiledRule;
+import org.example.rules.EvaluationTrace;
+import org.example.rules.NdjsonEvaluator;
+import org.example.rules.NdjsonReader;
 import org.example.rules.RuleEngineService;
+import org.example.rules.RuleMetrics;
+import org.example.rules.RuleSet;
+import org.example.rules.RuleTracer;
+import org.example.rules.StreamingEvaluator;
+import org.example.rules.registry.RuleRegistry;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+
 @RestController
-@RequestMapping(path = "/api/v1/rule-engine", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(path = "/api/v1/rule-engine",
+        produces = {MediaType.APPLICATION_JSON_VALUE, StreamingEvaluator.CBOR, StreamingEvaluator.SMILE})
 public class RuleEngineController {
 
+    static final String NDJSON = "application/x-ndjson";
+
     private final RuleEngineService ruleEngineService;
+    private final BatchEvaluator batchEvaluator;
+    private final RuleMetrics ruleMetrics;
+    private final NdjsonEvaluator ndjsonEvaluator;
+    private final RuleRegistry ruleRegistry;
+    private final RuleTracer ruleTracer;
 
-    public RuleEngineController(RuleEngineService ruleEngineService) {
+    public RuleEngineController(RuleEngineService ruleEngineService, BatchEvaluator batchEvaluator,
+                                RuleMetrics ruleMetrics, NdjsonEvaluator ndjsonEvaluator, RuleRegistry ruleRegistry,
+                                RuleTracer ruleTracer) {
         this.ruleEngineService = ruleEngineService;
+        this.batchEvaluator = batchEvaluator;
+        this.ruleMetrics = ruleMetrics;
+        this.ndjsonEvaluator = ndjsonEvaluator;
+        this.ruleRegistry = ruleRegistry;
+        this.ruleTracer = ruleTracer;
     }
 
-    @PostMapping(path = "/evaluate", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public EvaluateResponse evaluate(@Valid @RequestBody EvaluateRequest request) {
+    /**
+     * With {@code explain=true} the response also carries a trace of the evaluated nodes, the values the conditions
+     * resolved and where groups short-circuited. Traced evaluations are not recorded in the evaluation metrics.
+     */
+    @PostMapping(path = "/evaluate",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, StreamingEvaluator.CBOR, StreamingEvaluator.SMILE})
+    public EvaluateResponse evaluate(@Valid @RequestBody EvaluateRequest request,
+                                     @RequestParam(defaultValue = "false") boolean explain) {
+        if (explain) {
+            EvaluationTrace trace = ruleTracer.trace(ruleEngineService.compile(request.getRule()), request.getData());
+            return new EvaluateResponse(trace.getRoot().isResult(), trace);
+        }
+        long start = System.nanoTime();
         boolean result = ruleEngineService.evaluate(request.getData(), request.getRule());
+        ruleMetrics.recordEvaluation(RuleMetrics.ADHOC, System.nanoTime() - start);
         return new EvaluateResponse(result);
     }
+
+    @PostMapping(path = "/evaluate/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, StreamingEvaluator.CBOR, StreamingEvaluator.SMILE})
+    public BatchEvaluateResponse evaluateBatch(@Valid @RequestBody BatchEvaluateRequest request,
+                                               @RequestParam(defaultValue = "false") boolean explain) {
+        String encoding = request.getEncoding() != null ? request.getEncoding() : "array";
+        if (!encoding.equals("array") && !encoding.equals("bitset")) {
+            throw new IllegalArgumentException("Unknown encoding: " + encoding);
+        }
+        CompiledRule rule = ruleEngineService.compile(request.getRule());
+        boolean[] results = batchEvaluator.evaluate(rule, request.getData());
+        BatchEvaluateResponse response = encoding.equals("bitset")
+                ? BatchEvaluateResponse.ofBitset(results) : BatchEvaluateResponse.ofArray(results);
+        if (explain) {
+            // Traced records are walked a second time, on this thread; the batch trace limit bounds that cost
+            response.setTraces(ruleTracer.trace(rule, request.getData()));
+        }
+        return response;
+    }
+
+    @PostMapping(path = "/evaluate/ruleset",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, StreamingEvaluator.CBOR, StreamingEvaluator.SMILE})
+    public RuleSetEvaluateResponse evaluateRuleSet(@Valid @RequestBody RuleSetEvaluateRequest request) {
+        RuleSet ruleSet = ruleEngineService.compileRuleSet(request.getRules());
+        return new RuleSetEvaluateResponse(ruleSet.match(request.getData()));
+    }
+
+    /**
+     * Evaluates a newline-delimited JSON stream of data objects and streams back one result line per record, in
+     * order. The rule is the registered {@code ruleId}, or else a {@code {"rule": ...}} first line.
+     */
+    @PostMapping(path = "/evaluate/stream", consumes = NDJSON, produces = NDJSON)
+    public void evaluateStream(@RequestParam(required = false) String ruleId, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        NdjsonReader lines = ndjsonEvaluator.reader(request.getInputStream());
+        // Resolve the rule before anything is written, so rule errors still get a proper status
+        CompiledRule rule = ruleId != null ? ruleRegistry.get(ruleId)
+                : ruleEngineService.compile(ndjsonEvaluator.readRule(lines));
+        response.setContentType(NDJSON);
+        ndjsonEvaluator.evaluate(rule, lines, response.getOutputStream());
+    }
 }
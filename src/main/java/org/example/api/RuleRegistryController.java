@@ -0,0 +1,187 @@
+package org.example.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.example.api.dto.EvaluateResponse;
+import org.example.api.dto.RuleMatchRequest;
+import org.example.api.dto.RuleResponse;
+import org.example.api.dto.SpecializeRequest;
+import org.example.api.dto.SpecializeResponse;
+import org.example.config.RuleEngineProperties;
+import org.example.rules.CompiledRule;
+import org.example.rules.PlanNode;
+import org.example.rules.ResultCacheStats;
+import org.example.rules.RuleEngineService;
+import org.example.rules.RuleMetrics;
+import org.example.rules.RuleOptimizer;
+import org.example.rules.RuleProfile;
+import org.example.rules.RuleSnapshot;
+import org.example.rules.SpecializedRule;
+import org.example.rules.StreamingEvaluator;
+import org.example.rules.registry.CacheStats;
+import org.example.rules.registry.RegisteredRule;
+import org.example.rules.registry.RuleMatches;
+import org.example.rules.registry.RuleNotFoundException;
+import org.example.rules.registry.RuleRegistry;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+@RestController
+@RequestMapping(path = "/api/v1/rule-engine",
+        produces = {MediaType.APPLICATION_JSON_VALUE, StreamingEvaluator.CBOR, StreamingEvaluator.SMILE})
+public class RuleRegistryController {
+
+    private final RuleRegistry ruleRegistry;
+    private final StreamingEvaluator streamingEvaluator;
+    private final RuleMetrics ruleMetrics;
+    private final RuleEngineService ruleEngineService;
+    private final int maxAsyncBodySize;
+
+    public RuleRegistryController(RuleRegistry ruleRegistry, StreamingEvaluator streamingEvaluator,
+                                  RuleMetrics ruleMetrics, RuleEngineService ruleEngineService,
+                                  RuleEngineProperties properties) {
+        this.ruleRegistry = ruleRegistry;
+        this.streamingEvaluator = streamingEvaluator;
+        this.ruleMetrics = ruleMetrics;
+        this.ruleEngineService = ruleEngineService;
+        this.maxAsyncBodySize = properties.getStream().getMaxBodySize();
+    }
+
+    /**
+     * {@code resultCache} caches results by the values of the rule's fields; without it,
+     * {@code rule-engine.result-cache.enabled} decides.
+     */
+    @PutMapping(path = "/rules/{id}",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, StreamingEvaluator.CBOR, StreamingEvaluator.SMILE})
+    public RuleResponse register(@PathVariable String id, @RequestBody JsonNode rule,
+                                 @RequestParam(required = false) Boolean resultCache) {
+        return toResponse(ruleRegistry.register(id, rule, resultCache));
+    }
+
+    @GetMapping(path = "/rules/{id}")
+    public RuleResponse get(@PathVariable String id) {
+        return toResponse(ruleRegistry.describe(id));
+    }
+
+    private static RuleResponse toResponse(RegisteredRule registered) {
+        return new RuleResponse(registered.getId(), registered.getVersion(), registered.getRule(),
+                registered.isResultCache());
+    }
+
+    @DeleteMapping(path = "/rules/{id}")
+    public ResponseEntity<Void> delete(@PathVariable String id) {
+        if (!ruleRegistry.remove(id)) {
+            throw new RuleNotFoundException(id);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Ids of all registered rules matching the record in {@code {"data": {...}}}. Rules are looked up by their
+     * {@code eq}/{@code in} or numeric range guard, so only rules that can match are evaluated.
+     */
+    @PostMapping(path = "/rules/match",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, StreamingEvaluator.CBOR, StreamingEvaluator.SMILE})
+    public RuleMatches match(@Valid @RequestBody RuleMatchRequest request) {
+        return ruleRegistry.match(request.getData());
+    }
+
+    /**
+     * The body ({@code {"data": {...}}}, as JSON, CBOR or Smile) is parsed in streaming mode: only the fields the
+     * rule references are read, the rest of the document is skipped without being bound.
+     */
+    @PostMapping(path = "/rules/{id}/evaluate",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, StreamingEvaluator.CBOR, StreamingEvaluator.SMILE})
+    public EvaluateResponse evaluate(@PathVariable String id, HttpServletRequest request) throws IOException {
+        CompiledRule rule = ruleRegistry.get(id);
+        long start = System.nanoTime();
+        boolean result = streamingEvaluator.evaluateRequest(rule, request.getInputStream(), request.getContentType());
+        ruleMetrics.recordEvaluation(id, System.nanoTime() - start);
+        return new EvaluateResponse(result);
+    }
+
+    /**
+     * Same as {@link #evaluate}, but the body is read with non-blocking I/O: the request thread is released while
+     * the body is uploaded, and the rule is evaluated once the last byte has arrived. Bodies over
+     * {@code rule-engine.stream.max-body-size} are rejected with 413.
+     */
+    @PostMapping(path = "/rules/{id}/evaluate/async",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, StreamingEvaluator.CBOR, StreamingEvaluator.SMILE})
+    public DeferredResult<EvaluateResponse> evaluateAsync(@PathVariable String id, HttpServletRequest request) {
+        CompiledRule rule = ruleRegistry.get(id);
+        DeferredResult<EvaluateResponse> result = new DeferredResult<>();
+        AsyncBodyReader.read(request, maxAsyncBodySize, result, (body, length) -> {
+            long start = System.nanoTime();
+            boolean matched = streamingEvaluator.evaluateRequest(rule, new ByteArrayInputStream(body, 0, length),
+                    request.getContentType());
+            ruleMetrics.recordEvaluation(id, System.nanoTime() - start);
+            return new EvaluateResponse(matched);
+        });
+        return result;
+    }
+
+    /**
+     * The rule simplified against the known part of its input in {@code {"data": {...}}}, e.g. a tenant's
+     * configuration; {@code constant} is set when the rest of the input no longer matters.
+     */
+    @PostMapping(path = "/rules/{id}/specialize",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, StreamingEvaluator.CBOR, StreamingEvaluator.SMILE})
+    public SpecializeResponse specialize(@PathVariable String id, @Valid @RequestBody SpecializeRequest request) {
+        SpecializedRule specialized = ruleEngineService.specialize(ruleRegistry.get(id), request.getData());
+        return new SpecializeResponse(specialized.getRule().getSource(), specialized.getConstant(),
+                specialized.getConditions(), specialized.getOriginalConditions());
+    }
+
+    /**
+     * Per-node evaluation counts, hit rates and mean cost from sampled evaluations; requires
+     * {@code rule-engine.profiling.sample-rate}.
+     */
+    @GetMapping(path = "/rules/{id}/profile")
+    public RuleProfile profile(@PathVariable String id) {
+        return ruleRegistry.profile(id);
+    }
+
+    /**
+     * The order in which the rule's nodes are currently evaluated, with their estimated cost.
+     */
+    @GetMapping(path = "/rules/{id}/plan")
+    public PlanNode plan(@PathVariable String id) {
+        return RuleOptimizer.plan(ruleRegistry.get(id));
+    }
+
+    /**
+     * Size, hits, misses and hit ratio of the rule's result cache; 400 when the rule has none.
+     */
+    @GetMapping(path = "/rules/{id}/result-cache")
+    public ResultCacheStats resultCache(@PathVariable String id) {
+        return ruleRegistry.resultCacheStats(id);
+    }
+
+    /**
+     * All registered rules as a binary {@link RuleSnapshot}, to be saved as {@code rule-engine.snapshot.path} of
+     * nodes that should start with them.
+     */
+    @GetMapping(path = "/snapshot", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] snapshot() {
+        return ruleRegistry.exportSnapshot();
+    }
+
+    @GetMapping(path = "/cache/stats")
+    public CacheStats cacheStats() {
+        return ruleRegistry.cacheStats();
+    }
+}
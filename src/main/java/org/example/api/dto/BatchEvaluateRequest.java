@@ -0,0 +1,42 @@
+package org.example.api.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+import java.util.Map;
+
+public class BatchEvaluateRequest {
+    @NotNull
+    private List<Map<String, Object>> data;
+
+    @NotNull
+    private JsonNode rule;
+
+    /** {@code array} (default) for a positional boolean array, {@code bitset} for a base64 bitset. */
+    private String encoding;
+
+    public List<Map<String, Object>> getData() {
+        return data;
+    }
+
+    public void setData(List<Map<String, Object>> data) {
+        this.data = data;
+    }
+
+    public JsonNode getRule() {
+        return rule;
+    }
+
+    public void setRule(JsonNode rule) {
+        this.rule = rule;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(String encoding) {
+        this.encoding = encoding;
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.example.rules.EvaluationTrace;
+
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchEvaluateResponse {
+    private int size;
+    private int matched;
+    private boolean[] results;
+    private String bitset;
+    private List<EvaluationTrace> traces;
+    private Boolean tracesTruncated;
+
+    public BatchEvaluateResponse() {}
+
+    public static BatchEvaluateResponse ofArray(boolean[] results) {
+        BatchEvaluateResponse response = new BatchEvaluateResponse();
+        response.size = results.length;
+        response.matched = countMatched(results);
+        response.results = results;
+        return response;
+    }
+
+    /**
+     * Bit {@code i} is set when record {@code i} matched; bytes are little-endian as in {@link BitSet#toByteArray()}.
+     */
+    public static BatchEvaluateResponse ofBitset(boolean[] results) {
+        BitSet bits = new BitSet(results.length);
+        for (int i = 0; i < results.length; i++) {
+            if (results[i]) bits.set(i);
+        }
+        BatchEvaluateResponse response = new BatchEvaluateResponse();
+        response.size = results.length;
+        response.matched = bits.cardinality();
+        response.bitset = Base64.getEncoder().encodeToString(bits.toByteArray());
+        return response;
+    }
+
+    private static int countMatched(boolean[] results) {
+        int matched = 0;
+        for (boolean r : results) {
+            if (r) matched++;
+        }
+        return matched;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getMatched() {
+        return matched;
+    }
+
+    public void setMatched(int matched) {
+        this.matched = matched;
+    }
+
+    public boolean[] getResults() {
+        return results;
+    }
+
+    public void setResults(boolean[] results) {
+        this.results = results;
+    }
+
+    public String getBitset() {
+        return bitset;
+    }
+
+    public void setBitset(String bitset) {
+        this.bitset = bitset;
+    }
+
+    /** Traces of the first records, in order; only with {@code explain=true}. */
+    public List<EvaluationTrace> getTraces() {
+        return traces;
+    }
+
+    public void setTraces(List<EvaluationTrace> traces) {
+        this.traces = traces;
+        this.tracesTruncated = traces != null ? traces.size() < size : null;
+    }
+
+    /** Whether the batch trace limit was reached before the last record, so some records have no trace. */
+    public Boolean getTracesTruncated() {
+        return tracesTruncated;
+    }
+
+    public void setTracesTruncated(Boolean tracesTruncated) {
+        this.tracesTruncated = tracesTruncated;
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.api.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Map;
+
+public class DecisionEvaluateRequest {
+    @NotNull
+    private Map<String, Object> data;
+
+    @NotNull
+    private JsonNode table;
+
+    public Map<String, Object> getData() {
+        return data;
+    }
+
+    public void setData(Map<String, Object> data) {
+        this.data = data;
+    }
+
+    public JsonNode getTable() {
+        return table;
+    }
+
+    public void setTable(JsonNode table) {
+        this.table = table;
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.api.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class DecisionTableResponse {
+    private String id;
+    private long version;
+    private JsonNode table;
+
+    public DecisionTableResponse() {}
+
+    public DecisionTableResponse(String id, long version, JsonNode table) {
+        this.id = id;
+        this.version = version;
+        this.table = table;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public JsonNode getTable() {
+        return table;
+    }
+
+    public void setTable(JsonNode table) {
+        this.table = table;
+    }
+}
@@ -1,7 +1,12 @@
 package org.example.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.example.rules.EvaluationTrace;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class EvaluateResponse {
     private boolean result;
+    private EvaluationTrace trace;
 
     public EvaluateResponse() {}
 
@@ -9,6 +14,11 @@ public class EvaluateResponse {
         this.result = result;
     }
 
+    public EvaluateResponse(boolean result, EvaluationTrace trace) {
+        this.result = result;
+        this.trace = trace;
+    }
+
     public boolean isResult() {
         return result;
     }
@@ -16,4 +26,13 @@ public class EvaluateResponse {
     public void setResult(boolean result) {
         this.result = result;
     }
+
+    /** How the result was reached; only with {@code explain=true}. */
+    public EvaluationTrace getTrace() {
+        return trace;
+    }
+
+    public void setTrace(EvaluationTrace trace) {
+        this.trace = trace;
+    }
 }
@@ -0,0 +1,18 @@
+package org.example.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Map;
+
+public class RuleMatchRequest {
+    @NotNull
+    private Map<String, Object> data;
+
+    public Map<String, Object> getData() {
+        return data;
+    }
+
+    public void setData(Map<String, Object> data) {
+        this.data = data;
+    }
+}
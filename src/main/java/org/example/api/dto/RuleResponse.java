@@ -0,0 +1,51 @@
+package org.example.api.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class RuleResponse {
+    private String id;
+    private long version;
+    private JsonNode rule;
+    private boolean resultCache;
+
+    public RuleResponse() {}
+
+    public RuleResponse(String id, long version, JsonNode rule, boolean resultCache) {
+        this.id = id;
+        this.version = version;
+        this.rule = rule;
+        this.resultCache = resultCache;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public JsonNode getRule() {
+        return rule;
+    }
+
+    public void setRule(JsonNode rule) {
+        this.rule = rule;
+    }
+
+    public boolean isResultCache() {
+        return resultCache;
+    }
+
+    public void setResultCache(boolean resultCache) {
+        this.resultCache = resultCache;
+    }
+}
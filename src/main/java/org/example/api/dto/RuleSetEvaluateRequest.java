@@ -0,0 +1,31 @@
+package org.example.api.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class RuleSetEvaluateRequest {
+    @NotNull
+    private Map<String, Object> data;
+
+    @NotNull
+    private LinkedHashMap<String, JsonNode> rules;
+
+    public Map<String, Object> getData() {
+        return data;
+    }
+
+    public void setData(Map<String, Object> data) {
+        this.data = data;
+    }
+
+    public LinkedHashMap<String, JsonNode> getRules() {
+        return rules;
+    }
+
+    public void setRules(LinkedHashMap<String, JsonNode> rules) {
+        this.rules = rules;
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.api.dto;
+
+import java.util.List;
+
+public class RuleSetEvaluateResponse {
+    private List<String> matches;
+
+    public RuleSetEvaluateResponse() {}
+
+    public RuleSetEvaluateResponse(List<String> matches) {
+        this.matches = matches;
+    }
+
+    public List<String> getMatches() {
+        return matches;
+    }
+
+    public void setMatches(List<String> matches) {
+        this.matches = matches;
+    }
+}
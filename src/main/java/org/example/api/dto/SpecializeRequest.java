@@ -0,0 +1,19 @@
+package org.example.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Map;
+
+public class SpecializeRequest {
+    /** The known part of the input; each top-level key fixes every field below it. */
+    @NotNull
+    private Map<String, Object> data;
+
+    public Map<String, Object> getData() {
+        return data;
+    }
+
+    public void setData(Map<String, Object> data) {
+        this.data = data;
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.api.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class SpecializeResponse {
+    private JsonNode rule;
+    private Boolean constant;
+    private int conditions;
+    private int originalConditions;
+
+    public SpecializeResponse() {}
+
+    public SpecializeResponse(JsonNode rule, Boolean constant, int conditions, int originalConditions) {
+        this.rule = rule;
+        this.constant = constant;
+        this.conditions = conditions;
+        this.originalConditions = originalConditions;
+    }
+
+    public JsonNode getRule() {
+        return rule;
+    }
+
+    public void setRule(JsonNode rule) {
+        this.rule = rule;
+    }
+
+    public Boolean getConstant() {
+        return constant;
+    }
+
+    public void setConstant(Boolean constant) {
+        this.constant = constant;
+    }
+
+    public int getConditions() {
+        return conditions;
+    }
+
+    public void setConditions(int conditions) {
+        this.conditions = conditions;
+    }
+
+    public int getOriginalConditions() {
+        return originalConditions;
+    }
+
+    public void setOriginalConditions(int originalConditions) {
+        this.originalConditions = originalConditions;
+    }
+}
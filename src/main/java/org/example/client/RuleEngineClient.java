@@ -0,0 +1,90 @@
+package org.example.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Minimal Java client of the rule engine API that talks JSON, CBOR or Smile. Rules may be given as anything
+ * Jackson can serialize ({@code Map}s, {@code JsonNode}s, POJOs). Thread-safe.
+ * <pre>
+ * RuleEngineClient client = new RuleEngineClient(URI.create("http://localhost:8080"), WireFormat.CBOR);
+ * client.register("adult", Map.of("field", "age", "op", "gte", "value", 21));
+ * boolean adult = client.evaluateRegistered("adult", Map.of("age", 33));
+ * </pre>
+ */
+public class RuleEngineClient {
+
+    private static final String API = "/api/v1/rule-engine";
+
+    private final HttpClient http;
+    private final URI baseUri;
+    private final WireFormat format;
+    private final ObjectMapper mapper;
+
+    public RuleEngineClient(URI baseUri, WireFormat format) {
+        this(HttpClient.newHttpClient(), baseUri, format);
+    }
+
+    public RuleEngineClient(HttpClient http, URI baseUri, WireFormat format) {
+        this.http = http;
+        this.baseUri = baseUri;
+        this.format = format;
+        this.mapper = format.newMapper();
+    }
+
+    /** Evaluates an inline rule ({@code POST /evaluate}). */
+    public boolean evaluateRule(Object rule, Map<String, ?> data) {
+        return send("POST", "/evaluate", Map.of("rule", rule, "data", data)).path("result").asBoolean();
+    }
+
+    /** Evaluates a registered rule ({@code POST /rules/{id}/evaluate}). */
+    public boolean evaluateRegistered(String ruleId, Map<String, ?> data) {
+        return send("POST", "/rules/" + segment(ruleId) + "/evaluate", Map.of("data", data)).path("result").asBoolean();
+    }
+
+    /** Registers or replaces a rule ({@code PUT /rules/{id}}) and returns its new version. */
+    public long register(String ruleId, Object rule) {
+        return send("PUT", "/rules/" + segment(ruleId), rule).path("version").asLong();
+    }
+
+    /** Percent-encodes a rule id as one path segment. */
+    private static String segment(String ruleId) {
+        // URLEncoder writes form encoding, where a space is '+'; in a path '+' is literal
+        return URLEncoder.encode(ruleId, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private JsonNode send(String method, String path, Object body) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(API + path))
+                    .header("Content-Type", format.getMediaType())
+                    .header("Accept", format.getMediaType())
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body)))
+                    .build();
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            // Errors raised before content negotiation (e.g. 415) may come back in another format
+            boolean readable = response.body().length > 0 && response.headers().firstValue("Content-Type")
+                    .filter(type -> type.startsWith(format.getMediaType())).isPresent();
+            JsonNode payload = readable ? mapper.readTree(response.body()) : mapper.missingNode();
+            if (response.statusCode() / 100 != 2) {
+                throw new RuleEngineClientException(response.statusCode(),
+                        payload.hasNonNull("message") ? payload.get("message").asText() : null);
+            }
+            return payload;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling the rule engine", e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.client;
+
+/**
+ * A non-success response from the rule engine API.
+ */
+public class RuleEngineClientException extends RuntimeException {
+
+    private final int status;
+
+    public RuleEngineClientException(int status, String message) {
+        super("HTTP " + status + (message != null ? ": " + message : ""));
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Encodings the rule engine API accepts and returns, selected by {@code Content-Type} and {@code Accept}.
+ */
+public enum WireFormat {
+
+    JSON("application/json"),
+    /** RFC 8949 Concise Binary Object Representation. */
+    CBOR("application/cbor"),
+    /** Jackson's binary JSON, with back-references for repeated field names. */
+    SMILE("application/x-jackson-smile");
+
+    private final String mediaType;
+
+    WireFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /** A new mapper that reads and writes this format. */
+    public ObjectMapper newMapper() {
+        return switch (this) {
+            case JSON -> new ObjectMapper();
+            case CBOR -> new ObjectMapper(new CBORFactory());
+            case SMILE -> new ObjectMapper(new SmileFactory());
+        };
+    }
+}
@@ -0,0 +1,437 @@
+package org.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tunables under the {@code rule-engine.*} prefix.
+ */
+@ConfigurationProperties(prefix = "rule-engine")
+public class RuleEngineProperties {
+
+    private final Cache cache = new Cache();
+    private final Batch batch = new Batch();
+    private final Regex regex = new Regex();
+    private final Profiling profiling = new Profiling();
+    private final Optimizer optimizer = new Optimizer();
+    private final Stream stream = new Stream();
+    private final Bytecode bytecode = new Bytecode();
+    private final Repository repository = new Repository();
+    private final ResultCache resultCache = new ResultCache();
+    private final Explain explain = new Explain();
+    private final Limits limits = new Limits();
+    private final Snapshot snapshot = new Snapshot();
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public Regex getRegex() {
+        return regex;
+    }
+
+    public Profiling getProfiling() {
+        return profiling;
+    }
+
+    public Optimizer getOptimizer() {
+        return optimizer;
+    }
+
+    public Stream getStream() {
+        return stream;
+    }
+
+    public Bytecode getBytecode() {
+        return bytecode;
+    }
+
+    public Repository getRepository() {
+        return repository;
+    }
+
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    public Explain getExplain() {
+        return explain;
+    }
+
+    public Limits getLimits() {
+        return limits;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public static class Cache {
+        /** Maximum number of compiled rules kept in memory; least recently used rules are evicted first. */
+        private int maxSize = 1000;
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    public static class Batch {
+        /** Batches with fewer records than this are evaluated on the calling thread. */
+        private int parallelThreshold = 1024;
+        /** Worker threads of the batch ForkJoin pool; 0 means one per available processor. */
+        private int parallelism = 0;
+
+        public int getParallelThreshold() {
+            return parallelThreshold;
+        }
+
+        public void setParallelThreshold(int parallelThreshold) {
+            this.parallelThreshold = parallelThreshold;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    public static class Regex {
+        /** Compiled patterns shared across rules, keyed by pattern source; 0 disables the cache. */
+        private int cacheSize = 1000;
+        /** Reject patterns prone to catastrophic backtracking at compile time and enforce {@link #maxSteps}. */
+        private boolean safeMode = false;
+        /** In safe mode, the most characters one match may read before the evaluation is aborted. */
+        private long maxSteps = 100_000;
+
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+
+        public boolean isSafeMode() {
+            return safeMode;
+        }
+
+        public void setSafeMode(boolean safeMode) {
+            this.safeMode = safeMode;
+        }
+
+        public long getMaxSteps() {
+            return maxSteps;
+        }
+
+        public void setMaxSteps(long maxSteps) {
+            this.maxSteps = maxSteps;
+        }
+    }
+
+    public static class Profiling {
+        /** Profile one in this many evaluations of each registered rule; 0 disables profiling. */
+        private int sampleRate = 0;
+
+        public int getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(int sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+    }
+
+    public static class Optimizer {
+        /** Order the children of all/any groups by estimated cost at compile time. */
+        private boolean reorder = true;
+        /** For profiled rules, re-rank group children by observed cost and selectivity every this many samples; 0 disables. */
+        private long adaptiveInterval = 1000;
+        /** A group is only re-ranked once each of its children has been sampled at least this many times. */
+        private long minSamples = 100;
+
+        public boolean isReorder() {
+            return reorder;
+        }
+
+        public void setReorder(boolean reorder) {
+            this.reorder = reorder;
+        }
+
+        public long getAdaptiveInterval() {
+            return adaptiveInterval;
+        }
+
+        public void setAdaptiveInterval(long adaptiveInterval) {
+            this.adaptiveInterval = adaptiveInterval;
+        }
+
+        public long getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(long minSamples) {
+            this.minSamples = minSamples;
+        }
+    }
+
+    public static class Stream {
+        /** Worker threads evaluating NDJSON streams; 0 means one per available processor. */
+        private int parallelism = 0;
+        /** Most lines of one stream read but not yet written back; bounds per-stream memory. */
+        private int window = 8192;
+        /** Largest request body, in bytes, buffered by the non-blocking {@code /evaluate/async} endpoint. */
+        private int maxBodySize = 16 * 1024 * 1024;
+        /** Longest NDJSON line, in bytes; a longer one gets an error line instead of being buffered; 0 disables. */
+        private int maxLineLength = 16 * 1024 * 1024;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getWindow() {
+            return window;
+        }
+
+        public void setWindow(int window) {
+            this.window = window;
+        }
+
+        public int getMaxBodySize() {
+            return maxBodySize;
+        }
+
+        public void setMaxBodySize(int maxBodySize) {
+            this.maxBodySize = maxBodySize;
+        }
+
+        public int getMaxLineLength() {
+            return maxLineLength;
+        }
+
+        public void setMaxLineLength(int maxLineLength) {
+            this.maxLineLength = maxLineLength;
+        }
+    }
+
+    public static class Bytecode {
+        /** Generate a JVM class for rules that are evaluated often instead of walking their node tree. */
+        private boolean enabled = false;
+        /** Evaluations of one compiled rule after which it is translated to bytecode. */
+        private int threshold = 10_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(int threshold) {
+            this.threshold = threshold;
+        }
+    }
+
+    public static class Repository {
+        /** Directory of {@code <id>.json} rule files registered at startup; unset disables the file repository. */
+        private String directory;
+        /** Reload rule files when they are created, changed or deleted. */
+        private boolean watch = true;
+        /** Quiet period after a file change before the changed rules are reloaded, so bursts of writes are applied together. */
+        private long debounceMillis = 200;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public boolean isWatch() {
+            return watch;
+        }
+
+        public void setWatch(boolean watch) {
+            this.watch = watch;
+        }
+
+        public long getDebounceMillis() {
+            return debounceMillis;
+        }
+
+        public void setDebounceMillis(long debounceMillis) {
+            this.debounceMillis = debounceMillis;
+        }
+    }
+
+    public static class ResultCache {
+        /** Cache results of registered rules that do not choose for themselves (the {@code resultCache} registration parameter). */
+        private boolean enabled = false;
+        /** Most results cached per rule; least recently used results are evicted first. */
+        private int maxSize = 10_000;
+        /** How long a cached result stays valid. */
+        private long ttlMillis = 60_000;
+        /** Independently locked segments of each cache; 0 means four per available processor. */
+        private int stripes = 0;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public long getTtlMillis() {
+            return ttlMillis;
+        }
+
+        public void setTtlMillis(long ttlMillis) {
+            this.ttlMillis = ttlMillis;
+        }
+
+        public int getStripes() {
+            return stripes;
+        }
+
+        public void setStripes(int stripes) {
+            this.stripes = stripes;
+        }
+    }
+
+    public static class Explain {
+        /** Most nodes recorded in the trace of one evaluation; the rest of the rule is evaluated untraced. */
+        private int maxNodes = 1000;
+        /** Most nodes recorded across all traces of one batch; later records are evaluated untraced. */
+        private int maxBatchNodes = 10_000;
+
+        public int getMaxNodes() {
+            return maxNodes;
+        }
+
+        public void setMaxNodes(int maxNodes) {
+            this.maxNodes = maxNodes;
+        }
+
+        public int getMaxBatchNodes() {
+            return maxBatchNodes;
+        }
+
+        public void setMaxBatchNodes(int maxBatchNodes) {
+            this.maxBatchNodes = maxBatchNodes;
+        }
+    }
+
+    public static class Limits {
+        /** Deepest nesting of all/any/not groups accepted at compile time (a single condition is depth 1); 0 disables. */
+        private int maxDepth = 256;
+        /** Most nodes (groups and conditions) in one rule; 0 disables. */
+        private int maxNodes = 10_000;
+        /** Most values in one in/not_in list; sized for 100k-value allow lists; 0 disables. */
+        private int maxInSize = 100_000;
+        /** Longest accepted regex pattern, in characters; 0 disables. */
+        private int maxRegexLength = 1000;
+        /** Highest list index a field path may address ({@code items.3.sku}); 0 disables. */
+        private int maxListIndex = 10_000;
+        /** Most steps (nodes visited plus collection elements scanned by contains) one evaluation may take; 0 disables. */
+        private long maxSteps = 0;
+        /** Rules nested deeper than this are evaluated with an explicit stack instead of recursion. */
+        private int stackDepth = 200;
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public void setMaxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+
+        public int getMaxNodes() {
+            return maxNodes;
+        }
+
+        public void setMaxNodes(int maxNodes) {
+            this.maxNodes = maxNodes;
+        }
+
+        public int getMaxInSize() {
+            return maxInSize;
+        }
+
+        public void setMaxInSize(int maxInSize) {
+            this.maxInSize = maxInSize;
+        }
+
+        public int getMaxRegexLength() {
+            return maxRegexLength;
+        }
+
+        public void setMaxRegexLength(int maxRegexLength) {
+            this.maxRegexLength = maxRegexLength;
+        }
+
+        public int getMaxListIndex() {
+            return maxListIndex;
+        }
+
+        public void setMaxListIndex(int maxListIndex) {
+            this.maxListIndex = maxListIndex;
+        }
+
+        public long getMaxSteps() {
+            return maxSteps;
+        }
+
+        public void setMaxSteps(long maxSteps) {
+            this.maxSteps = maxSteps;
+        }
+
+        public int getStackDepth() {
+            return stackDepth;
+        }
+
+        public void setStackDepth(int stackDepth) {
+            this.stackDepth = stackDepth;
+        }
+    }
+
+    public static class Snapshot {
+        /** Rule snapshot file imported at startup when it exists; unset disables snapshot loading. */
+        private String path;
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.rules;
+
+public final class AllNode implements RuleNode {
+
+    private final RuleNode[] children;
+
+    AllNode(RuleNode[] children) {
+        this.children = children;
+    }
+
+    public RuleNode[] getChildren() {
+        return children.clone();
+    }
+
+    RuleNode[] children() {
+        return children;
+    }
+
+    @Override
+    public boolean evaluate(EvaluationContext ctx) {
+        for (RuleNode child : children) {
+            if (!child.evaluate(ctx)) return false; // short-circuit
+        }
+        return true;
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.rules;
+
+import org.example.config.RuleEngineProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates one compiled rule against many records. Small batches run on the caller's thread, large ones are
+ * split across a dedicated {@link ForkJoinPool}.
+ */
+@Component
+public class BatchEvaluator implements DisposableBean {
+
+    private final int parallelThreshold;
+    private final ForkJoinPool pool;
+
+    public BatchEvaluator(RuleEngineProperties properties) {
+        RuleEngineProperties.Batch batch = properties.getBatch();
+        int parallelism = batch.getParallelism() > 0 ? batch.getParallelism() : Runtime.getRuntime().availableProcessors();
+        this.parallelThreshold = Math.max(1, batch.getParallelThreshold());
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public boolean[] evaluate(CompiledRule rule, List<Map<String, Object>> records) {
+        boolean[] results = new boolean[records.size()];
+        if (records.size() < parallelThreshold) {
+            evaluateRange(rule, records, results, 0, results.length);
+        } else {
+            // Aim for a few slices per worker so uneven records still balance. Slices never shrink below a quarter
+            // of the threshold, so they stay worth forking, while a batch just over the threshold still splits
+            int sliceSize = Math.max(parallelThreshold / 4, records.size() / (pool.getParallelism() * 4));
+            pool.invoke(new Slice(rule, records, results, 0, results.length, Math.max(1, sliceSize)));
+        }
+        return results;
+    }
+
+    private static void evaluateRange(CompiledRule rule, List<Map<String, Object>> records, boolean[] results,
+                                      int from, int to) {
+        for (int i = from; i < to; i++) {
+            results[i] = rule.evaluate(records.get(i));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdown();
+    }
+
+    private static final class Slice extends RecursiveAction {
+        private final CompiledRule rule;
+        private final List<Map<String, Object>> records;
+        private final boolean[] results;
+        private final int from;
+        private final int to;
+        private final int sliceSize;
+
+        Slice(CompiledRule rule, List<Map<String, Object>> records, boolean[] results, int from, int to, int sliceSize) {
+            this.rule = rule;
+            this.records = records;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.sliceSize = sliceSize;
+        }
+
+        @Override
+        protected void compute() {
+            // Split only while both halves stay at least sliceSize long
+            if (to - from < 2 * sliceSize) {
+                evaluateRange(rule, records, results, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Slice(rule, records, results, from, mid, sliceSize),
+                    new Slice(rule, records, results, mid, to, sliceSize));
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package org.example.rules;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A batch of records stored column by column, for {@link CompiledRule#evaluate(ColumnarBatch)}. Columns are keyed by
+ * the field path rules use ({@code "customer.age"}) and hold primitive arrays: {@code long}, {@code double},
+ * {@code boolean}, or dictionary-encoded strings. Optional bitmaps mark the rows where the value is JSON
+ * {@code null} ({@code nulls}) or where the field is absent ({@code missing}); a path with no column is missing in
+ * every row.
+ * <p>
+ * The arrays are not copied; they must not be modified while the batch is in use.
+ */
+public final class ColumnarBatch {
+
+    private final int rowCount;
+    private final Map<String, Column> columns;
+
+    private ColumnarBatch(int rowCount, Map<String, Column> columns) {
+        this.rowCount = rowCount;
+        this.columns = columns;
+    }
+
+    public static Builder builder(int rowCount) {
+        if (rowCount < 0) {
+            throw new IllegalArgumentException("Row count must not be negative: " + rowCount);
+        }
+        return new Builder(rowCount);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    Column column(String path) {
+        return columns.get(path);
+    }
+
+    public static final class Builder {
+
+        private final int rowCount;
+        private final Map<String, Column> columns = new LinkedHashMap<>();
+
+        private Builder(int rowCount) {
+            this.rowCount = rowCount;
+        }
+
+        public Builder longColumn(String path, long[] values) {
+            return longColumn(path, values, null, null);
+        }
+
+        public Builder longColumn(String path, long[] values, BitSet nulls, BitSet missing) {
+            checkLength(path, values.length);
+            return add(path, new LongColumn(values, nulls, missing));
+        }
+
+        public Builder doubleColumn(String path, double[] values) {
+            return doubleColumn(path, values, null, null);
+        }
+
+        public Builder doubleColumn(String path, double[] values, BitSet nulls, BitSet missing) {
+            checkLength(path, values.length);
+            return add(path, new DoubleColumn(values, nulls, missing));
+        }
+
+        /** {@code values} holds the rows whose value is {@code true}. */
+        public Builder booleanColumn(String path, BitSet values, BitSet nulls, BitSet missing) {
+            return add(path, new BooleanColumn(values, nulls, missing));
+        }
+
+        /** Row {@code i} holds {@code dictionary[codes[i]]}. */
+        public Builder stringColumn(String path, String[] dictionary, int[] codes, BitSet nulls, BitSet missing) {
+            checkLength(path, codes.length);
+            for (int i = 0; i < codes.length; i++) {
+                boolean absent = nulls != null && nulls.get(i) || missing != null && missing.get(i);
+                if (!absent && (codes[i] < 0 || codes[i] >= dictionary.length)) {
+                    throw new IllegalArgumentException("Column '" + path + "': code " + codes[i] + " at row " + i
+                            + " is outside the dictionary");
+                }
+            }
+            return add(path, new StringColumn(dictionary, codes, nulls, missing));
+        }
+
+        /** Dictionary-encodes {@code values}; {@code null} entries become nulls. */
+        public Builder stringColumn(String path, String[] values) {
+            checkLength(path, values.length);
+            Map<String, Integer> codesByValue = new HashMap<>();
+            int[] codes = new int[values.length];
+            BitSet nulls = new BitSet(values.length);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    nulls.set(i);
+                } else {
+                    codes[i] = codesByValue.computeIfAbsent(values[i], k -> codesByValue.size());
+                }
+            }
+            String[] dictionary = new String[codesByValue.size()];
+            codesByValue.forEach((value, code) -> dictionary[code] = value);
+            return add(path, new StringColumn(dictionary, codes, nulls, null));
+        }
+
+        public ColumnarBatch build() {
+            return new ColumnarBatch(rowCount, Map.copyOf(columns));
+        }
+
+        private void checkLength(String path, int length) {
+            if (length != rowCount) {
+                throw new IllegalArgumentException("Column '" + path + "' has " + length + " rows, expected " + rowCount);
+            }
+        }
+
+        private Builder add(String path, Column column) {
+            if (columns.putIfAbsent(path, column) != null) {
+                throw new IllegalArgumentException("Duplicate column: " + path);
+            }
+            return this;
+        }
+    }
+
+    abstract static class Column {
+        final BitSet nulls;
+        final BitSet missing;
+        private long[] nullWords;
+
+        Column(BitSet nulls, BitSet missing) {
+            this.nulls = nulls;
+            this.missing = missing;
+        }
+
+        /** Rows where the rule sees {@code null} (JSON null or absent), as words; {@code null} when there are none. */
+        final long[] nullWords() {
+            long[] words = nullWords;
+            if (words == null && (nulls != null || missing != null)) {
+                // Racy but idempotent initialization
+                BitSet union = new BitSet();
+                if (nulls != null) union.or(nulls);
+                if (missing != null) union.or(missing);
+                words = union.toLongArray();
+                nullWords = words;
+            }
+            return words;
+        }
+    }
+
+    static final class LongColumn extends Column {
+        final long[] values;
+
+        LongColumn(long[] values, BitSet nulls, BitSet missing) {
+            super(nulls, missing);
+            this.values = values;
+        }
+    }
+
+    static final class DoubleColumn extends Column {
+        final double[] values;
+
+        DoubleColumn(double[] values, BitSet nulls, BitSet missing) {
+            super(nulls, missing);
+            this.values = values;
+        }
+    }
+
+    static final class BooleanColumn extends Column {
+        final BitSet values;
+
+        BooleanColumn(BitSet values, BitSet nulls, BitSet missing) {
+            super(nulls, missing);
+            this.values = values;
+        }
+    }
+
+    static final class StringColumn extends Column {
+        final String[] dictionary;
+        final int[] codes;
+
+        StringColumn(String[] dictionary, int[] codes, BitSet nulls, BitSet missing) {
+            super(nulls, missing);
+            this.dictionary = dictionary;
+            this.codes = codes;
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package org.example.rules;
+
+import org.example.rules.ColumnarBatch.BooleanColumn;
+import org.example.rules.ColumnarBatch.Column;
+import org.example.rules.ColumnarBatch.DoubleColumn;
+import org.example.rules.ColumnarBatch.LongColumn;
+import org.example.rules.ColumnarBatch.StringColumn;
+
+import java.util.BitSet;
+
+/**
+ * Evaluates a rule tree over a {@link ColumnarBatch} one node at a time instead of one record at a time. Every node
+ * receives a selection vector (the rows whose outcome is still open) and returns the selected rows it accepts:
+ * {@code all} narrows the selection child by child, {@code any} drops rows as soon as a child accepts them, so
+ * later children only touch undecided rows, just like short-circuiting does per record.
+ * <p>
+ * Conditions run 64 rows at a time over the words of the selection. A dense word is evaluated for all of its rows
+ * with a branch-light loop; a sparse one only for its selected rows. Numeric comparisons with a numeric constant
+ * become range checks that follow the rules of {@link Values#compare}. String and boolean columns are decided once
+ * per distinct value and then looked up by dictionary code. Any other combination (e.g. a string constant against
+ * a numeric column) falls back to {@link ConditionNode#test} per row. Results therefore always match
+ * record-at-a-time evaluation.
+ */
+final class ColumnarEvaluator {
+
+    /** Selection words with at least this many rows are evaluated whole. */
+    private static final int DENSE_WORD = 16;
+
+    private final ColumnarBatch batch;
+    private final int rowCount;
+
+    ColumnarEvaluator(ColumnarBatch batch) {
+        this.batch = batch;
+        this.rowCount = batch.getRowCount();
+    }
+
+    BitSet evaluate(RuleNode root) {
+        BitSet all = new BitSet(rowCount);
+        all.set(0, rowCount);
+        return evaluate(root, all);
+    }
+
+    private BitSet evaluate(RuleNode node, BitSet selection) {
+        if (node instanceof AllNode all) {
+            BitSet remaining = selection;
+            for (RuleNode child : all.children()) {
+                if (remaining.isEmpty()) break;
+                remaining = evaluate(child, remaining);
+            }
+            return remaining == selection ? (BitSet) selection.clone() : remaining;
+        }
+        if (node instanceof AnyNode any) {
+            BitSet matched = new BitSet();
+            BitSet undecided = (BitSet) selection.clone();
+            for (RuleNode child : any.children()) {
+                if (undecided.isEmpty()) break;
+                BitSet accepted = evaluate(child, undecided);
+                matched.or(accepted);
+                undecided.andNot(accepted);
+            }
+            return matched;
+        }
+        if (node instanceof NotNode not) {
+            BitSet result = (BitSet) selection.clone();
+            result.andNot(evaluate(not.getChild(), selection));
+            return result;
+        }
+        if (node instanceof MemoNode memo) {
+            return evaluate(memo.getNode(), selection);
+        }
+        if (node instanceof ConditionNode condition) {
+            return evaluateCondition(condition, selection);
+        }
+        throw new IllegalArgumentException("Unsupported node for columnar evaluation: " + node.getClass().getSimpleName());
+    }
+
+    private BitSet evaluateCondition(ConditionNode c, BitSet selection) {
+        Column column = c.getPath() != null ? batch.column(c.getPath().getPath()) : null;
+        long[] sel = selection.toLongArray();
+        long[] out = new long[sel.length];
+        Operator op = c.getOp();
+        if (op == Operator.exists || op == Operator.not_exists || op == Operator.isNull || op == Operator.isNotNull) {
+            if (c.getPath() == null) {
+                // A condition without a field has no value: only not_exists holds, as in ConditionNode
+                return op == Operator.not_exists ? (BitSet) selection.clone() : new BitSet();
+            }
+            boolean wantPresent = op == Operator.exists || op == Operator.isNotNull;
+            long[] absent = column == null ? null
+                    : op == Operator.exists || op == Operator.not_exists ? words(column.missing) : column.nullWords();
+            for (int w = 0; w < sel.length; w++) {
+                long present = column == null ? 0 : ~word(absent, w);
+                out[w] = sel[w] & (wantPresent ? present : ~present);
+            }
+            return BitSet.valueOf(out);
+        }
+
+        boolean nullResult = c.test(null);
+        if (column == null) {
+            return nullResult ? (BitSet) selection.clone() : new BitSet();
+        }
+        Kernel kernel = kernel(c, column);
+        long[] nulls = column.nullWords();
+        long nullFill = nullResult ? -1L : 0L;
+        for (int w = 0; w < sel.length; w++) {
+            long s = sel[w];
+            if (s == 0) continue;
+            int base = w << 6;
+            long accepted;
+            if (Long.bitCount(s) >= DENSE_WORD) {
+                accepted = kernel.word(base, Math.min(64, rowCount - base));
+            } else {
+                accepted = 0;
+                for (long t = s; t != 0; t &= t - 1) {
+                    int bit = Long.numberOfTrailingZeros(t);
+                    if (kernel.row(base + bit)) accepted |= 1L << bit;
+                }
+            }
+            long n = word(nulls, w);
+            out[w] = s & ((accepted & ~n) | (nullFill & n));
+        }
+        return BitSet.valueOf(out);
+    }
+
+    private static long[] words(BitSet bits) {
+        return bits == null ? null : bits.toLongArray();
+    }
+
+    private static long word(long[] words, int w) {
+        return words != null && w < words.length ? words[w] : 0;
+    }
+
+    private static Kernel kernel(ConditionNode c, Column column) {
+        Operator op = c.getOp();
+        if (column instanceof StringColumn strings) {
+            boolean[] byCode = new boolean[strings.dictionary.length];
+            for (int i = 0; i < byCode.length; i++) {
+                byCode[i] = c.test(strings.dictionary[i]);
+            }
+            return new DictionaryKernel(strings.codes, byCode);
+        }
+        if (column instanceof BooleanColumn booleans) {
+            return new BooleanKernel(booleans.values, c.test(Boolean.TRUE), c.test(Boolean.FALSE));
+        }
+        if (op == Operator.contains || op == Operator.regex) {
+            // Only strings and lists can contain or match
+            return new ConstantKernel(false);
+        }
+        if (column instanceof LongColumn longs) {
+            long[] values = longs.values;
+            if (op == Operator.in || op == Operator.not_in) {
+                return new LongSetKernel(values, c.set(), op == Operator.not_in);
+            }
+            Kernel range = longRange(values, op, c.operand(), c.operands());
+            return range != null ? range : new FallbackKernel(c, longs);
+        }
+        DoubleColumn doubles = (DoubleColumn) column;
+        double[] values = doubles.values;
+        boolean nanResult = c.test(Double.NaN);
+        if (op == Operator.in || op == Operator.not_in) {
+            return new DoubleSetKernel(values, c.set(), op == Operator.not_in);
+        }
+        Kernel range = doubleRange(values, op, c.operand(), c.operands(), nanResult);
+        return range != null ? range : new FallbackKernel(c, doubles);
+    }
+
+    /** Long comparisons as a range check, or {@code null} when a constant is not numeric. */
+    private static Kernel longRange(long[] values, Operator op, Operand v, Operand[] bounds) {
+        Long lo;
+        Long hi;
+        boolean negate = false;
+        if (op == Operator.between) {
+            if (!bounds[0].numeric || !bounds[1].numeric) return null;
+            lo = minAtLeast(bounds[0], true);
+            hi = maxAtMost(bounds[1], true);
+        } else {
+            if (!v.numeric) return null;
+            switch (op) {
+                case eq, ne -> {
+                    lo = minAtLeast(v, true);
+                    hi = maxAtMost(v, true);
+                    negate = op == Operator.ne;
+                }
+                case lt -> {
+                    lo = Long.MIN_VALUE;
+                    hi = maxAtMost(v, false);
+                }
+                case lte -> {
+                    lo = Long.MIN_VALUE;
+                    hi = maxAtMost(v, true);
+                }
+                case gt -> {
+                    lo = minAtLeast(v, false);
+                    hi = Long.MAX_VALUE;
+                }
+                case gte -> {
+                    lo = minAtLeast(v, true);
+                    hi = Long.MAX_VALUE;
+                }
+                default -> {
+                    return null;
+                }
+            }
+        }
+        if (lo == null || hi == null || lo > hi) {
+            return new ConstantKernel(negate);
+        }
+        return new LongRangeKernel(values, lo, hi, negate);
+    }
+
+    /** The smallest long at or (if not inclusive) above {@code x} under {@link Values#compareLong}, if any. */
+    private static Long minAtLeast(Operand x, boolean inclusive) {
+        if (x.longRange != 0) return x.longRange > 0 ? null : Long.MIN_VALUE;
+        if (!x.integral) return x.floor + 1;
+        if (inclusive) return x.longValue;
+        return x.longValue == Long.MAX_VALUE ? null : x.longValue + 1;
+    }
+
+    /** The largest long at or (if not inclusive) below {@code x} under {@link Values#compareLong}, if any. */
+    private static Long maxAtMost(Operand x, boolean inclusive) {
+        if (x.longRange != 0) return x.longRange < 0 ? null : Long.MAX_VALUE;
+        if (!x.integral) return x.floor;
+        if (inclusive) return x.longValue;
+        return x.longValue == Long.MIN_VALUE ? null : x.longValue - 1;
+    }
+
+    /** Double comparisons as a range check, or {@code null} when a constant is not numeric. */
+    private static Kernel doubleRange(double[] values, Operator op, Operand v, Operand[] bounds, boolean nanResult) {
+        double inf = Double.POSITIVE_INFINITY;
+        if (op == Operator.between) {
+            if (!bounds[0].numeric || !bounds[1].numeric) return null;
+            return new DoubleRangeKernel(values, bounds[0].doubleValue, true, bounds[1].doubleValue, true, false, nanResult);
+        }
+        if (!v.numeric) return null;
+        double x = v.doubleValue;
+        return switch (op) {
+            case eq -> new DoubleRangeKernel(values, x, true, x, true, false, nanResult);
+            case ne -> new DoubleRangeKernel(values, x, true, x, true, true, nanResult);
+            case lt -> new DoubleRangeKernel(values, -inf, true, x, false, false, nanResult);
+            case lte -> new DoubleRangeKernel(values, -inf, true, x, true, false, nanResult);
+            case gt -> new DoubleRangeKernel(values, x, false, inf, true, false, nanResult);
+            case gte -> new DoubleRangeKernel(values, x, true, inf, true, false, nanResult);
+            default -> null;
+        };
+    }
+
+    /** Accepts or rejects rows, ignoring nulls (the caller overlays those). */
+    private abstract static class Kernel {
+        /** Bit {@code j} is set when row {@code base + j} is accepted, for the first {@code count} rows. */
+        abstract long word(int base, int count);
+
+        abstract boolean row(int r);
+    }
+
+    private static final class ConstantKernel extends Kernel {
+        private final boolean accept;
+
+        ConstantKernel(boolean accept) {
+            this.accept = accept;
+        }
+
+        @Override
+        long word(int base, int count) {
+            return accept ? -1L : 0L;
+        }
+
+        @Override
+        boolean row(int r) {
+            return accept;
+        }
+    }
+
+    private static final class LongRangeKernel extends Kernel {
+        private final long[] values;
+        private final long lo;
+        private final long span;
+        private final long flip;
+
+        LongRangeKernel(long[] values, long lo, long hi, boolean negate) {
+            this.values = values;
+            this.lo = lo;
+            this.span = hi - lo;
+            this.flip = negate ? -1L : 0L;
+        }
+
+        @Override
+        long word(int base, int count) {
+            long bits = 0;
+            for (int j = 0; j < count; j++) {
+                // lo <= v <= hi as one unsigned comparison
+                bits |= (Long.compareUnsigned(values[base + j] - lo, span) <= 0 ? 1L : 0L) << j;
+            }
+            return bits ^ flip;
+        }
+
+        @Override
+        boolean row(int r) {
+            return (Long.compareUnsigned(values[r] - lo, span) <= 0) != (flip != 0);
+        }
+    }
+
+    private static final class DoubleRangeKernel extends Kernel {
+        private final double[] values;
+        private final double lo;
+        private final boolean loInclusive;
+        private final double hi;
+        private final boolean hiInclusive;
+        private final boolean negate;
+        private final boolean nanResult;
+
+        DoubleRangeKernel(double[] values, double lo, boolean loInclusive, double hi, boolean hiInclusive,
+                          boolean negate, boolean nanResult) {
+            this.values = values;
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+            this.negate = negate;
+            this.nanResult = nanResult;
+        }
+
+        @Override
+        long word(int base, int count) {
+            long bits = 0;
+            for (int j = 0; j < count; j++) {
+                bits |= (row(base + j) ? 1L : 0L) << j;
+            }
+            return bits;
+        }
+
+        @Override
+        boolean row(int r) {
+            double d = values[r];
+            if (d != d) return nanResult;
+            boolean in = (loInclusive ? d >= lo : d > lo) && (hiInclusive ? d <= hi : d < hi);
+            return in != negate;
+        }
+    }
+
+    private static final class LongSetKernel extends Kernel {
+        private final long[] values;
+        private final InSet set;
+        private final boolean negate;
+
+        LongSetKernel(long[] values, InSet set, boolean negate) {
+            this.values = values;
+            this.set = set;
+            this.negate = negate;
+        }
+
+        @Override
+        long word(int base, int count) {
+            long bits = 0;
+            for (int j = 0; j < count; j++) {
+                bits |= (set.containsLong(values[base + j]) != negate ? 1L : 0L) << j;
+            }
+            return bits;
+        }
+
+        @Override
+        boolean row(int r) {
+            return set.containsLong(values[r]) != negate;
+        }
+    }
+
+    private static final class DoubleSetKernel extends Kernel {
+        private final double[] values;
+        private final InSet set;
+        private final boolean negate;
+
+        DoubleSetKernel(double[] values, InSet set, boolean negate) {
+            this.values = values;
+            this.set = set;
+            this.negate = negate;
+        }
+
+        @Override
+        long word(int base, int count) {
+            long bits = 0;
+            for (int j = 0; j < count; j++) {
+                bits |= (set.containsDouble(values[base + j]) != negate ? 1L : 0L) << j;
+            }
+            return bits;
+        }
+
+        @Override
+        boolean row(int r) {
+            return set.containsDouble(values[r]) != negate;
+        }
+    }
+
+    private static final class DictionaryKernel extends Kernel {
+        private final int[] codes;
+        private final boolean[] byCode;
+
+        DictionaryKernel(int[] codes, boolean[] byCode) {
+            this.codes = codes;
+            this.byCode = byCode;
+        }
+
+        @Override
+        long word(int base, int count) {
+            long bits = 0;
+            for (int j = 0; j < count; j++) {
+                bits |= (row(base + j) ? 1L : 0L) << j;
+            }
+            return bits;
+        }
+
+        @Override
+        boolean row(int r) {
+            // Null rows may carry any code; the caller overrides their result
+            int code = codes[r];
+            return code >= 0 && code < byCode.length && byCode[code];
+        }
+    }
+
+    private static final class BooleanKernel extends Kernel {
+        private final long[] values;
+        private final long whenTrue;
+        private final long whenFalse;
+
+        BooleanKernel(BitSet values, boolean whenTrue, boolean whenFalse) {
+            this.values = values.toLongArray();
+            this.whenTrue = whenTrue ? -1L : 0L;
+            this.whenFalse = whenFalse ? -1L : 0L;
+        }
+
+        @Override
+        long word(int base, int count) {
+            long v = ColumnarEvaluator.word(values, base >>> 6);
+            return (v & whenTrue) | (~v & whenFalse);
+        }
+
+        @Override
+        boolean row(int r) {
+            return (word(r & ~63, 64) & (1L << r)) != 0;
+        }
+    }
+
+    /** Boxes each value and applies the condition exactly as record-at-a-time evaluation would. */
+    private static final class FallbackKernel extends Kernel {
+        private final ConditionNode condition;
+        private final long[] longs;
+        private final double[] doubles;
+
+        FallbackKernel(ConditionNode condition, LongColumn column) {
+            this.condition = condition;
+            this.longs = column.values;
+            this.doubles = null;
+        }
+
+        FallbackKernel(ConditionNode condition, DoubleColumn column) {
+            this.condition = condition;
+            this.longs = null;
+            this.doubles = column.values;
+        }
+
+        @Override
+        long word(int base, int count) {
+            long bits = 0;
+            for (int j = 0; j < count; j++) {
+                bits |= (row(base + j) ? 1L : 0L) << j;
+            }
+            return bits;
+        }
+
+        @Override
+        boolean row(int r) {
+            return condition.test(longs != null ? (Object) longs[r] : (Object) doubles[r]);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.rules;
+
+import java.util.regex.Pattern;
+
+/**
+ * A compiled {@code regex} constant, optionally matched under a step budget. The budget counts character reads
+ * by the matcher, which is what a backtracking pattern multiplies, and aborts the match once it is exhausted.
+ */
+final class CompiledRegex {
+
+    private final Pattern pattern;
+    private final long maxSteps;
+
+    CompiledRegex(Pattern pattern, long maxSteps) {
+        this.pattern = pattern;
+        this.maxSteps = maxSteps;
+    }
+
+    Pattern pattern() {
+        return pattern;
+    }
+
+    boolean find(String input) {
+        if (maxSteps <= 0) {
+            return pattern.matcher(input).find();
+        }
+        return pattern.matcher(new BudgetedInput(input, maxSteps, pattern)).find();
+    }
+
+    private static final class BudgetedInput implements CharSequence {
+        private final String input;
+        private final Pattern pattern;
+        private final long maxSteps;
+        private long steps;
+
+        BudgetedInput(String input, long maxSteps, Pattern pattern) {
+            this.input = input;
+            this.maxSteps = maxSteps;
+            this.pattern = pattern;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (++steps > maxSteps) {
+                throw new EvaluationBudgetExceededException(
+                        "regex exceeded its budget of " + maxSteps + " steps: " + pattern.pattern());
+            }
+            return input.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return input.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return input.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return input;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * An immutable, pre-validated rule produced by {@link RuleCompiler}. Safe to cache and share across threads.
+ */
+public final class CompiledRule {
+
+    private final RuleNode root;
+    // Loads the source on first use: rules decoded from a RuleSnapshot parse their JSON only when asked for it
+    private final Supplier<JsonNode> sourceLoader;
+    private volatile JsonNode source;
+    private final FieldPath[] paths;
+    private final boolean memoizePaths;
+    private final RuleProfile profile;
+    private final int compileThreshold;
+    private final ResultCache resultCache;
+    // Set for rules that are too deep to recurse through or whose evaluations must be budgeted
+    private final StackEvaluator stackEvaluator;
+    private volatile PathTrie pathTrie;
+    // Tiering state: a racy evaluation count (exactness does not matter) and the generated evaluator, once built
+    private int evaluations;
+    private boolean generationAttempted;
+    private volatile RuleNode generated;
+
+    CompiledRule(RuleNode root, Supplier<JsonNode> sourceLoader, FieldPath[] paths, boolean memoizePaths,
+                 int compileThreshold, StackEvaluator stackEvaluator) {
+        this(root, sourceLoader, paths, memoizePaths, null, compileThreshold, null, stackEvaluator);
+    }
+
+    private CompiledRule(RuleNode root, Supplier<JsonNode> sourceLoader, FieldPath[] paths, boolean memoizePaths,
+                         RuleProfile profile, int compileThreshold, ResultCache resultCache,
+                         StackEvaluator stackEvaluator) {
+        this.root = root;
+        this.sourceLoader = sourceLoader;
+        this.paths = paths;
+        this.memoizePaths = memoizePaths;
+        this.profile = profile;
+        this.compileThreshold = compileThreshold;
+        this.resultCache = resultCache;
+        this.stackEvaluator = stackEvaluator;
+    }
+
+    /**
+     * The same rule with one in {@code sampleRate} evaluations (on average) routed through an instrumented walk
+     * that feeds a fresh {@link RuleProfile} and the per-operator metrics.
+     */
+    public CompiledRule profiled(int sampleRate, RuleMetrics metrics) {
+        return new CompiledRule(root, sourceLoader, paths, memoizePaths, new RuleProfile(root, sampleRate, metrics),
+                compileThreshold, resultCache, stackEvaluator);
+    }
+
+    /** The same rule evaluated through a reordered (but equivalent) tree. */
+    CompiledRule withPlan(RuleNode root, RuleProfile profile) {
+        return new CompiledRule(root, sourceLoader, paths, memoizePaths, profile, compileThreshold, resultCache,
+                stackEvaluator);
+    }
+
+    /**
+     * The same rule answering repeated inputs from {@code cache}, keyed on the values at the rule's field paths.
+     * Only suitable for rules whose result depends on nothing but those values.
+     */
+    public CompiledRule withResultCache(ResultCache cache) {
+        return new CompiledRule(root, sourceLoader, paths, memoizePaths, profile, compileThreshold, cache,
+                stackEvaluator);
+    }
+
+    public boolean evaluate(Map<String, Object> data) {
+        if (resultCache != null) {
+            Object[] slots = new Object[paths.length];
+            for (FieldPath path : paths) {
+                Object value = path.lookup(data);
+                // Same encoding as a streaming capture, so both paths share cache entries
+                slots[path.slot] = value == FieldPath.MISSING ? null : EvaluationContext.encode(value);
+            }
+            return evaluate(slots);
+        }
+        return evaluate(newContext(data));
+    }
+
+    /**
+     * Evaluates against pre-resolved slot values ({@code null} = missing), consulting the result cache if any.
+     */
+    boolean evaluate(Object[] slots) {
+        ResultCache cache = resultCache;
+        if (cache == null) {
+            return evaluate(new EvaluationContext(null, null, slots));
+        }
+        Boolean cached = cache.get(slots);
+        if (cached != null) {
+            return cached;
+        }
+        // Evaluation writes resolved markers into the slots, so key the entry on a copy
+        Object[] key = slots.clone();
+        boolean result = evaluate(new EvaluationContext(null, null, slots));
+        cache.put(key, result);
+        return result;
+    }
+
+    /**
+     * Evaluates every row of a columnar batch; bit {@code i} of the result is set when row {@code i} matches.
+     */
+    public BitSet evaluate(ColumnarBatch batch) {
+        return new ColumnarEvaluator(batch).evaluate(root);
+    }
+
+    boolean evaluate(EvaluationContext ctx) {
+        if (stackEvaluator != null) {
+            // Neither profiled nor translated to bytecode: both recurse through the tree
+            return stackEvaluator.evaluate(root, ctx);
+        }
+        RuleProfile p = profile;
+        if (p != null && p.sample()) {
+            return p.evaluate(ctx);
+        }
+        RuleNode node = generated;
+        if (node != null) {
+            return node.evaluate(ctx);
+        }
+        if (compileThreshold > 0 && ++evaluations >= compileThreshold && !generationAttempted) {
+            generate();
+        }
+        return root.evaluate(ctx);
+    }
+
+    /**
+     * Translates the tree to bytecode once the rule is hot. On failure the rule simply stays interpreted. Sampled
+     * profiling keeps walking the tree, and a re-planned rule is a new instance that starts counting again.
+     */
+    private synchronized void generate() {
+        if (generationAttempted) return;
+        generationAttempted = true;
+        try {
+            generated = RuleClassGenerator.generate(root);
+        } catch (RuntimeException | LinkageError e) {
+            // keep interpreting
+        }
+    }
+
+    /** Whether evaluations run through a generated class instead of walking the tree. */
+    public boolean isGenerated() {
+        return generated != null;
+    }
+
+    EvaluationContext newContext(Map<String, Object> data) {
+        // Only rules testing the same path more than once pay for the per-evaluation value array
+        return new EvaluationContext(data, null, memoizePaths ? new Object[paths.length] : null);
+    }
+
+    public RuleNode getRoot() {
+        return root;
+    }
+
+    public JsonNode getSource() {
+        JsonNode s = source;
+        if (s == null) {
+            // Racy but idempotent initialization
+            s = sourceLoader.get();
+            source = s;
+        }
+        return s;
+    }
+
+    /** The cache of results by input values, or {@code null} when results are not cached. */
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /** The profile fed by sampled evaluations, or {@code null} when the rule is not profiled. */
+    public RuleProfile getProfile() {
+        return profile;
+    }
+
+    /** The distinct field paths the rule references, indexed by slot. */
+    public List<FieldPath> getFieldPaths() {
+        return List.of(paths);
+    }
+
+    /** The explicit-stack evaluator of a deep or budgeted rule, or {@code null} when the rule recurses. */
+    StackEvaluator stackEvaluator() {
+        return stackEvaluator;
+    }
+
+    FieldPath[] paths() {
+        return paths;
+    }
+
+    PathTrie pathTrie() {
+        PathTrie trie = pathTrie;
+        if (trie == null) {
+            // Racy but idempotent initialization
+            trie = new PathTrie(paths);
+            pathTrie = trie;
+        }
+        return trie;
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.rules;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * A single {@code field op value} check with the operator resolved and the constant already converted.
+ */
+public final class ConditionNode implements RuleNode {
+
+    private final FieldPath path;
+    private final Operator op;
+    private final Operand value;
+    private final Operand[] values;
+    private final CompiledRegex regex;
+    private final InSet set;
+
+    ConditionNode(FieldPath path, Operator op, Operand value, Operand[] values, CompiledRegex regex) {
+        this.path = path;
+        this.op = op;
+        this.value = value;
+        this.values = values;
+        this.regex = regex;
+        this.set = op == Operator.in || op == Operator.not_in ? new InSet(values) : null;
+    }
+
+    private ConditionNode(ConditionNode other, FieldPath path) {
+        this.path = path;
+        this.op = other.op;
+        this.value = other.value;
+        this.values = other.values;
+        this.regex = other.regex;
+        this.set = other.set;
+    }
+
+    /** The same condition bound to a path of another {@link PathTable}. */
+    ConditionNode withPath(FieldPath path) {
+        return path == this.path ? this : new ConditionNode(this, path);
+    }
+
+    /**
+     * The field path, or {@code null} when the condition has no {@code field}.
+     */
+    public FieldPath getPath() {
+        return path;
+    }
+
+    public Operator getOp() {
+        return op;
+    }
+
+    public Object getValue() {
+        return value != null ? value.value : null;
+    }
+
+    /**
+     * The constant list of an {@code in}/{@code not_in} or the {@code [min, max]} bounds of a {@code between}, otherwise {@code null}.
+     */
+    public Object[] getValues() {
+        if (values == null) return null;
+        Object[] copy = new Object[values.length];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = values[i].value;
+        }
+        return copy;
+    }
+
+    @Override
+    public boolean evaluate(EvaluationContext ctx) {
+        switch (op) {
+            case exists:
+                return path != null && ctx.contains(path);
+            case not_exists:
+                return path == null || !ctx.contains(path);
+            case isNull:
+                return path != null && ctx.resolve(path) == null;
+            case isNotNull:
+                return path != null && ctx.resolve(path) != null;
+            default:
+                break;
+        }
+
+        return test(path != null ? ctx.resolve(path) : null);
+    }
+
+    /**
+     * Applies a value operator ({@code eq} ... {@code regex}, not the existence checks) to a resolved value.
+     */
+    boolean test(Object left) {
+        switch (op) {
+            case between:
+                return Values.compare(left, values[0]) >= 0 && Values.compare(left, values[1]) <= 0;
+            case in:
+                return set.contains(left);
+            case not_in:
+                return !set.contains(left);
+            case contains:
+                if (left == null) return false;
+                if (left instanceof Collection<?>) {
+                    for (Object item : (Collection<?>) left) {
+                        if (Values.compare(item, value) == 0) return true;
+                    }
+                    return false;
+                } else if (left instanceof String s) {
+                    return value.value != null && s.contains(value.text);
+                }
+                return false;
+            case regex:
+                if (!(left instanceof String s)) return false;
+                return regex.find(s);
+            case eq:
+                return Values.compare(left, value) == 0;
+            case ne:
+                return Values.compare(left, value) != 0;
+            case lt:
+                return Values.compare(left, value) < 0;
+            case lte:
+                return Values.compare(left, value) <= 0;
+            case gt:
+                return Values.compare(left, value) > 0;
+            case gte:
+                return Values.compare(left, value) >= 0;
+            default:
+                throw new IllegalArgumentException("Operator not implemented: " + op);
+        }
+    }
+
+    Operand operand() {
+        return value;
+    }
+
+    Operand[] operands() {
+        return values;
+    }
+
+    InSet set() {
+        return set;
+    }
+
+    /**
+     * Two conditions are equal when they test the same path with the same operator and constants.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ConditionNode other)) return false;
+        return op == other.op && Objects.equals(path, other.path) && Objects.equals(value, other.value)
+                && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(path, op, value) * 31 + Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        if (op == Operator.exists || op == Operator.not_exists || op == Operator.isNull || op == Operator.isNotNull) {
+            return path + " " + op;
+        }
+        return path + " " + op + " " + (values != null ? Arrays.toString(values) : value);
+    }
+}
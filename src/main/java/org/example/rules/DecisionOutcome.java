@@ -0,0 +1,52 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.node.NullNode;
+
+import java.io.IOException;
+
+/**
+ * The outcome payload of a {@link DecisionTable} row, serialized to JSON once when the table is compiled. JSON
+ * responses copy those bytes verbatim; binary formats (CBOR, Smile) write the parsed tree instead.
+ */
+public final class DecisionOutcome implements JsonSerializable {
+
+    private final JsonNode value;
+    private final String json;
+
+    private DecisionOutcome(JsonNode value) {
+        this.value = value;
+        this.json = value.toString();
+    }
+
+    static DecisionOutcome of(JsonNode value) {
+        return new DecisionOutcome(value != null ? value : NullNode.getInstance());
+    }
+
+    public JsonNode getValue() {
+        return value;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        if (gen.canWriteBinaryNatively()) {
+            value.serialize(gen, serializers);
+        } else {
+            gen.writeRawValue(json);
+        }
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        serialize(gen, serializers);
+    }
+
+    @Override
+    public String toString() {
+        return json;
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * The result of a {@link DecisionTable}: the ids of the matching rows, and depending on the hit policy the outcome
+ * ({@code first}, {@code score}), the outcomes ({@code all}) and the total score ({@code score}).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class DecisionResult {
+
+    private final List<String> matched;
+    private final DecisionOutcome outcome;
+    private final List<DecisionOutcome> outcomes;
+    private final Double score;
+
+    private DecisionResult(List<String> matched, DecisionOutcome outcome, List<DecisionOutcome> outcomes, Double score) {
+        this.matched = matched;
+        this.outcome = outcome;
+        this.outcomes = outcomes;
+        this.score = score;
+    }
+
+    static DecisionResult first(List<String> matched, DecisionOutcome outcome) {
+        return new DecisionResult(matched, outcome, null, null);
+    }
+
+    static DecisionResult all(List<String> matched, List<DecisionOutcome> outcomes) {
+        return new DecisionResult(matched, null, outcomes, null);
+    }
+
+    static DecisionResult score(List<String> matched, double score, DecisionOutcome outcome) {
+        return new DecisionResult(matched, outcome, null, score);
+    }
+
+    public List<String> getMatched() {
+        return matched;
+    }
+
+    /** Absent when no row matched and the table has no default. */
+    public DecisionOutcome getOutcome() {
+        return outcome;
+    }
+
+    public List<DecisionOutcome> getOutcomes() {
+        return outcomes;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+}
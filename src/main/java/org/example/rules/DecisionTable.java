@@ -0,0 +1,150 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An ordered list of rules, each with an outcome, evaluated in one pass over a record:
+ * <pre>
+ * {"hitPolicy": "first", "default": {...},
+ *  "rows": [{"id": "gold", "rule": {...}, "outcome": {...}, "score": 2.5}, ...]}
+ * </pre>
+ * The {@link HitPolicy} decides whether evaluation stops at the first matching row or collects all of them. Rows
+ * are merged into one {@link RuleSet}, so conditions repeated across rows are evaluated once per record, and
+ * outcomes are serialized when the table is compiled.
+ */
+public final class DecisionTable {
+
+    public enum HitPolicy {
+        /** The outcome of the first matching row, or the default outcome. */
+        first,
+        /** The outcomes of all matching rows, in row order. */
+        all,
+        /** The sum of the scores of all matching rows, and the outcome of the highest-scoring one. */
+        score
+    }
+
+    private final JsonNode source;
+    private final HitPolicy hitPolicy;
+    private final RuleSet rows;
+    private final String[] ids;
+    private final DecisionOutcome[] outcomes;
+    private final double[] scores;
+    private final DecisionOutcome defaultOutcome;
+
+    private DecisionTable(JsonNode source, HitPolicy hitPolicy, RuleSet rows, String[] ids, DecisionOutcome[] outcomes,
+                          double[] scores, DecisionOutcome defaultOutcome) {
+        this.source = source;
+        this.hitPolicy = hitPolicy;
+        this.rows = rows;
+        this.ids = ids;
+        this.outcomes = outcomes;
+        this.scores = scores;
+        this.defaultOutcome = defaultOutcome;
+    }
+
+    /**
+     * Validates and compiles a table. Rows without an {@code id} are named by their position, rows without a
+     * {@code score} score 1, and a missing {@code outcome} is {@code null}.
+     */
+    static DecisionTable compile(JsonNode table, RuleCompiler compiler) {
+        if (table == null || !table.isObject()) {
+            throw new IllegalArgumentException("Decision table must be an object");
+        }
+        HitPolicy hitPolicy = HitPolicy.first;
+        JsonNode policy = table.get("hitPolicy");
+        if (policy != null && !policy.isNull()) {
+            try {
+                hitPolicy = HitPolicy.valueOf(policy.asText());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown hit policy: " + policy.asText());
+            }
+        }
+        JsonNode rows = table.get("rows");
+        if (rows == null || !rows.isArray()) {
+            throw new IllegalArgumentException("Decision table requires a 'rows' array");
+        }
+
+        Map<String, CompiledRule> compiled = new LinkedHashMap<>();
+        List<DecisionOutcome> outcomes = new ArrayList<>();
+        double[] scores = new double[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            JsonNode row = rows.get(i);
+            if (!row.isObject()) {
+                throw new IllegalArgumentException("Row " + i + " must be an object");
+            }
+            String id = row.hasNonNull("id") ? row.get("id").asText() : String.valueOf(i);
+            if (compiled.containsKey(id)) {
+                throw new IllegalArgumentException("Duplicate row id: " + id);
+            }
+            JsonNode score = row.get("score");
+            if (score != null && !score.isNumber()) {
+                throw new IllegalArgumentException("Row '" + id + "': score must be a number");
+            }
+            try {
+                compiled.put(id, compiler.compile(row.get("rule")));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row '" + id + "': " + e.getMessage(), e);
+            }
+            outcomes.add(DecisionOutcome.of(row.get("outcome")));
+            scores[i] = score != null ? score.doubleValue() : 1;
+        }
+        JsonNode defaultOutcome = table.get("default");
+        return new DecisionTable(table, hitPolicy, RuleSet.of(compiled), compiled.keySet().toArray(new String[0]),
+                outcomes.toArray(new DecisionOutcome[0]), scores,
+                defaultOutcome != null ? DecisionOutcome.of(defaultOutcome) : null);
+    }
+
+    public DecisionResult evaluate(Map<String, Object> data) {
+        EvaluationContext ctx = rows.newContext(data);
+        switch (hitPolicy) {
+            case first:
+                for (int i = 0; i < ids.length; i++) {
+                    if (rows.matches(i, ctx)) {
+                        return DecisionResult.first(List.of(ids[i]), outcomes[i]);
+                    }
+                }
+                return DecisionResult.first(List.of(), defaultOutcome);
+            case all: {
+                List<String> matched = new ArrayList<>();
+                List<DecisionOutcome> matchedOutcomes = new ArrayList<>();
+                for (int i = 0; i < ids.length; i++) {
+                    if (rows.matches(i, ctx)) {
+                        matched.add(ids[i]);
+                        matchedOutcomes.add(outcomes[i]);
+                    }
+                }
+                return DecisionResult.all(matched, matchedOutcomes);
+            }
+            default: {
+                List<String> matched = new ArrayList<>();
+                double total = 0;
+                int best = -1;
+                for (int i = 0; i < ids.length; i++) {
+                    if (rows.matches(i, ctx)) {
+                        matched.add(ids[i]);
+                        total += scores[i];
+                        if (best < 0 || scores[i] > scores[best]) best = i;
+                    }
+                }
+                return DecisionResult.score(matched, total, best >= 0 ? outcomes[best] : defaultOutcome);
+            }
+        }
+    }
+
+    public HitPolicy getHitPolicy() {
+        return hitPolicy;
+    }
+
+    public int getRowCount() {
+        return ids.length;
+    }
+
+    public JsonNode getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.rules;
+
+/**
+ * Thrown when evaluating a rule exceeds a configured work budget. The evaluation is aborted and has no result.
+ */
+public class EvaluationBudgetExceededException extends RuntimeException {
+
+    public EvaluationBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.rules;
+
+import java.util.Map;
+
+/**
+ * Per-evaluation state handed down the compiled tree.
+ */
+public final class EvaluationContext {
+
+    private static final Object NULL = new Object();
+
+    private final Map<String, Object> data;
+    // Results of shared sub-trees of a RuleSet: 0 = not evaluated yet, 1 = true, 2 = false
+    final byte[] memo;
+    // Resolved field values by FieldPath slot (null = not resolved yet), when paths are memoized. A streaming
+    // evaluation pre-fills it and has no data map, so unresolved slots read as missing.
+    private final Object[] values;
+
+    public EvaluationContext(Map<String, Object> data) {
+        this(data, null, null);
+    }
+
+    EvaluationContext(Map<String, Object> data, byte[] memo, Object[] values) {
+        this.data = data;
+        this.memo = memo;
+        this.values = values;
+    }
+
+    public Map<String, Object> getData() {
+        return data;
+    }
+
+    Object resolve(FieldPath path) {
+        Object value = lookup(path);
+        return value == FieldPath.MISSING ? null : value;
+    }
+
+    boolean contains(FieldPath path) {
+        return lookup(path) != FieldPath.MISSING;
+    }
+
+    /** Encodes a resolved value for a slot array, where {@code null} means "not resolved" (i.e. missing). */
+    static Object encode(Object value) {
+        return value == null ? NULL : value;
+    }
+
+    private Object lookup(FieldPath path) {
+        if (values == null) {
+            return path.lookup(data);
+        }
+        Object value = values[path.slot];
+        if (value == null) {
+            value = path.lookup(data);
+            values[path.slot] = encode(value);
+            return value;
+        }
+        return value == NULL ? null : value;
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.rules;
+
+/**
+ * How one evaluation of a rule reached its result, as recorded by {@link RuleTracer}.
+ */
+public final class EvaluationTrace {
+
+    private final TraceNode root;
+    private final int nodes;
+    private final boolean truncated;
+
+    EvaluationTrace(TraceNode root, int nodes, boolean truncated) {
+        this.root = root;
+        this.nodes = nodes;
+        this.truncated = truncated;
+    }
+
+    /** The root node; its result is the rule's result. */
+    public TraceNode getRoot() {
+        return root;
+    }
+
+    /** Nodes recorded in the trace. */
+    public int getNodes() {
+        return nodes;
+    }
+
+    /** Whether the trace reached its size limit, so some evaluated nodes are missing from it. */
+    public boolean isTruncated() {
+        return truncated;
+    }
+}
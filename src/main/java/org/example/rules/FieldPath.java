@@ -0,0 +1,98 @@
+package org.example.rules;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A dot-separated field path, parsed once at compile time. Numeric segments also index into lists
+ * ({@code items.0.sku}). Every distinct path of a compiled rule has a slot, used to memoize its value within one
+ * evaluation.
+ */
+public final class FieldPath {
+
+    static final Object MISSING = new Object();
+
+    private final String path;
+    private final String[] segments;
+    // List index of each segment, or -1 when the segment is not a non-negative integer
+    private final int[] indexes;
+    final int slot;
+
+    FieldPath(String path, int slot) {
+        this.path = path;
+        this.slot = slot;
+        String[] parts = path.split("\\.");
+        this.segments = new String[parts.length];
+        this.indexes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            // Interned so map lookups hit the identity check against Jackson's interned field names
+            segments[i] = parts[i].intern();
+            indexes[i] = parseIndex(parts[i]);
+        }
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /** The segments of the path; the returned array must not be modified. */
+    String[] segments() {
+        return segments;
+    }
+
+    int index(int segment) {
+        return indexes[segment];
+    }
+
+    /**
+     * Returns the value at this path, or {@link #MISSING} when any segment is absent. Does not allocate.
+     */
+    Object lookup(Map<String, Object> data) {
+        return lookupFrom(data, 0);
+    }
+
+    /**
+     * Like {@link #lookup} but starting at segment {@code from}, with {@code current} the value reached so far.
+     */
+    Object lookupFrom(Object current, int from) {
+        for (int i = from; i < segments.length; i++) {
+            if (current instanceof Map<?, ?> map) {
+                String segment = segments[i];
+                current = map.get(segment);
+                if (current == null && !map.containsKey(segment)) return MISSING;
+            } else if (current instanceof List<?> list && indexes[i] >= 0) {
+                if (indexes[i] >= list.size()) return MISSING;
+                current = list.get(indexes[i]);
+            } else {
+                return MISSING;
+            }
+        }
+        return current;
+    }
+
+    private static int parseIndex(String segment) {
+        if (segment.isEmpty() || segment.length() > 9) return -1;
+        int v = 0;
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof FieldPath other && path.equals(other.path));
+    }
+
+    @Override
+    public int hashCode() {
+        return path.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.rules;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The constant list of an {@code in}/{@code not_in}, normalized once into hash sets so membership is O(1) while
+ * keeping the coercion of {@link Values#compare}: integral numbers (including numeric strings and integral
+ * doubles such as {@code 5.0}) live in a primitive long set, fractional numbers in a decimal set and a double set,
+ * timestamps in an instant set, and the string form of every constant in a string set for the
+ * {@code Comparable}/string fallback.
+ */
+final class InSet {
+
+    private static final BigDecimal LONG_MIN = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    private final boolean containsNull;
+    private final LongHashSet longs;
+    private final Set<BigDecimal> decimals = new HashSet<>();
+    private final LongHashSet doubleBits;
+    private final Set<Instant> instants = new HashSet<>();
+    private final Set<String> strings;
+
+    InSet(Operand[] values) {
+        // Every non-null constant has a string form: size the set once instead of rehashing as it fills
+        this.strings = new HashSet<>((int) (values.length / 0.75f) + 1);
+        boolean hasNull = false;
+        List<Long> integral = new ArrayList<>();
+        List<Long> fractionalBits = new ArrayList<>();
+        for (Operand v : values) {
+            if (v.value == null) {
+                hasNull = true;
+                continue;
+            }
+            strings.add(v.text);
+            if (v.integral) {
+                integral.add(v.longValue);
+            } else if (v.numeric) {
+                decimals.add(v.decimal.stripTrailingZeros());
+                fractionalBits.add(Double.doubleToLongBits(v.doubleValue));
+            } else if (v.instant != null) {
+                instants.add(v.instant);
+            }
+        }
+        this.containsNull = hasNull;
+        this.longs = new LongHashSet(integral.stream().mapToLong(Long::longValue).toArray());
+        this.doubleBits = new LongHashSet(fractionalBits.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    boolean contains(Object left) {
+        if (left == null) return containsNull;
+        if (left instanceof Long || left instanceof Integer || left instanceof Short || left instanceof Byte) {
+            return longs.contains(((Number) left).longValue());
+        }
+        if (left instanceof Double || left instanceof Float) {
+            double d = ((Number) left).doubleValue();
+            if (!Double.isNaN(d)) {
+                if (d == Math.rint(d) && Math.abs(d) < 0x1p63) {
+                    return longs.contains((long) d);
+                }
+                return !Double.isInfinite(d) && doubleBits.contains(Double.doubleToLongBits(d));
+            }
+        } else if (left instanceof BigDecimal bd) {
+            return containsDecimal(bd);
+        } else if (left instanceof Number n) {
+            return containsDecimal(new BigDecimal(n.toString()));
+        } else if (left instanceof String s) {
+            if (Values.looksNumeric(s)) {
+                return containsDecimal(new BigDecimal(s));
+            }
+            if (strings.contains(s)) return true;
+            if (!instants.isEmpty()) {
+                Instant i = Values.toInstantOrNull(s);
+                return i != null && instants.contains(i);
+            }
+            return false;
+        } else if (left instanceof Instant i) {
+            return instants.contains(i);
+        }
+        return strings.contains(String.valueOf(left));
+    }
+
+    /** {@link #contains} for a {@code Long} without boxing it. */
+    boolean containsLong(long v) {
+        return longs.contains(v);
+    }
+
+    /** {@link #contains} for a {@code Double} without boxing it. */
+    boolean containsDouble(double d) {
+        if (Double.isNaN(d)) return strings.contains("NaN");
+        if (d == Math.rint(d) && Math.abs(d) < 0x1p63) {
+            return longs.contains((long) d);
+        }
+        return !Double.isInfinite(d) && doubleBits.contains(Double.doubleToLongBits(d));
+    }
+
+    private boolean containsDecimal(BigDecimal d) {
+        BigDecimal normalized = d.stripTrailingZeros();
+        if (normalized.scale() <= 0 && normalized.compareTo(LONG_MIN) >= 0 && normalized.compareTo(LONG_MAX) <= 0) {
+            return longs.contains(normalized.longValue());
+        }
+        return decimals.contains(normalized);
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.rules;
+
+/**
+ * Minimal open-addressing set of primitive longs; immutable once built.
+ */
+final class LongHashSet {
+
+    private final long[] keys;
+    private final int mask;
+    private final boolean containsZero;
+    private final int size;
+
+    LongHashSet(long[] values) {
+        int capacity = Integer.highestOneBit(Math.max(4, values.length * 2 - 1)) << 1;
+        long[] table = new long[capacity];
+        int m = capacity - 1;
+        boolean zero = false;
+        int count = 0;
+        for (long v : values) {
+            if (v == 0) {
+                if (!zero) count++;
+                zero = true;
+                continue;
+            }
+            int i = index(v, m);
+            while (table[i] != 0 && table[i] != v) {
+                i = (i + 1) & m;
+            }
+            if (table[i] == 0) count++;
+            table[i] = v;
+        }
+        this.keys = table;
+        this.mask = m;
+        this.containsZero = zero;
+        this.size = count;
+    }
+
+    boolean contains(long v) {
+        if (v == 0) return containsZero;
+        int i = index(v, mask);
+        long k;
+        while ((k = keys[i]) != 0) {
+            if (k == v) return true;
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static int index(long v, int mask) {
+        long h = v * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.rules;
+
+/**
+ * Wraps a sub-tree shared between several rules of a {@link RuleSet} so it is evaluated at most once per record.
+ */
+final class MemoNode implements RuleNode {
+
+    private final int slot;
+    private final RuleNode node;
+
+    MemoNode(int slot, RuleNode node) {
+        this.slot = slot;
+        this.node = node;
+    }
+
+    int getSlot() {
+        return slot;
+    }
+
+    RuleNode getNode() {
+        return node;
+    }
+
+    @Override
+    public boolean evaluate(EvaluationContext ctx) {
+        byte state = ctx.memo[slot];
+        if (state != 0) return state == 1;
+        boolean result = node.evaluate(ctx);
+        ctx.memo[slot] = result ? (byte) 1 : (byte) 2;
+        return result;
+    }
+}
@@ -0,0 +1,184 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.config.RuleEngineProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Evaluates one compiled rule over a newline-delimited JSON stream, writing one result line per input record in
+ * input order. Lines are parsed and evaluated in chunks on a dedicated {@link ForkJoinPool} while the caller keeps
+ * reading; at most {@code rule-engine.stream.window} lines are in flight, so memory stays bounded and a slow
+ * consumer of the output slows down reading of the input.
+ */
+@Component
+public class NdjsonEvaluator implements DisposableBean {
+
+    private static final byte[] TRUE = "{\"result\":true}\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FALSE = "{\"result\":false}\n".getBytes(StandardCharsets.UTF_8);
+
+    private final StreamingEvaluator streamingEvaluator;
+    private final ObjectMapper mapper;
+    private final int chunkSize;
+    private final int maxChunksInFlight;
+    private final int maxLineLength;
+    private final ForkJoinPool pool;
+
+    public NdjsonEvaluator(StreamingEvaluator streamingEvaluator, ObjectMapper mapper, RuleEngineProperties properties) {
+        RuleEngineProperties.Stream stream = properties.getStream();
+        int parallelism = stream.getParallelism() > 0 ? stream.getParallelism() : Runtime.getRuntime().availableProcessors();
+        int window = Math.max(1, stream.getWindow());
+        this.streamingEvaluator = streamingEvaluator;
+        this.mapper = mapper;
+        this.chunkSize = Math.min(256, window);
+        this.maxChunksInFlight = Math.max(1, window / chunkSize);
+        this.maxLineLength = stream.getMaxLineLength();
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /** A reader of {@code in} that rejects lines over {@code rule-engine.stream.max-line-length}. */
+    public NdjsonReader reader(InputStream in) {
+        return new NdjsonReader(in, maxLineLength);
+    }
+
+    /**
+     * Reads a {@code {"rule": ...}} header line, for streams that carry their own rule.
+     */
+    public JsonNode readRule(NdjsonReader lines) throws IOException {
+        byte[] header = lines.nextLine();
+        if (header == null) {
+            throw new IllegalArgumentException("Stream is empty; expected a {\"rule\": ...} header line");
+        }
+        JsonNode node;
+        try {
+            node = mapper.readTree(header);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed rule header line", e);
+        }
+        if (node == null || !node.isObject() || !node.has("rule")) {
+            throw new IllegalArgumentException("First line must be {\"rule\": ...} when no ruleId is given");
+        }
+        return node.get("rule");
+    }
+
+    /**
+     * Evaluates every remaining line and writes {@code {"result":true|false}} for each, or
+     * {@code {"error":...,"message":...}} for a line that is not a JSON object, is too long or fails to evaluate.
+     */
+    public void evaluate(CompiledRule rule, NdjsonReader lines, OutputStream out) throws IOException {
+        ArrayDeque<CompletableFuture<byte[][]>> inFlight = new ArrayDeque<>();
+        List<byte[]> chunk = new ArrayList<>(chunkSize);
+        while (true) {
+            byte[] line;
+            try {
+                line = lines.nextLine();
+            } catch (IllegalArgumentException e) {
+                // The reader skipped an overlong line: answer it in place, after the lines read before it
+                if (!chunk.isEmpty()) {
+                    enqueue(inFlight, submit(rule, chunk), out);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+                byte[][] skipped = {error("BAD_REQUEST", e.getMessage())};
+                enqueue(inFlight, CompletableFuture.completedFuture(skipped), out);
+                continue;
+            }
+            if (line == null) {
+                break;
+            }
+            chunk.add(line);
+            // Hand over a partial chunk too when more input is not yet available, so a trickling stream still
+            // gets timely results
+            if (chunk.size() == chunkSize || lines.wouldBlock()) {
+                enqueue(inFlight, submit(rule, chunk), out);
+                chunk = new ArrayList<>(chunkSize);
+                while (!inFlight.isEmpty() && inFlight.peek().isDone()) {
+                    write(inFlight.poll(), out);
+                }
+                if (lines.wouldBlock()) {
+                    out.flush();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            inFlight.add(submit(rule, chunk));
+        }
+        while (!inFlight.isEmpty()) {
+            write(inFlight.poll(), out);
+        }
+        out.flush();
+    }
+
+    /** Queues a chunk's results, first writing out the oldest chunk when the window is full. */
+    private void enqueue(ArrayDeque<CompletableFuture<byte[][]>> inFlight, CompletableFuture<byte[][]> results,
+                         OutputStream out) throws IOException {
+        if (inFlight.size() == maxChunksInFlight) {
+            write(inFlight.poll(), out);
+        }
+        inFlight.add(results);
+    }
+
+    private CompletableFuture<byte[][]> submit(CompiledRule rule, List<byte[]> chunk) {
+        return CompletableFuture.supplyAsync(() -> {
+            byte[][] results = new byte[chunk.size()][];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = evaluateLine(rule, chunk.get(i));
+            }
+            return results;
+        }, pool);
+    }
+
+    private byte[] evaluateLine(CompiledRule rule, byte[] line) {
+        try {
+            return streamingEvaluator.evaluateData(rule, line) ? TRUE : FALSE;
+        } catch (IllegalArgumentException e) {
+            return error("BAD_REQUEST", e.getMessage());
+        } catch (EvaluationBudgetExceededException e) {
+            return error("BUDGET_EXCEEDED", e.getMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            // One bad record must not end the stream for all the others
+            return error("EVALUATION_ERROR", e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    private byte[] error(String error, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", error);
+        body.put("message", message);
+        try {
+            byte[] json = mapper.writeValueAsBytes(body);
+            byte[] withNewline = new byte[json.length + 1];
+            System.arraycopy(json, 0, withNewline, 0, json.length);
+            withNewline[json.length] = '\n';
+            return withNewline;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(CompletableFuture<byte[][]> chunk, OutputStream out) throws IOException {
+        for (byte[] result : chunk.join()) {
+            out.write(result);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.rules;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Splits a newline-delimited JSON stream into lines, without decoding them. Blank lines are skipped and a trailing
+ * {@code \r} is dropped. A line longer than {@code maxLineLength} bytes is skipped without being buffered.
+ */
+public final class NdjsonReader {
+
+    private final InputStream in;
+    private final int maxLineLength;
+    private final byte[] buffer = new byte[64 * 1024];
+    private int pos;
+    private int limit;
+    private boolean eof;
+
+    public NdjsonReader(InputStream in) {
+        this(in, 0);
+    }
+
+    /**
+     * @param maxLineLength the longest line accepted, in bytes; 0 for no limit
+     */
+    public NdjsonReader(InputStream in, int maxLineLength) {
+        this.in = in;
+        this.maxLineLength = maxLineLength > 0 ? maxLineLength : Integer.MAX_VALUE;
+    }
+
+    /**
+     * The next non-blank line, or {@code null} at the end of the stream.
+     *
+     * @throws IllegalArgumentException for a line longer than the limit; it has been skipped, so reading can go on
+     */
+    public byte[] nextLine() throws IOException {
+        byte[] partial = null;
+        int partialLength = 0;
+        while (true) {
+            int newline = indexOfNewline();
+            if (newline >= 0) {
+                if ((long) partialLength + newline - pos > maxLineLength) {
+                    pos = newline + 1;
+                    throw tooLong();
+                }
+                byte[] line = concat(partial, partialLength, newline);
+                pos = newline + 1;
+                if (line != null) return line;
+                partial = null;
+                partialLength = 0;
+                continue;
+            }
+            // No newline left in the buffer: keep the tail and refill
+            if (limit > pos) {
+                int n = limit - pos;
+                if ((long) partialLength + n > maxLineLength) {
+                    skipLine();
+                    throw tooLong();
+                }
+                if (partial == null || partialLength + n > partial.length) {
+                    partial = partial == null ? new byte[Math.max(256, n * 2)]
+                            : Arrays.copyOf(partial, Math.max(partial.length * 2, partialLength + n));
+                }
+                System.arraycopy(buffer, pos, partial, partialLength, n);
+                partialLength += n;
+            }
+            pos = limit = 0;
+            if (eof || !fill()) {
+                return trim(partial, 0, partialLength);
+            }
+        }
+    }
+
+    /** Whether the next {@link #nextLine()} may block on the underlying stream. */
+    public boolean wouldBlock() throws IOException {
+        return pos == limit && !eof && in.available() == 0;
+    }
+
+    /** Discards the rest of the current line, through its newline. */
+    private void skipLine() throws IOException {
+        while (true) {
+            int newline = indexOfNewline();
+            if (newline >= 0) {
+                pos = newline + 1;
+                return;
+            }
+            pos = limit = 0;
+            if (eof || !fill()) {
+                return;
+            }
+        }
+    }
+
+    private IllegalArgumentException tooLong() {
+        return new IllegalArgumentException("Line is longer than " + maxLineLength + " bytes");
+    }
+
+    private int indexOfNewline() {
+        for (int i = pos; i < limit; i++) {
+            if (buffer[i] == '\n') return i;
+        }
+        return -1;
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buffer, 0, buffer.length);
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        limit = n;
+        return true;
+    }
+
+    /** The line ending before {@code end}: the carried-over bytes plus {@code buffer[pos, end)}, or null if blank. */
+    private byte[] concat(byte[] partial, int partialLength, int end) {
+        if (partial == null) {
+            return trim(buffer, pos, end);
+        }
+        byte[] joined = Arrays.copyOf(partial, partialLength + end - pos);
+        System.arraycopy(buffer, pos, joined, partialLength, end - pos);
+        return trim(joined, 0, joined.length);
+    }
+
+    private static byte[] trim(byte[] bytes, int from, int to) {
+        if (bytes == null) return null;
+        if (to > from && bytes[to - 1] == '\r') to--;
+        for (int i = from; i < to; i++) {
+            byte b = bytes[i];
+            if (b != ' ' && b != '\t') {
+                return from == 0 && to == bytes.length ? bytes : Arrays.copyOfRange(bytes, from, to);
+            }
+        }
+        return null;
+    }
+}
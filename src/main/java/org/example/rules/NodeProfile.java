@@ -0,0 +1,110 @@
+package org.example.rules;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of one node of a {@link RuleProfile}. Times are inclusive of the node's children.
+ */
+public final class NodeProfile {
+
+    private final String node;
+    final NodeProfile[] children;
+    private final LongAdder evaluations;
+    private final LongAdder passes;
+    private final LongAdder nanos;
+    final LongAdder shortCircuits;
+
+    private NodeProfile(String node, NodeProfile[] children) {
+        this.node = node;
+        this.children = children;
+        this.evaluations = new LongAdder();
+        this.passes = new LongAdder();
+        this.nanos = new LongAdder();
+        this.shortCircuits = new LongAdder();
+    }
+
+    private NodeProfile(NodeProfile counters, NodeProfile[] children) {
+        this.node = counters.node;
+        this.children = children;
+        this.evaluations = counters.evaluations;
+        this.passes = counters.passes;
+        this.nanos = counters.nanos;
+        this.shortCircuits = counters.shortCircuits;
+    }
+
+    static NodeProfile of(RuleNode node) {
+        if (node instanceof AllNode all) {
+            return new NodeProfile(label(node), of(all.children()));
+        }
+        if (node instanceof AnyNode any) {
+            return new NodeProfile(label(node), of(any.children()));
+        }
+        if (node instanceof NotNode not) {
+            return new NodeProfile(label(node), new NodeProfile[]{of(not.getChild())});
+        }
+        return new NodeProfile(label(node), new NodeProfile[0]);
+    }
+
+    static String label(RuleNode node) {
+        if (node instanceof AllNode) return "all";
+        if (node instanceof AnyNode) return "any";
+        if (node instanceof NotNode) return "not";
+        return node.toString();
+    }
+
+    /** The same counters over reordered (or re-profiled) children. */
+    NodeProfile withChildren(NodeProfile[] children) {
+        return new NodeProfile(this, children);
+    }
+
+    private static NodeProfile[] of(RuleNode[] nodes) {
+        NodeProfile[] profiles = new NodeProfile[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            profiles[i] = of(nodes[i]);
+        }
+        return profiles;
+    }
+
+    void record(boolean passed, long elapsed) {
+        evaluations.increment();
+        if (passed) passes.increment();
+        nanos.add(elapsed);
+    }
+
+    /** {@code all}, {@code any}, {@code not}, or the condition as {@code field op value}. */
+    public String getNode() {
+        return node;
+    }
+
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    public long getPasses() {
+        return passes.sum();
+    }
+
+    public double getHitRate() {
+        long n = evaluations.sum();
+        return n == 0 ? 0 : (double) passes.sum() / n;
+    }
+
+    public long getTotalNanos() {
+        return nanos.sum();
+    }
+
+    public double getMeanNanos() {
+        long n = evaluations.sum();
+        return n == 0 ? 0 : (double) nanos.sum() / n;
+    }
+
+    /** For groups, evaluations decided before the last child was reached. */
+    public long getShortCircuits() {
+        return shortCircuits.sum();
+    }
+
+    public List<NodeProfile> getChildren() {
+        return List.of(children);
+    }
+}
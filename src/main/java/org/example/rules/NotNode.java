@@ -0,0 +1,19 @@
+package org.example.rules;
+
+public final class NotNode implements RuleNode {
+
+    private final RuleNode child;
+
+    NotNode(RuleNode child) {
+        this.child = child;
+    }
+
+    public RuleNode getChild() {
+        return child;
+    }
+
+    @Override
+    public boolean evaluate(EvaluationContext ctx) {
+        return !child.evaluate(ctx);
+    }
+}
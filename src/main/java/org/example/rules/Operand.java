@@ -0,0 +1,94 @@
+package org.example.rules;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A rule constant classified once at compile time, so comparisons never have to guess (or parse) its type.
+ */
+final class Operand {
+
+    final Object value;
+    /** {@code String.valueOf(value)}, used by {@code contains} on strings and the string comparison fallback. */
+    final String text;
+    final boolean numeric;
+    /** Numeric and exactly representable as a {@code long}. */
+    final boolean integral;
+    final long longValue;
+    final double doubleValue;
+    final BigDecimal decimal;
+    /** For non-integral numerics: the floor, clamped to the long range, and which side of that range it is on. */
+    final long floor;
+    final int longRange;
+    final Instant instant;
+
+    private Operand(Object value, BigDecimal decimal, Instant instant) {
+        this.value = value;
+        this.text = String.valueOf(value);
+        this.numeric = decimal != null;
+        this.decimal = decimal;
+        this.instant = instant;
+        if (decimal == null) {
+            this.integral = false;
+            this.longValue = 0;
+            this.doubleValue = 0;
+            this.floor = 0;
+            this.longRange = 0;
+            return;
+        }
+        this.doubleValue = decimal.doubleValue();
+        if (decimal.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0) {
+            this.integral = false;
+            this.longValue = 0;
+            this.floor = Long.MAX_VALUE;
+            this.longRange = 1;
+        } else if (decimal.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) < 0) {
+            this.integral = false;
+            this.longValue = 0;
+            this.floor = Long.MIN_VALUE;
+            this.longRange = -1;
+        } else {
+            BigDecimal floored = decimal.setScale(0, RoundingMode.FLOOR);
+            this.integral = floored.compareTo(decimal) == 0;
+            this.longValue = integral ? floored.longValueExact() : 0;
+            this.floor = floored.longValueExact();
+            this.longRange = 0;
+        }
+    }
+
+    static Operand of(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return new Operand(value, BigDecimal.valueOf(((Number) value).longValue()), null);
+        }
+        if (value instanceof BigDecimal bd) {
+            return new Operand(value, bd, null);
+        }
+        if (value instanceof Number n) {
+            return new Operand(value, new BigDecimal(n.toString()), null);
+        }
+        if (value instanceof String s) {
+            if (Values.looksNumeric(s)) {
+                return new Operand(value, new BigDecimal(s), null);
+            }
+            return new Operand(value, null, Values.toInstantOrNull(s));
+        }
+        return new Operand(value, null, null);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Operand other && Objects.equals(value, other.value));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.rules;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns the field paths of one compilation unit (a rule or a rule set): each distinct path string becomes one
+ * {@link FieldPath} with its own slot, and the table records whether any path is referenced more than once.
+ */
+final class PathTable {
+
+    private final Map<String, FieldPath> byPath = new HashMap<>();
+    private final List<FieldPath> paths = new ArrayList<>();
+    private boolean shared;
+
+    FieldPath intern(String path) {
+        FieldPath existing = byPath.get(path);
+        if (existing != null) {
+            shared = true;
+            return existing;
+        }
+        FieldPath created = new FieldPath(path, paths.size());
+        byPath.put(path, created);
+        paths.add(created);
+        return created;
+    }
+
+    FieldPath[] toArray() {
+        return paths.toArray(new FieldPath[0]);
+    }
+
+    /** True when some path is used by more than one condition, so memoizing resolved values pays off. */
+    boolean hasSharedPaths() {
+        return shared;
+    }
+}
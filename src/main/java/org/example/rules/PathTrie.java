@@ -0,0 +1,73 @@
+package org.example.rules;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The field paths of a compiled rule arranged as a trie of segments, so a streaming parser can tell at every
+ * field whether to descend, capture the value into a slot, or skip the whole subtree.
+ */
+final class PathTrie {
+
+    final Node root = new Node(0);
+
+    PathTrie(FieldPath[] paths) {
+        for (FieldPath path : paths) {
+            Node node = root;
+            String[] segments = path.segments();
+            for (int i = 0; i < segments.length; i++) {
+                node = node.child(segments[i], path.index(i));
+            }
+            node.path = path;
+        }
+    }
+
+    static final class Node {
+        final int depth;
+        /** Set when a rule path ends here; its value is captured into {@code path.slot}. */
+        FieldPath path;
+        final Map<String, Node> children = new HashMap<>();
+        /**
+         * Children for numeric segments, for array elements: the list indexes in ascending order and the child of
+         * each. Sparse, so a path on a high index costs one entry rather than an array that long.
+         */
+        private int[] indexes = new int[0];
+        private Node[] indexed = new Node[0];
+
+        Node(int depth) {
+            this.depth = depth;
+        }
+
+        Node child(String segment, int index) {
+            Node child = children.computeIfAbsent(segment, k -> new Node(depth + 1));
+            if (index >= 0) {
+                int at = Arrays.binarySearch(indexes, index);
+                if (at < 0) {
+                    at = -at - 1;
+                    int[] grownIndexes = new int[indexes.length + 1];
+                    Node[] grown = new Node[indexed.length + 1];
+                    System.arraycopy(indexes, 0, grownIndexes, 0, at);
+                    System.arraycopy(indexed, 0, grown, 0, at);
+                    System.arraycopy(indexes, at, grownIndexes, at + 1, indexes.length - at);
+                    System.arraycopy(indexed, at, grown, at + 1, indexed.length - at);
+                    grownIndexes[at] = index;
+                    indexes = grownIndexes;
+                    indexed = grown;
+                }
+                indexed[at] = child;
+            }
+            return child;
+        }
+
+        Node indexed(int index) {
+            if (indexes.length == 0) return null;
+            int at = Arrays.binarySearch(indexes, index);
+            return at >= 0 ? indexed[at] : null;
+        }
+
+        boolean isLeaf() {
+            return children.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.rules;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded LRU cache of compiled patterns shared by all rules of a compiler, so ad-hoc rules that are compiled on
+ * every request do not recompile the same regex each time.
+ */
+final class PatternCache {
+
+    private final int maxSize;
+    private final LinkedHashMap<String, Pattern> patterns;
+
+    PatternCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.patterns = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+                return size() > PatternCache.this.maxSize;
+            }
+        };
+    }
+
+    Pattern get(String regex) {
+        if (maxSize <= 0) {
+            return Pattern.compile(regex);
+        }
+        synchronized (patterns) {
+            Pattern cached = patterns.get(regex);
+            if (cached != null) return cached;
+        }
+        Pattern compiled = Pattern.compile(regex);
+        synchronized (patterns) {
+            patterns.put(regex, compiled);
+        }
+        return compiled;
+    }
+
+    int size() {
+        synchronized (patterns) {
+            return patterns.size();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.rules;
+
+import java.util.List;
+
+/**
+ * One node of a rule's evaluation plan, as reported by {@link RuleOptimizer#plan}. Children are listed in the order
+ * they are evaluated.
+ */
+public final class PlanNode {
+
+    private final String node;
+    private final double cost;
+    private final List<PlanNode> children;
+
+    PlanNode(String node, double cost, List<PlanNode> children) {
+        this.node = node;
+        this.cost = cost;
+        this.children = children;
+    }
+
+    /** {@code all}, {@code any}, {@code not}, or the condition as {@code field op value}. */
+    public String getNode() {
+        return node;
+    }
+
+    /** Estimated worst-case cost, in units of one existence check. */
+    public double getCost() {
+        return cost;
+    }
+
+    public List<PlanNode> getChildren() {
+        return children;
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.rules;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Static screening of regex constants for safe-regex mode. Rejects the constructs behind catastrophic
+ * backtracking: back-references and repetition of a group that itself contains an unbounded quantifier
+ * (e.g. {@code (a+)+}, {@code (\w*)*}, {@code (.*a){12}}). Ambiguity the screen cannot see, such as
+ * {@code a*a*a*b}, is left to the runtime step budget.
+ */
+final class RegexSafety {
+
+    private RegexSafety() {}
+
+    static void check(String regex) {
+        // One entry per open group: does its body contain an unbounded quantifier?
+        Deque<boolean[]> groups = new ArrayDeque<>();
+        boolean[] top = new boolean[1];
+        boolean lastWasGroupWithQuantifier = false;
+        int n = regex.length();
+        for (int i = 0; i < n; i++) {
+            char c = regex.charAt(i);
+            boolean closedQuantifiedGroup = false;
+            switch (c) {
+                case '\\':
+                    if (i + 1 < n) {
+                        char next = regex.charAt(i + 1);
+                        if ((next >= '1' && next <= '9') || next == 'k') {
+                            throw new IllegalArgumentException("regex rejected in safe mode (back-reference): " + regex);
+                        }
+                        if (next == 'Q') {
+                            int end = regex.indexOf("\\E", i + 2);
+                            i = end < 0 ? n : end + 1;
+                        } else {
+                            i++;
+                        }
+                    }
+                    break;
+                case '[':
+                    i = skipCharClass(regex, i);
+                    break;
+                case '(':
+                    groups.push(top);
+                    top = new boolean[1];
+                    break;
+                case ')':
+                    boolean inner = top[0];
+                    top = groups.isEmpty() ? new boolean[1] : groups.pop();
+                    // An inner unbounded quantifier also makes the enclosing group "unbounded inside"
+                    top[0] |= inner;
+                    closedQuantifiedGroup = inner;
+                    break;
+                case '*':
+                case '+':
+                    if (lastWasGroupWithQuantifier) {
+                        throw new IllegalArgumentException("regex rejected in safe mode (nested quantifier): " + regex);
+                    }
+                    top[0] = true;
+                    break;
+                case '{':
+                    int close = regex.indexOf('}', i);
+                    if (close > 0) {
+                        String bounds = regex.substring(i + 1, close);
+                        // Even a bounded repeat of such a group, e.g. (.*a){12}, backtracks polynomially
+                        if (lastWasGroupWithQuantifier && !bounds.equals("1") && !bounds.equals("0,1")) {
+                            throw new IllegalArgumentException("regex rejected in safe mode (nested quantifier): " + regex);
+                        }
+                        top[0] |= bounds.endsWith(",");
+                        i = close;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            lastWasGroupWithQuantifier = closedQuantifiedGroup;
+        }
+    }
+
+    private static int skipCharClass(String regex, int start) {
+        int depth = 0;
+        for (int i = start; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']' && i > start + 1 && --depth == 0) {
+                return i;
+            }
+        }
+        return regex.length();
+    }
+}
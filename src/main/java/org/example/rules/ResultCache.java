@@ -0,0 +1,139 @@
+package org.example.rules;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Results of one compiled rule keyed on the values of the fields it references, so repeated inputs skip
+ * evaluation. Entries expire after a fixed time to live, and the least recently used ones are evicted beyond
+ * {@code maxSize}. The cache is split into independently locked LRU stripes (chosen by key hash) so concurrent
+ * evaluations rarely contend.
+ * <p>
+ * Keys hold the field values themselves: callers must not mutate data after evaluating it.
+ */
+public final class ResultCache {
+
+    private final Stripe[] stripes;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param stripes number of stripes, rounded up to a power of two; 0 picks four per available processor
+     */
+    public ResultCache(int maxSize, long ttlMillis, int stripes) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Result cache size must be positive: " + maxSize);
+        }
+        if (ttlMillis < 1) {
+            throw new IllegalArgumentException("Result cache TTL must be positive: " + ttlMillis);
+        }
+        int count = stripes > 0 ? stripes : 4 * Runtime.getRuntime().availableProcessors();
+        count = Math.min(Integer.highestOneBit(Math.max(1, Math.min(count, maxSize)) * 2 - 1), 1 << 16);
+        this.stripes = new Stripe[count];
+        int perStripe = (maxSize + count - 1) / count;
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe(perStripe);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000;
+    }
+
+    /** The cached result for the slot values, or {@code null}. */
+    Boolean get(Object[] slots) {
+        int hash = hash(slots);
+        Boolean result = stripe(hash).get(new Key(slots, hash), System.nanoTime());
+        (result != null ? hits : misses).increment();
+        return result;
+    }
+
+    /** Caches a result; {@code slots} must not change afterwards. */
+    void put(Object[] slots, boolean result) {
+        int hash = hash(slots);
+        stripe(hash).put(new Key(slots, hash), result, System.nanoTime() + ttlNanos);
+    }
+
+    public ResultCacheStats stats() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return new ResultCacheStats(size, maxSize, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /** Hits over lookups, 0 before the first lookup. */
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    private Stripe stripe(int hash) {
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static int hash(Object[] slots) {
+        return Arrays.hashCode(slots);
+    }
+
+    private record Key(Object[] slots, int hash) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && hash == other.hash && Arrays.equals(slots, other.slots);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private record Entry(boolean result, long expiresAt) {
+    }
+
+    private final class Stripe extends LinkedHashMap<Key, Entry> {
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        synchronized Boolean get(Key key, long now) {
+            Entry entry = super.get(key);
+            if (entry == null) return null;
+            if (now - entry.expiresAt >= 0) {
+                remove(key);
+                return null;
+            }
+            return entry.result;
+        }
+
+        synchronized void put(Key key, boolean result, long expiresAt) {
+            super.put(key, new Entry(result, expiresAt));
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package org.example.rules;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Translates a rule tree into a hidden class implementing {@link RuleNode}, so a hot rule runs as straight-line
+ * bytecode instead of a walk over node objects. {@code all}/{@code any}/{@code not} become plain jumps, comparisons
+ * of {@code Integer}, {@code Long} and {@code Double} values against numeric constants and of strings against
+ * string constants are inlined, and every other check calls {@link ConditionNode#test} on the original node, so
+ * results never differ from the interpreter.
+ * <p>
+ * Nodes, paths and constants are handed over as class data and held in static final fields, which the JIT treats
+ * as constants. Large trees are spread over several methods that each stay below the JIT's huge-method limit. The
+ * class is not {@code STRONG}: it is unloaded once the {@link CompiledRule} holding it is no longer referenced.
+ */
+final class RuleClassGenerator {
+
+    /** Most conditions (or calls to split-off methods) emitted into one method body. */
+    private static final int METHOD_BUDGET = 32;
+    /** HotSpot does not JIT-compile methods with more bytecode than this. */
+    private static final int HUGE_METHOD_LIMIT = 8000;
+
+    private static final String NAME = Type.getInternalName(RuleClassGenerator.class).replace("RuleClassGenerator", "GeneratedRule");
+    private static final String OBJECT = "java/lang/Object";
+    private static final String CONTEXT = Type.getInternalName(EvaluationContext.class);
+    private static final String CONDITION = Type.getInternalName(ConditionNode.class);
+    private static final String NODE = Type.getInternalName(RuleNode.class);
+    private static final String PATH_DESC = Type.getDescriptor(FieldPath.class);
+    private static final String METHOD_DESC = "(" + Type.getDescriptor(EvaluationContext.class) + ")Z";
+
+    private final ClassWriter cw;
+    private final List<Object> constants = new ArrayList<>();
+    private final List<String> constantTypes = new ArrayList<>();
+    private final Map<Object, Integer> constantIndex = new IdentityHashMap<>();
+    private int methods;
+
+    private RuleClassGenerator() {
+        this.cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                // Locals and stack slots only ever merge values used as plain objects
+                return OBJECT;
+            }
+        };
+    }
+
+    /**
+     * Generates an evaluator equivalent to {@code root}.
+     *
+     * @throws IllegalStateException when the tree cannot be translated, e.g. a method would be too large to JIT
+     */
+    static RuleNode generate(RuleNode root) {
+        return new RuleClassGenerator().define(chunk(root));
+    }
+
+    private RuleNode define(RuleNode root) {
+        cw.visit(Opcodes.V17, Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, NAME, null, OBJECT, new String[]{NODE});
+
+        MethodVisitor init = cw.visitMethod(Opcodes.ACC_PRIVATE, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        String entry = method(root);
+        MethodVisitor evaluate = cw.visitMethod(Opcodes.ACC_PUBLIC, "evaluate", METHOD_DESC, null, null);
+        evaluate.visitCode();
+        evaluate.visitVarInsn(Opcodes.ALOAD, 1);
+        evaluate.visitMethodInsn(Opcodes.INVOKESTATIC, NAME, entry, METHOD_DESC, false);
+        evaluate.visitInsn(Opcodes.IRETURN);
+        evaluate.visitMaxs(0, 0);
+        evaluate.visitEnd();
+
+        emitStaticInit();
+        cw.visitEnd();
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup()
+                    .defineHiddenClassWithClassData(cw.toByteArray(), constants.toArray(), true);
+            return (RuleNode) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class))
+                    .invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot define generated rule class", e);
+        }
+    }
+
+    /** Copies the class data into the static final fields. */
+    private void emitStaticInit() {
+        for (int i = 0; i < constants.size(); i++) {
+            cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL, "c" + i, constantTypes.get(i), null, null)
+                    .visitEnd();
+        }
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_STATIC, "<clinit>", "()V", null, null);
+        mv.visitCode();
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/invoke/MethodHandles", "lookup",
+                "()Ljava/lang/invoke/MethodHandles$Lookup;", false);
+        mv.visitLdcInsn("_");
+        mv.visitLdcInsn(Type.getType(Object[].class));
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/invoke/MethodHandles", "classData",
+                "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;", false);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, "[Ljava/lang/Object;");
+        for (int i = 0; i < constants.size(); i++) {
+            mv.visitInsn(Opcodes.DUP);
+            mv.visitLdcInsn(i);
+            mv.visitInsn(Opcodes.AALOAD);
+            mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getType(constantTypes.get(i)).getInternalName());
+            mv.visitFieldInsn(Opcodes.PUTSTATIC, NAME, "c" + i, constantTypes.get(i));
+        }
+        mv.visitInsn(Opcodes.POP);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private void loadConstant(MethodVisitor mv, Object value, Class<?> type) {
+        Integer index = constantIndex.get(value);
+        if (index == null) {
+            index = constants.size();
+            constantIndex.put(value, index);
+            constants.add(value);
+            constantTypes.add(Type.getDescriptor(type));
+        }
+        mv.visitFieldInsn(Opcodes.GETSTATIC, NAME, "c" + index, constantTypes.get(index));
+    }
+
+    /**
+     * Emits {@code static boolean m<i>(EvaluationContext)} evaluating {@code node}, returning its name. Locals:
+     * 0 = context, 1 = resolved value, 2-3 = the value as a {@code long} or {@code double}.
+     */
+    private String method(RuleNode node) {
+        String name = "m" + methods++;
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC, name, METHOD_DESC, null, null);
+        mv.visitCode();
+        Label isFalse = new Label();
+        emitJump(mv, node, false, isFalse, new int[]{METHOD_BUDGET}, true);
+        mv.visitInsn(Opcodes.ICONST_1);
+        mv.visitInsn(Opcodes.IRETURN);
+        mv.visitLabel(isFalse);
+        mv.visitInsn(Opcodes.ICONST_0);
+        mv.visitInsn(Opcodes.IRETURN);
+        Label end = new Label();
+        mv.visitLabel(end);
+        if (end.getOffset() > HUGE_METHOD_LIMIT) {
+            throw new IllegalStateException("Generated method too large to compile: " + end.getOffset() + " bytes");
+        }
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        return name;
+    }
+
+    /**
+     * Emits code that jumps to {@code target} when {@code node} evaluates to {@code jumpWhen} and falls through
+     * otherwise. Groups that do not fit in the remaining {@code budget} of the current method are split off.
+     */
+    private void emitJump(MethodVisitor mv, RuleNode node, boolean jumpWhen, Label target, int[] budget, boolean methodRoot) {
+        if (node instanceof NotNode not) {
+            emitJump(mv, not.getChild(), !jumpWhen, target, budget, false);
+            return;
+        }
+        boolean all = node instanceof AllNode;
+        if (all || node instanceof AnyNode) {
+            if (!methodRoot && conditions(node) > budget[0]) {
+                budget[0]--;
+                String name = method(node);
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, NAME, name, METHOD_DESC, false);
+                mv.visitJumpInsn(jumpWhen ? Opcodes.IFNE : Opcodes.IFEQ, target);
+                return;
+            }
+            RuleNode[] children = all ? ((AllNode) node).children() : ((AnyNode) node).children();
+            // all: the first false child decides; any: the first true one
+            boolean decisive = !all;
+            if (jumpWhen == decisive) {
+                for (RuleNode child : children) {
+                    emitJump(mv, child, decisive, target, budget, false);
+                }
+            } else {
+                Label skip = new Label();
+                for (RuleNode child : children) {
+                    emitJump(mv, child, decisive, skip, budget, false);
+                }
+                mv.visitJumpInsn(Opcodes.GOTO, target);
+                mv.visitLabel(skip);
+            }
+            return;
+        }
+        budget[0]--;
+        if (node instanceof ConditionNode condition) {
+            emitCondition(mv, condition);
+        } else {
+            // Anything else (e.g. a memoized sub-tree of a rule set) keeps its own evaluate
+            loadConstant(mv, node, RuleNode.class);
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, NODE, "evaluate", METHOD_DESC, true);
+        }
+        mv.visitJumpInsn(jumpWhen ? Opcodes.IFNE : Opcodes.IFEQ, target);
+    }
+
+    /** Pushes the condition's result as an int. */
+    private void emitCondition(MethodVisitor mv, ConditionNode c) {
+        Operator op = c.getOp();
+        FieldPath path = c.getPath();
+        switch (op) {
+            case exists, not_exists -> {
+                if (path == null) {
+                    mv.visitInsn(op == Operator.exists ? Opcodes.ICONST_0 : Opcodes.ICONST_1);
+                    return;
+                }
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                loadConstant(mv, path, FieldPath.class);
+                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, CONTEXT, "contains", "(" + PATH_DESC + ")Z", false);
+                if (op == Operator.not_exists) {
+                    mv.visitInsn(Opcodes.ICONST_1);
+                    mv.visitInsn(Opcodes.IXOR);
+                }
+                return;
+            }
+            case isNull, isNotNull -> {
+                if (path == null) {
+                    mv.visitInsn(Opcodes.ICONST_0);
+                    return;
+                }
+                emitResolve(mv, path);
+                emitBoolean(mv, op == Operator.isNull ? Opcodes.IFNONNULL : Opcodes.IFNULL);
+                return;
+            }
+            default -> {
+            }
+        }
+
+        if (path != null) {
+            emitResolve(mv, path);
+        } else {
+            mv.visitInsn(Opcodes.ACONST_NULL);
+        }
+        mv.visitVarInsn(Opcodes.ASTORE, 1);
+        Label slow = new Label();
+        Label done = new Label();
+        Operand v = c.operand();
+        Operand[] bounds = c.operands();
+        if (isComparison(op) && v.numeric || op == Operator.between && bounds[0].numeric && bounds[1].numeric) {
+            emitNumeric(mv, op, v, bounds, slow, done);
+        } else if ((op == Operator.eq || op == Operator.ne) && v.value instanceof String && !v.numeric && v.instant == null) {
+            // A string equals a plain string constant exactly when String.equals says so
+            mv.visitVarInsn(Opcodes.ALOAD, 1);
+            mv.visitTypeInsn(Opcodes.INSTANCEOF, "java/lang/String");
+            mv.visitJumpInsn(Opcodes.IFEQ, slow);
+            mv.visitVarInsn(Opcodes.ALOAD, 1);
+            mv.visitTypeInsn(Opcodes.CHECKCAST, "java/lang/String");
+            mv.visitLdcInsn(v.text);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/String", "equals", "(Ljava/lang/Object;)Z", false);
+            if (op == Operator.ne) {
+                mv.visitInsn(Opcodes.ICONST_1);
+                mv.visitInsn(Opcodes.IXOR);
+            }
+            mv.visitJumpInsn(Opcodes.GOTO, done);
+        } else if (op == Operator.in || op == Operator.not_in) {
+            loadConstant(mv, c.set(), InSet.class);
+            mv.visitVarInsn(Opcodes.ALOAD, 1);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, Type.getInternalName(InSet.class), "contains", "(Ljava/lang/Object;)Z", false);
+            if (op == Operator.not_in) {
+                mv.visitInsn(Opcodes.ICONST_1);
+                mv.visitInsn(Opcodes.IXOR);
+            }
+            return;
+        }
+        mv.visitLabel(slow);
+        loadConstant(mv, c, ConditionNode.class);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, CONDITION, "test", "(Ljava/lang/Object;)Z", false);
+        mv.visitLabel(done);
+    }
+
+    private void emitResolve(MethodVisitor mv, FieldPath path) {
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        loadConstant(mv, path, FieldPath.class);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, CONTEXT, "resolve", "(" + PATH_DESC + ")Ljava/lang/Object;", false);
+    }
+
+    /**
+     * Integer and Long values compare as longs, non-NaN Doubles as doubles, following {@link Values#compare};
+     * anything else jumps to {@code slow}.
+     */
+    private void emitNumeric(MethodVisitor mv, Operator op, Operand v, Operand[] bounds, Label slow, Label done) {
+        Label notInt = new Label();
+        Label notLong = new Label();
+        Label asLong = new Label();
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitTypeInsn(Opcodes.INSTANCEOF, "java/lang/Integer");
+        mv.visitJumpInsn(Opcodes.IFEQ, notInt);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, "java/lang/Integer");
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
+        mv.visitInsn(Opcodes.I2L);
+        mv.visitVarInsn(Opcodes.LSTORE, 2);
+        mv.visitJumpInsn(Opcodes.GOTO, asLong);
+        mv.visitLabel(notInt);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitTypeInsn(Opcodes.INSTANCEOF, "java/lang/Long");
+        mv.visitJumpInsn(Opcodes.IFEQ, notLong);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, "java/lang/Long");
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/Long", "longValue", "()J", false);
+        mv.visitVarInsn(Opcodes.LSTORE, 2);
+        mv.visitLabel(asLong);
+        emitRangeTest(mv, op, v, bounds, true);
+        mv.visitJumpInsn(Opcodes.GOTO, done);
+
+        mv.visitLabel(notLong);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitTypeInsn(Opcodes.INSTANCEOF, "java/lang/Double");
+        mv.visitJumpInsn(Opcodes.IFEQ, slow);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, "java/lang/Double");
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/Double", "doubleValue", "()D", false);
+        mv.visitInsn(Opcodes.DUP2);
+        mv.visitVarInsn(Opcodes.DSTORE, 2);
+        mv.visitInsn(Opcodes.DUP2);
+        mv.visitInsn(Opcodes.DCMPL);
+        // NaN falls back to the generic comparison
+        mv.visitJumpInsn(Opcodes.IFNE, slow);
+        emitRangeTest(mv, op, v, bounds, false);
+        mv.visitJumpInsn(Opcodes.GOTO, done);
+    }
+
+    /** Pushes the comparison of local 2 (a long or a double) against the constant(s) as an int. */
+    private void emitRangeTest(MethodVisitor mv, Operator op, Operand v, Operand[] bounds, boolean asLong) {
+        if (op == Operator.between) {
+            Label isFalse = new Label();
+            Label end = new Label();
+            emitCompare(mv, bounds[0], asLong);
+            mv.visitJumpInsn(Opcodes.IFLT, isFalse);
+            emitCompare(mv, bounds[1], asLong);
+            mv.visitJumpInsn(Opcodes.IFGT, isFalse);
+            mv.visitInsn(Opcodes.ICONST_1);
+            mv.visitJumpInsn(Opcodes.GOTO, end);
+            mv.visitLabel(isFalse);
+            mv.visitInsn(Opcodes.ICONST_0);
+            mv.visitLabel(end);
+            return;
+        }
+        emitCompare(mv, v, asLong);
+        int falseWhen = switch (op) {
+            case eq -> Opcodes.IFNE;
+            case ne -> Opcodes.IFEQ;
+            case lt -> Opcodes.IFGE;
+            case lte -> Opcodes.IFGT;
+            case gt -> Opcodes.IFLE;
+            default -> Opcodes.IFLT;
+        };
+        emitBoolean(mv, falseWhen);
+    }
+
+    /** Pushes {@code Values.compare(local 2, x)} as -1, 0 or 1. */
+    private void emitCompare(MethodVisitor mv, Operand x, boolean asLong) {
+        if (!asLong) {
+            mv.visitVarInsn(Opcodes.DLOAD, 2);
+            mv.visitLdcInsn(x.doubleValue);
+            mv.visitInsn(Opcodes.DCMPL);
+        } else if (x.integral) {
+            mv.visitVarInsn(Opcodes.LLOAD, 2);
+            mv.visitLdcInsn(x.longValue);
+            mv.visitInsn(Opcodes.LCMP);
+        } else {
+            mv.visitVarInsn(Opcodes.LLOAD, 2);
+            loadConstant(mv, x, Operand.class);
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(Values.class), "compareLong",
+                    "(J" + Type.getDescriptor(Operand.class) + ")I", false);
+        }
+    }
+
+    /** Consumes the top of the stack with the {@code falseWhen} jump and pushes 0 when it is taken, 1 otherwise. */
+    private static void emitBoolean(MethodVisitor mv, int falseWhen) {
+        Label isFalse = new Label();
+        Label end = new Label();
+        mv.visitJumpInsn(falseWhen, isFalse);
+        mv.visitInsn(Opcodes.ICONST_1);
+        mv.visitJumpInsn(Opcodes.GOTO, end);
+        mv.visitLabel(isFalse);
+        mv.visitInsn(Opcodes.ICONST_0);
+        mv.visitLabel(end);
+    }
+
+    private static boolean isComparison(Operator op) {
+        return switch (op) {
+            case eq, ne, lt, lte, gt, gte -> true;
+            default -> false;
+        };
+    }
+
+    private static int conditions(RuleNode node) {
+        if (node instanceof NotNode not) return conditions(not.getChild());
+        RuleNode[] children = node instanceof AllNode all ? all.children() : node instanceof AnyNode any ? any.children() : null;
+        if (children == null) return 1;
+        int count = 0;
+        for (RuleNode child : children) {
+            count += conditions(child);
+        }
+        return count;
+    }
+
+    /** Regroups wide all/any nodes into nested groups of at most {@link #METHOD_BUDGET} children. */
+    private static RuleNode chunk(RuleNode node) {
+        if (node instanceof NotNode not) {
+            RuleNode child = chunk(not.getChild());
+            return child == not.getChild() ? node : new NotNode(child);
+        }
+        boolean all = node instanceof AllNode;
+        if (!all && !(node instanceof AnyNode)) return node;
+        RuleNode[] children = all ? ((AllNode) node).children() : ((AnyNode) node).children();
+        RuleNode[] chunked = new RuleNode[children.length];
+        boolean changed = false;
+        for (int i = 0; i < children.length; i++) {
+            chunked[i] = chunk(children[i]);
+            changed |= chunked[i] != children[i];
+        }
+        while (chunked.length > METHOD_BUDGET) {
+            RuleNode[] groups = new RuleNode[(chunked.length + METHOD_BUDGET - 1) / METHOD_BUDGET];
+            for (int g = 0; g < groups.length; g++) {
+                RuleNode[] part = Arrays.copyOfRange(chunked, g * METHOD_BUDGET, Math.min(chunked.length, (g + 1) * METHOD_BUDGET));
+                groups[g] = all ? new AllNode(part) : new AnyNode(part);
+            }
+            chunked = groups;
+            changed = true;
+        }
+        if (!changed) return node;
+        return all ? new AllNode(chunked) : new AnyNode(chunked);
+    }
+}
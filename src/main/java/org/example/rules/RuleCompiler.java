@@ -0,0 +1,222 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.example.config.RuleEngineProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Turns a JSON rule into a {@link CompiledRule}. All structural validation happens here, so a rule that
+ * compiles never fails on shape errors during evaluation. Rules larger than the configured
+ * {@code rule-engine.limits} (depth, node count, {@code in} list size, regex length, list index) are rejected as
+ * well.
+ */
+@Component
+public class RuleCompiler {
+
+    private final PatternCache patternCache;
+    private final boolean safeRegex;
+    private final long regexMaxSteps;
+    private final boolean reorder;
+    private final int compileThreshold;
+    private final int maxDepth;
+    private final int maxNodes;
+    private final int maxInSize;
+    private final int maxRegexLength;
+    private final int maxListIndex;
+    private final long maxSteps;
+    private final int stackDepth;
+
+    public RuleCompiler() {
+        this(new RuleEngineProperties());
+    }
+
+    @Autowired
+    public RuleCompiler(RuleEngineProperties properties) {
+        RuleEngineProperties.Regex regex = properties.getRegex();
+        this.patternCache = new PatternCache(regex.getCacheSize());
+        this.safeRegex = regex.isSafeMode();
+        this.regexMaxSteps = regex.isSafeMode() ? regex.getMaxSteps() : 0;
+        this.reorder = properties.getOptimizer().isReorder();
+        RuleEngineProperties.Bytecode bytecode = properties.getBytecode();
+        this.compileThreshold = bytecode.isEnabled() ? Math.max(1, bytecode.getThreshold()) : 0;
+        RuleEngineProperties.Limits limits = properties.getLimits();
+        this.maxDepth = limits.getMaxDepth();
+        this.maxNodes = limits.getMaxNodes();
+        this.maxInSize = limits.getMaxInSize();
+        this.maxRegexLength = limits.getMaxRegexLength();
+        this.maxListIndex = limits.getMaxListIndex();
+        this.maxSteps = Math.max(0, limits.getMaxSteps());
+        this.stackDepth = limits.getStackDepth();
+    }
+
+    public CompiledRule compile(JsonNode rule) {
+        Compilation compilation = new Compilation();
+        RuleNode root = compileNode(rule, compilation, 1);
+        if (reorder) {
+            root = RuleOptimizer.orderByCost(root);
+        }
+        return build(root, () -> rule, compilation);
+    }
+
+    /** A compiled rule over a tree built (and checked) through {@code compilation}. */
+    CompiledRule build(RuleNode root, Supplier<JsonNode> source, Compilation compilation) {
+        PathTable paths = compilation.paths;
+        return new CompiledRule(root, source, paths.toArray(), paths.hasSharedPaths(), compileThreshold,
+                stackEvaluator(compilation));
+    }
+
+    /**
+     * An explicit-stack evaluator for rules nested deeper than {@code stackDepth}, and for rules that could exceed
+     * the step budget: those with more nodes than the budget, or whose work depends on the data ({@code contains}
+     * scans a list). Every other rule is evaluated recursively at no extra cost, as it cannot exceed the budget.
+     */
+    private StackEvaluator stackEvaluator(Compilation compilation) {
+        boolean budgeted = maxSteps > 0 && (compilation.nodes > maxSteps || compilation.scansData);
+        if (!budgeted && compilation.depth <= stackDepth) {
+            return null;
+        }
+        return new StackEvaluator(maxSteps);
+    }
+
+    /** Per-rule state of one {@link #compile} call (or one rule decoded from a {@link RuleSnapshot}). */
+    static final class Compilation {
+        final PathTable paths = new PathTable();
+        int nodes;
+        int depth;
+        boolean scansData;
+    }
+
+    private RuleNode compileNode(JsonNode rule, Compilation compilation, int depth) {
+        if (rule == null || rule.isNull()) {
+            throw new IllegalArgumentException("Rule cannot be null");
+        }
+        enter(compilation, depth);
+        if (rule.isObject()) {
+            // Group operators: all/any/not
+            if (rule.has("all")) {
+                return new AllNode(compileGroup(rule.get("all"), compilation, depth));
+            } else if (rule.has("any")) {
+                return new AnyNode(compileGroup(rule.get("any"), compilation, depth));
+            } else if (rule.has("not")) {
+                return new NotNode(compileNode(rule.get("not"), compilation, depth + 1));
+            } else {
+                return compileCondition(rule, compilation);
+            }
+        } else if (rule.isArray()) {
+            // default for top-level array: AND all
+            return new AllNode(compileGroup(rule, compilation, depth));
+        }
+        throw new IllegalArgumentException("Unsupported rule type: " + rule.getNodeType());
+    }
+
+    /** Counts a node at {@code depth} against the depth and node limits. */
+    void enter(Compilation compilation, int depth) {
+        if (maxDepth > 0 && depth > maxDepth) {
+            throw new IllegalArgumentException("Rule is nested deeper than " + maxDepth + " levels");
+        }
+        if (++compilation.nodes > maxNodes && maxNodes > 0) {
+            throw new IllegalArgumentException("Rule has more than " + maxNodes + " nodes");
+        }
+        compilation.depth = Math.max(compilation.depth, depth);
+    }
+
+    private RuleNode[] compileGroup(JsonNode arrNode, Compilation compilation, int depth) {
+        if (arrNode == null || arrNode.isNull()) {
+            return new RuleNode[0]; // empty follows identity
+        }
+        if (!arrNode.isArray()) {
+            throw new IllegalArgumentException("Group must be an array");
+        }
+        RuleNode[] children = new RuleNode[arrNode.size()];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = compileNode(arrNode.get(i), compilation, depth + 1);
+        }
+        return children;
+    }
+
+    private RuleNode compileCondition(JsonNode cond, Compilation compilation) {
+        String field = textOrNull(cond, "field");
+        String opStr = textOrNull(cond, "op");
+        JsonNode valueNode = cond.get("value");
+        if (opStr == null) {
+            throw new IllegalArgumentException("Condition missing 'op'");
+        }
+        Operator op;
+        try {
+            op = Operator.valueOf(opStr);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown operator: " + opStr);
+        }
+        FieldPath path = field != null ? compilation.paths.intern(field) : null;
+
+        switch (op) {
+            case between:
+                if (valueNode == null || !valueNode.isArray() || valueNode.size() != 2) {
+                    throw new IllegalArgumentException("between requires array [min, max]");
+                }
+                return condition(path, op, null, toOperands(valueNode), compilation);
+            case in:
+            case not_in:
+                if (valueNode == null || !valueNode.isArray()) {
+                    throw new IllegalArgumentException(op + " requires array of values");
+                }
+                return condition(path, op, null, toOperands(valueNode), compilation);
+            case regex:
+                if (valueNode == null || !valueNode.isTextual()) {
+                    throw new IllegalArgumentException("regex requires string pattern");
+                }
+                return condition(path, op, Operand.of(valueNode.asText()), null, compilation);
+            default:
+                return condition(path, op, Operand.of(Values.jsonToJava(valueNode)), null, compilation);
+        }
+    }
+
+    /**
+     * A condition from converted constants, checked against the list index, {@code in} size and regex limits. The regex of a
+     * {@code regex} condition is compiled from its constant.
+     */
+    ConditionNode condition(FieldPath path, Operator op, Operand value, Operand[] values, Compilation compilation) {
+        if (path != null && maxListIndex > 0) {
+            for (int i = 0; i < path.segments().length; i++) {
+                if (path.index(i) > maxListIndex) {
+                    throw new IllegalArgumentException("Field '" + path.getPath() + "' indexes list element "
+                            + path.index(i) + ", above the limit of " + maxListIndex);
+                }
+            }
+        }
+        if ((op == Operator.in || op == Operator.not_in) && maxInSize > 0 && values.length > maxInSize) {
+            throw new IllegalArgumentException(op + " list has more than " + maxInSize + " values");
+        }
+        if (op == Operator.contains) {
+            compilation.scansData = true;
+        }
+        CompiledRegex regex = op == Operator.regex ? compileRegex(value.text) : null;
+        return new ConditionNode(path, op, value, values, regex);
+    }
+
+    private CompiledRegex compileRegex(String regex) {
+        if (maxRegexLength > 0 && regex.length() > maxRegexLength) {
+            throw new IllegalArgumentException("regex pattern is longer than " + maxRegexLength + " characters");
+        }
+        if (safeRegex) {
+            RegexSafety.check(regex);
+        }
+        return new CompiledRegex(patternCache.get(regex), regexMaxSteps);
+    }
+
+    private Operand[] toOperands(JsonNode arrNode) {
+        Operand[] values = new Operand[arrNode.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Operand.of(Values.jsonToJava(arrNode.get(i)));
+        }
+        return values;
+    }
+
+    private String textOrNull(JsonNode node, String field) {
+        JsonNode v = node.get(field);
+        return v != null && v.isTextual() ? v.asText() : null;
+    }
+}
@@ -0,0 +1,407 @@
+package org.example.rules;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds the rules that can possibly match a record without evaluating them, from the guard each rule puts on a
+ * field: an {@code eq}/{@code in} condition, or a numeric range ({@code gt}, {@code gte}, {@code lt}, {@code lte},
+ * {@code between}).
+ * <p>
+ * A rule's guard is a condition at its root, the narrowest guard among the children of a root {@code all}
+ * (equality before ranges), or, for a root {@code any}, the guards of all its branches. Equality constants are
+ * hashed in the coerced form {@link Values#compare} matches on ({@code 5}, {@code 5.0} and {@code "5"} are one
+ * key), ranges go into a per-field interval tree. Rules without a guard are candidates for every record.
+ * {@link #candidates} may return rules that end up not matching, but never misses one that does.
+ * <p>
+ * Adding or removing a rule only touches its own entries; a field's interval tree is rebuilt on the first lookup
+ * after its ranges changed. Lookups never block. Writers must be serialized by the caller.
+ */
+public final class RuleIndex {
+
+    private static final Object NULL = new Object();
+    private static final Object UNINDEXED = new Object();
+    private static final BigDecimal LONG_MIN = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    private final Map<String, FieldIndex> fields = new ConcurrentHashMap<>();
+    private final Set<String> unindexed = ConcurrentHashMap.newKeySet();
+    // Postings of every indexed rule: the current version first, then superseded ones until pruned
+    private final Map<String, List<Set<Object>>> postings = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes {@code rule} as {@code id}. Entries of a previous version under the same id stay until {@link #prune},
+     * so a lookup running while the new version is published still finds the rule under either guard.
+     */
+    public void add(String id, CompiledRule rule) {
+        Set<Object> current = postings(rule.getRoot());
+        List<Set<Object>> versions = postings.computeIfAbsent(id, k -> new ArrayList<>());
+        versions.add(0, current);
+        for (Object posting : current) {
+            insert(id, posting);
+        }
+    }
+
+    /** Drops the entries of superseded versions of {@code id}. */
+    public void prune(String id) {
+        List<Set<Object>> versions = postings.get(id);
+        if (versions == null || versions.size() == 1) return;
+        Set<Object> current = versions.get(0);
+        for (Set<Object> old : versions.subList(1, versions.size())) {
+            for (Object posting : old) {
+                if (!current.contains(posting)) delete(id, posting);
+            }
+        }
+        versions.subList(1, versions.size()).clear();
+    }
+
+    public void remove(String id) {
+        List<Set<Object>> versions = postings.remove(id);
+        if (versions == null) return;
+        for (Set<Object> version : versions) {
+            for (Object posting : version) {
+                delete(id, posting);
+            }
+        }
+    }
+
+    /** Ids of the rules whose guard passes for {@code data}: a superset of the rules that match it. */
+    public Set<String> candidates(Map<String, Object> data) {
+        Set<String> result = new HashSet<>(unindexed);
+        List<Object> keys = new ArrayList<>(2);
+        for (FieldIndex field : fields.values()) {
+            Object value = field.path.lookup(data);
+            if (value == FieldPath.MISSING) value = null;
+            keys.clear();
+            dataKeys(value, keys);
+            for (Object key : keys) {
+                Set<String> ids = field.values.get(key);
+                if (ids != null) result.addAll(ids);
+            }
+            if (!field.ranges.isEmpty()) {
+                double d = numericValue(value);
+                if (Double.isNaN(d)) {
+                    // Missing and non-numeric values compare by their string form: any range may pass
+                    for (Range range : field.ranges) {
+                        result.add(range.id);
+                    }
+                } else {
+                    field.tree().stab(d, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Number of rules in the index. */
+    public int getRuleCount() {
+        return postings.size();
+    }
+
+    /** Number of rules without a guard, which are candidates for every record. */
+    public int getUnindexedCount() {
+        return unindexed.size();
+    }
+
+    private void insert(String id, Object posting) {
+        if (posting == UNINDEXED) {
+            unindexed.add(id);
+        } else if (posting instanceof ValuePosting p) {
+            field(p.field).values.computeIfAbsent(p.key, k -> ConcurrentHashMap.newKeySet()).add(id);
+        } else if (posting instanceof RangePosting p) {
+            FieldIndex field = field(p.field);
+            synchronized (field) {
+                field.ranges.add(new Range(id, p.lo, p.hi));
+                field.tree = null;
+            }
+        }
+    }
+
+    private void delete(String id, Object posting) {
+        if (posting == UNINDEXED) {
+            unindexed.remove(id);
+            return;
+        }
+        String name = posting instanceof ValuePosting p ? p.field.getPath() : ((RangePosting) posting).field.getPath();
+        FieldIndex field = fields.get(name);
+        if (field == null) return;
+        if (posting instanceof ValuePosting p) {
+            field.values.computeIfPresent(p.key, (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        } else if (posting instanceof RangePosting p) {
+            synchronized (field) {
+                field.ranges.remove(new Range(id, p.lo, p.hi));
+                field.tree = null;
+            }
+        }
+        if (field.values.isEmpty() && field.ranges.isEmpty()) {
+            fields.remove(name);
+        }
+    }
+
+    private FieldIndex field(FieldPath path) {
+        return fields.computeIfAbsent(path.getPath(), k -> new FieldIndex(path));
+    }
+
+    private static Set<Object> postings(RuleNode root) {
+        List<Object> guard = guard(root);
+        return guard == null ? Set.of(UNINDEXED) : Set.copyOf(guard);
+    }
+
+    /** Postings one of which the record must hit for the node to pass, or {@code null} when there are none. */
+    private static List<Object> guard(RuleNode node) {
+        if (node instanceof ConditionNode c) {
+            return condition(c);
+        }
+        if (node instanceof AllNode all) {
+            // Any child's guard will do: take the one likely to pass for the fewest records
+            List<Object> best = null;
+            for (RuleNode child : all.children()) {
+                List<Object> guard = guard(child);
+                if (guard != null && (best == null || width(guard) < width(best))) best = guard;
+            }
+            return best;
+        }
+        if (node instanceof AnyNode any) {
+            List<Object> union = new ArrayList<>();
+            for (RuleNode child : any.children()) {
+                List<Object> guard = guard(child);
+                if (guard == null) return null;
+                union.addAll(guard);
+            }
+            return union;
+        }
+        return null;
+    }
+
+    /**
+     * How much of the value space a guard covers, to pick among the guards of an {@code all}: the number of keys of
+     * an equality guard, and for a guard with ranges (ranked after every equality guard) their total length.
+     */
+    private static double width(List<Object> guard) {
+        if (guard.stream().noneMatch(p -> p instanceof RangePosting)) return guard.size();
+        double length = 0;
+        for (Object posting : guard) {
+            if (posting instanceof RangePosting r) length += Math.max(0, r.hi - r.lo);
+        }
+        return Integer.MAX_VALUE + length;
+    }
+
+    private static List<Object> condition(ConditionNode c) {
+        FieldPath path = c.getPath();
+        if (path == null) return null;
+        switch (c.getOp()) {
+            case eq:
+                return constantKeys(path, new Operand[]{c.operand()});
+            case in:
+                return constantKeys(path, c.operands());
+            case gt:
+            case gte:
+                return c.operand().numeric ? List.of(new RangePosting(path, c.operand().doubleValue, Double.POSITIVE_INFINITY)) : null;
+            case lt:
+            case lte:
+                return c.operand().numeric ? List.of(new RangePosting(path, Double.NEGATIVE_INFINITY, c.operand().doubleValue)) : null;
+            case between:
+                Operand[] bounds = c.operands();
+                return bounds[0].numeric && bounds[1].numeric
+                        ? List.of(new RangePosting(path, bounds[0].doubleValue, bounds[1].doubleValue)) : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Every key a value equal to one of {@code constants} can produce in {@link #dataKeys}. A data double is
+     * compared with the constant's double value, other numbers exactly, and non-numeric constants also match any
+     * value with the same string form.
+     */
+    private static List<Object> constantKeys(FieldPath path, Operand[] constants) {
+        List<Object> postings = new ArrayList<>();
+        for (Operand operand : constants) {
+            Object v = operand.value;
+            if (v instanceof Collection<?> || v instanceof Map<?, ?>) return null;
+            if (v == null) {
+                postings.add(new ValuePosting(path, NULL));
+            } else if (operand.numeric) {
+                postings.add(new ValuePosting(path, doubleKey(operand.doubleValue)));
+                postings.add(new ValuePosting(path, operand.integral ? (Object) operand.longValue : decimalKey(operand.decimal)));
+            } else {
+                postings.add(new ValuePosting(path, operand.text));
+                if (operand.instant != null) postings.add(new ValuePosting(path, operand.instant));
+            }
+        }
+        return postings;
+    }
+
+    /** The keys of a data value, matching the constant keys it compares equal to. */
+    private static void dataKeys(Object value, List<Object> keys) {
+        if (value == null) {
+            keys.add(NULL);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            keys.add(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            if (!Double.isNaN(d)) keys.add(doubleKey(d));
+            if (Double.isNaN(d) || Double.isInfinite(d)) keys.add(String.valueOf(d));
+        } else if (value instanceof BigDecimal bd) {
+            keys.add(decimalKey(bd));
+        } else if (value instanceof Number n) {
+            keys.add(decimalKey(new BigDecimal(n.toString())));
+        } else if (value instanceof String s) {
+            if (Values.looksNumeric(s)) {
+                keys.add(decimalKey(new BigDecimal(s)));
+            } else {
+                keys.add(s);
+                Instant instant = Values.toInstantOrNull(s);
+                if (instant != null) keys.add(instant);
+            }
+        } else {
+            keys.add(String.valueOf(value));
+            if (value instanceof Instant) keys.add(value);
+        }
+    }
+
+    private static Double doubleKey(double d) {
+        return d == 0 ? 0.0 : d;
+    }
+
+    /** A long when the decimal is integral and fits, otherwise the decimal without trailing zeros. */
+    private static Object decimalKey(BigDecimal d) {
+        BigDecimal normalized = d.stripTrailingZeros();
+        if (normalized.scale() <= 0 && normalized.compareTo(LONG_MIN) >= 0 && normalized.compareTo(LONG_MAX) <= 0) {
+            return normalized.longValue();
+        }
+        return normalized;
+    }
+
+    /**
+     * The value as a double for a range lookup, or NaN when it does not compare numerically. Rounding is monotonic,
+     * so a value inside a range stays inside the range's rounded bounds.
+     */
+    private static double numericValue(Object value) {
+        if (value instanceof Number n) {
+            if (n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte
+                    || n instanceof Double || n instanceof Float) {
+                return n.doubleValue();
+            }
+            return (n instanceof BigDecimal bd ? bd : new BigDecimal(n.toString())).doubleValue();
+        }
+        if (value instanceof String s && Values.looksNumeric(s)) {
+            return Double.parseDouble(s);
+        }
+        return Double.NaN;
+    }
+
+    private record ValuePosting(FieldPath field, Object key) {
+    }
+
+    private record RangePosting(FieldPath field, double lo, double hi) {
+    }
+
+    private record Range(String id, double lo, double hi) {
+    }
+
+    private static final class FieldIndex {
+        final FieldPath path;
+        final Map<Object, Set<String>> values = new ConcurrentHashMap<>();
+        final Set<Range> ranges = ConcurrentHashMap.newKeySet();
+        // Built from ranges on demand; reset (under the monitor) whenever they change
+        volatile IntervalTree tree;
+
+        FieldIndex(FieldPath path) {
+            this.path = path;
+        }
+
+        IntervalTree tree() {
+            IntervalTree t = tree;
+            if (t != null) return t;
+            synchronized (this) {
+                if (tree == null) {
+                    // Empty ranges (between with min > max) never contain a number
+                    tree = IntervalTree.build(ranges.stream().filter(r -> r.lo <= r.hi).toList());
+                }
+                return tree;
+            }
+        }
+    }
+
+    /**
+     * A centered interval tree: each node holds the ranges containing its center, sorted by both ends, so a
+     * lookup visits one node per level and only touches ranges that contain the point.
+     */
+    private static final class IntervalTree {
+        private static final IntervalTree EMPTY = new IntervalTree(0, new Range[0], new Range[0], null, null);
+
+        final double center;
+        final Range[] byLo;
+        final Range[] byHi;
+        final IntervalTree left;
+        final IntervalTree right;
+
+        private IntervalTree(double center, Range[] byLo, Range[] byHi, IntervalTree left, IntervalTree right) {
+            this.center = center;
+            this.byLo = byLo;
+            this.byHi = byHi;
+            this.left = left;
+            this.right = right;
+        }
+
+        static IntervalTree build(List<Range> ranges) {
+            if (ranges.isEmpty()) return EMPTY;
+            double[] ends = new double[ranges.size() * 2];
+            for (int i = 0; i < ranges.size(); i++) {
+                ends[2 * i] = ranges.get(i).lo;
+                ends[2 * i + 1] = ranges.get(i).hi;
+            }
+            Arrays.sort(ends);
+            // The median end point lies in its own range, so every node keeps at least one range
+            double center = ends[ends.length / 2];
+            List<Range> left = new ArrayList<>();
+            List<Range> right = new ArrayList<>();
+            List<Range> here = new ArrayList<>();
+            for (Range r : ranges) {
+                (r.hi < center ? left : r.lo > center ? right : here).add(r);
+            }
+            Range[] byLo = here.toArray(new Range[0]);
+            Arrays.sort(byLo, Comparator.comparingDouble(Range::lo));
+            Range[] byHi = here.toArray(new Range[0]);
+            Arrays.sort(byHi, Comparator.comparingDouble(Range::hi).reversed());
+            return new IntervalTree(center, byLo, byHi, left.isEmpty() ? null : build(left), right.isEmpty() ? null : build(right));
+        }
+
+        void stab(double x, Set<String> out) {
+            IntervalTree node = this;
+            while (node != null) {
+                if (x < node.center) {
+                    for (Range r : node.byLo) {
+                        if (r.lo > x) break;
+                        out.add(r.id);
+                    }
+                    node = node.left;
+                } else if (x > node.center) {
+                    for (Range r : node.byHi) {
+                        if (r.hi < x) break;
+                        out.add(r.id);
+                    }
+                    node = node.right;
+                } else {
+                    for (Range r : node.byLo) {
+                        out.add(r.id);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.rules;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the engine. {@code rule.engine.evaluate} times every evaluation, tagged by rule id
+ * ({@code adhoc} for rules posted inline); the condition and short-circuit meters are only fed by sampled,
+ * profiled evaluations (see {@link RuleProfile}). Rules with a {@link ResultCache} also report
+ * {@code rule.engine.result_cache.hits}/{@code .misses} and {@code rule.engine.result_cache.hit_ratio}.
+ */
+@Component
+public class RuleMetrics {
+
+    public static final String ADHOC = "adhoc";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> evaluations = new ConcurrentHashMap<>();
+    private final Map<String, List<Meter>> resultCaches = new ConcurrentHashMap<>();
+    private final Map<Operator, Timer> conditions = new EnumMap<>(Operator.class);
+    private final Counter allShortCircuits;
+    private final Counter anyShortCircuits;
+
+    public RuleMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Operator op : Operator.values()) {
+            conditions.put(op, Timer.builder("rule.engine.condition")
+                    .description("Sampled condition evaluations by operator")
+                    .tag("op", op.name())
+                    .register(registry));
+        }
+        this.allShortCircuits = shortCircuits("all");
+        this.anyShortCircuits = shortCircuits("any");
+        track(ADHOC);
+    }
+
+    private Counter shortCircuits(String group) {
+        return Counter.builder("rule.engine.short_circuits")
+                .description("Sampled group evaluations that stopped before their last child")
+                .tag("group", group)
+                .register(registry);
+    }
+
+    /**
+     * Creates the evaluation timer of a registered rule. Evaluations of ids that are not tracked (or were forgotten
+     * while they ran) are not recorded, so a rule deleted mid-evaluation does not get its timer back.
+     */
+    public void track(String ruleId) {
+        evaluations.computeIfAbsent(ruleId, id -> Timer.builder("rule.engine.evaluate")
+                .description("Rule evaluations")
+                .tag("rule", id)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry));
+    }
+
+    public void recordEvaluation(String ruleId, long nanos) {
+        Timer timer = evaluations.get(ruleId);
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** Points the result cache meters of a rule at its current cache, or drops them when {@code cache} is null. */
+    public void bindResultCache(String ruleId, ResultCache cache) {
+        resultCaches.compute(ruleId, (id, previous) -> {
+            if (previous != null) {
+                previous.forEach(registry::remove);
+            }
+            if (cache == null) return null;
+            return List.of(
+                    FunctionCounter.builder("rule.engine.result_cache.hits", cache, ResultCache::getHits)
+                            .description("Evaluations answered from the rule's result cache")
+                            .tag("rule", id)
+                            .register(registry),
+                    FunctionCounter.builder("rule.engine.result_cache.misses", cache, ResultCache::getMisses)
+                            .description("Evaluations not found in the rule's result cache")
+                            .tag("rule", id)
+                            .register(registry),
+                    Gauge.builder("rule.engine.result_cache.hit_ratio", cache, ResultCache::getHitRatio)
+                            .description("Share of result cache lookups that hit")
+                            .tag("rule", id)
+                            .register(registry));
+        });
+    }
+
+    /** Drops the meters of a deleted rule so removed ids don't accumulate meters. */
+    public void forget(String ruleId) {
+        Timer timer = evaluations.remove(ruleId);
+        if (timer != null) {
+            registry.remove(timer);
+        }
+        bindResultCache(ruleId, null);
+    }
+
+    void recordCondition(Operator op, long nanos) {
+        conditions.get(op).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordShortCircuit(boolean all) {
+        (all ? allShortCircuits : anyShortCircuits).increment();
+    }
+}
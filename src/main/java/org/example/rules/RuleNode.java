@@ -0,0 +1,9 @@
+package org.example.rules;
+
+/**
+ * A node of a compiled rule tree. Implementations are immutable and safe to share across threads.
+ */
+public interface RuleNode {
+
+    boolean evaluate(EvaluationContext ctx);
+}
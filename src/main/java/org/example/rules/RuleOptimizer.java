@@ -0,0 +1,177 @@
+package org.example.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reorders the children of {@code all}/{@code any} groups so cheap and decisive checks run before expensive ones.
+ * Nodes have no side effects, so every order gives the same result; only the amount of work done before a group
+ * short-circuits changes.
+ * <p>
+ * At compile time children are ordered by an estimated cost (existence checks, then comparisons, hash lookups,
+ * scans and finally regex). For a profiled rule, {@link #reorder} instead ranks children by observed cost per
+ * decisive outcome: mean nanos over the fail rate for {@code all}, over the pass rate for {@code any}.
+ */
+public final class RuleOptimizer {
+
+    private RuleOptimizer() {}
+
+    static RuleNode orderByCost(RuleNode node) {
+        return order(node, new double[1]);
+    }
+
+    /** Estimated worst-case cost of a sub-tree, in units of one existence check. */
+    public static double cost(RuleNode node) {
+        double[] cost = new double[1];
+        order(node, cost);
+        return cost[0];
+    }
+
+    private static RuleNode order(RuleNode node, double[] cost) {
+        if (node instanceof AllNode all) {
+            RuleNode[] children = orderGroup(all.children(), cost);
+            return children == null ? node : new AllNode(children);
+        }
+        if (node instanceof AnyNode any) {
+            RuleNode[] children = orderGroup(any.children(), cost);
+            return children == null ? node : new AnyNode(children);
+        }
+        if (node instanceof NotNode not) {
+            RuleNode child = order(not.getChild(), cost);
+            cost[0] += 1;
+            return child == not.getChild() ? node : new NotNode(child);
+        }
+        cost[0] = node instanceof ConditionNode condition ? conditionCost(condition) : 1;
+        return node;
+    }
+
+    /** Returns the reordered children, or {@code null} when neither their order nor any of them changed. */
+    private static RuleNode[] orderGroup(RuleNode[] children, double[] cost) {
+        int n = children.length;
+        RuleNode[] ordered = new RuleNode[n];
+        double[] costs = new double[n];
+        double total = 1;
+        boolean changed = false;
+        for (int i = 0; i < n; i++) {
+            ordered[i] = order(children[i], cost);
+            costs[i] = cost[0];
+            total += cost[0];
+            changed |= ordered[i] != children[i];
+        }
+        cost[0] = total;
+        Integer[] rank = sortedIndexes(costs);
+        for (int i = 0; i < n; i++) {
+            changed |= rank[i] != i;
+        }
+        return changed ? permute(ordered, rank) : null;
+    }
+
+    private static double conditionCost(ConditionNode condition) {
+        double base = switch (condition.getOp()) {
+            case exists, not_exists, isNull, isNotNull -> 1;
+            case eq, ne, lt, lte, gt, gte -> 2;
+            case between, in, not_in -> 3;
+            case contains -> 4;
+            case regex -> 10;
+        };
+        FieldPath path = condition.getPath();
+        return path == null ? base : base + (path.segments().length - 1) * 0.5;
+    }
+
+    /**
+     * The rule with every group reordered by the observed cost and selectivity of its children. Groups with a child
+     * sampled fewer than {@code minSamples} times keep their order. The returned rule keeps feeding the same
+     * profile counters; a rule without a profile is returned unchanged.
+     */
+    public static CompiledRule reorder(CompiledRule rule, long minSamples) {
+        RuleProfile profile = rule.getProfile();
+        if (profile == null) return rule;
+        NodeProfile[] profileOut = new NodeProfile[1];
+        RuleNode root = adapt(rule.getRoot(), profile.getRoot(), minSamples, profileOut);
+        return rule.withPlan(root, profile.replan(root, profileOut[0]));
+    }
+
+    private static RuleNode adapt(RuleNode node, NodeProfile profile, long minSamples, NodeProfile[] profileOut) {
+        if (node instanceof MemoNode) {
+            // Memo nodes only occur in rule sets, which are never profiled or re-ranked
+            throw new IllegalArgumentException("Unsupported node: " + node.getClass().getSimpleName());
+        }
+        boolean all = node instanceof AllNode;
+        if (all || node instanceof AnyNode) {
+            RuleNode[] children = all ? ((AllNode) node).children() : ((AnyNode) node).children();
+            int n = children.length;
+            RuleNode[] adapted = new RuleNode[n];
+            NodeProfile[] profiles = new NodeProfile[n];
+            double[] ranks = new double[n];
+            boolean sampled = true;
+            for (int i = 0; i < n; i++) {
+                NodeProfile child = profile.children[i];
+                adapted[i] = adapt(children[i], child, minSamples, profileOut);
+                profiles[i] = profileOut[0];
+                long evaluations = child.getEvaluations();
+                sampled &= evaluations >= minSamples;
+                double decisive = all ? 1 - child.getHitRate() : child.getHitRate();
+                ranks[i] = child.getMeanNanos() / Math.max(decisive, 1e-6);
+            }
+            Integer[] order = sampled ? sortedIndexes(ranks) : identity(n);
+            profileOut[0] = profile.withChildren(permute(profiles, order));
+            RuleNode[] ordered = permute(adapted, order);
+            return all ? new AllNode(ordered) : new AnyNode(ordered);
+        }
+        if (node instanceof NotNode not) {
+            RuleNode child = adapt(not.getChild(), profile.children[0], minSamples, profileOut);
+            profileOut[0] = profile.withChildren(new NodeProfile[]{profileOut[0]});
+            return new NotNode(child);
+        }
+        profileOut[0] = profile;
+        return node;
+    }
+
+    /** The current evaluation order of a rule, with the estimated cost of every node. */
+    public static PlanNode plan(CompiledRule rule) {
+        return plan(rule.getRoot());
+    }
+
+    private static PlanNode plan(RuleNode node) {
+        RuleNode[] children;
+        if (node instanceof AllNode all) {
+            children = all.children();
+        } else if (node instanceof AnyNode any) {
+            children = any.children();
+        } else if (node instanceof NotNode not) {
+            children = new RuleNode[]{not.getChild()};
+        } else {
+            children = new RuleNode[0];
+        }
+        List<PlanNode> plans = new ArrayList<>(children.length);
+        for (RuleNode child : children) {
+            plans.add(plan(child));
+        }
+        return new PlanNode(NodeProfile.label(node), cost(node), plans);
+    }
+
+    private static Integer[] sortedIndexes(double[] keys) {
+        Integer[] indexes = identity(keys.length);
+        // Stable, so ties keep the authoring order
+        Arrays.sort(indexes, Comparator.comparingDouble(i -> keys[i]));
+        return indexes;
+    }
+
+    private static Integer[] identity(int n) {
+        Integer[] indexes = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            indexes[i] = i;
+        }
+        return indexes;
+    }
+
+    private static <T> T[] permute(T[] items, Integer[] order) {
+        T[] permuted = items.clone();
+        for (int i = 0; i < order.length; i++) {
+            permuted[i] = items[order[i]];
+        }
+        return permuted;
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.rules;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-node cost and hit-rate counters of one compiled rule, fed by a sampled subset of its evaluations.
+ * Unsampled evaluations run the plain tree and pay a single random draw; sampled ones go through an instrumented
+ * walk that mirrors the node semantics (same order, same short-circuits) and times every node.
+ */
+public final class RuleProfile {
+
+    private final NodeProfile root;
+    private final RuleNode rootNode;
+    private final int sampleRate;
+    private final RuleMetrics metrics;
+    // Sampled evaluations, shared by every plan of the rule, and their count when this plan was made
+    private final AtomicLong samples;
+    private final long planSamples;
+
+    RuleProfile(RuleNode rootNode, int sampleRate, RuleMetrics metrics) {
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("Profiling sample rate must be >= 1: " + sampleRate);
+        }
+        this.rootNode = rootNode;
+        this.root = NodeProfile.of(rootNode);
+        this.sampleRate = sampleRate;
+        this.metrics = metrics;
+        this.samples = new AtomicLong();
+        this.planSamples = 0;
+    }
+
+    private RuleProfile(RuleProfile previous, RuleNode rootNode, NodeProfile root) {
+        this.rootNode = rootNode;
+        this.root = root;
+        this.sampleRate = previous.sampleRate;
+        this.metrics = previous.metrics;
+        this.samples = previous.samples;
+        this.planSamples = samples.get();
+    }
+
+    /** This profile's counters laid over a reordered tree. */
+    RuleProfile replan(RuleNode rootNode, NodeProfile root) {
+        return new RuleProfile(this, rootNode, root);
+    }
+
+    /** Sampled evaluations since the current evaluation order was chosen. */
+    public long getSamplesSincePlan() {
+        return samples.get() - planSamples;
+    }
+
+    /** One in {@link #getSampleRate()} evaluations are profiled, on average. */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public NodeProfile getRoot() {
+        return root;
+    }
+
+    boolean sample() {
+        return sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    boolean evaluate(EvaluationContext ctx) {
+        samples.incrementAndGet();
+        return evaluate(rootNode, root, ctx);
+    }
+
+    private boolean evaluate(RuleNode node, NodeProfile profile, EvaluationContext ctx) {
+        long start = System.nanoTime();
+        boolean result;
+        if (node instanceof AllNode all) {
+            result = evaluateGroup(all.children(), profile, ctx, true);
+        } else if (node instanceof AnyNode any) {
+            result = evaluateGroup(any.children(), profile, ctx, false);
+        } else if (node instanceof NotNode not) {
+            result = !evaluate(not.getChild(), profile.children[0], ctx);
+        } else {
+            result = node.evaluate(ctx);
+            if (metrics != null && node instanceof ConditionNode condition) {
+                metrics.recordCondition(condition.getOp(), System.nanoTime() - start);
+            }
+        }
+        profile.record(result, System.nanoTime() - start);
+        return result;
+    }
+
+    /** {@code all} stops at the first false child, {@code any} at the first true one. */
+    private boolean evaluateGroup(RuleNode[] children, NodeProfile profile, EvaluationContext ctx, boolean all) {
+        for (int i = 0; i < children.length; i++) {
+            if (evaluate(children[i], profile.children[i], ctx) != all) {
+                if (i < children.length - 1) {
+                    profile.shortCircuits.increment();
+                    if (metrics != null) metrics.recordShortCircuit(all);
+                }
+                return !all;
+            }
+        }
+        return all;
+    }
+}
@@ -0,0 +1,197 @@
+package org.example.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Many compiled rules merged into one DAG. Identical conditions (same field, op and value) and identical
+ * sub-groups are shared, and every shared node is evaluated at most once per record, so matching a record costs
+ * roughly one check per distinct predicate instead of one per rule and condition. Rules that are deep or must stay
+ * within the step budget keep their {@link StackEvaluator}, as in {@link CompiledRule}.
+ */
+public final class RuleSet {
+
+    private final String[] ids;
+    private final RuleNode[] roots;
+    // By rule, null for rules evaluated recursively
+    private final StackEvaluator[] stackEvaluators;
+    private final int memoSize;
+    private final int pathCount;
+    private final int conditionCount;
+    private final int distinctConditionCount;
+
+    private RuleSet(String[] ids, RuleNode[] roots, StackEvaluator[] stackEvaluators, int memoSize, int pathCount,
+                    int conditionCount, int distinctConditionCount) {
+        this.ids = ids;
+        this.roots = roots;
+        this.stackEvaluators = stackEvaluators;
+        this.memoSize = memoSize;
+        this.pathCount = pathCount;
+        this.conditionCount = conditionCount;
+        this.distinctConditionCount = distinctConditionCount;
+    }
+
+    public static RuleSet of(Map<String, CompiledRule> rules) {
+        return new Builder().build(rules);
+    }
+
+    /**
+     * Returns the ids of all rules matching {@code data}, in the iteration order of the map the set was built from.
+     */
+    public List<String> match(Map<String, Object> data) {
+        EvaluationContext ctx = newContext(data);
+        List<String> matches = new ArrayList<>();
+        for (int i = 0; i < roots.length; i++) {
+            if (matches(i, ctx)) {
+                matches.add(ids[i]);
+            }
+        }
+        return matches;
+    }
+
+    /** A context for evaluating the set's rules one at a time with {@link #matches}. */
+    EvaluationContext newContext(Map<String, Object> data) {
+        return new EvaluationContext(data, memoSize > 0 ? new byte[memoSize] : null, new Object[pathCount]);
+    }
+
+    /** Whether rule {@code i} (in build order) matches; shared sub-trees are evaluated once per context. */
+    boolean matches(int i, EvaluationContext ctx) {
+        StackEvaluator stack = stackEvaluators[i];
+        return stack != null ? stack.evaluate(roots[i], ctx) : roots[i].evaluate(ctx);
+    }
+
+    public int getRuleCount() {
+        return ids.length;
+    }
+
+    /** Condition nodes across all rules as authored. */
+    public int getConditionCount() {
+        return conditionCount;
+    }
+
+    /** Conditions left after deduplication; the most that are evaluated for one record. */
+    public int getDistinctConditionCount() {
+        return distinctConditionCount;
+    }
+
+    /**
+     * Hash-conses the rule trees: every node gets a canonical id (children before parents), then the runtime DAG
+     * is rebuilt from the canonical nodes, wrapping those referenced more than once in a {@link MemoNode}.
+     * Conditions are re-bound to one set-wide {@link PathTable} so a path is resolved once per record.
+     */
+    private static final class Builder {
+        private final PathTable paths = new PathTable();
+        private final Map<Object, Integer> canonicalIds = new HashMap<>();
+        private final List<RuleNode> representatives = new ArrayList<>();
+        private final List<int[]> childIds = new ArrayList<>();
+        private final List<Integer> refCounts = new ArrayList<>();
+        private int conditionCount;
+        private int distinctConditionCount;
+
+        RuleSet build(Map<String, CompiledRule> rules) {
+            String[] ids = new String[rules.size()];
+            int[] rootIds = new int[rules.size()];
+            StackEvaluator[] stackEvaluators = new StackEvaluator[rules.size()];
+            int i = 0;
+            for (Map.Entry<String, CompiledRule> e : rules.entrySet()) {
+                ids[i] = e.getKey();
+                rootIds[i] = intern(e.getValue().getRoot());
+                stackEvaluators[i] = e.getValue().stackEvaluator();
+                i++;
+            }
+
+            RuleNode[] runtime = new RuleNode[representatives.size()];
+            int memoSize = 0;
+            for (int id = 0; id < runtime.length; id++) {
+                RuleNode node = rebuild(representatives.get(id), childIds.get(id), runtime);
+                runtime[id] = refCounts.get(id) > 1 ? new MemoNode(memoSize++, node) : node;
+            }
+            RuleNode[] roots = new RuleNode[rootIds.length];
+            for (int r = 0; r < roots.length; r++) {
+                roots[r] = runtime[rootIds[r]];
+            }
+            return new RuleSet(ids, roots, stackEvaluators, memoSize, paths.toArray().length, conditionCount,
+                    distinctConditionCount);
+        }
+
+        private int intern(RuleNode node) {
+            Object key;
+            int[] children;
+            if (node instanceof ConditionNode) {
+                conditionCount++;
+                key = node;
+                children = null;
+            } else if (node instanceof AllNode all) {
+                children = internAll(all.getChildren());
+                key = new GroupKey('A', children);
+            } else if (node instanceof AnyNode any) {
+                children = internAll(any.getChildren());
+                key = new GroupKey('O', children);
+            } else if (node instanceof NotNode not) {
+                children = new int[]{intern(not.getChild())};
+                key = new GroupKey('N', children);
+            } else {
+                throw new IllegalArgumentException("Unsupported node: " + node.getClass().getSimpleName());
+            }
+
+            Integer existing = canonicalIds.get(key);
+            if (existing != null) {
+                refCounts.set(existing, refCounts.get(existing) + 1);
+                return existing;
+            }
+            int id = representatives.size();
+            canonicalIds.put(key, id);
+            representatives.add(node);
+            childIds.add(children);
+            refCounts.add(1);
+            if (node instanceof ConditionNode) {
+                distinctConditionCount++;
+            }
+            return id;
+        }
+
+        private int[] internAll(RuleNode[] nodes) {
+            int[] ids = new int[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                ids[i] = intern(nodes[i]);
+            }
+            return ids;
+        }
+
+        private RuleNode rebuild(RuleNode node, int[] children, RuleNode[] runtime) {
+            if (node instanceof ConditionNode cond) {
+                return cond.getPath() != null ? cond.withPath(paths.intern(cond.getPath().getPath())) : cond;
+            }
+            RuleNode[] rebuilt = new RuleNode[children.length];
+            for (int i = 0; i < children.length; i++) {
+                rebuilt[i] = runtime[children[i]];
+            }
+            if (node instanceof AllNode) return new AllNode(rebuilt);
+            if (node instanceof AnyNode) return new AnyNode(rebuilt);
+            return new NotNode(rebuilt[0]);
+        }
+    }
+
+    private static final class GroupKey {
+        private final char kind;
+        private final int[] children;
+
+        GroupKey(char kind, int[] children) {
+            this.kind = kind;
+            this.children = children;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof GroupKey other && kind == other.kind && Arrays.equals(children, other.children);
+        }
+
+        @Override
+        public int hashCode() {
+            return kind * 31 + Arrays.hashCode(children);
+        }
+    }
+}
@@ -0,0 +1,462 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A versioned binary file of compiled rules, so a starting node can load the rules of a running one without parsing
+ * and compiling their JSON. Each rule is stored as its compiled tree in evaluation order, with its constants already
+ * classified, its distinct field paths and regex patterns, and its JSON source.
+ * <p>
+ * {@link #open} memory-maps the file and only reads the header and the directory of rules; a rule's record is read
+ * (and its checksum verified) when it is decoded, and its JSON source only when {@link CompiledRule#getSource()} is
+ * first called. Decoding goes through the {@link RuleCompiler} of the loading node, so its limits and regex settings
+ * apply as if the rule had been compiled there.
+ * <p>
+ * The registry imports a snapshot eagerly: every record is verified and decoded when it is imported, because the
+ * rule index needs each rule's tree and a bad snapshot should fail startup rather than a later lookup. What stays
+ * lazy is the JSON source, and the file's pages, which are only read when mapped in.
+ * <p>
+ * Layout (big-endian): a header of magic, format version, rule count, directory length and directory CRC32; the
+ * directory (operator names, then per rule its id, version, flags, record offset, length and CRC32); the records.
+ * Operators are stored by their position in the directory's name list, so a file written by a node that knows an
+ * operator this one does not is rejected when opened.
+ */
+public final class RuleSnapshot {
+
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int MAGIC = 0x52534E50; // "RSNP"
+    private static final int HEADER_LENGTH = 20;
+    private static final int FLAG_RESULT_CACHE = 1;
+
+    private static final byte ALL = 0, ANY = 1, NOT = 2, CONDITION = 3;
+    private static final byte NULL = 0, LONG = 1, DECIMAL = 2, STRING = 3, TRUE = 4, FALSE = 5, LIST = 6, MAP = 7;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** A rule to write: its registration and its compiled form. */
+    public record Rule(String id, long version, boolean resultCache, CompiledRule compiled) {
+    }
+
+    /** A rule in an opened snapshot. */
+    public record Entry(String id, long version, boolean resultCache) {
+    }
+
+    private static final class Record {
+        final Entry entry;
+        final int offset;
+        final int length;
+        final int crc;
+        volatile boolean verified;
+
+        Record(Entry entry, int offset, int length, int crc) {
+            this.entry = entry;
+            this.offset = offset;
+            this.length = length;
+            this.crc = crc;
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final Operator[] operators;
+    private final Map<String, Record> records;
+
+    private RuleSnapshot(ByteBuffer buffer, Operator[] operators, Map<String, Record> records) {
+        this.buffer = buffer;
+        this.operators = operators;
+        this.records = records;
+    }
+
+    public static byte[] toBytes(Collection<Rule> rules) {
+        try {
+            List<byte[]> bodies = new ArrayList<>(rules.size());
+            ByteArrayOutputStream directoryBytes = new ByteArrayOutputStream();
+            DataOutputStream directory = new DataOutputStream(directoryBytes);
+            Operator[] operators = Operator.values();
+            directory.writeInt(operators.length);
+            for (Operator op : operators) {
+                writeString(directory, op.name());
+            }
+            long offset = 0;
+            for (Rule rule : rules) {
+                byte[] body = encode(rule.compiled());
+                bodies.add(body);
+                CRC32 crc = new CRC32();
+                crc.update(body);
+                writeString(directory, rule.id());
+                directory.writeLong(rule.version());
+                directory.writeByte(rule.resultCache() ? FLAG_RESULT_CACHE : 0);
+                directory.writeLong(offset);
+                directory.writeInt(body.length);
+                directory.writeInt((int) crc.getValue());
+                offset += body.length;
+            }
+            byte[] dir = directoryBytes.toByteArray();
+            CRC32 dirCrc = new CRC32();
+            dirCrc.update(dir);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_LENGTH + dir.length + (int) offset);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(rules.size());
+            out.writeInt(dir.length);
+            out.writeInt((int) dirCrc.getValue());
+            out.write(dir);
+            for (byte[] body : bodies) {
+                out.write(body);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the snapshot to a temporary file next to {@code file} and moves it into place, so readers never see a
+     * partially written snapshot.
+     */
+    public static void write(Path file, Collection<Rule> rules) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path tmp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, toBytes(rules));
+            Files.move(tmp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static byte[] encode(CompiledRule rule) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        byte[] source = MAPPER.writeValueAsBytes(rule.getSource());
+        out.writeInt(source.length);
+        out.write(source);
+        FieldPath[] paths = rule.paths();
+        out.writeInt(paths.length);
+        for (FieldPath path : paths) {
+            writeString(out, path.getPath());
+        }
+        writeNode(out, rule.getRoot());
+        return bytes.toByteArray();
+    }
+
+    private static void writeNode(DataOutputStream out, RuleNode node) throws IOException {
+        if (node instanceof AllNode all) {
+            writeGroup(out, ALL, all.children());
+        } else if (node instanceof AnyNode any) {
+            writeGroup(out, ANY, any.children());
+        } else if (node instanceof NotNode not) {
+            out.writeByte(NOT);
+            writeNode(out, not.getChild());
+        } else if (node instanceof ConditionNode condition) {
+            out.writeByte(CONDITION);
+            // Paths are referenced by slot, which is their index in the rule's path table
+            out.writeInt(condition.getPath() != null ? condition.getPath().slot : -1);
+            out.writeShort(condition.getOp().ordinal());
+            Operand value = condition.operand();
+            out.writeBoolean(value != null);
+            if (value != null) {
+                writeConstant(out, value.value);
+            }
+            Operand[] values = condition.operands();
+            out.writeInt(values != null ? values.length : -1);
+            if (values != null) {
+                for (Operand v : values) {
+                    writeConstant(out, v.value);
+                }
+            }
+        } else {
+            throw new IllegalArgumentException("Cannot snapshot node " + node.getClass().getSimpleName());
+        }
+    }
+
+    private static void writeGroup(DataOutputStream out, byte tag, RuleNode[] children) throws IOException {
+        out.writeByte(tag);
+        out.writeInt(children.length);
+        for (RuleNode child : children) {
+            writeNode(out, child);
+        }
+    }
+
+    private static void writeConstant(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Long l) {
+            out.writeByte(LONG);
+            out.writeLong(l);
+        } else if (value instanceof BigDecimal d) {
+            out.writeByte(DECIMAL);
+            out.writeInt(d.scale());
+            byte[] unscaled = d.unscaledValue().toByteArray();
+            out.writeInt(unscaled.length);
+            out.write(unscaled);
+        } else if (value instanceof String s) {
+            out.writeByte(STRING);
+            writeString(out, s);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(b ? TRUE : FALSE);
+        } else if (value instanceof List<?> list) {
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object item : list) {
+                writeConstant(out, item);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                writeString(out, String.valueOf(e.getKey()));
+                writeConstant(out, e.getValue());
+            }
+        } else {
+            throw new IllegalArgumentException("Cannot snapshot a constant of type " + value.getClass().getName());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /** Memory-maps a snapshot file and checks its header and directory; rule records are read on demand. */
+    public static RuleSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Snapshot is larger than 2 GB: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static RuleSnapshot of(byte[] bytes) {
+        return read(ByteBuffer.wrap(bytes));
+    }
+
+    private static RuleSnapshot read(ByteBuffer buffer) {
+        try {
+            ByteBuffer in = buffer.duplicate();
+            if (in.remaining() < HEADER_LENGTH || in.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a rule snapshot");
+            }
+            int version = in.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported snapshot format version " + version
+                        + " (expected " + FORMAT_VERSION + ")");
+            }
+            int count = in.getInt();
+            int directoryLength = in.getInt();
+            int directoryCrc = in.getInt();
+            ByteBuffer directory = in.slice(in.position(), directoryLength);
+            CRC32 crc = new CRC32();
+            crc.update(directory.duplicate());
+            if ((int) crc.getValue() != directoryCrc) {
+                throw new IllegalArgumentException("Snapshot directory is corrupt (checksum mismatch)");
+            }
+
+            Operator[] operators = new Operator[count(directory)];
+            for (int i = 0; i < operators.length; i++) {
+                String name = readString(directory);
+                try {
+                    operators[i] = Operator.valueOf(name);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Snapshot uses operator '" + name
+                            + "', which this version does not support");
+                }
+            }
+            int recordsStart = HEADER_LENGTH + directoryLength;
+            Map<String, Record> records = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                Entry entry = new Entry(readString(directory), directory.getLong(),
+                        (directory.get() & FLAG_RESULT_CACHE) != 0);
+                long offset = recordsStart + directory.getLong();
+                int length = directory.getInt();
+                if (offset < recordsStart || length < 0 || offset + length > buffer.limit()) {
+                    throw new IllegalArgumentException("Snapshot is truncated");
+                }
+                records.put(entry.id(), new Record(entry, (int) offset, length, directory.getInt()));
+            }
+            return new RuleSnapshot(buffer, operators, records);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Snapshot is truncated");
+        }
+    }
+
+    /** The rules of the snapshot, in the order they were written. */
+    public List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(records.size());
+        records.values().forEach(r -> entries.add(r.entry));
+        return entries;
+    }
+
+    public int size() {
+        return records.size();
+    }
+
+    /** The JSON source of a rule, parsed from the snapshot on every call. */
+    public JsonNode source(String id) {
+        ByteBuffer in = record(id);
+        try {
+            return MAPPER.readTree(readBytes(in));
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Snapshot record of rule '" + id + "' is malformed");
+        }
+    }
+
+    /**
+     * Rebuilds a rule's compiled tree, checked against the limits of {@code compiler}. Its JSON source is parsed
+     * from the snapshot when first asked for.
+     */
+    CompiledRule decode(String id, RuleCompiler compiler) {
+        ByteBuffer in = record(id);
+        try {
+            int sourceLength = in.getInt();
+            in.position(in.position() + sourceLength);
+            String[] table = new String[count(in)];
+            for (int i = 0; i < table.length; i++) {
+                table[i] = readString(in);
+            }
+            RuleCompiler.Compilation compilation = new RuleCompiler.Compilation();
+            RuleNode root = readNode(in, table, compiler, compilation, 1);
+            return compiler.build(root, () -> source(id), compilation);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Snapshot record of rule '" + id + "' is malformed");
+        }
+    }
+
+    /** The record of a rule, positioned at its start; its checksum is verified on first access. */
+    private ByteBuffer record(String id) {
+        Record record = records.get(id);
+        if (record == null) {
+            throw new IllegalArgumentException("Snapshot has no rule '" + id + "'");
+        }
+        ByteBuffer in = buffer.slice(record.offset, record.length);
+        if (!record.verified) {
+            CRC32 crc = new CRC32();
+            crc.update(in.duplicate());
+            if ((int) crc.getValue() != record.crc) {
+                throw new IllegalArgumentException("Snapshot record of rule '" + id + "' is corrupt (checksum mismatch)");
+            }
+            record.verified = true;
+        }
+        return in;
+    }
+
+    private RuleNode readNode(ByteBuffer in, String[] table, RuleCompiler compiler,
+                              RuleCompiler.Compilation compilation, int depth) {
+        compiler.enter(compilation, depth);
+        byte tag = in.get();
+        switch (tag) {
+            case ALL:
+            case ANY: {
+                RuleNode[] children = new RuleNode[count(in)];
+                for (int i = 0; i < children.length; i++) {
+                    children[i] = readNode(in, table, compiler, compilation, depth + 1);
+                }
+                return tag == ALL ? new AllNode(children) : new AnyNode(children);
+            }
+            case NOT:
+                return new NotNode(readNode(in, table, compiler, compilation, depth + 1));
+            case CONDITION: {
+                int path = in.getInt();
+                Operator op = operators[in.getShort()];
+                Operand value = in.get() != 0 ? Operand.of(readConstant(in)) : null;
+                Operand[] values = null;
+                if (in.getInt(in.position()) == -1) {
+                    in.getInt();
+                } else {
+                    values = new Operand[count(in)];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = Operand.of(readConstant(in));
+                    }
+                }
+                return compiler.condition(path >= 0 ? compilation.paths.intern(table[path]) : null, op, value, values,
+                        compilation);
+            }
+            default:
+                throw new IndexOutOfBoundsException("Unknown node tag " + tag);
+        }
+    }
+
+    private static Object readConstant(ByteBuffer in) {
+        byte tag = in.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case LONG:
+                return in.getLong();
+            case DECIMAL: {
+                int scale = in.getInt();
+                return new BigDecimal(new BigInteger(readBytes(in)), scale);
+            }
+            case STRING:
+                return readString(in);
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case LIST: {
+                int size = count(in);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readConstant(in));
+                }
+                return list;
+            }
+            case MAP: {
+                int size = count(in);
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    map.put(readString(in), readConstant(in));
+                }
+                return map;
+            }
+            default:
+                throw new IndexOutOfBoundsException("Unknown constant tag " + tag);
+        }
+    }
+
+    /** A length or element count, checked against the bytes left so a damaged record cannot allocate unbounded. */
+    private static int count(ByteBuffer in) {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        return count;
+    }
+
+    private static String readString(ByteBuffer in) {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(ByteBuffer in) {
+        byte[] bytes = new byte[count(in)];
+        in.get(bytes);
+        return bytes;
+    }
+}
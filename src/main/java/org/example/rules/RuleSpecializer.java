@@ -0,0 +1,242 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Partially evaluates a compiled rule against the part of its input that is known in advance, and simplifies what
+ * is left:
+ * <ul>
+ *   <li>conditions on known fields (and conditions without a field) are replaced by their result;</li>
+ *   <li>true children are dropped from {@code all} and false ones from {@code any}, a false (true) child makes the
+ *       whole {@code all} ({@code any}) constant, and {@code not} of a constant or of a {@code not} collapses;</li>
+ *   <li>nested groups of the same kind are flattened, duplicate children removed and single-child groups
+ *       unwrapped;</li>
+ *   <li>an {@code all} whose bounds on one field cannot all hold is false ({@code gt 50} and {@code lt 20}). The
+ *       bounds must be empty when compared as numbers and as text, since a non-numeric string is compared as
+ *       text: {@code gt 10} and {@code lt 5} are kept, as {@code "4x"} satisfies both.</li>
+ * </ul>
+ * A field is known when its top-level key is present in the partial data: the key supplies its whole subtree, so
+ * a nested field that is absent there counts as missing. The result is recompiled from its JSON form, so it is
+ * validated and planned like any other rule.
+ */
+final class RuleSpecializer {
+
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
+    private final RuleCompiler compiler;
+
+    RuleSpecializer(RuleCompiler compiler) {
+        this.compiler = compiler;
+    }
+
+    SpecializedRule specialize(CompiledRule rule, Map<String, Object> partialData) {
+        Specialization s = new Specialization(partialData);
+        JsonNode simplified = s.simplify(rule.getRoot());
+        Boolean constant = simplified.isBoolean() ? simplified.booleanValue() : null;
+        if (constant != null) {
+            // all: [] is always true, any: [] always false
+            simplified = group(constant ? "all" : "any", List.of());
+        }
+        return new SpecializedRule(compiler.compile(simplified), constant, conditions(rule.getRoot()));
+    }
+
+    static int conditions(RuleNode node) {
+        if (node instanceof ConditionNode) return 1;
+        int count = 0;
+        if (node instanceof AllNode all) {
+            for (RuleNode child : all.children()) count += conditions(child);
+        } else if (node instanceof AnyNode any) {
+            for (RuleNode child : any.children()) count += conditions(child);
+        } else if (node instanceof NotNode not) {
+            count = conditions(not.getChild());
+        }
+        return count;
+    }
+
+    private static final class Specialization {
+        private final Map<String, Object> known;
+        private final EvaluationContext ctx;
+
+        Specialization(Map<String, Object> known) {
+            this.known = known;
+            this.ctx = new EvaluationContext(known);
+        }
+
+        /** The node as rule JSON, or a JSON boolean when its result is already decided. */
+        JsonNode simplify(RuleNode node) {
+            if (node instanceof ConditionNode c) {
+                if (c.getPath() == null || known.containsKey(c.getPath().segments()[0])) {
+                    return BooleanNode.valueOf(c.evaluate(ctx));
+                }
+                return condition(c);
+            }
+            if (node instanceof NotNode not) {
+                JsonNode child = simplify(not.getChild());
+                if (child.isBoolean()) return BooleanNode.valueOf(!child.booleanValue());
+                if (child.has("not")) return child.get("not");
+                ObjectNode result = JSON.objectNode();
+                result.set("not", child);
+                return result;
+            }
+            boolean all = node instanceof AllNode;
+            RuleNode[] children = all ? ((AllNode) node).children() : ((AnyNode) node).children();
+            String kind = all ? "all" : "any";
+            // all: a false child decides the group, true children are neutral; the reverse for any
+            Set<JsonNode> kept = new LinkedHashSet<>();
+            for (RuleNode child : children) {
+                JsonNode simplified = simplify(child);
+                if (simplified.isBoolean()) {
+                    if (simplified.booleanValue() != all) return simplified;
+                } else if (simplified.has(kind)) {
+                    simplified.get(kind).forEach(kept::add);
+                } else {
+                    kept.add(simplified);
+                }
+            }
+            if (all && contradictory(kept)) return BooleanNode.FALSE;
+            if (kept.isEmpty()) return BooleanNode.valueOf(all);
+            if (kept.size() == 1) return kept.iterator().next();
+            return group(kind, kept);
+        }
+    }
+
+    private static ObjectNode group(String kind, Collection<JsonNode> children) {
+        ObjectNode result = JSON.objectNode();
+        ArrayNode array = result.putArray(kind);
+        children.forEach(array::add);
+        return result;
+    }
+
+    private static ObjectNode condition(ConditionNode c) {
+        ObjectNode result = JSON.objectNode();
+        result.put("field", c.getPath().getPath());
+        result.put("op", c.getOp().name());
+        switch (c.getOp()) {
+            case exists:
+            case not_exists:
+            case isNull:
+            case isNotNull:
+                break;
+            case between:
+            case in:
+            case not_in:
+                ArrayNode values = result.putArray("value");
+                for (Object v : c.getValues()) values.add(toJson(v));
+                break;
+            default:
+                result.set("value", toJson(c.getValue()));
+        }
+        return result;
+    }
+
+    private static JsonNode toJson(Object value) {
+        if (value == null) return JSON.nullNode();
+        if (value instanceof Long l) return JSON.numberNode(l);
+        if (value instanceof BigDecimal d) return JSON.numberNode(d);
+        if (value instanceof Boolean b) return JSON.booleanNode(b);
+        if (value instanceof List<?> list) {
+            ArrayNode array = JSON.arrayNode();
+            list.forEach(v -> array.add(toJson(v)));
+            return array;
+        }
+        if (value instanceof Map<?, ?> map) {
+            ObjectNode object = JSON.objectNode();
+            map.forEach((k, v) -> object.set(String.valueOf(k), toJson(v)));
+            return object;
+        }
+        return JSON.textNode(String.valueOf(value));
+    }
+
+    /**
+     * Whether the numeric bounds ({@code gt}, {@code gte}, {@code lt}, {@code lte}, {@code between} and numeric
+     * {@code eq}) that the conditions put on some field exclude every value. A number is checked against such a bound
+     * numerically, any other value by its string form, and null passes upper bounds only; the bounds only
+     * contradict each other when they leave no value of any of these kinds.
+     */
+    private static boolean contradictory(Collection<JsonNode> conditions) {
+        Map<String, Bounds> byField = new HashMap<>();
+        for (JsonNode c : conditions) {
+            if (!c.has("field") || !c.has("op")) continue;
+            String op = c.get("op").asText();
+            JsonNode value = c.get("value");
+            Bounds bounds = byField.computeIfAbsent(c.get("field").asText(), k -> new Bounds());
+            switch (op) {
+                case "gt", "gte", "lt", "lte", "eq" -> {
+                    Operand operand = Operand.of(Values.jsonToJava(value));
+                    if (!operand.numeric) continue;
+                    if (!op.startsWith("l")) bounds.lower(operand, op.equals("gt"));
+                    if (!op.startsWith("g")) bounds.upper(operand, op.equals("lt"));
+                }
+                case "between" -> {
+                    Operand min = Operand.of(Values.jsonToJava(value.get(0)));
+                    Operand max = Operand.of(Values.jsonToJava(value.get(1)));
+                    if (!min.numeric || !max.numeric) continue;
+                    bounds.lower(min, false);
+                    bounds.upper(max, false);
+                }
+                default -> {
+                }
+            }
+        }
+        for (Bounds bounds : byField.values()) {
+            if (bounds.empty()) return true;
+        }
+        return false;
+    }
+
+    private enum Comparison { EXACT, DOUBLE, TEXT }
+
+    /** The lower and upper bounds put on one field. */
+    private static final class Bounds {
+        private final List<Operand> lowers = new ArrayList<>();
+        private final List<Boolean> lowerStrict = new ArrayList<>();
+        private final List<Operand> uppers = new ArrayList<>();
+        private final List<Boolean> upperStrict = new ArrayList<>();
+
+        void lower(Operand operand, boolean strict) {
+            lowers.add(operand);
+            lowerStrict.add(strict);
+        }
+
+        void upper(Operand operand, boolean strict) {
+            uppers.add(operand);
+            upperStrict.add(strict);
+        }
+
+        boolean empty() {
+            // Null fails every lower bound, so without one null may pass
+            if (lowers.isEmpty() || uppers.isEmpty()) return false;
+            // Integers and decimals compare exactly, doubles with the constant's double value, the rest as strings
+            return emptyBy(Comparison.EXACT) && emptyBy(Comparison.DOUBLE) && emptyBy(Comparison.TEXT);
+        }
+
+        private boolean emptyBy(Comparison comparison) {
+            for (int i = 0; i < lowers.size(); i++) {
+                for (int j = 0; j < uppers.size(); j++) {
+                    Operand lo = lowers.get(i);
+                    Operand hi = uppers.get(j);
+                    int c = switch (comparison) {
+                        case EXACT -> lo.decimal.compareTo(hi.decimal);
+                        case DOUBLE -> Double.compare(lo.doubleValue, hi.doubleValue);
+                        case TEXT -> lo.text.compareTo(hi.text);
+                    };
+                    if (c > 0 || (c == 0 && (lowerStrict.get(i) || upperStrict.get(j)))) return true;
+                }
+            }
+            return false;
+        }
+    }
+}
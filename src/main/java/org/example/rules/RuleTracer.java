@@ -0,0 +1,197 @@
+package org.example.rules;
+
+import org.example.config.RuleEngineProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates rules through an instrumented walk that records every node it visits: the result, the value each
+ * condition resolved, and where groups short-circuited. The walk mirrors the node semantics (same order, same
+ * short-circuits) of the tree, so the result is the one {@link CompiledRule#evaluate(Map)} returns; the plain
+ * evaluation path is not touched.
+ * <p>
+ * Traces are bounded: once one evaluation has recorded {@code maxNodes} nodes, the rest of the rule is evaluated
+ * without recording, and a batch stops tracing records once {@code maxBatchNodes} nodes have been recorded in total.
+ * Recorded values are copied within a fixed budget of characters and elements, however deeply they nest.
+ * A rule with a step budget is traced within it: recorded nodes and the elements {@code contains} scans are charged
+ * to the same budget as the unrecorded rest.
+ */
+@Component
+public class RuleTracer {
+
+    // Values are copied into traces up to these limits: characters of one string, and characters, collection
+    // elements and map fields of a whole value; the rest is replaced by a summary
+    private static final int MAX_TEXT = 256;
+    private static final int MAX_CHARS = 1024;
+    private static final int MAX_ITEMS = 32;
+    private static final int MAX_DEPTH = 8;
+
+    private final int maxNodes;
+    private final int maxBatchNodes;
+
+    @Autowired
+    public RuleTracer(RuleEngineProperties properties) {
+        this(properties.getExplain().getMaxNodes(), properties.getExplain().getMaxBatchNodes());
+    }
+
+    RuleTracer(int maxNodes, int maxBatchNodes) {
+        if (maxNodes < 1 || maxBatchNodes < 1) {
+            throw new IllegalArgumentException("Trace limits must be positive: " + maxNodes + ", " + maxBatchNodes);
+        }
+        this.maxNodes = maxNodes;
+        this.maxBatchNodes = maxBatchNodes;
+    }
+
+    public EvaluationTrace trace(CompiledRule rule, Map<String, Object> data) {
+        return trace(rule, data, maxNodes);
+    }
+
+    /**
+     * Traces of the records in order, until the batch limit is spent: the list is shorter than {@code records}
+     * when later records were not traced.
+     */
+    public List<EvaluationTrace> trace(CompiledRule rule, List<Map<String, Object>> records) {
+        List<EvaluationTrace> traces = new ArrayList<>();
+        int remaining = maxBatchNodes;
+        for (Map<String, Object> record : records) {
+            if (remaining == 0) break;
+            EvaluationTrace trace = trace(rule, record, Math.min(maxNodes, remaining));
+            traces.add(trace);
+            remaining -= trace.getNodes();
+        }
+        return traces;
+    }
+
+    private static EvaluationTrace trace(CompiledRule rule, Map<String, Object> data, int limit) {
+        Walk walk = new Walk(rule.newContext(data), rule.stackEvaluator(), limit);
+        List<TraceNode> root = new ArrayList<>(1);
+        walk.evaluate(rule.getRoot(), root);
+        return new EvaluationTrace(root.get(0), limit - walk.remaining, walk.truncated);
+    }
+
+    private static final class Walk {
+        private final EvaluationContext ctx;
+        // Set for deep or budgeted rules, which are walked within the budget
+        private final StackEvaluator stack;
+        private final StackEvaluator.Budget budget = new StackEvaluator.Budget();
+        private int remaining;
+        private boolean truncated;
+
+        Walk(EvaluationContext ctx, StackEvaluator stack, int limit) {
+            this.ctx = ctx;
+            this.stack = stack;
+            this.remaining = limit;
+        }
+
+        /** Evaluates the node, adding its trace to {@code out} unless the limit is spent. */
+        boolean evaluate(RuleNode node, List<TraceNode> out) {
+            if (node instanceof MemoNode memo) {
+                return evaluate(memo.getNode(), out);
+            }
+            if (remaining == 0) {
+                truncated = true;
+                return stack != null ? stack.evaluate(node, ctx, budget) : node.evaluate(ctx);
+            }
+            remaining--;
+            if (stack != null) {
+                stack.charge(budget, 1);
+            }
+            TraceNode trace = new TraceNode(NodeProfile.label(node));
+            out.add(trace);
+            boolean result;
+            if (node instanceof AllNode all) {
+                result = evaluateGroup(all.children(), trace, true);
+            } else if (node instanceof AnyNode any) {
+                result = evaluateGroup(any.children(), trace, false);
+            } else if (node instanceof NotNode not) {
+                result = !evaluate(not.getChild(), trace.children());
+                if (trace.getChildren().isEmpty()) trace.setTruncated();
+            } else if (stack != null && node instanceof ConditionNode condition && StackEvaluator.scans(condition)) {
+                Object value = ctx.resolve(condition.getPath());
+                stack.charge(budget, StackEvaluator.scanned(value));
+                result = condition.test(value);
+                if (ctx.contains(condition.getPath())) {
+                    trace.setLeft(summarize(value));
+                } else {
+                    trace.setMissing();
+                }
+            } else {
+                result = node.evaluate(ctx);
+                if (node instanceof ConditionNode condition && condition.getPath() != null) {
+                    if (ctx.contains(condition.getPath())) {
+                        trace.setLeft(summarize(ctx.resolve(condition.getPath())));
+                    } else {
+                        trace.setMissing();
+                    }
+                }
+            }
+            trace.setResult(result);
+            return result;
+        }
+
+        /** {@code all} stops at the first false child, {@code any} at the first true one. */
+        private boolean evaluateGroup(RuleNode[] children, TraceNode trace, boolean all) {
+            List<TraceNode> traced = trace.children();
+            for (int i = 0; i < children.length; i++) {
+                boolean result = evaluate(children[i], traced);
+                if (traced.size() <= i) trace.setTruncated();
+                if (result != all) {
+                    if (i < children.length - 1) trace.setSkipped(children.length - 1 - i);
+                    return !all;
+                }
+            }
+            return all;
+        }
+    }
+
+    private static Object summarize(Object value) {
+        return new Summary().copy(value, 0);
+    }
+
+    /** A copy of a value within the total budget, spent depth-first. */
+    private static final class Summary {
+        private int chars = MAX_CHARS;
+        private int items = MAX_ITEMS;
+
+        Object copy(Object value, int depth) {
+            if (value instanceof String s) {
+                int keep = Math.min(s.length(), Math.min(MAX_TEXT, chars));
+                chars -= keep;
+                return keep == s.length() ? s : s.substring(0, keep) + "...";
+            }
+            if (value instanceof Collection<?> c) {
+                if (depth == MAX_DEPTH) return "<" + c.size() + " items>";
+                List<Object> copy = new ArrayList<>(Math.min(c.size(), items + 1));
+                for (Object item : c) {
+                    if (items == 0) {
+                        copy.add("<" + (c.size() - copy.size()) + " more items>");
+                        break;
+                    }
+                    items--;
+                    copy.add(copy(item, depth + 1));
+                }
+                return copy;
+            }
+            if (value instanceof Map<?, ?> m) {
+                if (depth == MAX_DEPTH) return "<" + m.size() + " fields>";
+                Map<Object, Object> copy = new LinkedHashMap<>();
+                for (Map.Entry<?, ?> e : m.entrySet()) {
+                    if (items == 0) {
+                        copy.put("...", "<" + (m.size() - copy.size()) + " more fields>");
+                        break;
+                    }
+                    items--;
+                    copy.put(copy(String.valueOf(e.getKey()), depth + 1), copy(e.getValue(), depth + 1));
+                }
+                return copy;
+            }
+            return value;
+        }
+    }
+}
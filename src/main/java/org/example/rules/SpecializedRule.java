@@ -0,0 +1,39 @@
+package org.example.rules;
+
+/**
+ * A rule specialized for partially known input; see {@link RuleEngineService#specialize}.
+ */
+public final class SpecializedRule {
+
+    private final CompiledRule rule;
+    private final Boolean constant;
+    private final int originalConditions;
+    private final int conditions;
+
+    SpecializedRule(CompiledRule rule, Boolean constant, int originalConditions) {
+        this.rule = rule;
+        this.constant = constant;
+        this.originalConditions = originalConditions;
+        this.conditions = RuleSpecializer.conditions(rule.getRoot());
+    }
+
+    /** The simplified rule; for a constant result, {@code {"all": []}} or {@code {"any": []}}. */
+    public CompiledRule getRule() {
+        return rule;
+    }
+
+    /** The result for every input agreeing with the partial data, or {@code null} when it still depends on the rest. */
+    public Boolean getConstant() {
+        return constant;
+    }
+
+    /** Conditions in the rule before specialization. */
+    public int getOriginalConditions() {
+        return originalConditions;
+    }
+
+    /** Conditions left in the specialized rule. */
+    public int getConditions() {
+        return conditions;
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.rules;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Walks a rule tree with an explicit stack instead of recursion, so nesting depth is bounded by heap rather than by
+ * the thread stack, and optionally counts the work done against a step budget. One step is one node visited or
+ * one collection element scanned by {@code contains}; an evaluation that would exceed {@code maxSteps} is aborted
+ * with an {@link EvaluationBudgetExceededException}. Order and short-circuits are those of the node tree.
+ * <p>
+ * Every path that walks a budgeted rule goes through here: {@link CompiledRule} (which then skips sampled
+ * profiling and bytecode generation), the rules of a {@link RuleSet} and so of a {@link DecisionTable}, where a
+ * shared sub-tree answered from the memo costs one step, and {@link RuleTracer}, which charges the nodes it records
+ * to the same {@link Budget}. Columnar batches are not budgeted: their columns hold scalars, so {@code contains}
+ * never scans, and their cost is the rule's size times the batch's, both known before the call.
+ */
+final class StackEvaluator {
+
+    private final long maxSteps;
+
+    /**
+     * @param maxSteps the step budget of one evaluation; 0 for none
+     */
+    StackEvaluator(long maxSteps) {
+        this.maxSteps = maxSteps > 0 ? maxSteps : Long.MAX_VALUE;
+    }
+
+    /** Steps spent by one evaluation, when it is made of several walks. */
+    static final class Budget {
+        private long steps;
+    }
+
+    boolean evaluate(RuleNode root, EvaluationContext ctx) {
+        return evaluate(root, ctx, new Budget());
+    }
+
+    /** Evaluates {@code root}, charging its steps to {@code budget}. */
+    boolean evaluate(RuleNode root, EvaluationContext ctx, Budget budget) {
+        // Groups being evaluated, with the index of the child currently evaluated
+        RuleNode[] groups = new RuleNode[16];
+        int[] next = new int[16];
+        int top = -1;
+        long steps = budget.steps;
+        RuleNode node = root;
+        boolean result;
+        while (true) {
+            // Descend to the first leaf, pushing every group on the way
+            while (true) {
+                if (++steps > maxSteps) {
+                    throw exceeded();
+                }
+                RuleNode first;
+                if (node instanceof AllNode all) {
+                    if (all.children().length == 0) {
+                        result = true;
+                        break;
+                    }
+                    first = all.children()[0];
+                } else if (node instanceof AnyNode any) {
+                    if (any.children().length == 0) {
+                        result = false;
+                        break;
+                    }
+                    first = any.children()[0];
+                } else if (node instanceof NotNode not) {
+                    first = not.getChild();
+                } else if (node instanceof MemoNode memo) {
+                    byte state = ctx.memo[memo.getSlot()];
+                    if (state != 0) {
+                        result = state == 1;
+                        break;
+                    }
+                    first = memo.getNode();
+                } else if (node instanceof ConditionNode condition && scans(condition)) {
+                    // Resolved once, both to count the elements and to test them
+                    Object value = ctx.resolve(condition.getPath());
+                    steps += scanned(value);
+                    if (steps > maxSteps) {
+                        throw exceeded();
+                    }
+                    result = condition.test(value);
+                    break;
+                } else {
+                    result = node.evaluate(ctx);
+                    break;
+                }
+                if (++top == groups.length) {
+                    groups = Arrays.copyOf(groups, top * 2);
+                    next = Arrays.copyOf(next, top * 2);
+                }
+                groups[top] = node;
+                next[top] = 0;
+                node = first;
+            }
+            // Hand the result up until a group needs its next child
+            while (true) {
+                if (top < 0) {
+                    budget.steps = steps;
+                    return result;
+                }
+                RuleNode group = groups[top];
+                if (group instanceof NotNode) {
+                    result = !result;
+                    top--;
+                    continue;
+                }
+                if (group instanceof MemoNode memo) {
+                    ctx.memo[memo.getSlot()] = result ? (byte) 1 : (byte) 2;
+                    top--;
+                    continue;
+                }
+                boolean all = group instanceof AllNode;
+                RuleNode[] children = all ? ((AllNode) group).children() : ((AnyNode) group).children();
+                int i = next[top] + 1;
+                // all stops at the first false child, any at the first true one; either way the child's result is
+                // the group's
+                if (result != all || i == children.length) {
+                    top--;
+                    continue;
+                }
+                next[top] = i;
+                node = children[i];
+                break;
+            }
+        }
+    }
+
+    /** Charges {@code steps} more to {@code budget}, for walks that record what they visit themselves. */
+    void charge(Budget budget, long steps) {
+        budget.steps += steps;
+        if (budget.steps > maxSteps) {
+            throw exceeded();
+        }
+    }
+
+    /** Whether the condition's work depends on the size of its value. */
+    static boolean scans(ConditionNode condition) {
+        return condition.getOp() == Operator.contains && condition.getPath() != null;
+    }
+
+    /** Collection elements {@code contains} scans in {@code value}. */
+    static long scanned(Object value) {
+        return value instanceof Collection<?> c ? c.size() : 0;
+    }
+
+    private EvaluationBudgetExceededException exceeded() {
+        return new EvaluationBudgetExceededException("Rule evaluation exceeded the budget of " + maxSteps + " steps");
+    }
+}
@@ -0,0 +1,207 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Evaluates a compiled rule directly over JSON input. The parser walks the document against the rule's
+ * {@link PathTrie}: values at rule paths are captured into the evaluation slots, everything else is skipped without
+ * being materialized, so no {@code Map<String, Object>} is built for the document.
+ * <p>
+ * Besides JSON, request bodies may be CBOR ({@value #CBOR}) or Smile ({@value #SMILE}): both are read through
+ * the same token stream, so evaluation is identical whatever the wire format.
+ */
+@Component
+public class StreamingEvaluator {
+
+    public static final String CBOR = "application/cbor";
+    public static final String SMILE = "application/x-jackson-smile";
+
+    private final JsonFactory jsonFactory;
+    private final JsonFactory cborFactory = new CBORFactory();
+    private final JsonFactory smileFactory = new SmileFactory();
+
+    public StreamingEvaluator(ObjectMapper mapper) {
+        this.jsonFactory = mapper.getFactory();
+    }
+
+    /**
+     * The parser factory for a request content type: CBOR, Smile, or JSON for anything else.
+     */
+    public JsonFactory factoryFor(String contentType) {
+        if (contentType != null) {
+            String type = contentType.toLowerCase(Locale.ROOT);
+            if (type.startsWith(CBOR)) return cborFactory;
+            if (type.startsWith(SMILE)) return smileFactory;
+        }
+        return jsonFactory;
+    }
+
+    /**
+     * Evaluates against a request body of the form {@code {"data": {...}}}; other top-level fields are skipped.
+     */
+    public boolean evaluateRequest(CompiledRule rule, InputStream body) throws IOException {
+        return evaluateRequest(rule, body, null);
+    }
+
+    /** Like {@link #evaluateRequest(CompiledRule, InputStream)} for a body in the format of {@code contentType}. */
+    public boolean evaluateRequest(CompiledRule rule, InputStream body, String contentType) throws IOException {
+        try (JsonParser parser = factoryFor(contentType).createParser(body)) {
+            return evaluateRequest(rule, parser);
+        }
+    }
+
+    public boolean evaluateRequest(CompiledRule rule, JsonParser parser) throws IOException {
+        try {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Request body must be a JSON object");
+            }
+            Object[] slots = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("data".equals(name) && value == JsonToken.START_OBJECT) {
+                    slots = new Object[rule.paths().length];
+                    readObject(parser, rule.pathTrie().root, slots);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (slots == null) {
+                throw new IllegalArgumentException("Request field 'data' must be an object");
+            }
+            return rule.evaluate(slots);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * Evaluates against the data object the parser is positioned at (or, if it has no current token, the next one).
+     */
+    public boolean evaluateData(CompiledRule rule, JsonParser parser) throws IOException {
+        try {
+            JsonToken token = parser.currentToken() != null ? parser.currentToken() : parser.nextToken();
+            if (token != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Data must be a JSON object");
+            }
+            Object[] slots = new Object[rule.paths().length];
+            readObject(parser, rule.pathTrie().root, slots);
+            return rule.evaluate(slots);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /** Evaluates against one JSON object encoded in {@code data}, e.g. a line of an NDJSON stream. */
+    public boolean evaluateData(CompiledRule rule, byte[] data) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(data)) {
+            return evaluateData(rule, parser);
+        }
+    }
+
+    private static void readObject(JsonParser parser, PathTrie.Node node, Object[] slots) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            PathTrie.Node child = node.children.get(parser.currentName());
+            parser.nextToken();
+            if (child == null) {
+                parser.skipChildren();
+            } else {
+                readValue(parser, child, slots);
+            }
+        }
+    }
+
+    private static void readArray(JsonParser parser, PathTrie.Node node, Object[] slots) throws IOException {
+        int index = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            PathTrie.Node child = node.indexed(index++);
+            if (child == null) {
+                parser.skipChildren();
+            } else {
+                readValue(parser, child, slots);
+            }
+        }
+    }
+
+    private static void readValue(JsonParser parser, PathTrie.Node node, Object[] slots) throws IOException {
+        if (node.path != null) {
+            // A rule needs this value itself: materialize just this subtree and resolve deeper paths from it
+            Object value = readAny(parser);
+            slots[node.path.slot] = EvaluationContext.encode(value);
+            if (!node.isLeaf()) {
+                captureDescendants(node, value, node.depth, slots);
+            }
+            return;
+        }
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            readObject(parser, node, slots);
+        } else if (token == JsonToken.START_ARRAY) {
+            readArray(parser, node, slots);
+        }
+        // scalars below an intermediate segment leave the deeper paths missing
+    }
+
+    /** Resolves every path below {@code node} from {@code value}, the materialized value at {@code depth}. */
+    private static void captureDescendants(PathTrie.Node node, Object value, int depth, Object[] slots) {
+        for (PathTrie.Node child : node.children.values()) {
+            if (child.path != null) {
+                Object resolved = child.path.lookupFrom(value, depth);
+                if (resolved != FieldPath.MISSING) {
+                    slots[child.path.slot] = EvaluationContext.encode(resolved);
+                }
+            }
+            captureDescendants(child, value, depth, slots);
+        }
+    }
+
+    /** Reads the current value with the same Java types Jackson uses when binding to {@code Map<String, Object>}. */
+    private static Object readAny(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case START_OBJECT: {
+                Map<String, Object> map = new LinkedHashMap<>();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    parser.nextToken();
+                    map.put(name, readAny(parser));
+                }
+                return map;
+            }
+            case START_ARRAY: {
+                List<Object> list = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    list.add(readAny(parser));
+                }
+                return list;
+            }
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_EMBEDDED_OBJECT:
+                return parser.getEmbeddedObject();
+            default:
+                return null;
+        }
+    }
+}
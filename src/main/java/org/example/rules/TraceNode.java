@@ -0,0 +1,86 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One evaluated node of an {@link EvaluationTrace}. Conditions carry the value they were tested against; groups list
+ * the children that were evaluated, in order, and how many were skipped by short-circuiting.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class TraceNode {
+
+    private final String node;
+    private boolean result;
+    private Object left;
+    private Boolean missing;
+    private List<TraceNode> children;
+    private Integer skipped;
+    private Boolean truncated;
+
+    TraceNode(String node) {
+        this.node = node;
+    }
+
+    /** {@code all}, {@code any}, {@code not}, or the condition as {@code field op value}. */
+    public String getNode() {
+        return node;
+    }
+
+    public boolean isResult() {
+        return result;
+    }
+
+    /** The field's value, or {@code null} when it is null or missing; long strings and collections are shortened. */
+    public Object getLeft() {
+        return left;
+    }
+
+    /** {@code true} when the condition's field is absent from the data. */
+    public Boolean getMissing() {
+        return missing;
+    }
+
+    public List<TraceNode> getChildren() {
+        return children;
+    }
+
+    /** Children not evaluated because an earlier one decided the group. */
+    public Integer getSkipped() {
+        return skipped;
+    }
+
+    /** {@code true} when some children were evaluated after the trace reached its size limit, so are not listed. */
+    public Boolean getTruncated() {
+        return truncated;
+    }
+
+    void setResult(boolean result) {
+        this.result = result;
+    }
+
+    void setLeft(Object left) {
+        this.left = left;
+    }
+
+    void setMissing() {
+        this.missing = true;
+    }
+
+    void setSkipped(int skipped) {
+        this.skipped = skipped;
+    }
+
+    void setTruncated() {
+        this.truncated = true;
+    }
+
+    List<TraceNode> children() {
+        if (children == null) {
+            children = new ArrayList<>();
+        }
+        return children;
+    }
+}
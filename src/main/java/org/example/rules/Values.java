@@ -0,0 +1,239 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Value conversion and coercing comparison shared by the compiler and the evaluation nodes.
+ * <p>
+ * Comparisons are always {@code data value} against a pre-classified {@link Operand}. Numbers are compared
+ * numerically when both sides are numeric (numeric strings included), ISO-8601 strings as instants when the
+ * constant is a timestamp, and everything else via {@link Comparable} or the string form. The common cases
+ * (strings, boxed integers and doubles against a constant) neither allocate nor throw.
+ */
+final class Values {
+
+    private static final int NOT_NUMERIC = Integer.MIN_VALUE;
+
+    private Values() {}
+
+    static Object jsonToJava(JsonNode node) {
+        if (node == null || node.isNull()) return null;
+        if (node.isTextual()) return node.asText();
+        if (node.isNumber()) {
+            if (node.isIntegralNumber()) return node.asLong();
+            return node.decimalValue();
+        }
+        if (node.isBoolean()) return node.asBoolean();
+        if (node.isArray()) {
+            List<Object> list = new ArrayList<>();
+            node.forEach(n -> list.add(jsonToJava(n)));
+            return list;
+        }
+        // for objects, convert to map of simple values
+        if (node.isObject()) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            node.fields().forEachRemaining(e -> map.put(e.getKey(), jsonToJava(e.getValue())));
+            return map;
+        }
+        return null;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    static int compare(Object left, Operand right) {
+        Object rv = right.value;
+        if (rv == null) return left == null ? 0 : 1;
+        if (left == null) return -1;
+        if (left == rv || left.equals(rv)) return 0;
+
+        if (right.numeric) {
+            int c = compareNumeric(left, right);
+            if (c != NOT_NUMERIC) return c;
+        } else if (right.instant != null) {
+            int c = compareInstant(left, right.instant);
+            if (c != NOT_NUMERIC) return c;
+        }
+
+        // Fallback to Comparable or string comparison
+        if (left instanceof Comparable<?> && left.getClass().isInstance(rv)) {
+            // Use raw Comparable to avoid wildcard capture issues when comparing with Object
+            return ((Comparable) left).compareTo(rv);
+        }
+        String ls = left instanceof String s ? s : String.valueOf(left);
+        return ls.compareTo(right.text);
+    }
+
+    private static int compareNumeric(Object left, Operand right) {
+        if (left instanceof Long || left instanceof Integer || left instanceof Short || left instanceof Byte) {
+            return compareLong(((Number) left).longValue(), right);
+        }
+        if (left instanceof Double || left instanceof Float) {
+            double d = ((Number) left).doubleValue();
+            if (Double.isNaN(d)) return NOT_NUMERIC;
+            // Doubles are compared by value, so 0.1 in the data equals the constant 0.1
+            double c = right.doubleValue;
+            return d < c ? -1 : (d > c ? 1 : 0);
+        }
+        if (left instanceof BigDecimal bd) {
+            return bd.compareTo(right.decimal);
+        }
+        if (left instanceof Number n) {
+            return new BigDecimal(n.toString()).compareTo(right.decimal);
+        }
+        if (left instanceof String s && looksNumeric(s)) {
+            if (isPlainLong(s)) {
+                return compareLong(Long.parseLong(s), right);
+            }
+            return new BigDecimal(s).compareTo(right.decimal);
+        }
+        return NOT_NUMERIC;
+    }
+
+    static int compareLong(long v, Operand right) {
+        if (right.integral) return Long.compare(v, right.longValue);
+        if (right.longRange != 0) return -right.longRange;
+        // right lies strictly between floor and floor + 1
+        return v <= right.floor ? -1 : 1;
+    }
+
+    /**
+     * True when {@code s} is accepted by {@link BigDecimal#BigDecimal(String)}: optional sign, digits with an
+     * optional fraction, optional exponent. Checked by hand so plain strings never cost an exception.
+     */
+    static boolean looksNumeric(String s) {
+        int n = s.length();
+        int i = 0;
+        if (i < n && (s.charAt(i) == '+' || s.charAt(i) == '-')) i++;
+        int digits = 0;
+        while (i < n && isDigit(s.charAt(i))) { i++; digits++; }
+        if (i < n && s.charAt(i) == '.') {
+            i++;
+            while (i < n && isDigit(s.charAt(i))) { i++; digits++; }
+        }
+        if (digits == 0) return false;
+        if (i < n && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i++;
+            if (i < n && (s.charAt(i) == '+' || s.charAt(i) == '-')) i++;
+            int expDigits = 0;
+            while (i < n && isDigit(s.charAt(i))) { i++; expDigits++; }
+            if (expDigits == 0 || expDigits > 9) return false;
+        }
+        return i == n;
+    }
+
+    /** Optional sign and at most 18 digits: always fits a long. */
+    private static boolean isPlainLong(String s) {
+        int start = s.charAt(0) == '+' || s.charAt(0) == '-' ? 1 : 0;
+        int n = s.length();
+        if (n - start > 18) return false;
+        for (int i = start; i < n; i++) {
+            if (!isDigit(s.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int compareInstant(Object left, Instant right) {
+        if (left instanceof Instant i) return i.compareTo(right);
+        if (!(left instanceof String s)) return NOT_NUMERIC;
+        long seconds = parseUtcSeconds(s);
+        if (seconds != Long.MIN_VALUE) {
+            int c = Long.compare(seconds, right.getEpochSecond());
+            return c != 0 ? c : Integer.compare(parseUtcNanos(s), right.getNano());
+        }
+        Instant li = toInstantOrNull(s);
+        return li != null ? li.compareTo(right) : NOT_NUMERIC;
+    }
+
+    /**
+     * Epoch seconds of a strict {@code yyyy-MM-ddTHH:mm:ss[.fffffffff]Z} string, or {@code Long.MIN_VALUE} when
+     * the string has any other shape (offsets, leap seconds, ...) and must go through {@link Instant#parse}.
+     */
+    private static long parseUtcSeconds(String s) {
+        int n = s.length();
+        if (n < 20 || n > 30 || s.charAt(n - 1) != 'Z' || s.charAt(4) != '-' || s.charAt(7) != '-'
+                || s.charAt(10) != 'T' || s.charAt(13) != ':' || s.charAt(16) != ':') {
+            return Long.MIN_VALUE;
+        }
+        if (n > 20 && (s.charAt(19) != '.' || n == 21)) return Long.MIN_VALUE;
+        for (int i = 20; i < n - 1; i++) {
+            if (!isDigit(s.charAt(i))) return Long.MIN_VALUE;
+        }
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 2);
+        int day = digits(s, 8, 2);
+        int hour = digits(s, 11, 2);
+        int minute = digits(s, 14, 2);
+        int second = digits(s, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return Long.MIN_VALUE;
+        }
+        return epochDay(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second;
+    }
+
+    /** Nanosecond fraction of a string already accepted by {@link #parseUtcSeconds}. */
+    private static int parseUtcNanos(String s) {
+        int nanos = 0;
+        int scale = 100_000_000;
+        for (int i = 20; i < s.length() - 1; i++) {
+            nanos += (s.charAt(i) - '0') * scale;
+            scale /= 10;
+        }
+        return nanos;
+    }
+
+    private static int digits(String s, int from, int count) {
+        int v = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) return -1;
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            return leap ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    /** Days since 1970-01-01 in the proleptic Gregorian calendar (H. Hinnant's days_from_civil). */
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yoe = y - era * 400;
+        long doy = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146_097 + doe - 719_468;
+    }
+
+    /**
+     * Parses an ISO-8601 instant such as {@code 2024-01-30T12:00:00Z}. Strings that do not have the
+     * {@code yyyy-MM-ddT} shape are rejected without attempting a parse.
+     */
+    static Instant toInstantOrNull(String s) {
+        if (s.length() < 20 || s.charAt(4) != '-' || s.charAt(7) != '-'
+                || (s.charAt(10) != 'T' && s.charAt(10) != 't') || !isDigit(s.charAt(0))) {
+            return null;
+        }
+        try {
+            return Instant.parse(s);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
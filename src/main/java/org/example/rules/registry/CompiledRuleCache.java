@@ -0,0 +1,87 @@
+package org.example.rules.registry;
+
+import org.example.rules.CompiledRule;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded LRU cache of compiled rules keyed by rule id. Each entry remembers the generation of the registration
+ * it was compiled from, so a lookup for another generation is a miss and never returns a stale tree. Generations
+ * only grow and are never reused, so a slow load of an old registration cannot replace the entry of a newer one.
+ */
+public class CompiledRuleCache {
+
+    private final int maxSize;
+    private final LinkedHashMap<String, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CompiledRuleCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CompiledRuleCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public CompiledRule get(String id, long generation, Supplier<CompiledRule> loader) {
+        synchronized (entries) {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.generation == generation) {
+                hits.increment();
+                return entry.rule;
+            }
+        }
+        misses.increment();
+        // Compile outside the lock; a concurrent miss for the same rule at worst compiles it twice
+        CompiledRule rule = loader.get();
+        put(id, generation, rule);
+        return rule;
+    }
+
+    public void put(String id, long generation, CompiledRule rule) {
+        synchronized (entries) {
+            Entry existing = entries.get(id);
+            if (existing == null || existing.generation <= generation) {
+                entries.put(id, new Entry(generation, rule));
+            }
+        }
+    }
+
+    public void invalidate(String id) {
+        synchronized (entries) {
+            entries.remove(id);
+        }
+    }
+
+    public CacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(size, maxSize, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private static final class Entry {
+        final long generation;
+        final CompiledRule rule;
+
+        Entry(long generation, CompiledRule rule) {
+            this.generation = generation;
+            this.rule = rule;
+        }
+    }
+}
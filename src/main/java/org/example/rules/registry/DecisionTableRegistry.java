@@ -0,0 +1,51 @@
+package org.example.rules.registry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.example.rules.DecisionTable;
+import org.example.rules.RuleEngineService;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores compiled {@link DecisionTable}s by id. Tables are small compared to the rule registry's working set, so
+ * they stay compiled for as long as they are registered.
+ */
+@Component
+public class DecisionTableRegistry {
+
+    private final RuleEngineService ruleEngineService;
+    private final Map<String, Registered> tables = new ConcurrentHashMap<>();
+
+    public DecisionTableRegistry(RuleEngineService ruleEngineService) {
+        this.ruleEngineService = ruleEngineService;
+    }
+
+    /** Compiles and stores the table; returns its version, bumped on every re-registration of the id. */
+    public long register(String id, JsonNode table) {
+        DecisionTable compiled = ruleEngineService.compileDecisionTable(table);
+        return tables.merge(id, new Registered(1, compiled),
+                (prev, next) -> new Registered(prev.version + 1, next.table)).version;
+    }
+
+    public DecisionTable get(String id) {
+        return describe(id).table;
+    }
+
+    public boolean remove(String id) {
+        return tables.remove(id) != null;
+    }
+
+    public Registered describe(String id) {
+        Registered registered = tables.get(id);
+        if (registered == null) {
+            throw new RuleNotFoundException("Decision table", id);
+        }
+        return registered;
+    }
+
+    /** A table and the version it was registered as. */
+    public record Registered(long version, DecisionTable table) {
+    }
+}
@@ -0,0 +1,209 @@
+package org.example.rules.registry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.config.RuleEngineProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Registers every {@code <id>.json} file of {@code rule-engine.repository.directory} as the rule {@code id} at
+ * startup, then watches the directory and reloads rules whose files are created, changed or deleted.
+ * <p>
+ * Changed files are read and compiled on a background thread. The registry applies each batch of changes as one
+ * copy-on-write update, so evaluations never block on a reload and never see half of it. A file that cannot be
+ * read or does not compile is reported in {@link #getErrors()}, and its rule keeps the last version that loaded.
+ */
+@Component
+@ConditionalOnProperty(prefix = "rule-engine.repository", name = "directory")
+public class FileRuleRepository implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(FileRuleRepository.class);
+    private static final String SUFFIX = ".json";
+
+    private final RuleRegistry registry;
+    private final ObjectMapper mapper;
+    private final Path directory;
+    private final boolean watch;
+    private final long debounceMillis;
+    // Source last registered from each file, by rule id; guarded by this
+    private final Map<String, JsonNode> loaded = new HashMap<>();
+    private final Map<String, String> errors = new ConcurrentHashMap<>();
+    private WatchService watchService;
+    private Thread watcher;
+
+    public FileRuleRepository(RuleRegistry registry, ObjectMapper mapper, RuleEngineProperties properties) {
+        RuleEngineProperties.Repository repository = properties.getRepository();
+        this.registry = registry;
+        this.mapper = mapper;
+        this.directory = Paths.get(repository.getDirectory()).toAbsolutePath();
+        this.watch = repository.isWatch();
+        this.debounceMillis = repository.getDebounceMillis();
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            throw new IllegalStateException("Rule directory does not exist: " + directory);
+        }
+        if (watch) {
+            // Watch before the initial scan so no change in between is missed
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        }
+        rescan();
+        if (watch) {
+            watcher = new Thread(this::watchLoop, "rule-repository-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /** Reloads every rule file and unregisters rules whose files are gone. */
+    public synchronized void rescan() {
+        Set<String> ids = new LinkedHashSet<>(loaded.keySet());
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(FileRuleRepository::ruleId).filter(id -> id != null).forEach(ids::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list rule directory " + directory, e);
+        }
+        reload(ids);
+    }
+
+    /** Problems with the current rule files, by rule id: unreadable or malformed JSON, or rules that do not compile. */
+    public Map<String, String> getErrors() {
+        return Map.copyOf(errors);
+    }
+
+    /** The ids of the rules currently registered from files. */
+    public synchronized Set<String> getRuleIds() {
+        return Set.copyOf(loaded.keySet());
+    }
+
+    private synchronized void reload(Collection<String> ids) {
+        // Reading and parsing dominates a large initial load, so spread it over the common pool
+        Map<String, Object> read = new ConcurrentHashMap<>();
+        ids.parallelStream().forEach(id -> {
+            Path file = directory.resolve(id + SUFFIX);
+            if (!Files.exists(file)) return;
+            try {
+                read.put(id, mapper.readTree(file.toFile()));
+            } catch (IOException e) {
+                read.put(id, e);
+            }
+        });
+
+        Map<String, JsonNode> upserts = new LinkedHashMap<>();
+        List<String> removals = new ArrayList<>();
+        for (String id : ids) {
+            Object result = read.get(id);
+            if (result == null) {
+                if (loaded.containsKey(id)) removals.add(id);
+                errors.remove(id);
+            } else if (result instanceof IOException e) {
+                fail(id, "Cannot read rule file: " + e.getMessage());
+            } else if (!result.equals(loaded.get(id))) {
+                upserts.put(id, (JsonNode) result);
+            } else {
+                errors.remove(id);
+            }
+        }
+        if (upserts.isEmpty() && removals.isEmpty()) return;
+
+        List<RegisteredRule> registered = registry.apply(upserts, removals, (id, e) -> fail(id, e.getMessage()));
+        for (RegisteredRule rule : registered) {
+            loaded.put(rule.getId(), rule.getRule());
+            errors.remove(rule.getId());
+        }
+        removals.forEach(loaded::remove);
+        log.info("Loaded {} and removed {} rules from {}", registered.size(), removals.size(), directory);
+    }
+
+    private void fail(String id, String message) {
+        errors.put(id, message);
+        log.warn("Rule file {}{} not loaded: {}", id, SUFFIX, message);
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Set<String> changed = new LinkedHashSet<>();
+                boolean overflow = drain(key, changed);
+                // Collect further events until the directory has been quiet for the debounce period
+                while ((key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= drain(key, changed);
+                }
+                try {
+                    if (overflow) {
+                        rescan();
+                    } else {
+                        reload(changed);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Reloading rules from {} failed", directory, e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // shutting down
+        }
+    }
+
+    /** Adds the rule ids touched by the key's events; returns whether events were lost. */
+    private boolean drain(WatchKey key, Set<String> changed) {
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+            } else {
+                String id = ruleId((Path) event.context());
+                if (id != null) changed.add(id);
+            }
+        }
+        if (!key.reset()) {
+            log.warn("Rule directory {} is no longer accessible; stopped watching it", directory);
+        }
+        return overflow;
+    }
+
+    /** The rule id of a rule file name, or {@code null} for other (including hidden and temporary) files. */
+    private static String ruleId(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(SUFFIX) || name.startsWith(".") || name.length() == SUFFIX.length()) return null;
+        return name.substring(0, name.length() - SUFFIX.length());
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.rules.registry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.example.rules.RuleSnapshot;
+
+/**
+ * The stored source of a registered rule. Every re-registration of the same id bumps the version. Rules imported
+ * from a {@link RuleSnapshot} read their source from it when first asked for.
+ * <p>
+ * Versions restart at 1 after a delete, so the compiled cache is keyed on the registration's generation instead:
+ * a registry-wide number that is never reused.
+ */
+public final class RegisteredRule {
+
+    private final String id;
+    private final long version;
+    private final long generation;
+    private volatile JsonNode rule;
+    private final boolean resultCache;
+    private final RuleSnapshot snapshot;
+
+    RegisteredRule(String id, long version, long generation, JsonNode rule, boolean resultCache) {
+        this(id, version, generation, rule, resultCache, null);
+    }
+
+    RegisteredRule(String id, long version, long generation, boolean resultCache, RuleSnapshot snapshot) {
+        this(id, version, generation, null, resultCache, snapshot);
+    }
+
+    private RegisteredRule(String id, long version, long generation, JsonNode rule, boolean resultCache,
+                           RuleSnapshot snapshot) {
+        this.id = id;
+        this.version = version;
+        this.generation = generation;
+        this.rule = rule;
+        this.resultCache = resultCache;
+        this.snapshot = snapshot;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public JsonNode getRule() {
+        JsonNode r = rule;
+        if (r == null) {
+            // Racy but idempotent initialization
+            r = snapshot.source(id);
+            rule = r;
+        }
+        return r;
+    }
+
+    /** Whether evaluation results are cached by the values of the rule's fields. */
+    public boolean isResultCache() {
+        return resultCache;
+    }
+
+    /** The registry-wide generation of this registration; no two registrations share one. */
+    long generation() {
+        return generation;
+    }
+
+    /** The snapshot the rule was imported from, or {@code null} when it was registered from its source. */
+    RuleSnapshot snapshot() {
+        return snapshot;
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.rules.registry;
+
+import java.util.List;
+
+/**
+ * The registered rules matching one record, and how many rules the index left to evaluate for it.
+ */
+public final class RuleMatches {
+
+    private final List<String> matches;
+    private final int candidates;
+    private final int rules;
+
+    RuleMatches(List<String> matches, int candidates, int rules) {
+        this.matches = matches;
+        this.candidates = candidates;
+        this.rules = rules;
+    }
+
+    /** Ids of the matching rules, sorted. */
+    public List<String> getMatches() {
+        return matches;
+    }
+
+    /** Rules evaluated: those whose indexed guard passed, plus those without one. */
+    public int getCandidates() {
+        return candidates;
+    }
+
+    /** Rules registered when the lookup ran. */
+    public int getRules() {
+        return rules;
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.rules.registry;
+
+public class RuleNotFoundException extends RuntimeException {
+
+    public RuleNotFoundException(String id) {
+        this("Rule", id);
+    }
+
+    /** @param kind what was looked up, e.g. {@code "Decision table"} */
+    public RuleNotFoundException(String kind, String id) {
+        super(kind + " not found: " + id);
+    }
+}
@@ -0,0 +1,306 @@
+package org.example.rules.registry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.example.config.RuleEngineProperties;
+import org.example.rules.CompiledRule;
+import org.example.rules.ResultCache;
+import org.example.rules.ResultCacheStats;
+import org.example.rules.RuleEngineService;
+import org.example.rules.RuleIndex;
+import org.example.rules.RuleMetrics;
+import org.example.rules.RuleOptimizer;
+import org.example.rules.RuleProfile;
+import org.example.rules.RuleSnapshot;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Stores rule sources by id and serves their compiled form from a bounded {@link CompiledRuleCache}.
+ * Evicted rules are transparently recompiled from the stored source on the next lookup.
+ * <p>
+ * With {@code rule-engine.profiling.sample-rate} set, every compiled rule carries a {@link RuleProfile}; it starts
+ * afresh when the rule is re-registered or recompiled after eviction. Every
+ * {@code rule-engine.optimizer.adaptive-interval} samples the rule's groups are re-ranked from its profile.
+ * <p>
+ * Rules registered with a result cache (or all rules, with {@code rule-engine.result-cache.enabled}) answer
+ * repeated inputs from a {@link ResultCache} that lives as long as the compiled rule.
+ * <p>
+ * The id-to-source map is copy-on-write: writers publish a new immutable snapshot, so lookups never block and a
+ * batch {@link #apply} becomes visible all at once.
+ * <p>
+ * A {@link RuleIndex} over the guards of all registered rules lets {@link #match} evaluate only the rules that can
+ * match a record. It is updated with every registration, indexing a new version before it is published and
+ * dropping the old version's entries after, so a concurrent match never misses a rule because of the update.
+ * <p>
+ * All registered rules can be exported to a {@link RuleSnapshot} and imported by another node, which then decodes
+ * their compiled form instead of compiling them (and re-decodes, rather than recompiles, them after eviction).
+ */
+@Component
+public class RuleRegistry {
+
+    private final RuleEngineService ruleEngineService;
+    private final RuleMetrics metrics;
+    private final CompiledRuleCache cache;
+    private final int profilingSampleRate;
+    private final long adaptiveInterval;
+    private final long minSamples;
+    private final RuleEngineProperties.ResultCache resultCache;
+    private final RuleIndex index = new RuleIndex();
+    private final Object writeLock = new Object();
+    private long generation; // guarded by writeLock
+    private volatile Map<String, RegisteredRule> rules = Map.of();
+
+    public RuleRegistry(RuleEngineService ruleEngineService, RuleMetrics metrics, RuleEngineProperties properties) {
+        this.ruleEngineService = ruleEngineService;
+        this.metrics = metrics;
+        this.cache = new CompiledRuleCache(properties.getCache().getMaxSize());
+        this.profilingSampleRate = properties.getProfiling().getSampleRate();
+        this.adaptiveInterval = properties.getOptimizer().getAdaptiveInterval();
+        this.minSamples = properties.getOptimizer().getMinSamples();
+        this.resultCache = properties.getResultCache();
+    }
+
+    public RegisteredRule register(String id, JsonNode rule) {
+        return register(id, rule, null);
+    }
+
+    /**
+     * @param resultCache whether to cache results by input values; {@code null} follows
+     *                    {@code rule-engine.result-cache.enabled}. Rules whose result can change for the same
+     *                    input should opt out.
+     */
+    public RegisteredRule register(String id, JsonNode rule, Boolean resultCache) {
+        return update(Map.of(id, rule), resultCache, List.of(), (k, e) -> {
+            throw e;
+        }).get(0);
+    }
+
+    /**
+     * Registers {@code upserts} and removes {@code removals} as one update: concurrent lookups see either none or
+     * all of it. Every rule is compiled before anything is published; a rule that does not compile is reported to
+     * {@code onInvalid} (which may rethrow to abort the update) and its id keeps its current version.
+     *
+     * @return the newly registered versions, in the iteration order of {@code upserts}
+     */
+    public List<RegisteredRule> apply(Map<String, JsonNode> upserts, Collection<String> removals,
+                                      BiConsumer<String, IllegalArgumentException> onInvalid) {
+        return update(upserts, null, removals, onInvalid);
+    }
+
+    private List<RegisteredRule> update(Map<String, JsonNode> upserts, Boolean cacheResults, Collection<String> removals,
+                                        BiConsumer<String, IllegalArgumentException> onInvalid) {
+        boolean cached = cacheResults != null ? cacheResults : resultCache.isEnabled();
+        // Compile first so an invalid rule never replaces a valid one
+        Map<String, CompiledRule> compiled = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonNode> e : upserts.entrySet()) {
+            try {
+                compiled.put(e.getKey(), compile(e.getValue(), cached));
+            } catch (IllegalArgumentException ex) {
+                onInvalid.accept(e.getKey(), ex);
+            }
+        }
+        return publish(compiled, removals,
+                (id, prev, generation) -> new RegisteredRule(id, prev == null ? 1 : prev.getVersion() + 1, generation,
+                        upserts.get(id), cached));
+    }
+
+    /** Makes the registration of a rule from its id, current registration (if any) and new generation. */
+    private interface Registration {
+        RegisteredRule create(String id, RegisteredRule previous, long generation);
+    }
+
+    /**
+     * Publishes compiled rules, registered as {@code registration} makes them, and removes {@code removals}, as one
+     * update.
+     */
+    private List<RegisteredRule> publish(Map<String, CompiledRule> compiled, Collection<String> removals,
+                                         Registration registration) {
+        List<RegisteredRule> registered = new ArrayList<>(compiled.size());
+        List<String> removed = new ArrayList<>();
+        synchronized (writeLock) {
+            Map<String, RegisteredRule> next = new HashMap<>(rules);
+            for (String id : removals) {
+                if (next.remove(id) != null) {
+                    removed.add(id);
+                }
+            }
+            for (Map.Entry<String, CompiledRule> e : compiled.entrySet()) {
+                String id = e.getKey();
+                RegisteredRule rule = registration.create(id, next.get(id), ++generation);
+                next.put(id, rule);
+                registered.add(rule);
+                index.add(id, e.getValue());
+            }
+            rules = Map.copyOf(next);
+            compiled.keySet().forEach(index::prune);
+            removed.forEach(index::remove);
+            // Still under the lock, so a concurrent remove cannot run between publishing a rule and caching it,
+            // which would bring back the entry and meters of a deleted rule
+            for (RegisteredRule rule : registered) {
+                CompiledRule c = compiled.get(rule.getId());
+                cache.put(rule.getId(), rule.generation(), c);
+                metrics.bindResultCache(rule.getId(), c.getResultCache());
+                metrics.track(rule.getId());
+            }
+            for (String id : removed) {
+                cache.invalidate(id);
+                metrics.forget(id);
+            }
+        }
+        return registered;
+    }
+
+    /**
+     * Registers every rule of {@code snapshot} as one update, decoding their compiled trees instead of compiling
+     * their sources. Every record is verified and decoded here, so the rules can be indexed; only the sources are
+     * read from the snapshot when asked for. A new id gets the version it had in
+     * the snapshot, an id that is already registered the next version. If any rule cannot be decoded (corrupt
+     * record, or over this node's limits) nothing is registered.
+     *
+     * @return the newly registered versions, in snapshot order
+     */
+    public List<RegisteredRule> importSnapshot(RuleSnapshot snapshot) {
+        Map<String, CompiledRule> decoded = new LinkedHashMap<>();
+        Map<String, RuleSnapshot.Entry> entries = new HashMap<>();
+        for (RuleSnapshot.Entry entry : snapshot.entries()) {
+            try {
+                decoded.put(entry.id(), prepare(ruleEngineService.decode(snapshot, entry.id()), entry.resultCache()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Rule '" + entry.id() + "': " + e.getMessage(), e);
+            }
+            entries.put(entry.id(), entry);
+        }
+        return publish(decoded, List.of(), (id, prev, generation) -> new RegisteredRule(id,
+                prev == null ? entries.get(id).version() : prev.getVersion() + 1, generation,
+                entries.get(id).resultCache(), snapshot));
+    }
+
+    /**
+     * A snapshot of all registered rules, with their current evaluation plans. Rules evicted from the compiled cache
+     * are compiled (or decoded) again to be written.
+     */
+    public byte[] exportSnapshot() {
+        List<RuleSnapshot.Rule> exported = new ArrayList<>();
+        for (RegisteredRule registered : rules.values()) {
+            CompiledRule compiled = cache.get(registered.getId(), registered.generation(), () -> load(registered));
+            exported.add(new RuleSnapshot.Rule(registered.getId(), registered.getVersion(), registered.isResultCache(),
+                    compiled));
+        }
+        return RuleSnapshot.toBytes(exported);
+    }
+
+    public RegisteredRule describe(String id) {
+        RegisteredRule registered = rules.get(id);
+        if (registered == null) {
+            throw new RuleNotFoundException(id);
+        }
+        return registered;
+    }
+
+    public CompiledRule get(String id) {
+        RegisteredRule registered = describe(id);
+        CompiledRule rule = cache.get(id, registered.generation(), () -> load(registered));
+        RuleProfile profile = rule.getProfile();
+        if (profile != null && adaptiveInterval > 0 && profile.getSamplesSincePlan() >= adaptiveInterval) {
+            // Concurrent callers may both re-rank; either result is a valid plan for this version
+            rule = RuleOptimizer.reorder(rule, minSamples);
+            cache.put(id, registered.generation(), rule);
+        }
+        return rule;
+    }
+
+    public RuleProfile profile(String id) {
+        if (profilingSampleRate <= 0) {
+            throw new IllegalArgumentException("Profiling is disabled (rule-engine.profiling.sample-rate)");
+        }
+        return get(id).getProfile();
+    }
+
+    public boolean remove(String id) {
+        RegisteredRule removed;
+        synchronized (writeLock) {
+            Map<String, RegisteredRule> next = new HashMap<>(rules);
+            removed = next.remove(id);
+            rules = Map.copyOf(next);
+            index.remove(id);
+            cache.invalidate(id);
+            metrics.forget(id);
+        }
+        return removed != null;
+    }
+
+    /**
+     * The registered rules matching {@code data}. Only candidates from the {@link RuleIndex} are evaluated; rules
+     * removed while the lookup runs are skipped.
+     */
+    public RuleMatches match(Map<String, Object> data) {
+        int registered = rules.size();
+        Set<String> candidates = index.candidates(data);
+        List<String> matches = new ArrayList<>();
+        for (String id : candidates) {
+            CompiledRule rule;
+            try {
+                rule = get(id);
+            } catch (RuleNotFoundException e) {
+                continue;
+            }
+            if (rule.evaluate(data)) matches.add(id);
+        }
+        Collections.sort(matches);
+        return new RuleMatches(matches, candidates.size(), registered);
+    }
+
+    /** Result cache statistics of a rule registered with a result cache. */
+    public ResultCacheStats resultCacheStats(String id) {
+        ResultCache cache = get(id).getResultCache();
+        if (cache == null) {
+            throw new IllegalArgumentException("Rule '" + id + "' is not registered with a result cache");
+        }
+        return cache.stats();
+    }
+
+    /** Compiles (or decodes, for a rule imported from a snapshot) a registered rule evicted from the cache. */
+    private CompiledRule load(RegisteredRule registered) {
+        String id = registered.getId();
+        CompiledRule compiled = registered.snapshot() != null
+                ? prepare(ruleEngineService.decode(registered.snapshot(), id), registered.isResultCache())
+                : compile(registered.getRule(), registered.isResultCache());
+        synchronized (writeLock) {
+            // The rule may have been removed or replaced while it was compiled
+            if (rules.get(id) == registered) {
+                metrics.bindResultCache(id, compiled.getResultCache());
+            }
+        }
+        return compiled;
+    }
+
+    private CompiledRule compile(JsonNode rule, boolean cacheResults) {
+        return prepare(ruleEngineService.compile(rule), cacheResults);
+    }
+
+    /** Adds the profile and result cache registered rules carry. */
+    private CompiledRule prepare(CompiledRule compiled, boolean cacheResults) {
+        if (profilingSampleRate > 0) {
+            compiled = compiled.profiled(profilingSampleRate, metrics);
+        }
+        if (cacheResults) {
+            // Not registered in metrics until published, so a failed or superseded compile leaves no meters behind
+            compiled = compiled.withResultCache(new ResultCache(resultCache.getMaxSize(), resultCache.getTtlMillis(),
+                    resultCache.getStripes()));
+        }
+        return compiled;
+    }
+
+    public CacheStats cacheStats() {
+        return cache.stats();
+    }
+}
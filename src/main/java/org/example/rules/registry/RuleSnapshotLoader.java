@@ -0,0 +1,52 @@
+package org.example.rules.registry;
+
+import org.example.config.RuleEngineProperties;
+import org.example.rules.RuleSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Imports the rules of {@code rule-engine.snapshot.path} into the registry at startup, if the file exists. A
+ * snapshot that is corrupt, was written in an incompatible format or holds rules over this node's limits fails
+ * startup rather than leaving the node with part of its rules.
+ */
+@Component
+@ConditionalOnProperty(prefix = "rule-engine.snapshot", name = "path")
+public class RuleSnapshotLoader implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleSnapshotLoader.class);
+
+    private final RuleRegistry registry;
+    private final Path path;
+
+    public RuleSnapshotLoader(RuleRegistry registry, RuleEngineProperties properties) {
+        this.registry = registry;
+        this.path = Paths.get(properties.getSnapshot().getPath()).toAbsolutePath();
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (!Files.exists(path)) {
+            log.info("No rule snapshot at {}", path);
+            return;
+        }
+        long start = System.nanoTime();
+        RuleSnapshot snapshot;
+        try {
+            snapshot = RuleSnapshot.open(path);
+            registry.importSnapshot(snapshot);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Cannot load rule snapshot " + path + ": " + e.getMessage(), e);
+        }
+        log.info("Imported {} rules from snapshot {} in {} ms", snapshot.size(), path,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Non-blocking body reads need a real servlet container, so this runs against an embedded server.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "rule-engine.stream.max-body-size=1048576")
+class AsyncEvaluationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    private static HttpEntity<String> json(String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(body, headers);
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void evaluatesRegisteredRuleWithNonBlockingRead() {
+        restTemplate.exchange("/api/v1/rule-engine/rules/async-adult", HttpMethod.PUT,
+                json("{\"field\": \"customer.age\", \"op\": \"gte\", \"value\": 21}"), Map.class);
+
+        StringBuilder history = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            history.append(i > 0 ? "," : "").append("{\"page\": \"/p/").append(i).append("\"}");
+        }
+        ResponseEntity<Map> response = restTemplate.postForEntity("/api/v1/rule-engine/rules/async-adult/evaluate/async",
+                json("{\"data\": {\"history\": [" + history + "], \"customer\": {\"age\": 33}}}"), Map.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(true, response.getBody().get("result"));
+
+        ResponseEntity<Map> malformed = restTemplate.postForEntity("/api/v1/rule-engine/rules/async-adult/evaluate/async",
+                json("{\"data\": {\"customer\": "), Map.class);
+        assertEquals(HttpStatus.BAD_REQUEST, malformed.getStatusCode());
+        assertEquals("BAD_REQUEST", malformed.getBody().get("error"));
+
+        ResponseEntity<Map> missing = restTemplate.postForEntity("/api/v1/rule-engine/rules/nope/evaluate/async",
+                json("{\"data\": {}}"), Map.class);
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+    }
+
+    /**
+     * Status line of a raw request, so the declared length can disagree with the body. The body is written from
+     * another thread: the server may answer and stop reading before all of it is sent.
+     */
+    private String status(String headers, byte[] body) throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setSoTimeout(10_000);
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST /api/v1/rule-engine/rules/async-limit/evaluate/async HTTP/1.1\r\nHost: localhost\r\n"
+                    + "Content-Type: application/json\r\nConnection: close\r\n" + headers + "\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            CompletableFuture.runAsync(() -> {
+                try {
+                    out.write(body);
+                    out.flush();
+                } catch (IOException ignored) {
+                    // Connection closed by the server after rejecting the body
+                }
+            });
+            return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII))
+                    .readLine();
+        }
+    }
+
+    @Test
+    void rejectsBodiesOverTheLimit() throws Exception {
+        restTemplate.exchange("/api/v1/rule-engine/rules/async-limit", HttpMethod.PUT,
+                json("{\"field\": \"age\", \"op\": \"gte\", \"value\": 21}"), Map.class);
+
+        // A declared length near 2 GB with a tiny body is refused before any buffer is sized from it
+        String declared = status("Content-Length: 2000000000\r\n", "{\"data\": {}}".getBytes(StandardCharsets.UTF_8));
+        assertEquals("HTTP/1.1 413 ", declared.substring(0, 13), declared);
+
+        // Without a declared length the body is counted as it arrives
+        StringBuilder chunked = new StringBuilder();
+        String chunk = " ".repeat(64 * 1024);
+        for (int i = 0; i < 32; i++) {
+            chunked.append(Integer.toHexString(chunk.length())).append("\r\n").append(chunk).append("\r\n");
+        }
+        chunked.append("0\r\n\r\n");
+        String streamed = status("Transfer-Encoding: chunked\r\n", chunked.toString().getBytes(StandardCharsets.UTF_8));
+        assertEquals("HTTP/1.1 413 ", streamed.substring(0, 13), streamed);
+
+        ResponseEntity<Map> small = restTemplate.postForEntity("/api/v1/rule-engine/rules/async-limit/evaluate/async",
+                json("{\"data\": {\"age\": 30}}"), Map.class);
+        assertEquals(true, small.getBody().get("result"));
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class DecisionTableControllerTest {
+
+    private static final String TABLE = "{\"hitPolicy\": \"first\", \"default\": {\"route\": \"standard\"}, \"rows\": ["
+            + "{\"id\": \"express\", \"rule\": {\"field\": \"weight\", \"op\": \"lt\", \"value\": 1}, \"outcome\": {\"route\": \"express\"}},"
+            + "{\"id\": \"freight\", \"rule\": {\"field\": \"weight\", \"op\": \"gte\", \"value\": 30}, \"outcome\": {\"route\": \"freight\"}}]}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void evaluateAdHocTable() throws Exception {
+        mockMvc.perform(post("/api/v1/rule-engine/evaluate/decision")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"table\": " + TABLE + ", \"data\": {\"weight\": 0.5}}"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"matched\": [\"express\"], \"outcome\": {\"route\": \"express\"}}", true));
+
+        mockMvc.perform(post("/api/v1/rule-engine/evaluate/decision")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"table\": {\"rows\": 1}, \"data\": {}}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void registerAndEvaluateTableById() throws Exception {
+        mockMvc.perform(put("/api/v1/rule-engine/decision-tables/routing")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TABLE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(post("/api/v1/rule-engine/decision-tables/routing/evaluate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"data\": {\"weight\": 12}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched").isEmpty())
+                .andExpect(jsonPath("$.outcome.route").value("standard"));
+
+        mockMvc.perform(get("/api/v1/rule-engine/decision-tables/routing"))
+                .andExpect(jsonPath("$.table.rows[1].id").value("freight"));
+        mockMvc.perform(delete("/api/v1/rule-engine/decision-tables/routing"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(post("/api/v1/rule-engine/decision-tables/routing/evaluate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"data\": {}}"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -12,7 +12,11 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -45,4 +49,129 @@ class RuleEngineControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.result").value(true));
     }
+
+    @Test
+    void batchEndpointReturnsPositionalResults() throws Exception {
+        String body = "{\"rule\": {\"field\": \"age\", \"op\": \"gte\", \"value\": 21},"
+                + " \"data\": [{\"age\": 33}, {\"age\": 12}, {\"age\": 21}]}";
+
+        mockMvc.perform(post("/api/v1/rule-engine/evaluate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(3))
+                .andExpect(jsonPath("$.matched").value(2))
+                .andExpect(jsonPath("$.results[0]").value(true))
+                .andExpect(jsonPath("$.results[1]").value(false))
+                .andExpect(jsonPath("$.results[2]").value(true));
+
+        // bits 0 and 2 set -> 0b101 -> single byte 0x05
+        mockMvc.perform(post("/api/v1/rule-engine/evaluate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.replace("{\"rule\"", "{\"encoding\": \"bitset\", \"rule\"")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bitset").value("BQ=="))
+                .andExpect(jsonPath("$.results").doesNotExist());
+    }
+
+    @Test
+    void ruleSetEndpointReturnsMatchingIds() throws Exception {
+        String body = "{\"data\": {\"age\": 33, \"country\": \"US\"}, \"rules\": {"
+                + "\"adult\": {\"field\": \"age\", \"op\": \"gte\", \"value\": 21},"
+                + "\"canadian\": {\"field\": \"country\", \"op\": \"eq\", \"value\": \"CA\"},"
+                + "\"us-adult\": [{\"field\": \"age\", \"op\": \"gte\", \"value\": 21},"
+                + " {\"field\": \"country\", \"op\": \"eq\", \"value\": \"US\"}]}}";
+
+        mockMvc.perform(post("/api/v1/rule-engine/evaluate/ruleset")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matches.length()").value(2))
+                .andExpect(jsonPath("$.matches[0]").value("adult"))
+                .andExpect(jsonPath("$.matches[1]").value("us-adult"));
+    }
+
+    @Test
+    void streamEndpointEvaluatesEachLineInOrder() throws Exception {
+        String body = "{\"rule\": {\"field\": \"age\", \"op\": \"gte\", \"value\": 21}}\n"
+                + "{\"age\": 33}\n"
+                + "{\"age\": 12}\n"
+                + "\n"
+                + "{\"age\": \n"
+                + "{\"age\": 21}";
+
+        String[] lines = mockMvc.perform(post("/api/v1/rule-engine/evaluate/stream")
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(4, lines.length);
+        assertEquals("{\"result\":true}", lines[0]);
+        assertEquals("{\"result\":false}", lines[1]);
+        assertTrue(lines[2].startsWith("{\"error\":\"BAD_REQUEST\",\"message\":\"Malformed JSON"), lines[2]);
+        assertEquals("{\"result\":true}", lines[3]);
+
+        mockMvc.perform(put("/api/v1/rule-engine/rules/stream-adult")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"field\": \"age\", \"op\": \"gte\", \"value\": 21}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/v1/rule-engine/evaluate/stream?ruleId=stream-adult")
+                        .contentType("application/x-ndjson")
+                        .content("{\"age\": 40}\r\n{\"age\": 4}\r\n"))
+                .andExpect(content().string("{\"result\":true}\n{\"result\":false}\n"));
+
+        mockMvc.perform(post("/api/v1/rule-engine/evaluate/stream")
+                        .contentType("application/x-ndjson")
+                        .content("{\"age\": 40}\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("BAD_REQUEST"));
+    }
+
+    @Test
+    void explainReturnsTraceOfEvaluatedNodes() throws Exception {
+        String rule = "{\"all\": [{\"field\": \"age\", \"op\": \"gte\", \"value\": 21},"
+                + " {\"field\": \"score\", \"op\": \"gte\", \"value\": 50}]}";
+
+        mockMvc.perform(post("/api/v1/rule-engine/evaluate?explain=true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rule\": " + rule + ", \"data\": {\"age\": 17, \"score\": 80}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value(false))
+                .andExpect(jsonPath("$.trace.nodes").value(2))
+                .andExpect(jsonPath("$.trace.root.node").value("all"))
+                .andExpect(jsonPath("$.trace.root.skipped").value(1))
+                .andExpect(jsonPath("$.trace.root.children[0].node").value("age gte 21"))
+                .andExpect(jsonPath("$.trace.root.children[0].left").value(17))
+                .andExpect(jsonPath("$.trace.root.children[0].result").value(false));
+
+        mockMvc.perform(post("/api/v1/rule-engine/evaluate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rule\": " + rule + ", \"data\": {\"age\": 17, \"score\": 80}}"))
+                .andExpect(jsonPath("$.trace").doesNotExist());
+
+        mockMvc.perform(post("/api/v1/rule-engine/evaluate/batch?explain=true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rule\": " + rule + ", \"data\": [{\"age\": 30, \"score\": 60}, {\"score\": 60}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0]").value(true))
+                .andExpect(jsonPath("$.traces.length()").value(2))
+                .andExpect(jsonPath("$.traces[0].root.children.length()").value(2))
+                .andExpect(jsonPath("$.traces[1].root.children[0].missing").value(true))
+                .andExpect(jsonPath("$.tracesTruncated").value(false));
+    }
+
+    @Test
+    void oversizedRuleIsRejected() throws Exception {
+        StringBuilder rule = new StringBuilder();
+        for (int i = 0; i < 300; i++) rule.append("{\"not\": ");
+        rule.append("{\"field\": \"age\", \"op\": \"exists\"}");
+        for (int i = 0; i < 300; i++) rule.append('}');
+
+        mockMvc.perform(post("/api/v1/rule-engine/evaluate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rule\": " + rule + ", \"data\": {\"age\": 1}}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Rule is nested deeper than 256 levels"));
+    }
 }
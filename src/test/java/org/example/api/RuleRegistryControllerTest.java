@@ -0,0 +1,160 @@
+package org.example.api;
+
+import org.example.rules.RuleSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RuleRegistryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void registerAndEvaluateById() throws Exception {
+        mockMvc.perform(put("/api/v1/rule-engine/rules/adult")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"field\": \"age\", \"op\": \"gte\", \"value\": 21}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("adult"))
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(post("/api/v1/rule-engine/rules/adult/evaluate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"data\": {\"age\": 33}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value(true));
+
+        mockMvc.perform(put("/api/v1/rule-engine/rules/adult")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"field\": \"age\", \"op\": \"gte\", \"value\": 40}"))
+                .andExpect(jsonPath("$.version").value(2));
+
+        mockMvc.perform(post("/api/v1/rule-engine/rules/adult/evaluate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"data\": {\"age\": 33}}"))
+                .andExpect(jsonPath("$.result").value(false));
+
+        mockMvc.perform(delete("/api/v1/rule-engine/rules/adult"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/v1/rule-engine/rules/adult"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void snapshotExportsRegisteredRules() throws Exception {
+        mockMvc.perform(put("/api/v1/rule-engine/rules/snapshot-vip")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"field\": \"tier\", \"op\": \"eq\", \"value\": \"vip\"}"))
+                .andExpect(status().isOk());
+
+        byte[] bytes = mockMvc.perform(get("/api/v1/rule-engine/snapshot"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+                .andReturn().getResponse().getContentAsByteArray();
+        RuleSnapshot snapshot = RuleSnapshot.of(bytes);
+        assertTrue(snapshot.entries().contains(new RuleSnapshot.Entry("snapshot-vip", 1, false)));
+        assertEquals("vip", snapshot.source("snapshot-vip").get("value").asText());
+    }
+
+    @Test
+    void matchEvaluatesOnlyCandidateRules() throws Exception {
+        for (String type : new String[]{"login", "purchase", "refund"}) {
+            mockMvc.perform(put("/api/v1/rule-engine/rules/match-" + type)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"all\": [{\"field\": \"matchEventType\", \"op\": \"eq\", \"value\": \"" + type + "\"},"
+                                    + " {\"field\": \"amount\", \"op\": \"gte\", \"value\": 10}]}"))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(post("/api/v1/rule-engine/rules/match")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"data\": {\"matchEventType\": \"purchase\", \"amount\": 25}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matches[?(@ == 'match-purchase')]").exists())
+                .andExpect(jsonPath("$.matches[?(@ == 'match-login')]").doesNotExist())
+                .andExpect(jsonPath("$.matches[?(@ == 'match-refund')]").doesNotExist());
+
+        mockMvc.perform(post("/api/v1/rule-engine/rules/match")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void invalidRuleIsRejectedAtRegistration() throws Exception {
+        mockMvc.perform(put("/api/v1/rule-engine/rules/broken")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"field\": \"age\", \"op\": \"between\", \"value\": 1}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/rule-engine/rules/broken/evaluate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"data\": {}}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void resultCacheIsOptInPerRule() throws Exception {
+        mockMvc.perform(put("/api/v1/rule-engine/rules/cached?resultCache=true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"field\": \"age\", \"op\": \"gte\", \"value\": 21}"))
+                .andExpect(jsonPath("$.resultCache").value(true));
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/v1/rule-engine/rules/cached/evaluate")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"data\": {\"age\": 33, \"name\": \"n" + i + "\"}}"))
+                    .andExpect(jsonPath("$.result").value(true));
+        }
+        mockMvc.perform(get("/api/v1/rule-engine/rules/cached/result-cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits").value(2))
+                .andExpect(jsonPath("$.misses").value(1))
+                .andExpect(jsonPath("$.size").value(1));
+
+        mockMvc.perform(put("/api/v1/rule-engine/rules/uncached")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"field\": \"age\", \"op\": \"exists\"}"))
+                .andExpect(jsonPath("$.resultCache").value(false));
+        mockMvc.perform(get("/api/v1/rule-engine/rules/uncached/result-cache"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void specializeFoldsKnownFields() throws Exception {
+        mockMvc.perform(put("/api/v1/rule-engine/rules/tenant-limit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"all\": [{\"field\": \"tenant.plan\", \"op\": \"eq\", \"value\": \"pro\"},"
+                                + " {\"field\": \"amount\", \"op\": \"gt\", \"value\": 100}]}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/v1/rule-engine/rules/tenant-limit/specialize")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"data\": {\"tenant\": {\"plan\": \"pro\"}}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rule.field").value("amount"))
+                .andExpect(jsonPath("$.constant").doesNotExist())
+                .andExpect(jsonPath("$.conditions").value(1))
+                .andExpect(jsonPath("$.originalConditions").value(2));
+
+        mockMvc.perform(post("/api/v1/rule-engine/rules/tenant-limit/specialize")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"data\": {\"tenant\": {\"plan\": \"free\"}}}"))
+                .andExpect(jsonPath("$.constant").value(false))
+                .andExpect(jsonPath("$.rule.any").isEmpty());
+    }
+}
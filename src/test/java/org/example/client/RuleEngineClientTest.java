@@ -0,0 +1,59 @@
+package org.example.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class RuleEngineClientTest {
+
+    @LocalServerPort
+    private int port;
+
+    @ParameterizedTest
+    @EnumSource(WireFormat.class)
+    void evaluatesInEveryWireFormat(WireFormat format) {
+        RuleEngineClient client = new RuleEngineClient(URI.create("http://localhost:" + port), format);
+        Map<String, Object> rule = Map.of("all", List.of(
+                Map.of("field", "user.age", "op", "gte", "value", 21),
+                Map.of("field", "user.score", "op", "between", "value", List.of(0.5, 1.5)),
+                Map.of("field", "user.tags", "op", "contains", "value", "vip")));
+        Map<String, Object> data = Map.of("user", Map.of("age", 33, "score", 0.75, "tags", List.of("new", "vip")),
+                "history", List.of(Map.of("page", "/a"), Map.of("page", "/b")));
+
+        assertTrue(client.evaluateRule(rule, data));
+        assertFalse(client.evaluateRule(rule, Map.of("user", Map.of("age", 33, "score", 2.0))));
+
+        String id = "wire-" + format.name().toLowerCase();
+        assertEquals(1, client.register(id, rule));
+        assertTrue(client.evaluateRegistered(id, data));
+        assertFalse(client.evaluateRegistered(id, Map.of("user", Map.of("age", 12))));
+
+        RuleEngineClientException invalid = assertThrows(RuleEngineClientException.class,
+                () -> client.evaluateRule(Map.of("field", "a", "op", "nope"), data));
+        assertEquals(400, invalid.getStatus());
+        assertTrue(invalid.getMessage().contains("Unknown operator"), invalid.getMessage());
+        assertEquals(404, assertThrows(RuleEngineClientException.class, () -> client.evaluateRegistered("missing", data)).getStatus());
+    }
+
+    @Test
+    void encodesRuleIdsAsPathSegments() {
+        RuleEngineClient client = new RuleEngineClient(URI.create("http://localhost:" + port), WireFormat.JSON);
+        Map<String, Object> rule = Map.of("field", "age", "op", "gte", "value", 21);
+        String id = "adult rule?v=1#draft 100%+";
+
+        assertEquals(1, client.register(id, rule));
+        assertTrue(client.evaluateRegistered(id, Map.of("age", 33)));
+        assertFalse(client.evaluateRegistered(id, Map.of("age", 12)));
+        assertEquals(404, assertThrows(RuleEngineClientException.class,
+                () -> client.evaluateRegistered("adult rule", Map.of("age", 33))).getStatus());
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.config.RuleEngineProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchEvaluatorTest {
+
+    @Test
+    void testParallelMatchesSequential() throws Exception {
+        CompiledRule rule = new RuleCompiler().compile(
+                new ObjectMapper().readTree("{\"field\": \"n\", \"op\": \"gte\", \"value\": 500}"));
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            records.add(Map.of("n", i % 1000));
+        }
+
+        RuleEngineProperties sequential = new RuleEngineProperties();
+        sequential.getBatch().setParallelThreshold(Integer.MAX_VALUE);
+        RuleEngineProperties parallel = new RuleEngineProperties();
+        parallel.getBatch().setParallelThreshold(16);
+        parallel.getBatch().setParallelism(4);
+
+        BatchEvaluator seq = new BatchEvaluator(sequential);
+        BatchEvaluator par = new BatchEvaluator(parallel);
+        try {
+            boolean[] expected = seq.evaluate(rule, records);
+            boolean[] actual = par.evaluate(rule, records);
+            assertArrayEquals(expected, actual);
+            for (int i = 0; i < actual.length; i++) {
+                assertEquals(i % 1000 >= 500, actual[i]);
+            }
+        } finally {
+            seq.destroy();
+            par.destroy();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarEvaluatorTest {
+
+    private static final List<String> RULES = List.of(
+            "{'field': 'age', 'op': 'gte', 'value': 21}",
+            "{'field': 'age', 'op': 'lt', 'value': 20.5}",
+            "{'field': 'age', 'op': 'eq', 'value': '30'}",
+            "{'field': 'age', 'op': 'ne', 'value': 'abc'}",
+            "{'field': 'age', 'op': 'between', 'value': [18, 65]}",
+            "{'field': 'age', 'op': 'in', 'value': [1, 5, 30, 'x']}",
+            "{'field': 'age', 'op': 'not_in', 'value': [1, 5, 30]}",
+            "{'field': 'age', 'op': 'eq', 'value': null}",
+            "{'field': 'age', 'op': 'gt', 'value': 20.5}",
+            "{'field': 'age', 'op': 'eq', 'value': 30.0}",
+            "{'field': 'age', 'op': 'ne', 'value': 30}",
+            "{'field': 'age', 'op': 'between', 'value': [20.5, 40]}",
+            "{'field': 'age', 'op': 'lte', 'value': 9223372036854775807}",
+            "{'field': 'age', 'op': 'gt', 'value': 1e30}",
+            "{'field': 'age', 'op': 'gte', 'value': -1e30}",
+            "{'field': 'score', 'op': 'ne', 'value': 0.5}",
+            "{'field': 'score', 'op': 'gt', 'value': '0.5'}",
+            "{'field': 'score', 'op': 'gt', 'value': 0.5}",
+            "{'field': 'score', 'op': 'lte', 'value': 1}",
+            "{'field': 'score', 'op': 'in', 'value': [0.25, 0.5, 1]}",
+            "{'field': 'score', 'op': 'between', 'value': [0.1, 0.9]}",
+            "{'field': 'score', 'op': 'eq', 'value': 'NaN'}",
+            "{'field': 'country', 'op': 'eq', 'value': 'US'}",
+            "{'field': 'country', 'op': 'in', 'value': ['US', 'CA']}",
+            "{'field': 'country', 'op': 'regex', 'value': '^[A-C]'}",
+            "{'field': 'country', 'op': 'contains', 'value': 'R'}",
+            "{'field': 'country', 'op': 'gt', 'value': 'FR'}",
+            "{'field': 'vip', 'op': 'eq', 'value': true}",
+            "{'field': 'vip', 'op': 'ne', 'value': false}",
+            "{'field': 'age', 'op': 'exists'}",
+            "{'field': 'age', 'op': 'not_exists'}",
+            "{'field': 'score', 'op': 'isNull'}",
+            "{'field': 'country', 'op': 'isNotNull'}",
+            "{'field': 'nowhere', 'op': 'ne', 'value': 1}",
+            "{'field': 'nowhere', 'op': 'exists'}",
+            "{'all': [{'field': 'age', 'op': 'gte', 'value': 18}, {'any': [{'field': 'country', 'op': 'eq', 'value': 'US'},"
+                    + " {'field': 'vip', 'op': 'eq', 'value': true}]}, {'not': {'field': 'score', 'op': 'lt', 'value': 0.2}}]}",
+            "{'any': []}",
+            "{'all': []}");
+
+    @Test
+    void testMatchesRecordAtATimeEvaluation() throws Exception {
+        Random random = new Random(7);
+        int rows = 2_000;
+        List<Map<String, Object>> records = new ArrayList<>();
+        long[] ages = new long[rows];
+        double[] scores = new double[rows];
+        String[] countries = new String[rows];
+        BitSet vips = new BitSet();
+        BitSet ageMissing = new BitSet();
+        BitSet ageNulls = new BitSet();
+        BitSet scoreNulls = new BitSet();
+        BitSet vipMissing = new BitSet();
+        String[] countryPool = {"US", "CA", "FR", "BR", "DE"};
+        for (int r = 0; r < rows; r++) {
+            Map<String, Object> record = new HashMap<>();
+            int kind = random.nextInt(10);
+            if (kind == 0) {
+                ageMissing.set(r);
+            } else if (kind == 1) {
+                ageNulls.set(r);
+                record.put("age", null);
+            } else {
+                ages[r] = random.nextInt(80);
+                record.put("age", ages[r]);
+            }
+            if (random.nextInt(10) == 0) {
+                scoreNulls.set(r);
+                record.put("score", null);
+            } else {
+                scores[r] = random.nextInt(20) == 0 ? Double.NaN : random.nextInt(5) / 4.0;
+                record.put("score", scores[r]);
+            }
+            countries[r] = random.nextInt(8) == 0 ? null : countryPool[random.nextInt(countryPool.length)];
+            record.put("country", countries[r]);
+            if (random.nextInt(6) == 0) {
+                vipMissing.set(r);
+            } else {
+                boolean vip = random.nextBoolean();
+                vips.set(r, vip);
+                record.put("vip", vip);
+            }
+            records.add(record);
+        }
+        ColumnarBatch batch = ColumnarBatch.builder(rows)
+                .longColumn("age", ages, ageNulls, ageMissing)
+                .doubleColumn("score", scores, scoreNulls, null)
+                .stringColumn("country", countries)
+                .booleanColumn("vip", vips, null, vipMissing)
+                .build();
+
+        ObjectMapper mapper = new ObjectMapper();
+        RuleCompiler compiler = new RuleCompiler();
+        for (String json : RULES) {
+            CompiledRule rule = compiler.compile(TestJson.parse(json));
+            BitSet columnar = rule.evaluate(batch);
+            for (int r = 0; r < rows; r++) {
+                assertEquals(rule.evaluate(records.get(r)), columnar.get(r), json + " at row " + r + ": " + records.get(r));
+            }
+        }
+    }
+
+    @Test
+    void testConditionsWithoutFieldMatchRecordEvaluation() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        RuleCompiler compiler = new RuleCompiler();
+        ColumnarBatch batch = ColumnarBatch.builder(3).longColumn("age", new long[]{1, 2, 3}).build();
+        for (String op : List.of("exists", "not_exists", "isNull", "isNotNull")) {
+            CompiledRule rule = compiler.compile(mapper.readTree("{\"op\": \"" + op + "\"}"));
+            BitSet columnar = rule.evaluate(batch);
+            for (int r = 0; r < 3; r++) {
+                assertEquals(rule.evaluate(Map.of("age", r + 1)), columnar.get(r), op + " at row " + r);
+            }
+        }
+        CompiledRule eqNull = compiler.compile(mapper.readTree("{\"op\": \"eq\", \"value\": null}"));
+        assertTrue(eqNull.evaluate(Map.of()));
+        assertEquals(3, eqNull.evaluate(batch).cardinality());
+    }
+
+    @Test
+    void testBuilderRejectsInconsistentColumns() {
+        assertThrows(IllegalArgumentException.class, () -> ColumnarBatch.builder(3).longColumn("a", new long[2]));
+        assertThrows(IllegalArgumentException.class,
+                () -> ColumnarBatch.builder(1).stringColumn("s", new String[]{"x"}, new int[]{1}, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> ColumnarBatch.builder(1).longColumn("a", new long[1]).doubleColumn("a", new double[1]));
+    }
+}
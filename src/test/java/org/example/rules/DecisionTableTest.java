@@ -0,0 +1,87 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DecisionTableTest {
+
+    private static final String ROWS = "'rows': ["
+            + "{'id': 'vip', 'rule': {'all': [{'field': 'tier', 'op': 'eq', 'value': 'gold'}, {'field': 'total', 'op': 'gte', 'value': 100}]},"
+            + " 'outcome': {'discount': 0.2, 'tags': ['vip']}, 'score': 5},"
+            + "{'id': 'gold', 'rule': {'field': 'tier', 'op': 'eq', 'value': 'gold'}, 'outcome': {'discount': 0.1}, 'score': 2},"
+            + "{'rule': {'field': 'total', 'op': 'gte', 'value': 100}, 'outcome': 'bulk', 'score': 3}]";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final RuleEngineService service = new RuleEngineService();
+
+    private DecisionTable table(String json) throws Exception {
+        return service.compileDecisionTable(TestJson.parse(json));
+    }
+
+    private JsonNode json(Object value) throws Exception {
+        return mapper.readTree(mapper.writeValueAsString(value));
+    }
+
+    @Test
+    void testFirstMatchReturnsItsOutcomeOrTheDefault() throws Exception {
+        DecisionTable table = table("{'default': {'discount': 0}, " + ROWS + "}");
+        assertEquals(DecisionTable.HitPolicy.first, table.getHitPolicy());
+
+        DecisionResult vip = table.evaluate(Map.of("tier", "gold", "total", 150));
+        assertEquals(List.of("vip"), vip.getMatched());
+        assertEquals(json(Map.of("matched", List.of("vip"), "outcome", Map.of("discount", 0.2, "tags", List.of("vip")))), json(vip));
+
+        assertEquals(List.of("2"), table.evaluate(Map.of("tier", "silver", "total", 150)).getMatched());
+        assertEquals("\"bulk\"", table.evaluate(Map.of("total", 150)).getOutcome().toString());
+
+        DecisionResult none = table.evaluate(Map.of("tier", "silver", "total", 10));
+        assertEquals(List.of(), none.getMatched());
+        assertEquals("{\"discount\":0}", none.getOutcome().toString());
+        assertFalse(json(table("{" + ROWS + "}").evaluate(Map.of())).has("outcome"));
+    }
+
+    @Test
+    void testAllAndScorePolicies() throws Exception {
+        Map<String, Object> record = Map.of("tier", "gold", "total", 150);
+        DecisionResult all = table("{'hitPolicy': 'all', " + ROWS + "}").evaluate(record);
+        assertEquals(List.of("vip", "gold", "2"), all.getMatched());
+        assertEquals("[{\"discount\":0.2,\"tags\":[\"vip\"]},{\"discount\":0.1},\"bulk\"]", mapper.writeValueAsString(all.getOutcomes()));
+        assertNull(all.getScore());
+
+        DecisionTable scored = table("{'hitPolicy': 'score', 'default': 'none', " + ROWS + "}");
+        DecisionResult score = scored.evaluate(record);
+        assertEquals(10.0, score.getScore());
+        assertEquals("{\"discount\":0.2,\"tags\":[\"vip\"]}", score.getOutcome().toString());
+        DecisionResult bulk = scored.evaluate(Map.of("tier", "silver", "total", 150));
+        assertEquals(3.0, bulk.getScore());
+        assertEquals("\"bulk\"", bulk.getOutcome().toString());
+        assertEquals(0.0, scored.evaluate(Map.of()).getScore());
+        assertEquals("\"none\"", scored.evaluate(Map.of()).getOutcome().toString());
+    }
+
+    @Test
+    void testOutcomesRoundTripThroughBinaryFormats() throws Exception {
+        DecisionResult result = table("{'hitPolicy': 'all', " + ROWS + "}").evaluate(Map.of("tier", "gold", "total", 150));
+        SmileMapper smile = new SmileMapper();
+        assertEquals(json(result), smile.readTree(smile.writeValueAsBytes(result)));
+    }
+
+    @Test
+    void testInvalidTablesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> table("[]"));
+        assertThrows(IllegalArgumentException.class, () -> table("{'rows': {}}"));
+        assertThrows(IllegalArgumentException.class, () -> table("{'hitPolicy': 'best', 'rows': []}"));
+        assertThrows(IllegalArgumentException.class, () -> table("{'rows': [{'id': 'a', 'rule': {'op': 'eq'}}, {'id': 'a', 'rule': {'op': 'eq'}}]}"));
+        assertThrows(IllegalArgumentException.class, () -> table("{'rows': [{'rule': {'op': 'eq'}, 'score': 'high'}]}"));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> table("{'rows': [{'id': 'r', 'rule': {'field': 'a', 'op': 'between', 'value': 1}}]}"));
+        assertTrue(e.getMessage().startsWith("Row 'r': "), e.getMessage());
+    }
+}
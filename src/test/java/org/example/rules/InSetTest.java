@@ -0,0 +1,69 @@
+package org.example.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InSetTest {
+
+    private static final List<Object> CONSTANTS = Arrays.asList(
+            5L, 0L, -7L, Long.MAX_VALUE, new BigDecimal("2.50"), new BigDecimal("1e30"), "42", "0.1", "US", "true",
+            "2024-01-30T12:00:00Z", List.of(1L), Map.of("a", 1L), null);
+
+    private static final List<Object> LEFTS = Arrays.asList(
+            5, 5L, 5.0, 5.5, "5", "5.00", "+5", 0, -0.0, "0", -7, Long.MAX_VALUE, 2.5, "2.5", new BigDecimal("2.500"),
+            1e30, "1E+30", new BigInteger("1000000000000000000000000000000"), 42, 42.0, "042", 0.1, "0.10", "US", "us",
+            true, false, "true", "2024-01-30T12:00:00.000Z", "2024-01-30T12:00:01Z", List.of(1), List.of(2),
+            Map.of("a", 1), Double.NaN, "abc", "", null);
+
+    @Test
+    void testMembershipMatchesLinearCompare() {
+        for (int size = 0; size <= CONSTANTS.size(); size++) {
+            Operand[] operands = CONSTANTS.subList(0, size).stream().map(Operand::of).toArray(Operand[]::new);
+            InSet set = new InSet(operands);
+            for (Object left : LEFTS) {
+                boolean expected = false;
+                for (Operand o : operands) {
+                    if (Values.compare(left, o) == 0) {
+                        expected = true;
+                        break;
+                    }
+                }
+                assertEquals(expected, set.contains(left), "left=" + left + " constants=" + CONSTANTS.subList(0, size));
+            }
+        }
+    }
+
+    @Test
+    void testLargeIntegralList() {
+        Operand[] operands = new Operand[100_000];
+        for (int i = 0; i < operands.length; i++) {
+            operands[i] = Operand.of((long) i * 3);
+        }
+        InSet set = new InSet(operands);
+
+        assertTrue(set.contains(299_997));
+        assertTrue(set.contains("3"));
+        assertTrue(set.contains(6.0));
+        assertFalse(set.contains(299_998));
+        assertFalse(set.contains(-3));
+    }
+
+    @Test
+    void testLongHashSet() {
+        LongHashSet set = new LongHashSet(new long[]{0, 1, -1, Long.MIN_VALUE, Long.MAX_VALUE, 1, 64, 128});
+
+        assertEquals(7, set.size());
+        for (long v : new long[]{0, 1, -1, Long.MIN_VALUE, Long.MAX_VALUE, 64, 128}) {
+            assertTrue(set.contains(v), String.valueOf(v));
+        }
+        assertFalse(set.contains(2));
+        assertFalse(new LongHashSet(new long[0]).contains(0));
+    }
+}
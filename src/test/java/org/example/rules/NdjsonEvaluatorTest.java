@@ -0,0 +1,115 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.config.RuleEngineProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NdjsonEvaluatorTest {
+
+    private ObjectMapper mapper;
+    private NdjsonEvaluator evaluator;
+
+    @BeforeEach
+    void setUp() {
+        mapper = new ObjectMapper();
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.getStream().setParallelism(4);
+        properties.getStream().setWindow(1000);
+        evaluator = new NdjsonEvaluator(new StreamingEvaluator(mapper), mapper, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        evaluator.destroy();
+    }
+
+    @Test
+    void testResultsKeepInputOrder() throws Exception {
+        CompiledRule rule = new RuleCompiler().compile(mapper.readTree("{\"field\": \"n\", \"op\": \"in\", \"value\": [0, 3, 6, 9]}"));
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            input.append("{\"n\": ").append(i % 10).append(", \"pad\": \"").append("x".repeat(i % 7)).append("\"}\n");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        evaluator.evaluate(rule, new NdjsonReader(new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8))), out);
+
+        String[] results = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(50_000, results.length);
+        for (int i = 0; i < results.length; i++) {
+            assertEquals("{\"result\":" + (i % 10 % 3 == 0) + "}", results[i], "line " + i);
+        }
+    }
+
+    @Test
+    void testReaderSplitsLinesAcrossBufferBoundaries() throws Exception {
+        String longValue = "y".repeat(100_000);
+        String input = "\n{\"a\": \"" + longValue + "\"}\r\n  \n{\"b\": 1}\n{\"c\": 2}";
+        NdjsonReader reader = new NdjsonReader(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        List<String> lines = new ArrayList<>();
+        byte[] line;
+        while ((line = reader.nextLine()) != null) {
+            lines.add(new String(line, StandardCharsets.UTF_8));
+        }
+        assertEquals(List.of("{\"a\": \"" + longValue + "\"}", "{\"b\": 1}", "{\"c\": 2}"), lines);
+    }
+
+    @Test
+    void testOverlongLinesAreSkippedWithAnErrorLine() throws Exception {
+        CompiledRule rule = new RuleCompiler().compile(mapper.readTree("{\"field\": \"n\", \"op\": \"eq\", \"value\": 1}"));
+        // Long enough to span several reader buffers
+        String input = "{\"n\": 1}\n{\"n\": 1, \"pad\": \"" + "z".repeat(200_000) + "\"}\n{\"n\": 2, \"p\": \"" + "z".repeat(50)
+                + "\"}\n{\"n\": 1}\n{\"n\": 1, \"pad\": \"" + "z".repeat(200) + "\"}";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        evaluator.evaluate(rule, new NdjsonReader(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), 100), out);
+
+        String[] results = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, results.length);
+        assertEquals("{\"result\":true}", results[0]);
+        assertEquals("{\"error\":\"BAD_REQUEST\",\"message\":\"Line is longer than 100 bytes\"}", results[1]);
+        assertEquals("{\"result\":false}", results[2]);
+        assertEquals("{\"result\":true}", results[3]);
+        assertTrue(results[4].startsWith("{\"error\":\"BAD_REQUEST\""), results[4]);
+    }
+
+    @Test
+    void testUnexpectedEvaluationFailureOnlyFailsItsLine() throws Exception {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        StreamingEvaluator failing = new StreamingEvaluator(mapper) {
+            @Override
+            public boolean evaluateData(CompiledRule rule, byte[] data) throws IOException {
+                if (new String(data, StandardCharsets.UTF_8).contains("boom")) {
+                    throw new IllegalStateException("boom");
+                }
+                return super.evaluateData(rule, data);
+            }
+        };
+        NdjsonEvaluator evaluator = new NdjsonEvaluator(failing, mapper, properties);
+        try {
+            CompiledRule rule = new RuleCompiler().compile(mapper.readTree("{\"field\": \"n\", \"op\": \"exists\"}"));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            evaluator.evaluate(rule, evaluator.reader(new ByteArrayInputStream(
+                    "{\"n\": 1}\n{\"boom\": 1}\n{}\n".getBytes(StandardCharsets.UTF_8))), out);
+            assertEquals("{\"result\":true}\n{\"error\":\"EVALUATION_ERROR\",\"message\":\"boom\"}\n{\"result\":false}\n",
+                    out.toString(StandardCharsets.UTF_8));
+        } finally {
+            evaluator.destroy();
+        }
+    }
+
+    @Test
+    void testRuleHeaderIsRequiredWithoutRuleId() {
+        NdjsonReader reader = new NdjsonReader(new ByteArrayInputStream("{\"age\": 3}\n".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(IllegalArgumentException.class, () -> evaluator.readRule(reader));
+    }
+}
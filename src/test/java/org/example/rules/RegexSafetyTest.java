@@ -0,0 +1,64 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.config.RuleEngineProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegexSafetyTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private RuleCompiler safeCompiler(long maxSteps) {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.getRegex().setSafeMode(true);
+        properties.getRegex().setMaxSteps(maxSteps);
+        return new RuleCompiler(properties);
+    }
+
+    private CompiledRule regexRule(RuleCompiler compiler, String pattern) {
+        return compiler.compile(mapper.createObjectNode().put("field", "s").put("op", "regex").put("value", pattern));
+    }
+
+    @Test
+    void testCatastrophicPatternsAreRejected() {
+        for (String pattern : List.of("(a+)+$", "(\\w*)*x", "((ab)*c)+", "(x+y?){2,}", "(.*a){12}", "(a)\\1", "(?<n>a)\\k<n>")) {
+            assertThrows(IllegalArgumentException.class, () -> RegexSafety.check(pattern), pattern);
+        }
+        for (String pattern : List.of("^[^@]+@example\\.com$", "(ab)+c", "a+b*c{2,}", "(a+)?", "(a+){1}", "[(a+)]+",
+                "\\(a+\\)+", "\\Q(a+)+\\E", "(?:foo|bar)+baz")) {
+            assertDoesNotThrow(() -> RegexSafety.check(pattern), pattern);
+        }
+    }
+
+    @Test
+    void testSafeModeRejectsAtCompileTimeOnly() {
+        assertThrows(IllegalArgumentException.class, () -> regexRule(safeCompiler(1000), "(a+)+$"));
+        assertTrue(regexRule(new RuleCompiler(), "(a+)+$").evaluate(Map.of("s", "aaa")));
+    }
+
+    @Test
+    void testStepBudgetAbortsBacktracking() {
+        // Passes the static screen but backtracks exponentially on a non-matching input
+        CompiledRule rule = regexRule(safeCompiler(10_000), "a*a*a*a*a*a*b");
+
+        assertTrue(rule.evaluate(Map.of("s", "aaaab")));
+        EvaluationBudgetExceededException ex = assertThrows(EvaluationBudgetExceededException.class,
+                () -> rule.evaluate(Map.of("s", "a".repeat(28) + "!")));
+        assertTrue(ex.getMessage().contains("a*a*a*a*a*a*b"));
+    }
+
+    @Test
+    void testPatternsAreSharedAcrossRules() {
+        PatternCache cache = new PatternCache(2);
+        assertSame(cache.get("a+"), cache.get("a+"));
+        cache.get("b+");
+        cache.get("c+");
+        assertEquals(2, cache.size());
+        assertNotSame(new PatternCache(0).get("a+"), new PatternCache(0).get("a+"));
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultCacheTest {
+
+    private static final String RULE = "{'all': [{'field': 'user.age', 'op': 'gte', 'value': 18},"
+            + " {'any': [{'field': 'user.country', 'op': 'in', 'value': ['US', 'CA']}, {'field': 'vip', 'op': 'exists'}]}]}";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private CompiledRule compile() throws Exception {
+        return new RuleCompiler().compile(TestJson.parse(RULE));
+    }
+
+    private static Map<String, Object> record(Random random) {
+        Map<String, Object> user = new HashMap<>();
+        user.put("age", random.nextInt(30));
+        if (random.nextInt(5) > 0) user.put("country", List.of("US", "CA", "FR").get(random.nextInt(3)));
+        Map<String, Object> record = new HashMap<>();
+        record.put("user", user);
+        record.put("ignored", random.nextInt(1000));
+        if (random.nextBoolean()) record.put("vip", random.nextBoolean() ? null : true);
+        return record;
+    }
+
+    @Test
+    void testCachedResultsMatchAndRepeatsHit() throws Exception {
+        CompiledRule plain = compile();
+        CompiledRule cached = plain.withResultCache(new ResultCache(10_000, 60_000, 0));
+        Random random = new Random(3);
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            records.add(record(random));
+        }
+        for (Map<String, Object> record : records) {
+            assertEquals(plain.evaluate(record), cached.evaluate(record), String.valueOf(record));
+        }
+        ResultCacheStats stats = cached.getResultCache().stats();
+        // Keys only cover referenced fields: 30 ages x 4 countries x 3 vip states at most
+        assertTrue(stats.getSize() <= 360, "size " + stats.getSize());
+        assertEquals(2_000, stats.getHits() + stats.getMisses());
+        assertEquals(stats.getSize(), stats.getMisses());
+        assertTrue(stats.getHitRatio() > 0.8);
+    }
+
+    @Test
+    void testStreamingSharesEntriesWithMapEvaluation() throws Exception {
+        CompiledRule cached = compile().withResultCache(new ResultCache(100, 60_000, 1));
+        assertTrue(cached.evaluate(Map.of("user", Map.of("age", 20, "country", "US"))));
+        boolean streamed = new StreamingEvaluator(mapper).evaluateData(cached,
+                "{\"noise\": [1, 2], \"user\": {\"country\": \"US\", \"age\": 20}}".getBytes());
+        assertTrue(streamed);
+        assertEquals(1, cached.getResultCache().getHits());
+    }
+
+    @Test
+    void testEntriesExpireAndAreEvicted() throws Exception {
+        CompiledRule shortLived = compile().withResultCache(new ResultCache(100, 1, 1));
+        Map<String, Object> data = Map.of("user", Map.of("age", 20), "vip", true);
+        shortLived.evaluate(data);
+        Thread.sleep(5);
+        shortLived.evaluate(data);
+        assertEquals(0, shortLived.getResultCache().getHits());
+
+        CompiledRule small = compile().withResultCache(new ResultCache(2, 60_000, 1));
+        for (int age : new int[]{20, 21, 22, 20}) {
+            small.evaluate(Map.of("user", Map.of("age", age)));
+        }
+        ResultCacheStats stats = small.getResultCache().stats();
+        assertEquals(2, stats.getSize());
+        assertEquals(2, stats.getEvictions());
+        assertEquals(0, stats.getHits());
+    }
+
+    @Test
+    void testConcurrentEvaluations() throws Exception {
+        CompiledRule plain = compile();
+        CompiledRule cached = plain.withResultCache(new ResultCache(50, 60_000, 4));
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int seed = t;
+                futures.add(pool.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 5_000; i++) {
+                        Map<String, Object> record = record(random);
+                        assertEquals(plain.evaluate(record), cached.evaluate(record));
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(20_000, cached.getResultCache().getHits() + cached.getResultCache().getMisses());
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.config.RuleEngineProperties;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleClassGeneratorTest {
+
+    private static final List<String> RULES = List.of(
+            "{'field': 'n', 'op': 'eq', 'value': 5}",
+            "{'field': 'n', 'op': 'ne', 'value': 5.0}",
+            "{'field': 'n', 'op': 'lt', 'value': 2.5}",
+            "{'field': 'n', 'op': 'lte', 'value': '3'}",
+            "{'field': 'n', 'op': 'gt', 'value': -1}",
+            "{'field': 'n', 'op': 'gte', 'value': 1e30}",
+            "{'field': 'n', 'op': 'lt', 'value': -1e30}",
+            "{'field': 'n', 'op': 'between', 'value': [1, 4.5]}",
+            "{'field': 'n', 'op': 'between', 'value': ['a', 'z']}",
+            "{'field': 'n', 'op': 'in', 'value': [1, 2.5, 'x', null]}",
+            "{'field': 'n', 'op': 'not_in', 'value': [0, 3]}",
+            "{'field': 'n', 'op': 'eq', 'value': 'x'}",
+            "{'field': 'n', 'op': 'ne', 'value': 'true'}",
+            "{'field': 'n', 'op': 'eq', 'value': null}",
+            "{'field': 'n', 'op': 'contains', 'value': 'x'}",
+            "{'field': 'n', 'op': 'regex', 'value': '^[a-c]'}",
+            "{'field': 'n', 'op': 'gt', 'value': '2024-01-01T00:00:00Z'}",
+            "{'field': 'n', 'op': 'exists'}",
+            "{'field': 'n', 'op': 'not_exists'}",
+            "{'field': 'n', 'op': 'isNull'}",
+            "{'field': 'n', 'op': 'isNotNull'}",
+            "{'op': 'exists'}",
+            "{'op': 'eq', 'value': null}",
+            "{'all': []}",
+            "{'any': []}",
+            "{'not': {'any': []}}",
+            "{'all': [{'field': 'n', 'op': 'gte', 'value': 1}, {'not': {'field': 'm', 'op': 'eq', 'value': 'x'}}]}",
+            "{'any': [{'field': 'n', 'op': 'lt', 'value': 1}, {'all': [{'field': 'm', 'op': 'exists'},"
+                    + " {'not': {'any': [{'field': 'n', 'op': 'eq', 'value': 2}, {'field': 'm', 'op': 'in', 'value': ['b', 'c']}]}}]}]}",
+            "{'not': {'all': [{'field': 'n', 'op': 'exists'}, {'field': 'n', 'op': 'ne', 'value': 0}]}}");
+
+    private static final Object[] VALUES = {null, 0, 1, 2, 3, 5, -7, 3L, Long.MAX_VALUE, Long.MIN_VALUE, 2.5, 5.0, -0.0,
+            Double.NaN, Double.POSITIVE_INFINITY, 1e31f, new BigDecimal("4.5"), "3", "2.5", "x", "a", "b", "true", "abc",
+            "2025-06-01T00:00:00Z", true, false, List.of("x", 1), List.of(), Map.of("k", 1)};
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final RuleCompiler compiler = new RuleCompiler();
+
+    private CompiledRule compile(String json) throws Exception {
+        return compiler.compile(TestJson.parse(json));
+    }
+
+    private static List<Map<String, Object>> records() {
+        List<Map<String, Object>> records = new ArrayList<>();
+        records.add(new HashMap<>());
+        for (Object n : VALUES) {
+            for (Object m : new Object[]{null, "b", "x", 2}) {
+                Map<String, Object> record = new HashMap<>();
+                record.put("n", n);
+                if (m != null) record.put("m", m);
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    @Test
+    void testMatchesInterpreter() throws Exception {
+        List<Map<String, Object>> records = records();
+        for (String json : RULES) {
+            CompiledRule rule = compile(json);
+            RuleNode generated = RuleClassGenerator.generate(rule.getRoot());
+            assertTrue(generated.getClass().isHidden());
+            for (Map<String, Object> record : records) {
+                EvaluationContext ctx = new EvaluationContext(record);
+                assertEquals(rule.getRoot().evaluate(ctx), generated.evaluate(ctx), json + " on " + record);
+            }
+        }
+    }
+
+    @Test
+    void testWideAndDeepRulesAreSplitAcrossMethods() throws Exception {
+        Random random = new Random(11);
+        StringBuilder wide = new StringBuilder("{'any': [");
+        for (int i = 0; i < 600; i++) {
+            if (i > 0) wide.append(", ");
+            wide.append("{'all': [{'field': 'n', 'op': 'gte', 'value': ").append(random.nextInt(10))
+                    .append("}, {'field': 'm', 'op': 'ne', 'value': '").append((char) ('a' + random.nextInt(4))).append("'}]}");
+        }
+        String deep = "{'field': 'n', 'op': 'eq', 'value': 3}";
+        for (int i = 0; i < 200; i++) {
+            deep = "{'" + (i % 2 == 0 ? "all" : "any") + "': [" + deep + ", {'field': 'm', 'op': 'exists'}]}";
+        }
+        for (String json : List.of(wide.append("]}").toString(), deep)) {
+            CompiledRule rule = compile(json);
+            RuleNode generated = RuleClassGenerator.generate(rule.getRoot());
+            assertTrue(Arrays.stream(generated.getClass().getDeclaredMethods()).filter(m -> m.getName().startsWith("m")).count() > 1);
+            for (Map<String, Object> record : records()) {
+                EvaluationContext ctx = new EvaluationContext(record);
+                assertEquals(rule.getRoot().evaluate(ctx), generated.evaluate(ctx), String.valueOf(record));
+            }
+        }
+    }
+
+    @Test
+    void testRuleIsPromotedAfterThreshold() throws Exception {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.getBytecode().setEnabled(true);
+        properties.getBytecode().setThreshold(3);
+        CompiledRule rule = new RuleCompiler(properties).compile(mapper.readTree("{\"field\": \"n\", \"op\": \"gt\", \"value\": 1}"));
+        for (int i = 0; i < 3; i++) {
+            assertFalse(rule.isGenerated());
+            assertTrue(rule.evaluate(Map.of("n", 2)));
+        }
+        assertTrue(rule.isGenerated());
+        assertTrue(rule.evaluate(Map.of("n", 2)));
+        assertFalse(rule.evaluate(Map.of("n", 1)));
+
+        assertFalse(compile("{'field': 'n', 'op': 'gt', 'value': 1}").isGenerated());
+    }
+
+    @Test
+    void testGeneratedClassIsUnloadable() throws Exception {
+        RuleNode generated = RuleClassGenerator.generate(compile("{'field': 'n', 'op': 'eq', 'value': 1}").getRoot());
+        WeakReference<Class<?>> type = new WeakReference<>(generated.getClass());
+        generated = null;
+        for (int i = 0; i < 50 && type.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(type.get());
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.example.config.RuleEngineProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleCompilerTest {
+
+    private RuleCompiler compiler;
+
+    @BeforeEach
+    void setUp() {
+        compiler = new RuleCompiler();
+    }
+
+    private JsonNode json(String s) throws Exception {
+        return TestJson.parse(s);
+    }
+
+    @Test
+    void testCompiledRuleIsReusable() throws Exception {
+        CompiledRule rule = compiler.compile(json(
+                "{'all': [{'field': 'age', 'op': 'gte', 'value': 21}, {'field': 'country', 'op': 'in', 'value': ['US', 'CA']}]}"));
+
+        assertTrue(rule.evaluate(Map.of("age", 30, "country", "US")));
+        assertFalse(rule.evaluate(Map.of("age", 30, "country", "MX")));
+        assertFalse(rule.evaluate(Map.of("age", 18, "country", "CA")));
+    }
+
+    @Test
+    void testCompiledTreeShape() throws Exception {
+        CompiledRule rule = compiler.compile(json(
+                "[{'field': 'a.b', 'op': 'eq', 'value': 1}, {'not': {'any': [{'field': 'c', 'op': 'exists'}]}}]"));
+
+        AllNode root = assertInstanceOf(AllNode.class, rule.getRoot());
+        ConditionNode cond = assertInstanceOf(ConditionNode.class, root.getChildren()[0]);
+        assertEquals(Operator.eq, cond.getOp());
+        assertEquals("a.b", cond.getPath().getPath());
+        assertEquals(1L, cond.getValue());
+        NotNode not = assertInstanceOf(NotNode.class, root.getChildren()[1]);
+        assertInstanceOf(AnyNode.class, not.getChild());
+    }
+
+    @Test
+    void testValidationErrorsSurfaceAtCompileTime() throws Exception {
+        // The invalid condition sits behind a branch that would short-circuit during evaluation
+        JsonNode rule = json("{'any': [{'field': 'a', 'op': 'exists'}, {'field': 'b', 'op': 'between', 'value': 1}]}");
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> compiler.compile(rule));
+        assertEquals("between requires array [min, max]", ex.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile(json("{'field': 'a', 'op': 'nope'}")));
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile(json("{'field': 'a'}")));
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile(json("{'field': 'a', 'op': 'in', 'value': 1}")));
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile(json("{'field': 'a', 'op': 'regex', 'value': '('}")));
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile(json("{'all': {'field': 'a', 'op': 'exists'}}")));
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile(json("42")));
+    }
+
+    @Test
+    void testEmptyGroupsFollowIdentity() throws Exception {
+        assertTrue(compiler.compile(json("{'all': []}")).evaluate(Map.of()));
+        assertFalse(compiler.compile(json("{'any': []}")).evaluate(Map.of()));
+    }
+
+    @Test
+    void testNestedPathsAndCollections() throws Exception {
+        Map<String, Object> user = new HashMap<>();
+        user.put("tags", List.of("gold", "vip"));
+        user.put("phone", null);
+        Map<String, Object> data = Map.of("user", user);
+
+        assertTrue(compiler.compile(json("{'field': 'user.tags', 'op': 'contains', 'value': 'vip'}")).evaluate(data));
+        assertTrue(compiler.compile(json("{'field': 'user.phone', 'op': 'exists'}")).evaluate(data));
+        assertTrue(compiler.compile(json("{'field': 'user.phone', 'op': 'isNull'}")).evaluate(data));
+        assertTrue(compiler.compile(json("{'field': 'user.tags.2', 'op': 'not_exists'}")).evaluate(data));
+    }
+
+    @Test
+    void testListIndexSegments() throws Exception {
+        Map<String, Object> data = Map.of("items", List.of(Map.of("sku", "A-1"), Map.of("sku", "B-2")),
+                "byIndex", Map.of("0", "zero"));
+
+        assertTrue(compiler.compile(json("{'field': 'items.1.sku', 'op': 'eq', 'value': 'B-2'}")).evaluate(data));
+        assertTrue(compiler.compile(json("{'field': 'items.0', 'op': 'exists'}")).evaluate(data));
+        assertTrue(compiler.compile(json("{'field': 'items.5.sku', 'op': 'not_exists'}")).evaluate(data));
+        assertTrue(compiler.compile(json("{'field': 'items.x', 'op': 'not_exists'}")).evaluate(data));
+        // on a map a numeric segment is still a plain key
+        assertTrue(compiler.compile(json("{'field': 'byIndex.0', 'op': 'eq', 'value': 'zero'}")).evaluate(data));
+    }
+
+    @Test
+    void testPathsAreInternedAndResolvedOncePerEvaluation() throws Exception {
+        CompiledRule rule = compiler.compile(json(
+                "{'all': [{'field': 'user.age', 'op': 'gte', 'value': 21}, {'field': 'user.age', 'op': 'lt', 'value': 65},"
+                        + " {'field': 'user.name', 'op': 'exists'}, {'field': 'user.age', 'op': 'isNotNull'}]}"));
+        assertEquals(List.of("user.age", "user.name"), rule.getFieldPaths().stream().map(FieldPath::getPath).toList());
+
+        Map<String, Integer> lookups = new HashMap<>();
+        Map<String, Object> user = new HashMap<>() {
+            @Override
+            public Object get(Object key) {
+                lookups.merge((String) key, 1, Integer::sum);
+                return super.get(key);
+            }
+        };
+        user.put("age", 30);
+        user.put("name", "Alice");
+
+        assertTrue(rule.evaluate(Map.of("user", user)));
+        assertEquals(1, lookups.get("age"));
+        assertEquals(1, lookups.get("name"));
+    }
+
+    @Test
+    void testComplexityLimits() throws Exception {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.getLimits().setMaxDepth(3);
+        properties.getLimits().setMaxNodes(5);
+        properties.getLimits().setMaxInSize(3);
+        properties.getLimits().setMaxRegexLength(4);
+        RuleCompiler limited = new RuleCompiler(properties);
+
+        limited.compile(json("{'all': [{'not': {'field': 'a', 'op': 'exists'}}]}"));
+        IllegalArgumentException depth = assertThrows(IllegalArgumentException.class,
+                () -> limited.compile(json("{'all': [{'not': {'not': {'field': 'a', 'op': 'exists'}}}]}")));
+        assertTrue(depth.getMessage().contains("deeper than 3"));
+
+        limited.compile(json("[{'field': 'a', 'op': 'exists'}, {'field': 'b', 'op': 'exists'},"
+                + " {'field': 'c', 'op': 'exists'}, {'field': 'd', 'op': 'exists'}]"));
+        IllegalArgumentException nodes = assertThrows(IllegalArgumentException.class,
+                () -> limited.compile(json("[{'field': 'a', 'op': 'exists'}, {'field': 'b', 'op': 'exists'},"
+                        + " {'field': 'c', 'op': 'exists'}, {'field': 'd', 'op': 'exists'}, {'field': 'e', 'op': 'exists'}]")));
+        assertTrue(nodes.getMessage().contains("more than 5 nodes"));
+
+        limited.compile(json("{'field': 'a', 'op': 'in', 'value': [1, 2, 3]}"));
+        assertThrows(IllegalArgumentException.class,
+                () -> limited.compile(json("{'field': 'a', 'op': 'not_in', 'value': [1, 2, 3, 4]}")));
+        limited.compile(json("{'field': 'a', 'op': 'regex', 'value': '^a.b'}"));
+        assertThrows(IllegalArgumentException.class,
+                () -> limited.compile(json("{'field': 'a', 'op': 'regex', 'value': '^a.bc'}")));
+
+        compiler.compile(json("{'field': 'items.10000.sku', 'op': 'exists'}"));
+        IllegalArgumentException index = assertThrows(IllegalArgumentException.class,
+                () -> compiler.compile(json("{'field': 'items.999999999', 'op': 'exists'}")));
+        assertEquals("Field 'items.999999999' indexes list element 999999999, above the limit of 10000",
+                index.getMessage());
+    }
+
+    @Test
+    void testLargeInListCompilesUnderDefaultLimits() throws Exception {
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            values.append(i > 0 ? ", " : "").append(i * 7);
+        }
+        CompiledRule rule = compiler.compile(json("{'field': 'merchantId', 'op': 'in', 'value': [" + values + "]}"));
+        assertTrue(rule.evaluate(Map.of("merchantId", 699_993)));
+        assertFalse(rule.evaluate(Map.of("merchantId", 699_994)));
+    }
+}
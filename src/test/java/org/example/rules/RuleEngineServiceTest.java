@@ -197,4 +197,31 @@ public class RuleEngineServiceTest {
         isNotNullAge.put("op", "isNotNull");
         assertTrue(service.evaluate(data, isNotNullAge));
     }
+
+    @Test
+    void testInAndNotIn() {
+        Map<String, Object> data = Map.of("merchant", 1002, "country", "US");
+
+        ObjectNode in = mapper.createObjectNode();
+        in.put("field", "merchant");
+        in.put("op", "in");
+        ArrayNode ids = mapper.createArrayNode();
+        ids.add(1001);
+        ids.add(1002.0);
+        ids.add("1003");
+        in.set("value", ids);
+        assertTrue(service.evaluate(data, in));
+
+        ObjectNode notIn = mapper.createObjectNode();
+        notIn.put("field", "country");
+        notIn.put("op", "not_in");
+        ArrayNode blocked = mapper.createArrayNode();
+        blocked.add("KP");
+        blocked.add("IR");
+        notIn.set("value", blocked);
+        assertTrue(service.evaluate(data, notIn));
+
+        blocked.add("US");
+        assertFalse(service.evaluate(data, notIn));
+    }
 }
@@ -0,0 +1,144 @@
+package org.example.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleIndexTest {
+
+    private static final List<String> GUARDS = List.of(
+            "{'field': 'k', 'op': 'eq', 'value': 5}",
+            "{'field': 'k', 'op': 'eq', 'value': 2.5}",
+            "{'field': 'k', 'op': 'eq', 'value': '5'}",
+            "{'field': 'k', 'op': 'eq', 'value': 1e30}",
+            "{'field': 'k', 'op': 'eq', 'value': 9007199254740993}",
+            "{'field': 'k', 'op': 'eq', 'value': 'x'}",
+            "{'field': 'k', 'op': 'eq', 'value': 'true'}",
+            "{'field': 'k', 'op': 'eq', 'value': 'NaN'}",
+            "{'field': 'k', 'op': 'eq', 'value': 'Infinity'}",
+            "{'field': 'k', 'op': 'eq', 'value': true}",
+            "{'field': 'k', 'op': 'eq', 'value': null}",
+            "{'field': 'k', 'op': 'eq', 'value': '2024-01-01T00:00:00Z'}",
+            "{'field': 'k', 'op': 'in', 'value': [1, 2.5, 'x', null]}",
+            "{'field': 'k', 'op': 'in', 'value': []}",
+            "{'field': 'k', 'op': 'gt', 'value': 3}",
+            "{'field': 'k', 'op': 'gte', 'value': 2.5}",
+            "{'field': 'k', 'op': 'lt', 'value': 0}",
+            "{'field': 'k', 'op': 'lte', 'value': '5'}",
+            "{'field': 'k', 'op': 'between', 'value': [1, 4.5]}",
+            "{'field': 'k', 'op': 'between', 'value': [5, 1]}",
+            "{'field': 'k', 'op': 'gt', 'value': '2024-01-01T00:00:00Z'}",
+            "{'field': 'k.sub', 'op': 'eq', 'value': 1}",
+            "{'field': 'm', 'op': 'in', 'value': ['a', 'b']}",
+            "{'field': 'm', 'op': 'ne', 'value': 'a'}",
+            "{'field': 'm', 'op': 'regex', 'value': '^a'}");
+
+    private static final Object[] VALUES = {null, 0, 1, 2, 3, 5, -7, 5L, 5.0, -0.0, 2.5, 2.5f, 4.5, 9007199254740992.0,
+            9007199254740993L, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, new BigDecimal("5.00"),
+            new BigDecimal("1e30"), 1e30, "5", "5.0", "+5", "2.5", "1e0", "x", "a", "b", "true", "NaN", "Infinity", "abc",
+            "2024-01-01T00:00:00Z", "2024-01-01T00:00:00.000Z", "2025-06-01T00:00:00Z", Instant.parse("2024-01-01T00:00:00Z"),
+            true, false, List.of("x"), List.of(), Map.of("sub", 1)};
+
+    private final RuleCompiler compiler = new RuleCompiler();
+
+    private CompiledRule compile(String json) throws Exception {
+        return compiler.compile(TestJson.parse(json));
+    }
+
+    @Test
+    void testCandidatesIncludeEveryMatchingRule() throws Exception {
+        // Guards alone, under all/any, and combined with non-indexable conditions
+        Map<String, CompiledRule> rules = new LinkedHashMap<>();
+        Random random = new Random(5);
+        for (int i = 0; i < GUARDS.size(); i++) {
+            String guard = GUARDS.get(i);
+            String other = GUARDS.get(random.nextInt(GUARDS.size()));
+            rules.put("r" + i, compile(guard));
+            rules.put("all" + i, compile("{'all': [{'field': 'm', 'op': 'exists'}, " + guard + ", " + other + "]}"));
+            rules.put("any" + i, compile("{'any': [" + guard + ", " + other + "]}"));
+            rules.put("not" + i, compile("{'not': " + guard + "}"));
+        }
+        rules.put("empty-all", compile("{'all': []}"));
+        rules.put("empty-any", compile("{'any': []}"));
+        RuleIndex index = new RuleIndex();
+        rules.forEach(index::add);
+
+        for (Object k : VALUES) {
+            for (Object m : new Object[]{null, "a", "c"}) {
+                Map<String, Object> record = new HashMap<>();
+                if (k != null || m == null) record.put("k", k);
+                if (m != null) record.put("m", m);
+                Set<String> found = index.candidates(record);
+                for (Map.Entry<String, CompiledRule> e : rules.entrySet()) {
+                    if (e.getValue().evaluate(record)) {
+                        assertTrue(found.contains(e.getKey()), e.getKey() + " on " + record);
+                    }
+                }
+            }
+        }
+        assertFalse(index.candidates(Map.of("k", 99)).contains("empty-any"));
+        assertTrue(index.candidates(Map.of()).contains("empty-all"));
+    }
+
+    @Test
+    void testOnlyGuardedRulesAreCandidates() throws Exception {
+        RuleIndex index = new RuleIndex();
+        for (int i = 0; i < 1000; i++) {
+            index.add("type" + i, compile("{'all': [{'field': 'eventType', 'op': 'eq', 'value': 'e" + i + "'},"
+                    + " {'field': 'amount', 'op': 'gt', 'value': 10}]}"));
+            index.add("band" + i, compile("{'field': 'score', 'op': 'between', 'value': [" + i + ", " + (i + 9) + "]}"));
+        }
+        index.add("fallback", compile("{'field': 'amount', 'op': 'ne', 'value': 0}"));
+
+        assertEquals(Set.of("type42", "band491", "band492", "band493", "band494", "band495", "band496", "band497",
+                "band498", "band499", "band500", "fallback"), index.candidates(Map.of("eventType", "e42", "score", 500)));
+        assertEquals(Set.of("fallback"), index.candidates(Map.of("eventType", "unknown", "score", -1)));
+        assertEquals(2001, index.getRuleCount());
+        assertEquals(1, index.getUnindexedCount());
+    }
+
+    @Test
+    void testUpdatesAreIncremental() throws Exception {
+        RuleIndex index = new RuleIndex();
+        index.add("a", compile("{'field': 'country', 'op': 'in', 'value': ['US', 'CA']}"));
+        index.add("b", compile("{'field': 'age', 'op': 'gte', 'value': 18}"));
+        assertEquals(Set.of("a"), index.candidates(Map.of("country", "US", "age", 10)));
+        assertEquals(Set.of("b"), index.candidates(Map.of("country", "FR", "age", 20)));
+
+        // The new version is found alongside the old one until the old entries are pruned
+        index.add("a", compile("{'field': 'country', 'op': 'eq', 'value': 'FR'}"));
+        assertEquals(Set.of("a"), index.candidates(Map.of("country", "US", "age", 10)));
+        index.prune("a");
+        assertEquals(Set.of(), index.candidates(Map.of("country", "US", "age", 10)));
+        assertEquals(Set.of("a", "b"), index.candidates(Map.of("country", "FR", "age", 20)));
+
+        index.add("b", compile("{'field': 'age', 'op': 'lt', 'value': 18}"));
+        index.prune("b");
+        assertEquals(Set.of("b"), index.candidates(Map.of("age", 10)));
+        assertEquals(Set.of(), index.candidates(Map.of("age", 20)));
+
+        index.remove("a");
+        index.remove("b");
+        assertEquals(Set.of(), index.candidates(Map.of("country", "FR", "age", 10)));
+        assertEquals(0, index.getRuleCount());
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add("r" + i);
+            index.add("r" + i, compile("{'field': 'n', 'op': 'between', 'value': [" + i + ", " + (i + 1) + "]}"));
+            assertEquals(Set.of("r" + i), index.candidates(Map.of("n", i + 0.5)));
+        }
+        ids.forEach(index::remove);
+        assertEquals(Set.of(), index.candidates(Map.of("n", 5)));
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.rules;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.config.RuleEngineProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleOptimizerTest {
+
+
+    private CompiledRule compile(RuleCompiler compiler, String json) throws Exception {
+        return compiler.compile(TestJson.parse(json));
+    }
+
+    private static List<String> order(PlanNode plan) {
+        return plan.getChildren().stream().map(PlanNode::getNode).toList();
+    }
+
+    @Test
+    void testChildrenAreOrderedByEstimatedCost() throws Exception {
+        String json = "{'all': [{'field': 'email', 'op': 'regex', 'value': '^[a-z]+@corp\\\\.com$'},"
+                + " {'field': 'a.b.c', 'op': 'in', 'value': [1, 2, 3]},"
+                + " {'any': [{'field': 'tags', 'op': 'contains', 'value': 'vip'}, {'field': 'tier', 'op': 'eq', 'value': 'gold'}]},"
+                + " {'field': 'id', 'op': 'exists'}]}";
+        CompiledRule optimized = compile(new RuleCompiler(), json);
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.getOptimizer().setReorder(false);
+        CompiledRule authored = compile(new RuleCompiler(properties), json);
+
+        PlanNode plan = RuleOptimizer.plan(optimized);
+        assertEquals(List.of("id exists", "a.b.c in [1, 2, 3]", "any", "email regex ^[a-z]+@corp\\.com$"), order(plan));
+        assertEquals(List.of("tier eq gold", "tags contains vip"), order(plan.getChildren().get(2)));
+        assertEquals("email regex ^[a-z]+@corp\\.com$", order(RuleOptimizer.plan(authored)).get(0));
+
+        List<Map<String, Object>> records = List.of(
+                Map.of("id", 1, "email", "jo@corp.com", "a", Map.of("b", Map.of("c", 2)), "tier", "gold"),
+                Map.of("id", 1, "email", "jo@corp.com", "a", Map.of("b", Map.of("c", 2)), "tags", List.of("vip")),
+                Map.of("id", 1, "email", "jo@else.com", "a", Map.of("b", Map.of("c", 2)), "tier", "gold"),
+                Map.of("email", "jo@corp.com", "a", Map.of("b", Map.of("c", 9)), "tier", "gold"),
+                Map.of());
+        for (Map<String, Object> record : records) {
+            assertEquals(authored.evaluate(record), optimized.evaluate(record), record.toString());
+        }
+    }
+
+    @Test
+    void testProfiledRuleIsReorderedBySelectivity() throws Exception {
+        CompiledRule rule = compile(new RuleCompiler(),
+                "{'all': [{'field': 'age', 'op': 'gte', 'value': 21}, {'field': 'country', 'op': 'eq', 'value': 'US'}]}")
+                .profiled(1, new RuleMetrics(new SimpleMeterRegistry()));
+        // Everyone is an adult, few are in the US: the country check decides the group far more often
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i % 10 == 0, rule.evaluate(Map.of("age", 30, "country", i % 10 == 0 ? "US" : "FR")));
+        }
+        assertEquals(200, rule.getProfile().getSamplesSincePlan());
+
+        CompiledRule reordered = RuleOptimizer.reorder(rule, 100);
+        assertEquals(List.of("country eq US", "age gte 21"), order(RuleOptimizer.plan(reordered)));
+        assertEquals(0, reordered.getProfile().getSamplesSincePlan());
+        // Counters carry over to the new plan, following their nodes
+        NodeProfile root = reordered.getProfile().getRoot();
+        assertEquals(200, root.getEvaluations());
+        assertEquals("country eq US", root.getChildren().get(0).getNode());
+        assertEquals(200, root.getChildren().get(0).getEvaluations());
+
+        assertTrue(reordered.evaluate(Map.of("age", 30, "country", "US")));
+        assertFalse(reordered.evaluate(Map.of("age", 18, "country", "US")));
+        assertFalse(reordered.evaluate(Map.of("age", 30, "country", "FR")));
+    }
+
+    @Test
+    void testUndersampledGroupsKeepTheirOrder() throws Exception {
+        CompiledRule rule = compile(new RuleCompiler(),
+                "{'any': [{'field': 'a', 'op': 'eq', 'value': 1}, {'field': 'b', 'op': 'eq', 'value': 1}]}")
+                .profiled(1, new RuleMetrics(new SimpleMeterRegistry()));
+        rule.evaluate(Map.of("b", 1));
+        assertEquals(List.of("a eq 1", "b eq 1"), order(RuleOptimizer.plan(RuleOptimizer.reorder(rule, 100))));
+    }
+}
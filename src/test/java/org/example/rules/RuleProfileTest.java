@@ -0,0 +1,62 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleProfileTest {
+
+    private SimpleMeterRegistry registry;
+    private CompiledRule rule;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        registry = new SimpleMeterRegistry();
+        String json = "{'all': [{'field': 'age', 'op': 'gte', 'value': 21},"
+                + " {'any': [{'field': 'country', 'op': 'eq', 'value': 'US'}, {'field': 'vip', 'op': 'eq', 'value': true}]}]}";
+        rule = new RuleCompiler().compile(TestJson.parse(json))
+                .profiled(1, new RuleMetrics(registry));
+    }
+
+    @Test
+    void testCountsEvaluationsPassesAndShortCircuits() {
+        assertTrue(rule.evaluate(Map.of("age", 30, "country", "US")));
+        assertFalse(rule.evaluate(Map.of("age", 18, "country", "US")));
+        assertTrue(rule.evaluate(Map.of("age", 40, "country", "FR", "vip", true)));
+
+        NodeProfile all = rule.getProfile().getRoot();
+        assertEquals("all", all.getNode());
+        assertEquals(3, all.getEvaluations());
+        assertEquals(2, all.getPasses());
+        assertEquals(1, all.getShortCircuits());
+
+        NodeProfile age = all.getChildren().get(0);
+        assertEquals("age gte 21", age.getNode());
+        assertEquals(3, age.getEvaluations());
+
+        NodeProfile any = all.getChildren().get(1);
+        assertEquals(2, any.getEvaluations());
+        assertEquals(1, any.getShortCircuits());
+        assertEquals(2, any.getChildren().get(0).getEvaluations());
+        assertEquals(0.5, any.getChildren().get(0).getHitRate());
+        assertEquals(1, any.getChildren().get(1).getEvaluations());
+        assertTrue(all.getTotalNanos() >= age.getTotalNanos());
+
+        assertEquals(3, registry.get("rule.engine.condition").tag("op", "gte").timer().count());
+        assertEquals(3, registry.get("rule.engine.condition").tag("op", "eq").timer().count());
+        assertEquals(1, registry.get("rule.engine.short_circuits").tag("group", "all").counter().count());
+        assertEquals(1, registry.get("rule.engine.short_circuits").tag("group", "any").counter().count());
+    }
+
+    @Test
+    void testUnprofiledRuleHasNoProfile() throws Exception {
+        CompiledRule plain = new RuleCompiler().compile(new ObjectMapper().readTree("{\"field\": \"a\", \"op\": \"exists\"}"));
+        assertNull(plain.getProfile());
+        assertThrows(IllegalArgumentException.class, () -> plain.profiled(0, new RuleMetrics(registry)));
+    }
+}
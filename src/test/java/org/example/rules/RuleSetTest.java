@@ -0,0 +1,82 @@
+package org.example.rules;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleSetTest {
+
+    private RuleCompiler compiler;
+
+    @BeforeEach
+    void setUp() {
+        compiler = new RuleCompiler();
+    }
+
+    private CompiledRule compile(String json) throws Exception {
+        return compiler.compile(TestJson.parse(json));
+    }
+
+    private Map<String, CompiledRule> policy() throws Exception {
+        Map<String, CompiledRule> rules = new LinkedHashMap<>();
+        rules.put("us-adult", compile("{'all': [{'field': 'country', 'op': 'eq', 'value': 'US'}, {'field': 'age', 'op': 'gte', 'value': 21}]}"));
+        rules.put("us-vip", compile("{'all': [{'field': 'country', 'op': 'eq', 'value': 'US'}, {'field': 'tier', 'op': 'eq', 'value': 'vip'}]}"));
+        rules.put("not-us-adult", compile("{'not': {'all': [{'field': 'country', 'op': 'eq', 'value': 'US'}, {'field': 'age', 'op': 'gte', 'value': 21}]}}"));
+        rules.put("adult", compile("{'field': 'age', 'op': 'gte', 'value': 21}"));
+        return rules;
+    }
+
+    @Test
+    void testSharedConditionsAreDeduplicated() throws Exception {
+        RuleSet ruleSet = RuleSet.of(policy());
+
+        assertEquals(4, ruleSet.getRuleCount());
+        assertEquals(7, ruleSet.getConditionCount());
+        assertEquals(3, ruleSet.getDistinctConditionCount());
+    }
+
+    @Test
+    void testMatchesAgreeWithIndividualEvaluation() throws Exception {
+        Map<String, CompiledRule> rules = policy();
+        RuleSet ruleSet = RuleSet.of(rules);
+        List<Map<String, Object>> records = List.of(
+                Map.of("country", "US", "age", 30, "tier", "vip"),
+                Map.of("country", "US", "age", 18),
+                Map.of("country", "CA", "age", 40),
+                Map.of());
+
+        for (Map<String, Object> record : records) {
+            List<String> expected = rules.entrySet().stream()
+                    .filter(e -> e.getValue().evaluate(record))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            assertEquals(expected, ruleSet.match(record));
+        }
+    }
+
+    @Test
+    void testEachDistinctPredicateIsEvaluatedOnce() throws Exception {
+        Map<String, Integer> lookups = new HashMap<>();
+        Map<String, Object> record = new HashMap<>() {
+            @Override
+            public Object get(Object key) {
+                lookups.merge((String) key, 1, Integer::sum);
+                return super.get(key);
+            }
+        };
+        record.put("country", "US");
+        record.put("age", 30);
+        record.put("tier", "basic");
+
+        assertEquals(List.of("us-adult", "adult"), RuleSet.of(policy()).match(record));
+        assertEquals(1, lookups.get("country"));
+        assertEquals(1, lookups.get("age"));
+        assertEquals(1, lookups.get("tier"));
+    }
+}
@@ -0,0 +1,195 @@
+package org.example.rules;
+
+import org.example.config.RuleEngineProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleSnapshotTest {
+
+    private final RuleCompiler compiler = new RuleCompiler();
+
+    private CompiledRule compile(String json) throws Exception {
+        return compiler.compile(TestJson.parse(json));
+    }
+
+    private byte[] snapshot(String... rules) throws Exception {
+        List<RuleSnapshot.Rule> list = new ArrayList<>();
+        for (int i = 0; i < rules.length; i++) {
+            list.add(new RuleSnapshot.Rule("r" + i, i + 1, i % 2 == 1, compile(rules[i])));
+        }
+        return RuleSnapshot.toBytes(list);
+    }
+
+    @Test
+    void testDecodedRulesAgreeWithCompiled() throws Exception {
+        List<String> conditions = List.of(
+                "{'field': 'amount', 'op': 'gt', 'value': 50}",
+                "{'field': 'amount', 'op': 'lte', 'value': 12.75}",
+                "{'field': 'amount', 'op': 'between', 'value': [10, 1e3]}",
+                "{'field': 'country', 'op': 'in', 'value': ['DE', 'FR', 7, null, true]}",
+                "{'field': 'country', 'op': 'not_in', 'value': ['US']}",
+                "{'field': 'country', 'op': 'regex', 'value': '^[A-Z]{2}$'}",
+                "{'field': 'tags', 'op': 'contains', 'value': 'vip'}",
+                "{'field': 'tags', 'op': 'eq', 'value': ['vip', 'new']}",
+                "{'field': 'meta', 'op': 'eq', 'value': {'tier': 'gold', 'level': 2}}",
+                "{'field': 'meta.tier', 'op': 'ne', 'value': 'silver'}",
+                "{'field': 'country', 'op': 'exists'}",
+                "{'field': 'amount', 'op': 'isNull'}");
+        Object[] amounts = {null, 5, 12.75, "55", 99999999999999999L, "abc"};
+        Object[] countries = {null, "DE", "US", 7, "xx"};
+        List<Object> tags = new ArrayList<>();
+        tags.add(null);
+        tags.add(List.of("vip", "new"));
+        tags.add("a vip");
+        List<Object> metas = new ArrayList<>();
+        metas.add(null);
+        metas.add(Map.of("tier", "gold", "level", 2));
+        metas.add(Map.of("tier", "silver"));
+
+        Random random = new Random(25);
+        for (int i = 0; i < 200; i++) {
+            String json = randomRule(random, conditions, 3);
+            CompiledRule compiled = compile(json);
+            RuleSnapshot snapshot = RuleSnapshot.of(RuleSnapshot.toBytes(
+                    List.of(new RuleSnapshot.Rule("r", 1, false, compiled))));
+            CompiledRule decoded = snapshot.decode("r", compiler);
+            assertEquals(compiled.getSource(), decoded.getSource(), json);
+            assertEquals(compiled.getFieldPaths().size(), decoded.getFieldPaths().size(), json);
+            for (Object amount : amounts) {
+                for (Object country : countries) {
+                    for (int t = 0; t < tags.size(); t++) {
+                        Map<String, Object> record = new HashMap<>();
+                        record.put("amount", amount);
+                        if (country != null) record.put("country", country);
+                        if (tags.get(t) != null) record.put("tags", tags.get(t));
+                        if (metas.get(t) != null) record.put("meta", metas.get(t));
+                        assertEquals(compiled.evaluate(record), decoded.evaluate(record), json + " on " + record);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testOpenMapsFileAndReadsSourcesLazily(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("rules.snapshot");
+        RuleSnapshot.write(file, List.of(
+                new RuleSnapshot.Rule("adult", 3, false, compile("{'field': 'age', 'op': 'gte', 'value': 18}")),
+                new RuleSnapshot.Rule("eu", 1, true, compile("{'field': 'country', 'op': 'in', 'value': ['DE']}"))));
+
+        RuleSnapshot snapshot = RuleSnapshot.open(file);
+        assertEquals(List.of(new RuleSnapshot.Entry("adult", 3, false), new RuleSnapshot.Entry("eu", 1, true)),
+                snapshot.entries());
+        CompiledRule adult = snapshot.decode("adult", compiler);
+        assertTrue(adult.evaluate(Map.of("age", 20)));
+        assertFalse(adult.evaluate(Map.of("age", 17)));
+        assertEquals("{\"field\":\"age\",\"op\":\"gte\",\"value\":18}", adult.getSource().toString());
+        assertSame(adult.getSource(), adult.getSource());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> snapshot.decode("missing", compiler));
+        assertEquals("Snapshot has no rule 'missing'", e.getMessage());
+    }
+
+    @Test
+    void testCorruptionIsDetected() throws Exception {
+        byte[] bytes = snapshot("{'field': 'age', 'op': 'gte', 'value': 18}", "{'field': 'a', 'op': 'eq', 'value': 'x'}");
+
+        // The last byte belongs to the last record: the directory still reads, the record does not
+        byte[] corruptRecord = bytes.clone();
+        corruptRecord[corruptRecord.length - 1] ^= 1;
+        RuleSnapshot snapshot = RuleSnapshot.of(corruptRecord);
+        assertTrue(snapshot.decode("r0", compiler).evaluate(Map.of("age", 20)));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> snapshot.decode("r1", compiler));
+        assertEquals("Snapshot record of rule 'r1' is corrupt (checksum mismatch)", e.getMessage());
+
+        byte[] corruptDirectory = bytes.clone();
+        corruptDirectory[24] ^= 1;
+        e = assertThrows(IllegalArgumentException.class, () -> RuleSnapshot.of(corruptDirectory));
+        assertEquals("Snapshot directory is corrupt (checksum mismatch)", e.getMessage());
+
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 10);
+        e = assertThrows(IllegalArgumentException.class, () -> RuleSnapshot.of(truncated));
+        assertEquals("Snapshot is truncated", e.getMessage());
+
+        // An operator count no directory could hold, with a valid checksum
+        for (int operators : new int[]{-1, Integer.MAX_VALUE}) {
+            byte[] badCount = bytes.clone();
+            ByteBuffer buffer = ByteBuffer.wrap(badCount);
+            buffer.putInt(20, operators);
+            CRC32 crc = new CRC32();
+            crc.update(badCount, 20, buffer.getInt(12));
+            buffer.putInt(16, (int) crc.getValue());
+            e = assertThrows(IllegalArgumentException.class, () -> RuleSnapshot.of(badCount));
+            assertEquals("Snapshot is truncated", e.getMessage());
+        }
+
+        e = assertThrows(IllegalArgumentException.class, () -> RuleSnapshot.of("{\"all\": []}".getBytes()));
+        assertEquals("Not a rule snapshot", e.getMessage());
+    }
+
+    @Test
+    void testIncompatibleSnapshotsAreRejected() throws Exception {
+        byte[] bytes = snapshot("{'field': 'age', 'op': 'gte', 'value': 18}");
+
+        byte[] future = bytes.clone();
+        ByteBuffer.wrap(future).putInt(4, RuleSnapshot.FORMAT_VERSION + 1);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> RuleSnapshot.of(future));
+        assertEquals("Unsupported snapshot format version 2 (expected 1)", e.getMessage());
+
+        // A snapshot written by a version with an operator this one does not know, with a valid checksum
+        byte[] unknownOperator = bytes.clone();
+        String text = new String(unknownOperator, StandardCharsets.ISO_8859_1);
+        int at = text.indexOf("isNotNull");
+        unknownOperator[at + 8] = 'X';
+        ByteBuffer buffer = ByteBuffer.wrap(unknownOperator);
+        CRC32 crc = new CRC32();
+        crc.update(unknownOperator, 20, buffer.getInt(12));
+        buffer.putInt(16, (int) crc.getValue());
+        e = assertThrows(IllegalArgumentException.class, () -> RuleSnapshot.of(unknownOperator));
+        assertEquals("Snapshot uses operator 'isNotNulX', which this version does not support", e.getMessage());
+    }
+
+    @Test
+    void testDecodingAppliesCompilerLimits() throws Exception {
+        RuleSnapshot snapshot = RuleSnapshot.of(snapshot(
+                "{'all': [{'field': 'country', 'op': 'in', 'value': ['DE', 'FR', 'IT']}, {'not': {'field': 'x', 'op': 'exists'}}]}"));
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.getLimits().setMaxInSize(2);
+        RuleCompiler small = new RuleCompiler(properties);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> snapshot.decode("r0", small));
+        assertEquals("in list has more than 2 values", e.getMessage());
+
+        properties = new RuleEngineProperties();
+        properties.getLimits().setMaxDepth(2);
+        RuleCompiler shallow = new RuleCompiler(properties);
+        e = assertThrows(IllegalArgumentException.class, () -> snapshot.decode("r0", shallow));
+        assertEquals("Rule is nested deeper than 2 levels", e.getMessage());
+    }
+
+    private static String randomRule(Random random, List<String> conditions, int depth) {
+        int kind = depth == 0 ? 0 : random.nextInt(4);
+        if (kind == 0) return conditions.get(random.nextInt(conditions.size()));
+        if (kind == 1) return "{'not': " + randomRule(random, conditions, depth - 1) + "}";
+        StringBuilder sb = new StringBuilder(kind == 2 ? "{'all': [" : "{'any': [");
+        int children = random.nextInt(4);
+        for (int i = 0; i < children; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(randomRule(random, conditions, depth - 1));
+        }
+        return sb.append("]}").toString();
+    }
+}
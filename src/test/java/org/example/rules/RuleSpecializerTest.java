@@ -0,0 +1,160 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleSpecializerTest {
+
+    private final RuleCompiler compiler = new RuleCompiler();
+    private final RuleSpecializer specializer = new RuleSpecializer(compiler);
+
+    private CompiledRule compile(String json) throws Exception {
+        return compiler.compile(TestJson.parse(json));
+    }
+
+    private SpecializedRule specialize(String json, Map<String, Object> partialData) throws Exception {
+        return specializer.specialize(compile(json), partialData);
+    }
+
+    @Test
+    void testKnownConditionsAreFolded() throws Exception {
+        String rule = "{'all': ["
+                + "{'field': 'tenant.region', 'op': 'eq', 'value': 'eu'},"
+                + "{'any': [{'field': 'flags.beta', 'op': 'eq', 'value': true},"
+                + "         {'field': 'amount', 'op': 'gt', 'value': 100}]},"
+                + "{'field': 'country', 'op': 'in', 'value': ['DE', 'FR']}]}";
+
+        SpecializedRule beta = specialize(rule, Map.of("tenant", Map.of("region", "eu"), "flags", Map.of("beta", true)));
+        assertEquals("{\"field\":\"country\",\"op\":\"in\",\"value\":[\"DE\",\"FR\"]}",
+                beta.getRule().getSource().toString());
+        assertNull(beta.getConstant());
+        assertEquals(4, beta.getOriginalConditions());
+        assertEquals(1, beta.getConditions());
+
+        SpecializedRule noBeta = specialize(rule, Map.of("tenant", Map.of("region", "eu"), "flags", Map.of()));
+        assertEquals(2, noBeta.getConditions());
+        assertTrue(noBeta.getRule().evaluate(Map.of("amount", 150, "country", "DE")));
+        assertFalse(noBeta.getRule().evaluate(Map.of("amount", 50, "country", "DE")));
+
+        SpecializedRule otherRegion = specialize(rule, Map.of("tenant", Map.of("region", "us")));
+        assertEquals(Boolean.FALSE, otherRegion.getConstant());
+        assertEquals(0, otherRegion.getConditions());
+        assertFalse(otherRegion.getRule().evaluate(Map.of("amount", 150, "country", "DE")));
+
+        SpecializedRule always = specialize("{'any': [{'field': 'flags.all', 'op': 'exists'},"
+                + " {'field': 'amount', 'op': 'gt', 'value': 100}]}", Map.of("flags", Map.of("all", 1)));
+        assertEquals(Boolean.TRUE, always.getConstant());
+        assertTrue(always.getRule().evaluate(Map.of()));
+    }
+
+    @Test
+    void testNotCollapses() throws Exception {
+        SpecializedRule folded = specialize("{'not': {'all': [{'field': 'tenant', 'op': 'eq', 'value': 'a'},"
+                + " {'field': 'amount', 'op': 'gt', 'value': 5}]}}", Map.of("tenant", "b"));
+        assertEquals(Boolean.TRUE, folded.getConstant());
+
+        SpecializedRule doubled = specialize("{'not': {'not': {'field': 'amount', 'op': 'gt', 'value': 5}}}", Map.of());
+        assertEquals("{\"field\":\"amount\",\"op\":\"gt\",\"value\":5}", doubled.getRule().getSource().toString());
+    }
+
+    @Test
+    void testRedundantStructureIsRemoved() throws Exception {
+        SpecializedRule flat = specialize("{'all': ["
+                + "{'field': 'a', 'op': 'eq', 'value': 1},"
+                + "{'all': [{'field': 'b', 'op': 'eq', 'value': 2}, {'all': [{'field': 'a', 'op': 'eq', 'value': 1}]}]},"
+                + "{'any': [{'field': 'c', 'op': 'eq', 'value': 3}]}]}", Map.of());
+        // One group of the three distinct conditions, in whatever order the optimizer planned them
+        JsonNode children = flat.getRule().getSource().get("all");
+        assertEquals(3, children.size());
+        Set<String> fields = new HashSet<>();
+        children.forEach(c -> fields.add(c.get("field").asText()));
+        assertEquals(Set.of("a", "b", "c"), fields);
+        assertEquals(4, flat.getOriginalConditions());
+        assertEquals(3, flat.getConditions());
+    }
+
+    @Test
+    void testContradictoryRangesAreFalse() throws Exception {
+        assertEquals(Boolean.FALSE, specialize("{'all': [{'field': 'n', 'op': 'gt', 'value': 50},"
+                + " {'field': 'n', 'op': 'lt', 'value': 20}]}", Map.of()).getConstant());
+        assertEquals(Boolean.FALSE, specialize("{'all': [{'field': 'n', 'op': 'between', 'value': [1, 5]},"
+                + " {'field': 'n', 'op': 'gte', 'value': 7}]}", Map.of()).getConstant());
+        assertEquals(Boolean.FALSE, specialize("{'all': [{'field': 'n', 'op': 'gt', 'value': 5},"
+                + " {'field': 'n', 'op': 'lte', 'value': 5}]}", Map.of()).getConstant());
+        assertEquals(Boolean.FALSE, specialize("{'all': [{'field': 'n', 'op': 'eq', 'value': 3},"
+                + " {'field': 'n', 'op': 'gt', 'value': 3}]}", Map.of()).getConstant());
+
+        // Both hold for n = 5
+        assertNull(specialize("{'all': [{'field': 'n', 'op': 'gte', 'value': 5},"
+                + " {'field': 'n', 'op': 'lte', 'value': 5}]}", Map.of()).getConstant());
+        // Different fields
+        assertNull(specialize("{'all': [{'field': 'n', 'op': 'gt', 'value': 10},"
+                + " {'field': 'm', 'op': 'lt', 'value': 5}]}", Map.of()).getConstant());
+        // Non-numeric strings compare as text, and "4x" is above "10" and below "5"
+        SpecializedRule text = specialize("{'all': [{'field': 'n', 'op': 'gt', 'value': 10},"
+                + " {'field': 'n', 'op': 'lt', 'value': 5}, {'field': 'n', 'op': 'ne', 'value': 0}]}", Map.of());
+        assertNull(text.getConstant());
+        assertTrue(text.getRule().evaluate(Map.of("n", "4x")));
+    }
+
+    @Test
+    void testSpecializedRuleAgreesWithOriginal() throws Exception {
+        List<String> conditions = List.of(
+                "{'field': 'tenant.tier', 'op': 'eq', 'value': 'gold'}",
+                "{'field': 'tenant.limit', 'op': 'gte', 'value': 100}",
+                "{'field': 'flags', 'op': 'contains', 'value': 'beta'}",
+                "{'field': 'amount', 'op': 'gt', 'value': 50}",
+                "{'field': 'amount', 'op': 'lt', 'value': 20}",
+                "{'field': 'amount', 'op': 'between', 'value': [10, 60]}",
+                "{'field': 'country', 'op': 'in', 'value': ['DE', 'FR']}",
+                "{'field': 'country', 'op': 'exists'}");
+        List<Map<String, Object>> tenants = List.of(
+                Map.of("tenant", Map.of("tier", "gold", "limit", 150), "flags", List.of("beta")),
+                Map.of("tenant", Map.of("tier", "silver"), "flags", List.of()),
+                Map.of("tenant", Map.of("limit", 50)),
+                Map.of());
+        Object[] amounts = {null, 5, 15, 30, 55, 55.5, "9", "4x", "abc"};
+        Object[] countries = {null, "DE", "US"};
+
+        Random random = new Random(22);
+        for (int i = 0; i < 300; i++) {
+            String json = randomRule(random, conditions, 3);
+            CompiledRule rule = compile(json);
+            for (Map<String, Object> tenant : tenants) {
+                SpecializedRule specialized = specializer.specialize(rule, tenant);
+                assertTrue(specialized.getConditions() <= specialized.getOriginalConditions(), json);
+                for (Object amount : amounts) {
+                    for (Object country : countries) {
+                        Map<String, Object> record = new HashMap<>(tenant);
+                        if (amount != null) record.put("amount", amount);
+                        if (country != null) record.put("country", country);
+                        assertEquals(rule.evaluate(record), specialized.getRule().evaluate(record),
+                                json + " on " + record);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String randomRule(Random random, List<String> conditions, int depth) {
+        int kind = depth == 0 ? 0 : random.nextInt(4);
+        if (kind == 0) return conditions.get(random.nextInt(conditions.size()));
+        if (kind == 1) return "{'not': " + randomRule(random, conditions, depth - 1) + "}";
+        StringBuilder sb = new StringBuilder(kind == 2 ? "{'all': [" : "{'any': [");
+        int children = random.nextInt(4);
+        for (int i = 0; i < children; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(randomRule(random, conditions, depth - 1));
+        }
+        return sb.append("]}").toString();
+    }
+}
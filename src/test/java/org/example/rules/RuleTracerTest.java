@@ -0,0 +1,146 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleTracerTest {
+
+    private final RuleCompiler compiler = new RuleCompiler();
+
+    private CompiledRule compile(String json) throws Exception {
+        return compiler.compile(TestJson.parse(json));
+    }
+
+    @Test
+    void testTraceRecordsValuesAndShortCircuits() throws Exception {
+        CompiledRule rule = compile("{'any': ["
+                + "{'field': 'country', 'op': 'eq', 'value': 'US'},"
+                + "{'field': 'tier', 'op': 'eq', 'value': 'gold'},"
+                + "{'field': 'country', 'op': 'eq', 'value': 'CA'}]}");
+        RuleTracer tracer = new RuleTracer(100, 1000);
+
+        EvaluationTrace trace = tracer.trace(rule, Map.of("country", "FR", "tier", "gold"));
+        TraceNode root = trace.getRoot();
+        assertTrue(root.isResult());
+        assertEquals(3, trace.getNodes());
+        assertFalse(trace.isTruncated());
+        assertEquals(2, root.getChildren().size());
+        assertEquals(1, root.getSkipped());
+        TraceNode country = root.getChildren().get(0);
+        assertEquals("country eq US", country.getNode());
+        assertEquals("FR", country.getLeft());
+        assertFalse(country.isResult());
+        assertTrue(root.getChildren().get(1).isResult());
+
+        EvaluationTrace noTier = tracer.trace(rule, Map.of("country", "FR"));
+        assertFalse(noTier.getRoot().isResult());
+        assertEquals(4, noTier.getNodes());
+        assertNull(noTier.getRoot().getSkipped());
+        assertEquals(Boolean.TRUE, noTier.getRoot().getChildren().get(1).getMissing());
+
+        TraceNode not = tracer.trace(compile("{'not': {'field': 'flags.blocked', 'op': 'exists'}}"),
+                Map.of("flags", Map.of())).getRoot();
+        assertEquals("not", not.getNode());
+        assertTrue(not.isResult());
+        assertEquals(Boolean.TRUE, not.getChildren().get(0).getMissing());
+    }
+
+    @Test
+    void testTraceIsBounded() throws Exception {
+        StringBuilder json = new StringBuilder("{'all': [");
+        for (int i = 0; i < 50; i++) {
+            if (i > 0) json.append(", ");
+            json.append("{'field': 'n', 'op': 'gt', 'value': ").append(-i).append("}");
+        }
+        CompiledRule rule = compile(json.append("]}").toString());
+        RuleTracer tracer = new RuleTracer(10, 25);
+
+        EvaluationTrace trace = tracer.trace(rule, Map.of("n", 1));
+        assertTrue(trace.getRoot().isResult());
+        assertEquals(10, trace.getNodes());
+        assertTrue(trace.isTruncated());
+        assertEquals(9, trace.getRoot().getChildren().size());
+        assertEquals(Boolean.TRUE, trace.getRoot().getTruncated());
+
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) records.add(Map.of("n", i));
+        List<EvaluationTrace> traces = tracer.trace(rule, records);
+        assertEquals(3, traces.size());
+        assertEquals(5, traces.get(2).getNodes());
+        assertTrue(traces.get(2).getRoot().isResult());
+
+        String longText = "x".repeat(1000);
+        TraceNode condition = new RuleTracer(10, 10).trace(compile("{'field': 's', 'op': 'eq', 'value': 'y'}"),
+                Map.of("s", longText)).getRoot();
+        assertTrue(((String) condition.getLeft()).length() < 300);
+    }
+
+    @Test
+    void testTracedValuesAreBoundedInTotal() throws Exception {
+        RuleTracer tracer = new RuleTracer(10, 10);
+        String huge = "x".repeat(1_000_000);
+        Map<String, Object> nested = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            nested.put("k" + i, Map.of("text", huge, "list", List.of(huge, huge)));
+        }
+
+        Object list = tracer.trace(compile("{'field': 'tags', 'op': 'contains', 'value': 'y'}"),
+                Map.of("tags", List.of(huge, huge, huge))).getRoot().getLeft();
+        assertTrue(new ObjectMapper().writeValueAsString(list).length() < 2_000);
+        assertEquals(3, ((List<?>) list).size());
+
+        Object map = tracer.trace(compile("{'field': 'meta', 'op': 'exists'}"), Map.of("meta", nested))
+                .getRoot().getLeft();
+        String json = new ObjectMapper().writeValueAsString(map);
+        assertTrue(json.length() < 2_000, json);
+        assertTrue(json.contains("more fields"), json);
+    }
+
+    @Test
+    void testTracedResultMatchesEvaluation() throws Exception {
+        List<String> conditions = List.of(
+                "{'field': 'a', 'op': 'gt', 'value': 3}",
+                "{'field': 'a', 'op': 'in', 'value': [1, 2, 'x']}",
+                "{'field': 'b.c', 'op': 'exists'}",
+                "{'field': 'b.c', 'op': 'eq', 'value': true}",
+                "{'field': 'a', 'op': 'isNull'}");
+        Object[] as = {null, 1, 2, 5, "x"};
+        Object[] bs = {null, Map.of(), Map.of("c", true), Map.of("c", false)};
+        RuleTracer tracer = new RuleTracer(5, 1000);
+        Random random = new Random(23);
+        for (int i = 0; i < 200; i++) {
+            CompiledRule rule = compile(randomRule(random, conditions, 3));
+            for (Object a : as) {
+                for (Object b : bs) {
+                    Map<String, Object> data = new HashMap<>();
+                    data.put("a", a);
+                    if (b != null) data.put("b", b);
+                    EvaluationTrace trace = tracer.trace(rule, data);
+                    assertEquals(rule.evaluate(data), trace.getRoot().isResult(), rule.getSource() + " on " + data);
+                    assertTrue(trace.getNodes() <= 5);
+                }
+            }
+        }
+    }
+
+    private static String randomRule(Random random, List<String> conditions, int depth) {
+        int kind = depth == 0 ? 0 : random.nextInt(4);
+        if (kind == 0) return conditions.get(random.nextInt(conditions.size()));
+        if (kind == 1) return "{'not': " + randomRule(random, conditions, depth - 1) + "}";
+        StringBuilder sb = new StringBuilder(kind == 2 ? "{'all': [" : "{'any': [");
+        int children = random.nextInt(4);
+        for (int i = 0; i < children; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(randomRule(random, conditions, depth - 1));
+        }
+        return sb.append("]}").toString();
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.config.RuleEngineProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StackEvaluatorTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private static RuleCompiler compiler(long maxSteps, int stackDepth) {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.getLimits().setMaxDepth(0);
+        properties.getLimits().setMaxSteps(maxSteps);
+        properties.getLimits().setStackDepth(stackDepth);
+        return new RuleCompiler(properties);
+    }
+
+    @Test
+    void testDeepTreesDoNotOverflow() {
+        // Far deeper than the thread stack allows for recursion
+        RuleNode node = new ConditionNode(new PathTable().intern("a"), Operator.exists, null, null, null);
+        for (int i = 0; i < 200_000; i++) {
+            node = i % 3 == 0 ? new NotNode(node)
+                    : i % 3 == 1 ? new AllNode(new RuleNode[]{node}) : new AnyNode(new RuleNode[]{node});
+        }
+        RuleNode root = node;
+        StackEvaluator evaluator = new StackEvaluator(0);
+        // 66,667 negations: an odd number, so the result is the opposite of the condition
+        assertFalse(evaluator.evaluate(root, new EvaluationContext(Map.of("a", 1))));
+        assertTrue(evaluator.evaluate(root, new EvaluationContext(Map.of())));
+
+        assertThrows(EvaluationBudgetExceededException.class,
+                () -> new StackEvaluator(1000).evaluate(root, new EvaluationContext(Map.of())));
+    }
+
+    @Test
+    void testDeepRuleCompilesToStackEvaluation() throws Exception {
+        StringBuilder json = new StringBuilder();
+        for (int i = 0; i < 500; i++) json.append("{\"not\": ");
+        json.append("{\"field\": \"a\", \"op\": \"exists\"}");
+        for (int i = 0; i < 500; i++) json.append('}');
+        CompiledRule rule = compiler(0, 200).compile(mapper.readTree(json.toString()));
+        assertTrue(rule.evaluate(Map.of("a", 1)));
+        assertFalse(rule.evaluate(Map.of()));
+    }
+
+    @Test
+    void testStepBudget() throws Exception {
+        RuleCompiler compiler = compiler(100, 200);
+        CompiledRule contains = compiler.compile(mapper.readTree(
+                "{\"all\": [{\"field\": \"tags\", \"op\": \"contains\", \"value\": \"x\"}]}"));
+        assertTrue(contains.evaluate(Map.of("tags", List.of("a", "x"))));
+        List<String> manyTags = IntStream.range(0, 1000).mapToObj(i -> "t" + i).toList();
+        EvaluationBudgetExceededException e = assertThrows(EvaluationBudgetExceededException.class,
+                () -> contains.evaluate(Map.of("tags", manyTags)));
+        assertTrue(e.getMessage().contains("100 steps"));
+
+        StringBuilder wide = new StringBuilder("[");
+        for (int i = 0; i < 150; i++) {
+            if (i > 0) wide.append(", ");
+            wide.append("{\"field\": \"f").append(i).append("\", \"op\": \"not_exists\"}");
+        }
+        CompiledRule large = compiler.compile(mapper.readTree(wide.append("]").toString()));
+        assertFalse(large.evaluate(Map.of("f3", 1)));
+        assertThrows(EvaluationBudgetExceededException.class, () -> large.evaluate(Map.of()));
+    }
+
+    @Test
+    void testBudgetCoversRuleSetsAndTracesButNotColumnarBatches() throws Exception {
+        RuleCompiler compiler = compiler(100, 200);
+        CompiledRule contains = compiler.compile(mapper.readTree(
+                "{\"all\": [{\"field\": \"kind\", \"op\": \"exists\"}, {\"field\": \"tags\", \"op\": \"contains\", \"value\": \"x\"}]}"));
+        List<String> manyTags = IntStream.range(0, 1000).mapToObj(i -> "t" + i).toList();
+        Map<String, Object> small = Map.of("kind", 1, "tags", List.of("a", "x"));
+        Map<String, Object> large = Map.of("kind", 1, "tags", manyTags);
+
+        RuleSet set = RuleSet.of(Map.of("contains", contains));
+        assertEquals(List.of("contains"), set.match(small));
+        assertThrows(EvaluationBudgetExceededException.class, () -> set.match(large));
+        DecisionTable table = DecisionTable.compile(mapper.readTree("{\"rows\": [{\"rule\": "
+                + contains.getSource() + ", \"outcome\": \"hit\"}]}"), compiler);
+        assertEquals(List.of("0"), table.evaluate(small).getMatched());
+        assertThrows(EvaluationBudgetExceededException.class, () -> table.evaluate(large));
+
+        assertTrue(new RuleTracer(100, 1000).trace(contains, small).getRoot().isResult());
+        assertThrows(EvaluationBudgetExceededException.class, () -> new RuleTracer(100, 1000).trace(contains, large));
+        // The contains condition is past the trace limit and evaluated unrecorded, still within the budget
+        assertThrows(EvaluationBudgetExceededException.class, () -> new RuleTracer(2, 1000).trace(contains, large));
+
+        StringBuilder wide = new StringBuilder("[");
+        for (int i = 0; i < 150; i++) {
+            if (i > 0) wide.append(", ");
+            wide.append("{\"field\": \"f").append(i).append("\", \"op\": \"not_exists\"}");
+        }
+        CompiledRule oversized = compiler.compile(mapper.readTree(wide.append("]").toString()));
+        assertThrows(EvaluationBudgetExceededException.class, () -> oversized.evaluate(Map.of()));
+        // Columns hold scalars: the work is the rule's size times the row count, not data-dependent
+        assertEquals(2, oversized.evaluate(ColumnarBatch.builder(2).longColumn("g", new long[2]).build()).cardinality());
+    }
+
+    @Test
+    void testRuleSetsWithSharedSubtreesMatchRecursion() throws Exception {
+        List<String> conditions = List.of(
+                "{'field': 'a', 'op': 'gt', 'value': 3}",
+                "{'field': 'b', 'op': 'contains', 'value': 'y'}",
+                "{'field': 'b', 'op': 'exists'}");
+        RuleCompiler recursive = compiler(0, 200);
+        RuleCompiler stack = compiler(1_000_000, 0);
+        Random random = new Random(2);
+        for (int n = 0; n < 30; n++) {
+            Map<String, CompiledRule> expected = new LinkedHashMap<>();
+            Map<String, CompiledRule> actual = new LinkedHashMap<>();
+            for (int i = 0; i < 8; i++) {
+                String json = TestJson.text(randomRule(random, conditions, 3));
+                expected.put("r" + i, recursive.compile(mapper.readTree(json)));
+                actual.put("r" + i, stack.compile(mapper.readTree(json)));
+            }
+            RuleSet expectedSet = RuleSet.of(expected);
+            RuleSet actualSet = RuleSet.of(actual);
+            for (Object a : new Object[]{null, 1, 5}) {
+                for (Object b : new Object[]{null, List.of(), List.of("y")}) {
+                    Map<String, Object> data = new HashMap<>();
+                    data.put("a", a);
+                    if (b != null) data.put("b", b);
+                    assertEquals(expectedSet.match(data), actualSet.match(data), expected + " on " + data);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSameResultsAsRecursion() throws Exception {
+        List<String> conditions = List.of(
+                "{'field': 'a', 'op': 'gt', 'value': 3}",
+                "{'field': 'a', 'op': 'in', 'value': [1, 2, 'x']}",
+                "{'field': 'b', 'op': 'contains', 'value': 'y'}",
+                "{'field': 'b', 'op': 'exists'}",
+                "{'field': 'a', 'op': 'isNull'}");
+        Object[] as = {null, 1, 2, 5, "x"};
+        Object[] bs = {null, List.of(), List.of("y"), "xyz"};
+        RuleCompiler recursive = compiler(0, 200);
+        RuleCompiler stack = compiler(1_000_000, 0);
+        Random random = new Random(24);
+        for (int i = 0; i < 300; i++) {
+            String json = TestJson.text(randomRule(random, conditions, 4));
+            CompiledRule expected = recursive.compile(mapper.readTree(json));
+            CompiledRule actual = stack.compile(mapper.readTree(json));
+            for (Object a : as) {
+                for (Object b : bs) {
+                    Map<String, Object> data = new HashMap<>();
+                    data.put("a", a);
+                    if (b != null) data.put("b", b);
+                    assertEquals(expected.evaluate(data), actual.evaluate(data), json + " on " + data);
+                }
+            }
+        }
+    }
+
+    private static String randomRule(Random random, List<String> conditions, int depth) {
+        int kind = depth == 0 ? 0 : random.nextInt(4);
+        if (kind == 0) return conditions.get(random.nextInt(conditions.size()));
+        if (kind == 1) return "{'not': " + randomRule(random, conditions, depth - 1) + "}";
+        StringBuilder sb = new StringBuilder(kind == 2 ? "{'all': [" : "{'any': [");
+        int children = random.nextInt(4);
+        for (int i = 0; i < children; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(randomRule(random, conditions, depth - 1));
+        }
+        return sb.append("]}").toString();
+    }
+}
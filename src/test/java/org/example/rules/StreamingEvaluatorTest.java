@@ -0,0 +1,90 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.config.RuleEngineProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingEvaluatorTest {
+
+    private static final String DOCUMENT = TestJson.text("{'user': {'age': 33, 'name': 'Alice', 'phone': null, 'tags': ['gold', 'vip'],"
+            + " 'address': {'city': 'Paris', 'zip': '75001'}},"
+            + " 'items': [{'sku': 'A-1', 'qty': 2}, {'sku': 'B-2', 'qty': 1.5}],"
+            + " 'ignored': {'deep': [1, 2, {'x': [3, 4]}]}, 'flag': true}");
+
+    private static final List<String> RULES = List.of(
+            "{'field': 'user.age', 'op': 'gte', 'value': 21}",
+            "{'field': 'user.tags', 'op': 'contains', 'value': 'vip'}",
+            "{'field': 'user.phone', 'op': 'isNull'}",
+            "{'field': 'user.phone', 'op': 'exists'}",
+            "{'field': 'user.fax', 'op': 'not_exists'}",
+            "{'field': 'user.address', 'op': 'exists'}",
+            "{'all': [{'field': 'user', 'op': 'exists'}, {'field': 'user.address.city', 'op': 'eq', 'value': 'Paris'}]}",
+            "{'field': 'items.1.qty', 'op': 'eq', 'value': 1.5}",
+            "{'field': 'items.1.sku', 'op': 'regex', 'value': '^B-'}",
+            "{'field': 'items.3.sku', 'op': 'exists'}",
+            "{'field': 'user.age.x', 'op': 'exists'}",
+            "{'field': 'flag', 'op': 'eq', 'value': true}",
+            "{'any': [{'field': 'user.address.zip', 'op': 'in', 'value': ['75001', '75002']}, {'field': 'nope', 'op': 'exists'}]}");
+
+    private ObjectMapper mapper;
+    private RuleCompiler compiler;
+    private StreamingEvaluator streaming;
+
+    @BeforeEach
+    void setUp() {
+        mapper = new ObjectMapper();
+        compiler = new RuleCompiler();
+        streaming = new StreamingEvaluator(mapper);
+    }
+
+    private CompiledRule compile(String json) throws Exception {
+        return compiler.compile(TestJson.parse(json));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAgreesWithMapEvaluation() throws Exception {
+        Map<String, Object> data = mapper.readValue(DOCUMENT, Map.class);
+        for (String json : RULES) {
+            CompiledRule rule = compile(json);
+            String body = "{\"before\": [1, {\"data\": 0}], \"data\": " + DOCUMENT + ", \"after\": \"x\"}";
+            boolean streamed = streaming.evaluateRequest(rule,
+                    new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+            assertEquals(rule.evaluate(data), streamed, json);
+            assertEquals(rule.evaluate(data), streaming.evaluateData(rule, mapper.getFactory().createParser(DOCUMENT)), json);
+        }
+    }
+
+    @Test
+    void testHighListIndexesAreStoredSparsely() throws Exception {
+        // Without the compile-time index limit, a path on element 999999999 must not size anything by its index
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.getLimits().setMaxListIndex(0);
+        CompiledRule rule = new RuleCompiler(properties).compile(mapper.readTree(
+                "{\"any\": [{\"field\": \"items.999999999\", \"op\": \"exists\"},"
+                        + " {\"field\": \"items.1\", \"op\": \"eq\", \"value\": 2},"
+                        + " {\"field\": \"items.7\", \"op\": \"eq\", \"value\": 8}]}"));
+        assertTrue(streaming.evaluateData(rule, "{\"items\": [1, 2, 3]}".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(streaming.evaluateData(rule, "{\"items\": [1, 5, 3]}".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(streaming.evaluateData(rule, "{\"items\": [0, 0, 0, 0, 0, 0, 0, 8]}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testRequestWithoutDataIsRejected() throws Exception {
+        CompiledRule rule = compile("{'field': 'a', 'op': 'exists'}");
+        assertThrows(IllegalArgumentException.class, () -> streaming.evaluateRequest(rule,
+                new ByteArrayInputStream("{\"rule\": {}}".getBytes(StandardCharsets.UTF_8))));
+        assertThrows(IllegalArgumentException.class, () -> streaming.evaluateRequest(rule,
+                new ByteArrayInputStream("{\"data\": [1]}".getBytes(StandardCharsets.UTF_8))));
+        assertThrows(IllegalArgumentException.class, () -> streaming.evaluateRequest(rule,
+                new ByteArrayInputStream("{\"data\": {\"a\": ".getBytes(StandardCharsets.UTF_8))));
+    }
+}
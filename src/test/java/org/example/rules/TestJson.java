@@ -0,0 +1,32 @@
+package org.example.rules;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.UncheckedIOException;
+
+/**
+ * JSON fixtures for tests, written with single quotes so they read without escaping inside Java strings.
+ * Fixtures must not contain apostrophes of their own.
+ */
+public final class TestJson {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private TestJson() {
+    }
+
+    /** The fixture with its single quotes turned into double quotes. */
+    public static String text(String json) {
+        return json.replace('\'', '"');
+    }
+
+    public static JsonNode parse(String json) {
+        try {
+            return MAPPER.readTree(text(json));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
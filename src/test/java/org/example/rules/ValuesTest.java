@@ -0,0 +1,94 @@
+package org.example.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ValuesTest {
+
+    @Test
+    void testNumericCoercion() {
+        assertEquals(0, Values.compare(30, Operand.of(30L)));
+        assertEquals(0, Values.compare(5.0, Operand.of(5L)));
+        assertEquals(0, Values.compare(0.1, Operand.of(new BigDecimal("0.1"))));
+        assertEquals(0, Values.compare("10", Operand.of(10L)));
+        assertEquals(0, Values.compare(5L, Operand.of("5.0")));
+        assertTrue(Values.compare(9, Operand.of("10")) < 0);
+        assertTrue(Values.compare(3, Operand.of(new BigDecimal("2.5"))) > 0);
+        assertTrue(Values.compare(2, Operand.of(new BigDecimal("2.5"))) < 0);
+        assertTrue(Values.compare(-3, Operand.of(new BigDecimal("-2.5"))) < 0);
+        assertTrue(Values.compare(Long.MAX_VALUE, Operand.of(new BigDecimal("1e30"))) < 0);
+        assertTrue(Values.compare(new BigDecimal("12345678901234567890.5"), Operand.of(1L)) > 0);
+        assertTrue(Values.compare("123456789012345678901", Operand.of(1L)) > 0);
+    }
+
+    @Test
+    void testInstantsOnlyWhenConstantIsATimestamp() {
+        assertEquals(0, Values.compare("2024-01-30T12:00:00.000Z", Operand.of("2024-01-30T12:00:00Z")));
+        assertTrue(Values.compare("2024-01-30T13:00:00Z", Operand.of("2024-01-30T12:00:00Z")) > 0);
+        assertTrue(Values.compare("2024-01-30T12:00:00.000000001Z", Operand.of("2024-01-30T12:00:00Z")) > 0);
+        assertTrue(Values.compare("2024-01-30T13:00:00+02:00", Operand.of("2024-01-30T12:00:00Z")) < 0);
+        assertTrue(Values.compare("1969-12-31T23:59:59Z", Operand.of("1970-01-01T00:00:00Z")) < 0);
+        for (String s : List.of("2024-02-29T23:59:59.5Z", "2000-03-01T00:00:00Z", "1900-02-28T01:02:03.123Z", "0001-01-01T00:00:00Z")) {
+            assertEquals(0, Values.compare(s, Operand.of(java.time.Instant.parse(s).toString())), s);
+        }
+        // Not a timestamp constant: plain string ordering
+        assertTrue(Values.compare("2024-01-30T12:00:00Z", Operand.of("2024-01-30")) > 0);
+        assertTrue(Values.compare("2024-01-30", Operand.of("2024-02-01")) < 0);
+    }
+
+    @Test
+    void testStringAndFallbackOrdering() {
+        assertEquals(0, Values.compare("US", Operand.of("US")));
+        assertTrue(Values.compare("CA", Operand.of("US")) < 0);
+        assertEquals(0, Values.compare(true, Operand.of(true)));
+        assertEquals(0, Values.compare(true, Operand.of("true")));
+        assertTrue(Values.compare("abc", Operand.of(5L)) > 0);
+        assertEquals(0, Values.compare(List.of(1), Operand.of(List.of(1L))));
+        assertEquals(0, Values.compare(null, Operand.of(null)));
+        assertTrue(Values.compare(null, Operand.of("x")) < 0);
+        assertTrue(Values.compare("x", Operand.of(null)) > 0);
+    }
+
+    @Test
+    void testLooksNumericMatchesBigDecimalGrammar() {
+        for (String s : List.of("0", "-1", "+2", "3.5", ".5", "5.", "1e3", "1.5E-7", "007")) {
+            assertTrue(Values.looksNumeric(s), s);
+            assertDoesNotThrow(() -> new BigDecimal(s));
+        }
+        for (String s : List.of("", "-", ".", "e5", "1e", "1.2.3", "US", "12a", " 1", "0x10")) {
+            assertFalse(Values.looksNumeric(s), s);
+        }
+    }
+
+    @Test
+    void testCommonComparisonsDoNotAllocate() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        Operand country = Operand.of("US");
+        Operand age = Operand.of(21L);
+        Operand since = Operand.of("2024-01-01T00:00:00Z");
+        Object[] lefts = {"CA", "US", 30, 12, 21.5, "2024-06-15T08:30:00.250Z"};
+        Operand[] rights = {country, country, age, age, age, since};
+        int sink = 0;
+        for (int i = 0; i < 10_000; i++) {
+            sink += Values.compare(lefts[i % 6], rights[i % 6]);
+        }
+
+        long tid = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < 100_000; i++) {
+            sink += Values.compare(lefts[i % 6], rights[i % 6]);
+        }
+        long allocated = threads.getThreadAllocatedBytes(tid) - before;
+
+        assertTrue(allocated < 1024, "allocated " + allocated + " bytes (" + sink + ")");
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.rules.registry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.rules.CompiledRule;
+import org.example.rules.RuleCompiler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompiledRuleCacheTest {
+
+    private CompiledRule rule;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        rule = new RuleCompiler().compile(new ObjectMapper().readTree("{\"field\": \"a\", \"op\": \"exists\"}"));
+    }
+
+    @Test
+    void testHitsMissesAndLruEviction() {
+        CompiledRuleCache cache = new CompiledRuleCache(2);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("a", 1, () -> { loads.incrementAndGet(); return rule; });
+        cache.get("b", 1, () -> { loads.incrementAndGet(); return rule; });
+        cache.get("a", 1, () -> { loads.incrementAndGet(); return rule; }); // hit, 'a' becomes most recent
+        cache.get("c", 1, () -> { loads.incrementAndGet(); return rule; }); // evicts 'b'
+        cache.get("a", 1, () -> { loads.incrementAndGet(); return rule; }); // still cached
+        cache.get("b", 1, () -> { loads.incrementAndGet(); return rule; }); // reloaded
+
+        CacheStats stats = cache.stats();
+        assertEquals(4, loads.get());
+        assertEquals(2, stats.getHits());
+        assertEquals(4, stats.getMisses());
+        assertEquals(2, stats.getEvictions());
+        assertEquals(2, stats.getSize());
+    }
+
+    @Test
+    void testNewerVersionIsAMiss() {
+        CompiledRuleCache cache = new CompiledRuleCache(10);
+        cache.put("a", 1, rule);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("a", 2, () -> { loads.incrementAndGet(); return rule; });
+        cache.get("a", 2, () -> { loads.incrementAndGet(); return rule; });
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().getHits());
+    }
+}
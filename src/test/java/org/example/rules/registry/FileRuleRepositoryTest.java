@@ -0,0 +1,97 @@
+package org.example.rules.registry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.config.RuleEngineProperties;
+import org.example.rules.RuleEngineService;
+import org.example.rules.RuleMetrics;
+import org.example.rules.TestJson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileRuleRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    private FileRuleRepository repository;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (repository != null) repository.destroy();
+    }
+
+    private RuleRegistry start(boolean watch) throws Exception {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.getRepository().setDirectory(directory.toString());
+        properties.getRepository().setWatch(watch);
+        properties.getRepository().setDebounceMillis(50);
+        RuleRegistry registry = new RuleRegistry(new RuleEngineService(), new RuleMetrics(new SimpleMeterRegistry()), properties);
+        repository = new FileRuleRepository(registry, new ObjectMapper(), properties);
+        repository.afterPropertiesSet();
+        return registry;
+    }
+
+    private void write(String name, String json) throws Exception {
+        // Write then rename, the way editors and deploy tools replace files
+        Path tmp = directory.resolve("." + name + ".tmp");
+        Files.writeString(tmp, TestJson.text(json));
+        Files.move(tmp, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 200 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    void testLoadsDirectoryAndSkipsInvalidFiles() throws Exception {
+        write("adult.json", "{'field': 'age', 'op': 'gte', 'value': 18}");
+        write("broken.json", "{'field': 'age', 'op': 'nope'}");
+        write("malformed.json", "{'field': ");
+        write("notes.txt", "not a rule");
+
+        RuleRegistry registry = start(false);
+
+        assertEquals(Set.of("adult"), repository.getRuleIds());
+        assertTrue(registry.get("adult").evaluate(Map.of("age", 20)));
+        assertEquals(Set.of("broken", "malformed"), repository.getErrors().keySet());
+        assertThrows(RuleNotFoundException.class, () -> registry.describe("broken"));
+        assertThrows(RuleNotFoundException.class, () -> registry.describe("notes"));
+    }
+
+    @Test
+    void testWatchReloadsChangedAndDeletedFiles() throws Exception {
+        write("adult.json", "{'field': 'age', 'op': 'gte', 'value': 18}");
+        write("vip.json", "{'field': 'vip', 'op': 'eq', 'value': true}");
+        RuleRegistry registry = start(true);
+        assertEquals(1, registry.describe("adult").getVersion());
+
+        write("adult.json", "{'field': 'age', 'op': 'gte', 'value': 21}");
+        write("senior.json", "{'field': 'age', 'op': 'gte', 'value': 65}");
+        await(() -> repository.getRuleIds().contains("senior") && registry.describe("adult").getVersion() == 2);
+        assertFalse(registry.get("adult").evaluate(Map.of("age", 20)));
+        assertTrue(registry.get("senior").evaluate(Map.of("age", 70)));
+
+        // An invalid edit keeps the last good version
+        write("adult.json", "{'field': 'age', 'op': 'between', 'value': 3}");
+        await(() -> repository.getErrors().containsKey("adult"));
+        assertEquals(2, registry.describe("adult").getVersion());
+
+        Files.delete(directory.resolve("vip.json"));
+        await(() -> !repository.getRuleIds().contains("vip"));
+        assertThrows(RuleNotFoundException.class, () -> registry.describe("vip"));
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.rules.registry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.example.config.RuleEngineProperties;
+import org.example.rules.CompiledRule;
+import org.example.rules.ResultCache;
+import org.example.rules.RuleEngineService;
+import org.example.rules.RuleMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleRegistryTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRemoveDuringPublishLeavesNoCacheEntryOrMeters() throws Exception {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        RuleRegistry[] registry = new RuleRegistry[1];
+        CompletableFuture<Boolean>[] removal = new CompletableFuture[1];
+        RuleMetrics metrics = new RuleMetrics(meters) {
+            @Override
+            public void bindResultCache(String ruleId, ResultCache cache) {
+                if (cache != null && removal[0] == null) {
+                    // A delete arriving while the new version is published; it may only run once publishing is done
+                    removal[0] = CompletableFuture.supplyAsync(() -> registry[0].remove(ruleId));
+                    try {
+                        removal[0].get(200, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        // blocked on the registry's write lock
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                super.bindResultCache(ruleId, cache);
+            }
+        };
+        registry[0] = new RuleRegistry(new RuleEngineService(), metrics, new RuleEngineProperties());
+        registry[0].register("racy", new ObjectMapper().readTree("{\"field\": \"age\", \"op\": \"gte\", \"value\": 21}"),
+                true);
+
+        assertTrue(removal[0].get(5, TimeUnit.SECONDS));
+        assertThrows(RuleNotFoundException.class, () -> registry[0].describe("racy"));
+        assertEquals(0, registry[0].cacheStats().getSize());
+        assertNull(meters.find("rule.engine.result_cache.hits").tag("rule", "racy").meter());
+    }
+
+    @Test
+    void testEvaluationFinishingAfterRemoveDoesNotRecreateTimer() throws Exception {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        RuleMetrics metrics = new RuleMetrics(meters);
+        RuleRegistry registry = new RuleRegistry(new RuleEngineService(), metrics, new RuleEngineProperties());
+        registry.register("churn", new ObjectMapper().readTree("{\"field\": \"age\", \"op\": \"gte\", \"value\": 21}"));
+        metrics.recordEvaluation("churn", 1_000);
+        assertEquals(1, meters.get("rule.engine.evaluate").tag("rule", "churn").timer().count());
+
+        // An evaluation that started before the delete and is recorded after it
+        registry.remove("churn");
+        metrics.recordEvaluation("churn", 1_000);
+        assertNull(meters.find("rule.engine.evaluate").tag("rule", "churn").meter());
+    }
+
+    @Test
+    void testSlowLoadOfDeletedRuleDoesNotReplaceReRegisteredRule() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode adult = mapper.readTree("{\"field\": \"age\", \"op\": \"gte\", \"value\": 21}");
+        JsonNode minor = mapper.readTree("{\"field\": \"age\", \"op\": \"lt\", \"value\": 21}");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch replaced = new CountDownLatch(1);
+        AtomicBoolean hold = new AtomicBoolean();
+        RuleEngineService service = new RuleEngineService() {
+            @Override
+            public CompiledRule compile(JsonNode rule) {
+                CompiledRule compiled = super.compile(rule);
+                if (rule == adult && hold.getAndSet(false)) {
+                    loading.countDown();
+                    try {
+                        replaced.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return compiled;
+            }
+        };
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.getCache().setMaxSize(1);
+        RuleRegistry registry = new RuleRegistry(service, new RuleMetrics(new SimpleMeterRegistry()), properties);
+        registry.register("r", adult);
+        registry.register("other", adult); // evicts r
+
+        // Recompiles the evicted v1 of r, and is held until r has been deleted and registered again as v1
+        hold.set(true);
+        CompletableFuture<CompiledRule> stale = CompletableFuture.supplyAsync(() -> registry.get("r"));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        registry.remove("r");
+        assertEquals(1, registry.register("r", minor).getVersion());
+        replaced.countDown();
+        assertTrue(stale.get(5, TimeUnit.SECONDS).evaluate(Map.of("age", 33)));
+
+        assertTrue(registry.get("r").evaluate(Map.of("age", 12)));
+        assertFalse(registry.get("r").evaluate(Map.of("age", 33)));
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.rules.registry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.config.RuleEngineProperties;
+import org.example.rules.RuleEngineService;
+import org.example.rules.RuleMetrics;
+import org.example.rules.RuleSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleSnapshotLoaderTest {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private static RuleRegistry registry(RuleEngineProperties properties) {
+        return new RuleRegistry(new RuleEngineService(), new RuleMetrics(new SimpleMeterRegistry()), properties);
+    }
+
+    private RuleRegistry load(Path file, int cacheSize) throws Exception {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.getSnapshot().setPath(file.toString());
+        properties.getCache().setMaxSize(cacheSize);
+        RuleRegistry registry = registry(properties);
+        new RuleSnapshotLoader(registry, properties).afterPropertiesSet();
+        return registry;
+    }
+
+    private RuleRegistry source() throws Exception {
+        RuleRegistry registry = registry(new RuleEngineProperties());
+        registry.register("login", mapper.readTree("{\"field\": \"type\", \"op\": \"eq\", \"value\": \"login\"}"));
+        registry.register("big", mapper.readTree("{\"all\": [{\"field\": \"type\", \"op\": \"eq\", \"value\": \"purchase\"},"
+                + " {\"field\": \"amount\", \"op\": \"gte\", \"value\": 100}]}"), true);
+        registry.register("big", mapper.readTree("{\"all\": [{\"field\": \"type\", \"op\": \"eq\", \"value\": \"purchase\"},"
+                + " {\"field\": \"amount\", \"op\": \"gte\", \"value\": 500}]}"), true);
+        registry.register("eu", mapper.readTree("{\"field\": \"country\", \"op\": \"in\", \"value\": [\"DE\", \"FR\"]}"));
+        return registry;
+    }
+
+    @Test
+    void testImportsExportedRules() throws Exception {
+        RuleRegistry source = source();
+        Path file = directory.resolve("rules.snapshot");
+        Files.write(file, source.exportSnapshot());
+
+        // A cache of one rule, so lookups re-decode evicted rules from the snapshot
+        RuleRegistry loaded = load(file, 1);
+        for (String id : List.of("login", "big", "eu")) {
+            RegisteredRule expected = source.describe(id);
+            RegisteredRule actual = loaded.describe(id);
+            assertEquals(expected.getVersion(), actual.getVersion());
+            assertEquals(expected.isResultCache(), actual.isResultCache());
+            assertEquals(expected.getRule(), actual.getRule());
+        }
+        assertNotNull(loaded.get("big").getResultCache());
+        assertNull(loaded.get("eu").getResultCache());
+
+        List<Map<String, Object>> records = List.of(
+                Map.of("type", "login", "country", "DE"),
+                Map.of("type", "purchase", "amount", 600),
+                Map.of("type", "purchase", "amount", 200, "country", "US"));
+        for (Map<String, Object> record : records) {
+            assertEquals(source.match(record).getMatches(), loaded.match(record).getMatches());
+            assertEquals(source.get("big").evaluate(record), loaded.get("big").evaluate(record));
+        }
+        assertTrue(loaded.cacheStats().getEvictions() > 0);
+    }
+
+    @Test
+    void testImportBumpsVersionsOfRegisteredRules() throws Exception {
+        RuleRegistry registry = source();
+        registry.importSnapshot(RuleSnapshot.of(registry.exportSnapshot()));
+        assertEquals(3, registry.describe("big").getVersion());
+        assertEquals(2, registry.describe("login").getVersion());
+    }
+
+    @Test
+    void testMissingSnapshotIsSkippedAndCorruptOneFailsStartup() throws Exception {
+        RuleRegistry empty = load(directory.resolve("missing.snapshot"), 10);
+        assertThrows(RuleNotFoundException.class, () -> empty.describe("login"));
+
+        byte[] bytes = source().exportSnapshot();
+        bytes[bytes.length - 1] ^= 1;
+        Path corrupt = directory.resolve("corrupt.snapshot");
+        Files.write(corrupt, bytes);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> load(corrupt, 10));
+        assertTrue(e.getMessage().endsWith("is corrupt (checksum mismatch)"), e.getMessage());
+    }
+}